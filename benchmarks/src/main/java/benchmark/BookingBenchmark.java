@@ -0,0 +1,76 @@
+package benchmark;
+
+import model.Customer;
+import model.IRoom;
+import model.Reservation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.CustomerService;
+import service.ReservationService;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a single uncontended {@link ReservationService#reserveARoom} call. Every
+ * invocation books the next free night after the generated horizon, so none conflicts.
+ *
+ * @author Haregweyni Temanu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingBenchmark {
+
+    // Distinct check-in dates cycled through; each room is booked once per date
+    private static final int DATE_COUNT = 4096;
+
+    @Param({"500x10000x5000", "5000x300000x100000"})
+    public String dataset;
+
+    private final ReservationService reservationService = ReservationService.getSingleton();
+    private IRoom[] rooms;
+    private Customer[] customers;
+    private Date[] dates;
+    private long bookings;
+
+    @Setup
+    public void setUp() {
+        final HotelDataGenerator generator = new HotelDataGenerator(dataset);
+        generator.populate(CustomerService.getSingleton(), reservationService);
+
+        rooms = generator.getRooms();
+        customers = generator.getCustomers();
+        dates = new Date[DATE_COUNT + 1];
+
+        for (int i = 0; i <= DATE_COUNT; i++) {
+            dates[i] = HotelDataGenerator.date(generator.getHorizonNights() + i);
+        }
+    }
+
+    @Benchmark
+    public Reservation reserveARoom() {
+        final long booking = bookings++;
+        final int room = (int) (booking % rooms.length);
+        final int night = (int) (booking / rooms.length);
+
+        if (night >= DATE_COUNT) {
+            throw new IllegalStateException("Booking horizon exhausted; increase DATE_COUNT");
+        }
+
+        return reservationService.reserveARoom(customers[room % customers.length], rooms[room],
+                dates[night], dates[night + 1]);
+    }
+}
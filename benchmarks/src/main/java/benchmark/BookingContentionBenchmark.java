@@ -0,0 +1,134 @@
+package benchmark;
+
+import model.Customer;
+import model.IRoom;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import service.CustomerService;
+import service.ReservationService;
+import service.RoomUnavailableException;
+
+import java.util.Date;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking throughput under contention at 1 to 32 threads. Every thread books random
+ * rooms for random nights of a ten-year window, so threads collide on the same rooms;
+ * the {@code booked} and {@code conflicts} counters split the outcome of the calls.
+ *
+ * @author Haregweyni Temanu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 4, time = 2)
+@Fork(1)
+public class BookingContentionBenchmark {
+
+    private static final int WINDOW_NIGHTS = 3650;
+    private static final int MAX_STAY_NIGHTS = 3;
+
+    @Param({"1000x0x1000"})
+    public String dataset;
+
+    private final ReservationService reservationService = ReservationService.getSingleton();
+    private IRoom[] rooms;
+    private Customer[] customers;
+    private Date[] dates;
+
+    @Setup
+    public void setUp() {
+        final HotelDataGenerator generator = new HotelDataGenerator(dataset);
+        generator.populate(CustomerService.getSingleton(), reservationService);
+
+        rooms = generator.getRooms();
+        customers = generator.getCustomers();
+        dates = new Date[WINDOW_NIGHTS + MAX_STAY_NIGHTS];
+
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = HotelDataGenerator.date(generator.getHorizonNights() + i);
+        }
+    }
+
+    /**
+     * Per-thread random source and outcome counters.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Booker {
+
+        private SplittableRandom random;
+        public long booked;
+        public long conflicts;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            random = new SplittableRandom(HotelDataGenerator.SEED ^ Thread.currentThread().getId());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void threads01(final Booker booker) {
+        book(booker);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void threads02(final Booker booker) {
+        book(booker);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void threads04(final Booker booker) {
+        book(booker);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void threads08(final Booker booker) {
+        book(booker);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void threads16(final Booker booker) {
+        book(booker);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void threads32(final Booker booker) {
+        book(booker);
+    }
+
+    private void book(final Booker booker) {
+        final SplittableRandom random = booker.random;
+        final int room = random.nextInt(rooms.length);
+        final int night = random.nextInt(WINDOW_NIGHTS);
+        final int nights = 1 + random.nextInt(MAX_STAY_NIGHTS);
+
+        try {
+            reservationService.reserveARoom(customers[room % customers.length], rooms[room],
+                    dates[night], dates[night + nights]);
+            booker.booked++;
+        } catch (RoomUnavailableException ex) {
+            booker.conflicts++;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.CustomerImportReport;
+import service.CustomerImporter;
+import service.CustomerService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to import a generated customer file through {@link CustomerImporter}. One row in
+ * a thousand has an invalid email, so the rejection path is exercised as well.
+ *
+ * @author Haregweyni Temanu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CustomerImportBenchmark {
+
+    private static final int INVALID_ROW_RATIO = 1000;
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"csv", "jsonl"})
+    public String format;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("customers", "." + format);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                final String email = i % INVALID_ROW_RATIO == 0 ? "invalid" + i : HotelDataGenerator.email(i);
+
+                if ("csv".equals(format)) {
+                    writer.write(email + ",First" + i + ",Last" + i);
+                } else {
+                    writer.write("{\"email\":\"" + email + "\",\"firstName\":\"First" + i
+                            + "\",\"lastName\":\"Last" + i + "\"}");
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public CustomerImportReport importCustomers() throws IOException {
+        return new CustomerImporter(CustomerService.getSingleton()).importFile(file);
+    }
+}
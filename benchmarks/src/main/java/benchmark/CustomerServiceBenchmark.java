@@ -0,0 +1,72 @@
+package benchmark;
+
+import model.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.CustomerService;
+import service.ReservationService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link CustomerService} operations and of {@link Customer} construction.
+ *
+ * @author Haregweyni Temanu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerServiceBenchmark {
+
+    private static final int LOOKUP_COUNT = 1024;
+
+    @Param({"500x10000x5000", "5000x300000x100000"})
+    public String dataset;
+
+    private final CustomerService customerService = CustomerService.getSingleton();
+    private String[] lookups;
+    private int customerCount;
+    private int nextLookup;
+    private int nextCustomer;
+
+    @Setup
+    public void setUp() {
+        final HotelDataGenerator generator = new HotelDataGenerator(dataset);
+        generator.populate(customerService, ReservationService.getSingleton());
+
+        customerCount = generator.getCustomers().length;
+        lookups = new String[LOOKUP_COUNT];
+
+        for (int i = 0; i < LOOKUP_COUNT; i++) {
+            lookups[i] = HotelDataGenerator.email((int) ((i * 2654435761L) % customerCount));
+        }
+    }
+
+    @Benchmark
+    public void addCustomer() {
+        final int index = customerCount + nextCustomer++;
+        customerService.addCustomer(HotelDataGenerator.email(index), "First", "Last");
+    }
+
+    @Benchmark
+    public Customer getCustomer() {
+        return customerService.getCustomer(lookups[nextLookup++ & (LOOKUP_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public Customer newCustomer() {
+        return new Customer("First", "Last", lookups[nextLookup++ & (LOOKUP_COUNT - 1)]);
+    }
+}
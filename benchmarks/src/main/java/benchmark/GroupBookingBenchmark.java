@@ -0,0 +1,118 @@
+package benchmark;
+
+import model.Customer;
+import model.EpochDays;
+import model.IRoom;
+import model.Reservation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.DurabilityMode;
+import persistence.Journal;
+import service.CustomerService;
+import service.ReservationService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of booking a group of rooms for one night with
+ * {@link ReservationService#reserveRooms}, against booking the same rooms one by one, with
+ * no journal or with a journal in the given durability mode. Every invocation books nights
+ * after the generated horizon, so none conflicts.
+ *
+ * @author Haregweyni Temanu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupBookingBenchmark {
+
+    @Param({"500x10000x5000"})
+    public String dataset;
+
+    @Param({"20", "200"})
+    public int groupSize;
+
+    @Param({"none", "group_commit"})
+    public String durability;
+
+    private final ReservationService reservationService = ReservationService.getSingleton();
+    private Customer customer;
+    private List<List<IRoom>> groups;
+    private int firstNight;
+    private long bookings;
+    private Path journalFile;
+    private Journal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final HotelDataGenerator generator = new HotelDataGenerator(dataset);
+        generator.populate(CustomerService.getSingleton(), reservationService);
+
+        final IRoom[] rooms = generator.getRooms();
+
+        customer = generator.getCustomers()[0];
+        groups = new ArrayList<>(rooms.length / groupSize);
+        for (int first = 0; first + groupSize <= rooms.length; first += groupSize) {
+            groups.add(Arrays.asList(Arrays.copyOfRange(rooms, first, first + groupSize)));
+        }
+        firstNight = EpochDays.of(HotelDataGenerator.date(generator.getHorizonNights()));
+
+        if (!"none".equals(durability)) {
+            journalFile = Files.createTempFile("bookings", ".journal");
+            journal = Journal.open(journalFile, DurabilityMode.valueOfName(durability), Duration.ZERO);
+            reservationService.setJournal(journal);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (journal != null) {
+            reservationService.setJournal(null);
+            journal.close();
+            Files.deleteIfExists(journalFile);
+        }
+    }
+
+    @Benchmark
+    public List<Reservation> reserveRooms() {
+        final long booking = bookings++;
+        final int night = firstNight + (int) (booking / groups.size());
+
+        return reservationService.reserveRooms(customer, groups.get((int) (booking % groups.size())),
+                night, night + 1);
+    }
+
+    @Benchmark
+    public Reservation reserveARoomEach() {
+        final long booking = bookings++;
+        final int night = firstNight + (int) (booking / groups.size());
+        Reservation last = null;
+
+        for (IRoom room : groups.get((int) (booking % groups.size()))) {
+            last = reservationService.reserveARoom(customer, room, night, night + 1);
+        }
+
+        return last;
+    }
+}
@@ -0,0 +1,177 @@
+package benchmark;
+
+import model.Customer;
+import model.EpochDays;
+import model.FreeRoom;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+import service.CustomerService;
+import service.ReservationService;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic hotel data for the benchmarks. The same dataset and seed
+ * always produce the same rooms, customers and reservations.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class HotelDataGenerator {
+
+    /**
+     * Seed used by every benchmark, so runs are comparable release over release.
+     */
+    public static final long SEED = 20240101L;
+
+    /**
+     * First night of the generated booking horizon.
+     */
+    public static final LocalDate FIRST_NIGHT = LocalDate.of(2025, 1, 1);
+
+    private static final int MAX_STAY_NIGHTS = 5;
+    private static final int MAX_GAP_NIGHTS = 3;
+    // One room in this many is free of charge
+    private static final int FREE_ROOM_RATIO = 20;
+
+    private final int roomCount;
+    private final int reservationCount;
+    private final int customerCount;
+
+    private IRoom[] rooms;
+    private Customer[] customers;
+    private int horizonNights;
+
+    /**
+     * Creates a generator for a dataset written as {@code rooms x reservations x customers},
+     * for example {@code "5000x300000x100000"}.
+     *
+     * @param dataset The dataset size.
+     */
+    public HotelDataGenerator(final String dataset) {
+        final String[] sizes = dataset.split("x");
+
+        if (sizes.length != 3) {
+            throw new IllegalArgumentException("Dataset must be rooms x reservations x customers: " + dataset);
+        }
+
+        this.roomCount = Integer.parseInt(sizes[0]);
+        this.reservationCount = Integer.parseInt(sizes[1]);
+        this.customerCount = Integer.parseInt(sizes[2]);
+    }
+
+    /**
+     * Fills the services with the generated rooms, customers and reservations. Every room
+     * receives the same number of back-to-back stays separated by short random gaps.
+     *
+     * @param customerService    The service receiving the customers.
+     * @param reservationService The service receiving the rooms and reservations.
+     */
+    public void populate(final CustomerService customerService, final ReservationService reservationService) {
+        final SplittableRandom random = new SplittableRandom(SEED);
+        final RoomType[] roomTypes = RoomType.values();
+
+        customers = new Customer[customerCount];
+        for (int i = 0; i < customerCount; i++) {
+            final String email = email(i);
+            customerService.addCustomer(email, "First" + i, "Last" + i);
+            customers[i] = customerService.getCustomer(email);
+        }
+
+        rooms = new IRoom[roomCount];
+        for (int i = 0; i < roomCount; i++) {
+            final String roomNumber = roomNumber(i);
+            final RoomType roomType = roomTypes[random.nextInt(roomTypes.length)];
+            rooms[i] = i % FREE_ROOM_RATIO == 0
+                    ? new FreeRoom(roomNumber, roomType)
+                    : new Room(roomNumber, 50.0 + random.nextInt(450), roomType);
+            reservationService.addRoom(rooms[i]);
+        }
+
+        final int perRoom = roomCount == 0 ? 0 : reservationCount / roomCount;
+        final int extra = roomCount == 0 ? 0 : reservationCount % roomCount;
+
+        for (int i = 0; i < roomCount; i++) {
+            int night = random.nextInt(MAX_GAP_NIGHTS + 1);
+
+            for (int k = 0; k < perRoom + (i < extra ? 1 : 0); k++) {
+                final int nights = 1 + random.nextInt(MAX_STAY_NIGHTS);
+                final Customer customer = customers[random.nextInt(customerCount)];
+
+                reservationService.reserveARoom(customer, rooms[i], epochDay(night), epochDay(night + nights));
+                night += nights + random.nextInt(MAX_GAP_NIGHTS + 1);
+            }
+
+            horizonNights = Math.max(horizonNights, night);
+        }
+    }
+
+    /**
+     * Returns the generated rooms, in creation order.
+     *
+     * @return The generated rooms.
+     */
+    public IRoom[] getRooms() {
+        return rooms;
+    }
+
+    /**
+     * Returns the generated customers, in creation order.
+     *
+     * @return The generated customers.
+     */
+    public Customer[] getCustomers() {
+        return customers;
+    }
+
+    /**
+     * Returns the number of nights, from {@link #FIRST_NIGHT}, covered by generated stays.
+     *
+     * @return The length of the booking horizon.
+     */
+    public int getHorizonNights() {
+        return horizonNights;
+    }
+
+    /**
+     * Returns the email of the customer with the given index.
+     *
+     * @param index The customer index.
+     * @return The email of the customer.
+     */
+    public static String email(final int index) {
+        return "guest" + index + "@hotel.com";
+    }
+
+    /**
+     * Returns the room number of the room with the given index.
+     *
+     * @param index The room index.
+     * @return The room number.
+     */
+    public static String roomNumber(final int index) {
+        return Integer.toString(100 + index);
+    }
+
+    /**
+     * Returns the epoch day of the given night of the horizon.
+     *
+     * @param night The night, counted from {@link #FIRST_NIGHT}.
+     * @return The epoch day of that night.
+     */
+    public static int epochDay(final int night) {
+        return EpochDays.of(FIRST_NIGHT) + night;
+    }
+
+    /**
+     * Returns the date of the given night of the horizon, at the start of the day.
+     *
+     * @param night The night, counted from {@link #FIRST_NIGHT}.
+     * @return The date of that night.
+     */
+    public static Date date(final int night) {
+        return EpochDays.toDate(epochDay(night));
+    }
+}
@@ -0,0 +1,143 @@
+package benchmark;
+
+import http.HotelHttpServer;
+import service.CustomerService;
+import service.ReservationService;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Closed-loop load test of the HTTP search endpoint. It starts the API in process over a
+ * generated dataset, then keeps a fixed number of concurrent searches in flight for a
+ * fixed time and prints throughput and latency percentiles.
+ * <p>
+ * Arguments: {@code [dataset] [concurrentSearches] [seconds]}, defaulting to
+ * {@code 1000x100000x10000 2000 30}.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class HttpLoadTest {
+
+    private static final int MAX_STAY_NIGHTS = 5;
+    // Latencies are counted in 10 microsecond buckets up to 10 seconds; slower requests share the last bucket
+    private static final long BUCKET_NANOS = 10_000L;
+    private static final int BUCKETS = 1_000_000;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS + 1);
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final String baseUri;
+    private final int horizonNights;
+    private volatile long deadline;
+
+    private HttpLoadTest(final String baseUri, final int horizonNights) {
+        this.baseUri = baseUri;
+        this.horizonNights = horizonNights;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final String dataset = args.length > 0 ? args[0] : "1000x100000x10000";
+        final int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        final int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        final HotelDataGenerator data = new HotelDataGenerator(dataset);
+        data.populate(CustomerService.getSingleton(), ReservationService.getSingleton());
+
+        final HotelHttpServer server = HotelHttpServer.start(new InetSocketAddress("127.0.0.1", 0));
+        try {
+            final HttpLoadTest test = new HttpLoadTest("http://127.0.0.1:" + server.getPort(),
+                    data.getHorizonNights());
+
+            System.out.printf("Dataset %s, %d concurrent searches%n", dataset, concurrency);
+            test.run(concurrency, Math.max(1, seconds / 5));
+            test.reset();
+            test.run(concurrency, seconds);
+            test.report(seconds);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // Keep the given number of searches in flight until the time is up
+    private void run(final int concurrency, final int seconds) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(concurrency);
+        deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        for (int i = 0; i < concurrency; i++) {
+            search(new SplittableRandom(HotelDataGenerator.SEED + i), done);
+        }
+
+        done.await();
+    }
+
+    // Send one search, and the next one when it completes
+    private void search(final SplittableRandom random, final CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+
+        final int night = random.nextInt(Math.max(1, horizonNights - MAX_STAY_NIGHTS));
+        final LocalDate checkIn = HotelDataGenerator.FIRST_NIGHT.plusDays(night);
+        final LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(MAX_STAY_NIGHTS));
+        final HttpRequest request = HttpRequest.newBuilder(
+                URI.create(baseUri + "/api/rooms?checkIn=" + checkIn + "&checkOut=" + checkOut))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        final long start = System.nanoTime();
+
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error != null || response.statusCode() != 200) {
+                failed.incrementAndGet();
+            } else {
+                latencies.incrementAndGet((int) Math.min(BUCKETS, (System.nanoTime() - start) / BUCKET_NANOS));
+                completed.incrementAndGet();
+            }
+            search(random, done);
+        });
+    }
+
+    private void reset() {
+        for (int i = 0; i <= BUCKETS; i++) {
+            latencies.set(i, 0L);
+        }
+        completed.set(0L);
+        failed.set(0L);
+    }
+
+    private void report(final int seconds) {
+        final long count = completed.get();
+
+        System.out.printf("Requests: %d ok, %d failed, %.0f req/s%n", count, failed.get(), (double) count / seconds);
+        System.out.printf("Latency ms: p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f%n",
+                percentile(count, 0.50), percentile(count, 0.90), percentile(count, 0.99), percentile(count, 0.999));
+    }
+
+    private double percentile(final long count, final double fraction) {
+        final long rank = (long) Math.ceil(count * fraction);
+        long seen = 0L;
+
+        for (int i = 0; i <= BUCKETS; i++) {
+            seen += latencies.get(i);
+            if (seen >= rank) {
+                return (i + 1) * BUCKET_NANOS / 1_000_000.0;
+            }
+        }
+
+        return BUCKETS * BUCKET_NANOS / 1_000_000.0;
+    }
+}
@@ -0,0 +1,62 @@
+package benchmark;
+
+import model.EpochDays;
+import model.OccupancyReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.CustomerService;
+import service.ReservationService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to report a full year of daily occupancy and revenue for 10,000 rooms, with the rooms'
+ * partitions processed in parallel on the common fork/join pool or one after the other on the
+ * calling thread. Every room is booked about three nights out of five, so the year holds
+ * roughly 73 stays per room.
+ *
+ * @author Haregweyni Temanu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx3g")
+public class OccupancyReportBenchmark {
+
+    private static final int REPORT_NIGHTS = 365;
+
+    @Param({"10000x730000x100000"})
+    public String dataset;
+
+    @Param({"true", "false"})
+    public String parallel;
+
+    private ReservationService reservationService;
+    private int fromDay;
+
+    @Setup
+    public void setUp() {
+        // Read when the service is created, so it must be set before its first use
+        System.setProperty("hotel.analytics.parallel", parallel);
+        reservationService = ReservationService.getSingleton();
+
+        new HotelDataGenerator(dataset).populate(CustomerService.getSingleton(), reservationService);
+        fromDay = EpochDays.of(HotelDataGenerator.date(0));
+    }
+
+    @Benchmark
+    public OccupancyReport getOccupancyReport() {
+        return reservationService.getOccupancyReport(fromDay, fromDay + REPORT_NIGHTS);
+    }
+}
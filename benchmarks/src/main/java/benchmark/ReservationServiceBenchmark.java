@@ -0,0 +1,166 @@
+package benchmark;
+
+import model.AlternativeOrder;
+import model.AlternativeStay;
+import model.Customer;
+import model.EpochDays;
+import model.IRoom;
+import model.OccupancyReport;
+import model.Reservation;
+import model.RoomFilter;
+import model.RoomQuote;
+import model.RoomSearchResult;
+import model.RoomType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.CustomerService;
+import service.ReservationService;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search and lookup latency of {@link ReservationService} over generated datasets. The search
+ * result cache is disabled, so the searches measure the availability engine itself.
+ *
+ * @author Haregweyni Temanu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dhotel.availabilityCache.entries=0")
+public class ReservationServiceBenchmark {
+
+    private static final int QUERY_COUNT = 1024;
+    private static final int ALTERNATIVE_STAYS = 10;
+    private static final int ALTERNATIVE_HORIZON_DAYS = 30;
+    private static final int SEARCH_LIMIT = 10;
+    private static final double WEEKEND_RATE_FACTOR = 1.25;
+    private static final int REPORT_NIGHTS = 365;
+    private static final RoomFilter CHEAPEST_DOUBLES =
+            RoomFilter.all().withRoomType(RoomType.DOUBLE).withPaidRoomsOnly().withPriceRange(0.0, 250.0);
+
+    @Param({"500x10000x5000", "5000x300000x100000"})
+    public String dataset;
+
+    private final ReservationService reservationService = ReservationService.getSingleton();
+    private Date[] checkIns;
+    private Date[] checkOuts;
+    private LocalDate[] localCheckIns;
+    private LocalDate[] localCheckOuts;
+    private Customer[] customers;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        final HotelDataGenerator generator = new HotelDataGenerator(dataset);
+        generator.populate(CustomerService.getSingleton(), reservationService);
+        // Weekend rates over the whole horizon, so quotes are not all flat
+        for (RoomType roomType : RoomType.values()) {
+            reservationService.setRateFactor(roomType, EpochDays.of(HotelDataGenerator.date(0)),
+                    EpochDays.of(HotelDataGenerator.date(generator.getHorizonNights() + 8)),
+                    EnumSet.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY), WEEKEND_RATE_FACTOR);
+        }
+
+        final SplittableRandom random = new SplittableRandom(HotelDataGenerator.SEED);
+        checkIns = new Date[QUERY_COUNT];
+        checkOuts = new Date[QUERY_COUNT];
+        localCheckIns = new LocalDate[QUERY_COUNT];
+        localCheckOuts = new LocalDate[QUERY_COUNT];
+        customers = new Customer[QUERY_COUNT];
+
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            final int night = random.nextInt(Math.max(1, generator.getHorizonNights()));
+            checkIns[i] = HotelDataGenerator.date(night);
+            checkOuts[i] = HotelDataGenerator.date(night + 1 + random.nextInt(7));
+            localCheckIns[i] = EpochDays.toLocalDate(EpochDays.of(checkIns[i]));
+            localCheckOuts[i] = EpochDays.toLocalDate(EpochDays.of(checkOuts[i]));
+            customers[i] = generator.getCustomers()[random.nextInt(generator.getCustomers().length)];
+        }
+    }
+
+    @Benchmark
+    public Collection<IRoom> findRooms() {
+        final int query = nextQuery();
+        return reservationService.findRooms(checkIns[query], checkOuts[query]);
+    }
+
+    @Benchmark
+    public Collection<IRoom> findRoomsLocalDate() {
+        final int query = nextQuery();
+        return reservationService.findRooms(localCheckIns[query], localCheckOuts[query]);
+    }
+
+    @Benchmark
+    public Collection<IRoom> findAlternativeRooms() {
+        final int query = nextQuery();
+        return reservationService.findAlternativeRooms(checkIns[query], checkOuts[query]);
+    }
+
+    @Benchmark
+    public List<AlternativeStay> findAlternativeStays() {
+        final int query = nextQuery();
+        return reservationService.findAlternativeStays(EpochDays.of(localCheckIns[query]),
+                EpochDays.of(localCheckOuts[query]), AlternativeOrder.CLOSEST, ALTERNATIVE_STAYS,
+                ALTERNATIVE_HORIZON_DAYS, 1, Integer.MIN_VALUE);
+    }
+
+    @Benchmark
+    public List<IRoom> findCheapestRooms() {
+        final int query = nextQuery();
+        return reservationService.findCheapestRooms(localCheckIns[query], localCheckOuts[query],
+                CHEAPEST_DOUBLES, SEARCH_LIMIT);
+    }
+
+    @Benchmark
+    public RoomSearchResult searchRooms() {
+        final int query = nextQuery();
+        return reservationService.searchRooms(localCheckIns[query], localCheckOuts[query],
+                CHEAPEST_DOUBLES, SEARCH_LIMIT);
+    }
+
+    @Benchmark
+    public List<RoomQuote> quoteRooms() {
+        final int query = nextQuery();
+        return reservationService.quoteRooms(localCheckIns[query], localCheckOuts[query]);
+    }
+
+    @Benchmark
+    public List<RoomQuote> findCheapestQuotes() {
+        final int query = nextQuery();
+        return reservationService.findCheapestQuotes(localCheckIns[query], localCheckOuts[query],
+                CHEAPEST_DOUBLES, SEARCH_LIMIT);
+    }
+
+    @Benchmark
+    public OccupancyReport getOccupancyReport() {
+        final int fromDay = EpochDays.of(HotelDataGenerator.date(0));
+        return reservationService.getOccupancyReport(fromDay, fromDay + REPORT_NIGHTS);
+    }
+
+    @Benchmark
+    public Collection<Reservation> getCustomersReservation() {
+        return reservationService.getCustomersReservation(customers[nextQuery()]);
+    }
+
+    private int nextQuery() {
+        return next++ & (QUERY_COUNT - 1);
+    }
+}
@@ -0,0 +1,87 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.Snapshot;
+import service.CustomerService;
+import service.ReservationService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start time to load a snapshot of a generated hotel into empty services. The services
+ * are singletons, so each fork loads once; the snapshot is written by a separate JVM and
+ * shared by the forks of a dataset. The heap is sized up front for the largest dataset, so
+ * the load is not timed growing it.
+ *
+ * @author Haregweyni Temanu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 5, jvmArgsAppend = {SnapshotLoadBenchmark.HEAP, SnapshotLoadBenchmark.MAX_HEAP})
+public class SnapshotLoadBenchmark {
+
+    static final String HEAP = "-Xms3g";
+    static final String MAX_HEAP = "-Xmx3g";
+
+    @Param({"500x10000x5000", "5000x300000x100000", "10000x2000000x500000"})
+    public String dataset;
+
+    private Path snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        snapshot = Paths.get(System.getProperty("java.io.tmpdir"),
+                "hotel-benchmark-" + dataset + "-" + HotelDataGenerator.SEED + ".snapshot");
+
+        if (!Files.exists(snapshot)) {
+            final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            final Process writer = new ProcessBuilder(java, MAX_HEAP, "-cp", System.getProperty("java.class.path"),
+                    Writer.class.getName(), dataset, snapshot.toString())
+                    .inheritIO()
+                    .start();
+            if (writer.waitFor() != 0) {
+                throw new IOException("Snapshot writer failed");
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean load() throws IOException {
+        return Snapshot.load(snapshot, CustomerService.getSingleton(), ReservationService.getSingleton());
+    }
+
+    /**
+     * Writes the snapshot of a generated dataset, given as the first argument, to the path
+     * given as the second.
+     */
+    public static final class Writer {
+
+        public static void main(final String[] args) throws IOException {
+            final Path target = Paths.get(args[1]);
+            final Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+
+            new HotelDataGenerator(args[0]).populate(CustomerService.getSingleton(),
+                    ReservationService.getSingleton());
+            Snapshot.write(temporary, CustomerService.getSingleton(), ReservationService.getSingleton());
+            Files.move(temporary, target);
+        }
+    }
+}
@@ -1,12 +1,27 @@
 import api.AdminResource;
 import model.Customer;
 import model.IRoom;
+import model.OccupancyReport;
+import model.OccupancyStatistics;
+import model.OperationStatistics;
+import model.Page;
+import model.Reservation;
+import model.ReservationFilter;
+import model.ReservationOrder;
 import model.Room;
 import model.RoomType;
+import service.RoomImportReport;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Scanner;
+import java.util.function.Function;
 
 /**
  * @author Haregweyni Temanu
@@ -15,6 +30,11 @@ import java.util.Scanner;
 public class AdminMenu {
 
     private static final AdminResource adminResource = AdminResource.getSingleton();
+    private static final int CUSTOMERS_PAGE_SIZE = 20;
+    private static final int RESERVATIONS_PAGE_SIZE = 50;
+    private static final int ROOM_SCHEDULE_DAYS = 30;
+    private static final int MAX_DISPLAYED_REJECTIONS = 20;
+    private static final DateTimeFormatter DEFAULT_DATE_FORMAT = DateTimeFormatter.ofPattern("M/d/yyyy");
 
     public static void adminMenu() {
         String line = "";
@@ -27,23 +47,38 @@ public class AdminMenu {
             do {
                 line = scanner.nextLine();
 
-                if (line.length() == 1) {
-                    switch (line.charAt(0)) {
-                        case '1':
+                if (line.length() == 1 || line.equals("10")) {
+                    switch (line) {
+                        case "1":
                             displayAllCustomers();
                             break;
-                        case '2':
+                        case "2":
                             displayAllRooms();
                             break;
-                        case '3':
+                        case "3":
                             displayAllReservations();
                             break;
-                        case '4':
+                        case "4":
                             addRoom();
                             break;
-                        case '5':
+                        case "5":
                             MainMenu.printMainMenu();
                             break;
+                        case "6":
+                            searchCustomers();
+                            break;
+                        case "7":
+                            displayRoomSchedule();
+                            break;
+                        case "8":
+                            displayStatistics();
+                            break;
+                        case "9":
+                            importRooms();
+                            break;
+                        case "10":
+                            displayOccupancyReport();
+                            break;
                         default:
                             System.out.println("Unknown action\n");
                             break;
@@ -66,6 +101,11 @@ public class AdminMenu {
                 "3. See all Reservations\n" +
                 "4. Add a Room\n" +
                 "5. Back to Main Menu\n" +
+                "6. Search Customers\n" +
+                "7. Room Schedule\n" +
+                "8. Statistics\n" +
+                "9. Import Rooms from a File\n" +
+                "10. Occupancy Report\n" +
                 "--------------------------------------------\n" +
                 "Please select a number for the menu option:\n");
     }
@@ -92,6 +132,23 @@ public class AdminMenu {
         addAnotherRoom();
     }
 
+    // Add every room listed in a CSV file of room number, price and room type
+    private static void importRooms() {
+        final Scanner scanner = new Scanner(System.in);
+
+        System.out.println("Enter the path of the room file (roomNumber,price,roomType per line):");
+        final String path = scanner.nextLine().trim();
+
+        try {
+            final RoomImportReport report = adminResource.importRooms(Paths.get(path));
+
+            System.out.println(report);
+            report.getRejections().stream().limit(MAX_DISPLAYED_REJECTIONS).forEach(System.out::println);
+        } catch (IOException | InvalidPathException ex) {
+            System.out.println("Error: unable to read " + path + ". " + ex.getLocalizedMessage());
+        }
+    }
+
     // Enter room price and handle exceptions
     private static double enterRoomPrice(final Scanner scanner) {
         try {
@@ -150,19 +207,195 @@ public class AdminMenu {
         }
     }
 
-    // Display all customers
+    // Display all customers, one page at a time
     private static void displayAllCustomers() {
-        Collection<Customer> customers = adminResource.getAllCustomers();
+        System.out.println(adminResource.getCustomerCount() + " customer(s) in total.");
+        displayCustomerPages(cursor -> adminResource.getCustomers(cursor, CUSTOMERS_PAGE_SIZE));
+    }
 
-        if (customers.isEmpty()) {
-            System.out.println("No customers found.");
+    // Search customers by email or last name prefix
+    private static void searchCustomers() {
+        final Scanner scanner = new Scanner(System.in);
+
+        System.out.println("Search by: 1 for email, 2 for last name:");
+        final String searchBy = scanner.nextLine().trim();
+
+        if (!searchBy.equals("1") && !searchBy.equals("2")) {
+            System.out.println("Error: Invalid option\n");
+            return;
+        }
+
+        System.out.println("Enter the beginning of the " + (searchBy.equals("1") ? "email:" : "last name:"));
+        final String prefix = scanner.nextLine().trim();
+
+        if (searchBy.equals("1")) {
+            displayCustomerPages(cursor -> adminResource.findCustomersByEmailPrefix(prefix, cursor,
+                    CUSTOMERS_PAGE_SIZE));
         } else {
-            adminResource.getAllCustomers().forEach(System.out::println);
+            displayCustomerPages(cursor -> adminResource.findCustomersByLastNamePrefix(prefix, cursor,
+                    CUSTOMERS_PAGE_SIZE));
         }
     }
 
-    // Display all reservations
+    // Print pages of customers until the last page, or until the admin stops
+    private static void displayCustomerPages(final Function<String, Page<Customer>> nextPage) {
+        final Scanner scanner = new Scanner(System.in);
+        Page<Customer> page = nextPage.apply(null);
+
+        if (page.getItems().isEmpty()) {
+            System.out.println("No customers found.");
+            return;
+        }
+
+        while (true) {
+            page.getItems().forEach(System.out::println);
+
+            if (!page.hasNext()) {
+                return;
+            }
+
+            System.out.println("Press Enter for more customers, or Q to stop:");
+            if (scanner.nextLine().trim().equalsIgnoreCase("Q")) {
+                return;
+            }
+
+            page = nextPage.apply(page.getNextCursor());
+        }
+    }
+
+    // Display reservations one page at a time, sorted and filtered as the admin chooses
     private static void displayAllReservations() {
-        adminResource.displayAllReservations();
+        final Scanner scanner = new Scanner(System.in);
+
+        System.out.println(adminResource.getReservationCount() + " reservation(s) in total.");
+        System.out.println("Sort by: 1 for check-in date, 2 for room:");
+        final ReservationOrder order = scanner.nextLine().trim().equals("2")
+                ? ReservationOrder.ROOM
+                : ReservationOrder.CHECK_IN;
+
+        System.out.println("Show check-ins from mm/dd/yyyy, or press Enter for all:");
+        final String from = scanner.nextLine().trim();
+        ReservationFilter filter = ReservationFilter.all();
+
+        if (!from.isEmpty()) {
+            try {
+                filter = filter.withCheckInFrom(LocalDate.parse(from, DEFAULT_DATE_FORMAT));
+            } catch (DateTimeParseException ex) {
+                System.out.println("Error: Invalid date.");
+                return;
+            }
+        }
+
+        Page<Reservation> page = adminResource.getReservations(order, filter, null, RESERVATIONS_PAGE_SIZE);
+
+        if (page.getItems().isEmpty()) {
+            System.out.println("No reservations found.");
+            return;
+        }
+
+        while (true) {
+            System.out.print(renderReservations(page.getItems()));
+
+            if (!page.hasNext()) {
+                return;
+            }
+
+            System.out.println("Press Enter for more reservations, or Q to stop:");
+            if (scanner.nextLine().trim().equalsIgnoreCase("Q")) {
+                return;
+            }
+
+            page = adminResource.getReservations(order, filter, page.getNextCursor(), RESERVATIONS_PAGE_SIZE);
+
+            // A full page is followed by an empty one when it held the last reservations
+            if (page.getItems().isEmpty()) {
+                System.out.println("No more reservations.");
+                return;
+            }
+        }
+    }
+
+    // Display the next month of a room's reservations and the first night it is free
+    private static void displayRoomSchedule() {
+        final Scanner scanner = new Scanner(System.in);
+
+        System.out.println("Enter room number:");
+        final String roomNumber = scanner.nextLine().trim();
+
+        if (adminResource.getRoom(roomNumber) == null) {
+            System.out.println("Room not found.");
+            return;
+        }
+
+        final LocalDate today = LocalDate.now();
+        final Collection<Reservation> reservations =
+                adminResource.getRoomReservations(roomNumber, today, today.plusDays(ROOM_SCHEDULE_DAYS));
+
+        System.out.println("Next free night: " + adminResource.findNextFreeDate(roomNumber, today, 1));
+        if (reservations.isEmpty()) {
+            System.out.println("No reservations in the next " + ROOM_SCHEDULE_DAYS + " days.");
+        } else {
+            System.out.print(renderReservations(reservations));
+        }
+    }
+
+    // Display the latency of every operation called so far, and the search cache counters
+    private static void displayStatistics() {
+        boolean called = false;
+
+        for (OperationStatistics statistics : adminResource.getOperationStatistics()) {
+            if (statistics.getCount() > 0) {
+                System.out.println(statistics);
+                called = true;
+            }
+        }
+
+        if (!called) {
+            System.out.println("No operation called yet.");
+        }
+        System.out.println("Search cache: " + adminResource.getAvailabilityCacheStatistics());
+    }
+
+    // Display the daily occupancy and revenue of a range of nights, then the totals per room type
+    private static void displayOccupancyReport() {
+        final Scanner scanner = new Scanner(System.in);
+
+        try {
+            System.out.println("Enter first night mm/dd/yyyy example 01/01/2020");
+            final LocalDate from = LocalDate.parse(scanner.nextLine().trim(), DEFAULT_DATE_FORMAT);
+            System.out.println("Enter last night mm/dd/yyyy example 12/31/2020");
+            final LocalDate to = LocalDate.parse(scanner.nextLine().trim(), DEFAULT_DATE_FORMAT).plusDays(1);
+
+            final OccupancyReport report = adminResource.getOccupancyReport(from, to);
+            final StringBuilder out = new StringBuilder(report.getDaily().size() * 80);
+
+            for (OccupancyStatistics day : report.getDaily()) {
+                out.append(day).append('\n');
+            }
+            System.out.print(out);
+            System.out.println(report);
+        } catch (DateTimeParseException ex) {
+            System.out.println("Error: Invalid date.");
+        } catch (IllegalArgumentException ex) {
+            System.out.println("Error: " + ex.getLocalizedMessage());
+        }
+    }
+
+    // Render reservations, one line each, so they are printed in a single write
+    private static String renderReservations(final Collection<Reservation> reservations) {
+        final StringBuilder out = new StringBuilder(reservations.size() * 120);
+
+        for (Reservation reservation : reservations) {
+            final IRoom room = reservation.getRoom();
+            final Customer customer = reservation.getCustomer();
+
+            out.append(reservation.getCheckIn()).append(" -> ").append(reservation.getCheckOut())
+                    .append("  Room ").append(room.getRoomNumber())
+                    .append(" (").append(room.getRoomType()).append(", $").append(room.getRoomPrice()).append(")  ")
+                    .append(customer.getFirstName()).append(' ').append(customer.getLastName())
+                    .append(" <").append(customer.getEmail()).append(">\n");
+        }
+
+        return out.toString();
     }
 }
\ No newline at end of file
@@ -1,10 +1,123 @@
+import api.AsyncHotelResource;
+import http.HotelHttpServer;
+import metrics.OperationMetrics;
+import persistence.Archiver;
+import persistence.Checkpointer;
+import persistence.DurabilityMode;
+import persistence.Journal;
+import persistence.ReservationArchive;
+import persistence.Snapshot;
+import service.CustomerService;
+import service.ReservationService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.time.Duration;
+
 /**
  * @author Haregweyni Temanu
  *
  */
 public class HotelApplication {
 
+    private static final String JOURNAL_PATH = System.getProperty("hotel.journal", "hotel.journal");
+    private static final String SNAPSHOT_PATH = System.getProperty("hotel.snapshot", "hotel.snapshot");
+    private static final String DURABILITY_MODE = System.getProperty("hotel.durability", "group_commit");
+    private static final long GROUP_COMMIT_DELAY_MILLIS = Long.getLong("hotel.groupCommitDelayMillis", 0L);
+    private static final long CHECKPOINT_MINUTES = Long.getLong("hotel.checkpointMinutes", 10L);
+    private static final String ARCHIVE_PATH = System.getProperty("hotel.archive", "hotel.archive");
+    private static final long ARCHIVE_MINUTES = Long.getLong("hotel.archiveMinutes", 60L);
+    // The HTTP API is only started when a port is configured
+    private static final Integer HTTP_PORT = Integer.getInteger("hotel.http.port");
+    private static final String HTTP_HOST = System.getProperty("hotel.http.host", "127.0.0.1");
+
     public static void main(String[] args) {
+        final Journal journal = openJournal();
+        final ReservationArchive archive = openArchive();
+        final Archiver archiver = new Archiver(ReservationService.getSingleton());
+        final Checkpointer checkpointer = new Checkpointer(journal, Paths.get(SNAPSHOT_PATH),
+                CustomerService.getSingleton(), ReservationService.getSingleton());
+
+        // Drop the stays restored a second time and archive the ones completed while stopped
+        archiver.archive();
+        archiver.start(Duration.ofMinutes(ARCHIVE_MINUTES));
+        checkpointer.start(Duration.ofMinutes(CHECKPOINT_MINUTES));
+        OperationMetrics.registerMBean();
+
+        final HotelHttpServer httpServer = startHttpServer();
+        Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                shutdown(httpServer, archiver, checkpointer, journal, archive)));
+
         MainMenu.mainMenu();
     }
+
+    // Load the snapshot, replay the journal tail into the services and attach the journal
+    private static Journal openJournal() {
+        final CustomerService customerService = CustomerService.getSingleton();
+        final ReservationService reservationService = ReservationService.getSingleton();
+
+        try {
+            Snapshot.load(Paths.get(SNAPSHOT_PATH), customerService, reservationService);
+
+            final Journal journal = Journal.open(Paths.get(JOURNAL_PATH),
+                    DurabilityMode.valueOfName(DURABILITY_MODE), Duration.ofMillis(GROUP_COMMIT_DELAY_MILLIS));
+
+            journal.replay(customerService, reservationService);
+            customerService.setJournal(journal);
+            reservationService.setJournal(journal);
+
+            return journal;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to restore hotel data", ex);
+        }
+    }
+
+    // Open the archive of completed stays and attach it once the journal has been restored
+    private static ReservationArchive openArchive() {
+        try {
+            final ReservationArchive archive = ReservationArchive.open(Paths.get(ARCHIVE_PATH));
+
+            ReservationService.getSingleton().setArchive(archive);
+            return archive;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to open the reservation archive", ex);
+        }
+    }
+
+    // Start the HTTP API if a port is configured; it keeps serving after the console menu exits
+    private static HotelHttpServer startHttpServer() {
+        if (HTTP_PORT == null) {
+            return null;
+        }
+
+        try {
+            final HotelHttpServer server = HotelHttpServer.start(new InetSocketAddress(HTTP_HOST, HTTP_PORT));
+            System.out.println("HTTP API listening on " + HTTP_HOST + ":" + server.getPort());
+            return server;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to start the HTTP API", ex);
+        }
+    }
+
+    // Stop the HTTP API and the asynchronous calls, write a final snapshot and close the journal and the archive
+    private static void shutdown(final HotelHttpServer httpServer, final Archiver archiver,
+                                 final Checkpointer checkpointer, final Journal journal,
+                                 final ReservationArchive archive) {
+        if (httpServer != null) {
+            httpServer.stop(1);
+        }
+        AsyncHotelResource.getSingleton().shutdown(1);
+        archiver.close();
+        checkpointer.close();
+
+        try {
+            checkpointer.checkpoint();
+            journal.close();
+            archive.close();
+        } catch (IOException ex) {
+            System.out.println("Error: unable to save hotel data. " + ex.getLocalizedMessage());
+        }
+    }
 }
@@ -1,12 +1,18 @@
 import api.HotelResource;
+import model.AlternativeOrder;
+import model.AlternativeStay;
 import model.Reservation;
+import model.RoomQuote;
 import model.IRoom;
+import service.RoomUnavailableException;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Collection;
-import java.util.Date;
+import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Collectors;
 
 /**
  * @author Haregweyni Temanu
@@ -15,8 +21,11 @@ import java.util.Scanner;
  
 public class MainMenu {
 
-    private static final String DEFAULT_DATE_FORMAT = "MM/dd/yyyy";
+    private static final DateTimeFormatter DEFAULT_DATE_FORMAT = DateTimeFormatter.ofPattern("M/d/yyyy");
     private static final HotelResource hotelResource = HotelResource.getSingleton();
+    // Number of alternative stays to look for, and how many days they may be shifted
+    private static final int ALTERNATIVE_STAYS = 10;
+    private static final int ALTERNATIVE_HORIZON_DAYS = 30;
 
     public static void mainMenu() {
         String line = "";
@@ -63,40 +72,48 @@ public class MainMenu {
         final Scanner scanner = new Scanner(System.in);
 
         System.out.println("Enter Check-In Date mm/dd/yyyy example 02/01/2020");
-        Date checkIn = getInputDate(scanner);
+        LocalDate checkIn = getInputDate(scanner);
 
         System.out.println("Enter Check-Out Date mm/dd/yyyy example 02/21/2020");
-        Date checkOut = getInputDate(scanner);
+        LocalDate checkOut = getInputDate(scanner);
 
         if (checkIn != null && checkOut != null) {
-            Collection<IRoom> availableRooms = hotelResource.findARoom(checkIn, checkOut);
+            final List<RoomQuote> quotes = hotelResource.quoteRooms(checkIn, checkOut);
 
-            if (availableRooms.isEmpty()) {
-                Collection<IRoom> alternativeRooms = hotelResource.findAlternativeRooms(checkIn, checkOut);
+            if (quotes.isEmpty()) {
+                final List<AlternativeStay> alternativeStays = hotelResource.findAlternativeStays(checkIn, checkOut,
+                        AlternativeOrder.CLOSEST, ALTERNATIVE_STAYS, ALTERNATIVE_HORIZON_DAYS);
 
-                if (alternativeRooms.isEmpty()) {
+                if (alternativeStays.isEmpty()) {
                     System.out.println("No rooms found.");
                 } else {
-                    final Date alternativeCheckIn = hotelResource.addDefaultPlusDays(checkIn);
-                    final Date alternativeCheckOut = hotelResource.addDefaultPlusDays(checkOut);
+                    // Offer the rooms free on the closest dates, and mention the other dates found
+                    final AlternativeStay closest = alternativeStays.get(0);
+                    final Collection<IRoom> alternativeRooms = alternativeStays.stream()
+                            .filter(stay -> stay.getCheckInDay() == closest.getCheckInDay())
+                            .map(AlternativeStay::getRoom)
+                            .collect(Collectors.toList());
                     System.out.println("We've only found rooms on alternative dates:" +
-                            "\nCheck-In Date:" + alternativeCheckIn +
-                            "\nCheck-Out Date:" + alternativeCheckOut);
+                            "\nCheck-In Date:" + closest.getCheckIn() +
+                            "\nCheck-Out Date:" + closest.getCheckOut());
 
                     printRooms(alternativeRooms);
-                    reserveRoom(scanner, alternativeCheckIn, alternativeCheckOut, alternativeRooms);
+                    printOtherStays(alternativeStays, closest);
+                    reserveRoom(scanner, closest.getCheckIn(), closest.getCheckOut(), alternativeRooms);
                 }
             } else {
-                printRooms(availableRooms);
-                reserveRoom(scanner, checkIn, checkOut, availableRooms);
+                // Show what the whole stay costs at the rates of its dates
+                quotes.forEach(System.out::println);
+                reserveRoom(scanner, checkIn, checkOut,
+                        quotes.stream().map(RoomQuote::getRoom).collect(Collectors.toList()));
             }
         }
     }
 
-    private static Date getInputDate(final Scanner scanner) {
+    private static LocalDate getInputDate(final Scanner scanner) {
         try {
-            return new SimpleDateFormat(DEFAULT_DATE_FORMAT).parse(scanner.nextLine());
-        } catch (ParseException ex) {
+            return LocalDate.parse(scanner.nextLine(), DEFAULT_DATE_FORMAT);
+        } catch (DateTimeParseException ex) {
             System.out.println("Error: Invalid date.");
             findAndReserveRoom();
         }
@@ -104,8 +121,8 @@ public class MainMenu {
         return null;
     }
 
-    private static void reserveRoom(final Scanner scanner, final Date checkInDate,
-                                    final Date checkOutDate, final Collection<IRoom> rooms) {
+    private static void reserveRoom(final Scanner scanner, final LocalDate checkInDate,
+                                    final LocalDate checkOutDate, final Collection<IRoom> rooms) {
         System.out.println("Would you like to book? y/n");
         final String bookRoom = scanner.nextLine();
 
@@ -126,10 +143,15 @@ public class MainMenu {
                     if (rooms.stream().anyMatch(room -> room.getRoomNumber().equals(roomNumber))) {
                         final IRoom room = hotelResource.getRoom(roomNumber);
 
-                        final Reservation reservation = hotelResource
-                                .bookARoom(customerEmail, room, checkInDate, checkOutDate);
-                        System.out.println("Reservation created successfully!");
-                        System.out.println(reservation);
+                        try {
+                            final Reservation reservation = hotelResource
+                                    .bookARoom(customerEmail, room, checkInDate, checkOutDate);
+                            System.out.println("Reservation created successfully!");
+                            System.out.println(reservation);
+                        } catch (RoomUnavailableException ex) {
+                            System.out.println("Error: " + ex.getLocalizedMessage()
+                                    + ".\nStart reservation again.");
+                        }
                     } else {
                         System.out.println("Error: room number not available.\nStart reservation again.");
                     }
@@ -155,6 +177,17 @@ public class MainMenu {
         }
     }
 
+    private static void printOtherStays(final List<AlternativeStay> stays, final AlternativeStay closest) {
+        final List<AlternativeStay> otherStays = stays.stream()
+                .filter(stay -> stay.getCheckInDay() != closest.getCheckInDay())
+                .collect(Collectors.toList());
+
+        if (!otherStays.isEmpty()) {
+            System.out.println("Other dates with free rooms:");
+            otherStays.forEach(System.out::println);
+        }
+    }
+
     private static void seeMyReservation() {
         final Scanner scanner = new Scanner(System.in);
 
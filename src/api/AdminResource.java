@@ -1,12 +1,32 @@
 package api;
 
+import metrics.LatencyHistogram;
+import metrics.OperationMetrics;
+import model.CacheStatistics;
 import model.Customer;
+import model.OperationStatistics;
 import model.IRoom;
+import model.OccupancyReport;
+import model.Page;
+import model.RateCalendar;
+import model.Reservation;
+import model.ReservationFilter;
+import model.ReservationOrder;
+import model.RoomType;
+import service.CustomerImportReport;
+import service.CustomerImporter;
 import service.CustomerService;
 import service.ReservationService;
+import service.RoomImportReport;
+import service.RoomImporter;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Provides administrative functionalities for managing customers, rooms, and reservations.
@@ -15,6 +35,38 @@ import java.util.List;
  */
 public class AdminResource {
 
+    private static final LatencyHistogram ADD_ROOM = OperationMetrics.histogram("AdminResource.addRoom");
+    private static final LatencyHistogram IMPORT_ROOMS = OperationMetrics.histogram("AdminResource.importRooms");
+    private static final LatencyHistogram GET_ALL_ROOMS = OperationMetrics.histogram("AdminResource.getAllRooms");
+    private static final LatencyHistogram GET_ROOM = OperationMetrics.histogram("AdminResource.getRoom");
+    private static final LatencyHistogram GET_ALL_CUSTOMERS =
+            OperationMetrics.histogram("AdminResource.getAllCustomers");
+    private static final LatencyHistogram GET_CUSTOMERS = OperationMetrics.histogram("AdminResource.getCustomers");
+    private static final LatencyHistogram GET_CUSTOMER_COUNT =
+            OperationMetrics.histogram("AdminResource.getCustomerCount");
+    private static final LatencyHistogram FIND_CUSTOMERS_BY_EMAIL_PREFIX =
+            OperationMetrics.histogram("AdminResource.findCustomersByEmailPrefix");
+    private static final LatencyHistogram FIND_CUSTOMERS_BY_LAST_NAME_PREFIX =
+            OperationMetrics.histogram("AdminResource.findCustomersByLastNamePrefix");
+    private static final LatencyHistogram IMPORT_CUSTOMERS =
+            OperationMetrics.histogram("AdminResource.importCustomers");
+    private static final LatencyHistogram GET_ROOM_HISTORY = OperationMetrics.histogram("AdminResource.getRoomHistory");
+    private static final LatencyHistogram GET_ROOM_RESERVATIONS =
+            OperationMetrics.histogram("AdminResource.getRoomReservations");
+    private static final LatencyHistogram FIND_NEXT_FREE_DATE =
+            OperationMetrics.histogram("AdminResource.findNextFreeDate");
+    private static final LatencyHistogram SET_RATE_FACTOR = OperationMetrics.histogram("AdminResource.setRateFactor");
+    private static final LatencyHistogram GET_RATE_CALENDAR =
+            OperationMetrics.histogram("AdminResource.getRateCalendar");
+    private static final LatencyHistogram GET_OCCUPANCY_REPORT =
+            OperationMetrics.histogram("AdminResource.getOccupancyReport");
+    private static final LatencyHistogram GET_AVAILABILITY_CACHE_STATISTICS =
+            OperationMetrics.histogram("AdminResource.getAvailabilityCacheStatistics");
+    private static final LatencyHistogram GET_RESERVATION_COUNT =
+            OperationMetrics.histogram("AdminResource.getReservationCount");
+    private static final LatencyHistogram GET_RESERVATIONS =
+            OperationMetrics.histogram("AdminResource.getReservations");
+
     private static final AdminResource SINGLETON = new AdminResource();
 
     private final CustomerService customerService = CustomerService.getSingleton();
@@ -35,12 +87,42 @@ public class AdminResource {
     }
 
     /**
-     * Adds a list of rooms to the system.
+     * Adds a list of rooms to the system in a single step.
      *
      * @param rooms The list of rooms to add.
      */
     public void addRoom(List<IRoom> rooms) {
-        rooms.forEach(reservationService::addRoom);
+        final long start = System.nanoTime();
+
+        try {
+            reservationService.addRooms(rooms);
+        } catch (RuntimeException ex) {
+            ADD_ROOM.recordError();
+            throw ex;
+        } finally {
+            ADD_ROOM.record(start);
+        }
+    }
+
+    /**
+     * Loads rooms in bulk from a CSV file of room number, price and room type. Duplicate and
+     * existing room numbers are rejected; the valid rooms are added in a single step.
+     *
+     * @param file The file to import.
+     * @return A report of the imported and rejected rows.
+     * @throws IOException If the file cannot be read.
+     */
+    public RoomImportReport importRooms(final Path file) throws IOException {
+        final long start = System.nanoTime();
+
+        try {
+            return new RoomImporter(reservationService).importFile(file);
+        } catch (IOException | RuntimeException ex) {
+            IMPORT_ROOMS.recordError();
+            throw ex;
+        } finally {
+            IMPORT_ROOMS.record(start);
+        }
     }
 
     /**
@@ -49,7 +131,35 @@ public class AdminResource {
      * @return A collection of all rooms.
      */
     public Collection<IRoom> getAllRooms() {
-        return reservationService.getAllRooms();
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.getAllRooms();
+        } catch (RuntimeException ex) {
+            GET_ALL_ROOMS.recordError();
+            throw ex;
+        } finally {
+            GET_ALL_ROOMS.record(start);
+        }
+    }
+
+    /**
+     * Retrieves a room by room number.
+     *
+     * @param roomNumber The room number.
+     * @return The room with the provided room number, or null if not found.
+     */
+    public IRoom getRoom(final String roomNumber) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.getARoom(roomNumber);
+        } catch (RuntimeException ex) {
+            GET_ROOM.recordError();
+            throw ex;
+        } finally {
+            GET_ROOM.record(start);
+        }
     }
 
     /**
@@ -58,13 +168,312 @@ public class AdminResource {
      * @return A collection of all customers.
      */
     public Collection<Customer> getAllCustomers() {
-        return customerService.getAllCustomers();
+        final long start = System.nanoTime();
+
+        try {
+            return customerService.getAllCustomers();
+        } catch (RuntimeException ex) {
+            GET_ALL_CUSTOMERS.recordError();
+            throw ex;
+        } finally {
+            GET_ALL_CUSTOMERS.record(start);
+        }
     }
 
     /**
-     * Displays all reservations in the system.
+     * Retrieves one page of all customers, sorted by email.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit  The maximum number of customers on the page.
+     * @return A page of customers.
      */
-    public void displayAllReservations() {
-        reservationService.printAllReservation();
+    public Page<Customer> getCustomers(final String cursor, final int limit) {
+        final long start = System.nanoTime();
+
+        try {
+            return customerService.findCustomersByEmail("", cursor, limit);
+        } catch (RuntimeException ex) {
+            GET_CUSTOMERS.recordError();
+            throw ex;
+        } finally {
+            GET_CUSTOMERS.record(start);
+        }
+    }
+
+    /**
+     * Returns the number of customers in the system.
+     *
+     * @return The number of customers.
+     */
+    public int getCustomerCount() {
+        final long start = System.nanoTime();
+
+        try {
+            return customerService.getCustomerCount();
+        } catch (RuntimeException ex) {
+            GET_CUSTOMER_COUNT.recordError();
+            throw ex;
+        } finally {
+            GET_CUSTOMER_COUNT.record(start);
+        }
+    }
+
+    /**
+     * Searches customers whose email starts with the given prefix, ignoring case.
+     *
+     * @param prefix The email prefix.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit  The maximum number of customers on the page.
+     * @return A page of matching customers, sorted by email.
+     */
+    public Page<Customer> findCustomersByEmailPrefix(final String prefix, final String cursor, final int limit) {
+        final long start = System.nanoTime();
+
+        try {
+            return customerService.findCustomersByEmail(prefix, cursor, limit);
+        } catch (RuntimeException ex) {
+            FIND_CUSTOMERS_BY_EMAIL_PREFIX.recordError();
+            throw ex;
+        } finally {
+            FIND_CUSTOMERS_BY_EMAIL_PREFIX.record(start);
+        }
+    }
+
+    /**
+     * Searches customers whose last name starts with the given prefix, ignoring case.
+     *
+     * @param prefix The last name prefix.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit  The maximum number of customers on the page.
+     * @return A page of matching customers, sorted by last name, first name and email.
+     */
+    public Page<Customer> findCustomersByLastNamePrefix(final String prefix, final String cursor, final int limit) {
+        final long start = System.nanoTime();
+
+        try {
+            return customerService.findCustomersByLastName(prefix, cursor, limit);
+        } catch (RuntimeException ex) {
+            FIND_CUSTOMERS_BY_LAST_NAME_PREFIX.recordError();
+            throw ex;
+        } finally {
+            FIND_CUSTOMERS_BY_LAST_NAME_PREFIX.record(start);
+        }
+    }
+
+    /**
+     * Imports customers in bulk from a CSV or JSON-lines file.
+     *
+     * @param file The file to import.
+     * @return A report of the imported and rejected rows.
+     * @throws IOException If the file cannot be read.
+     */
+    public CustomerImportReport importCustomers(final Path file) throws IOException {
+        final long start = System.nanoTime();
+
+        try {
+            return new CustomerImporter(customerService).importFile(file);
+        } catch (IOException | RuntimeException ex) {
+            IMPORT_CUSTOMERS.recordError();
+            throw ex;
+        } finally {
+            IMPORT_CUSTOMERS.record(start);
+        }
+    }
+
+    /**
+     * Retrieves every reservation of a room, sorted by check-in date.
+     *
+     * @param roomNumber The room number.
+     * @return The room's reservations.
+     */
+    public Collection<Reservation> getRoomHistory(final String roomNumber) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.getRoomHistory(roomNumber);
+        } catch (RuntimeException ex) {
+            GET_ROOM_HISTORY.recordError();
+            throw ex;
+        } finally {
+            GET_ROOM_HISTORY.record(start);
+        }
+    }
+
+    /**
+     * Retrieves the reservations of a room with at least one night between the two dates.
+     *
+     * @param roomNumber The room number.
+     * @param fromDate   The first night of the period.
+     * @param toDate     The day after the last night of the period.
+     * @return The overlapping reservations, sorted by check-in date.
+     */
+    public List<Reservation> getRoomReservations(final String roomNumber, final LocalDate fromDate,
+                                                 final LocalDate toDate) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.getRoomReservations(roomNumber, fromDate, toDate);
+        } catch (RuntimeException ex) {
+            GET_ROOM_RESERVATIONS.recordError();
+            throw ex;
+        } finally {
+            GET_ROOM_RESERVATIONS.record(start);
+        }
+    }
+
+    /**
+     * Finds the first date on or after the given date from which a room is free for the
+     * given number of nights.
+     *
+     * @param roomNumber The room number.
+     * @param fromDate   The earliest check-in date.
+     * @param nights     The number of consecutive free nights required.
+     * @return The first possible check-in date.
+     * @throws IllegalArgumentException If the room does not exist or nights is not positive.
+     */
+    public LocalDate findNextFreeDate(final String roomNumber, final LocalDate fromDate, final int nights) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.findNextFreeDate(roomNumber, fromDate, nights);
+        } catch (RuntimeException ex) {
+            FIND_NEXT_FREE_DATE.recordError();
+            throw ex;
+        } finally {
+            FIND_NEXT_FREE_DATE.record(start);
+        }
+    }
+
+    /**
+     * Sets the nightly rate of a room type, as a factor of each room's base price, for
+     * example 1.2 on weekends or 0.8 in low season.
+     *
+     * @param roomType   The room type.
+     * @param fromDate   The date of the first night.
+     * @param toDate     The date after the last night.
+     * @param daysOfWeek The days of the week the factor applies to.
+     * @param factor     The factor of the base price; 1 restores the base price.
+     */
+    public void setRateFactor(final RoomType roomType, final LocalDate fromDate, final LocalDate toDate,
+                              final Set<DayOfWeek> daysOfWeek, final double factor) {
+        final long start = System.nanoTime();
+
+        try {
+            reservationService.setRateFactor(roomType, fromDate, toDate, daysOfWeek, factor);
+        } catch (RuntimeException ex) {
+            SET_RATE_FACTOR.recordError();
+            throw ex;
+        } finally {
+            SET_RATE_FACTOR.record(start);
+        }
+    }
+
+    /**
+     * Returns the nightly rate factors of a room type.
+     *
+     * @param roomType The room type.
+     * @return The rate calendar of the room type.
+     */
+    public RateCalendar getRateCalendar(final RoomType roomType) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.getRateCalendar(roomType);
+        } catch (RuntimeException ex) {
+            GET_RATE_CALENDAR.recordError();
+            throw ex;
+        } finally {
+            GET_RATE_CALENDAR.record(start);
+        }
+    }
+
+    /**
+     * Reports the daily occupancy, room revenue and average daily rate of each room type
+     * for the nights from fromDate up to but excluding toDate.
+     *
+     * @param fromDate The date of the first night.
+     * @param toDate   The date after the last night.
+     * @return The daily statistics and the totals of the range.
+     */
+    public OccupancyReport getOccupancyReport(final LocalDate fromDate, final LocalDate toDate) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.getOccupancyReport(fromDate, toDate);
+        } catch (RuntimeException ex) {
+            GET_OCCUPANCY_REPORT.recordError();
+            throw ex;
+        } finally {
+            GET_OCCUPANCY_REPORT.record(start);
+        }
+    }
+
+    /**
+     * Returns the counters of the room search result cache, to help size it.
+     *
+     * @return The hit, miss, eviction and invalidation counters.
+     */
+    public CacheStatistics getAvailabilityCacheStatistics() {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.getAvailabilityCacheStatistics();
+        } catch (RuntimeException ex) {
+            GET_AVAILABILITY_CACHE_STATISTICS.recordError();
+            throw ex;
+        } finally {
+            GET_AVAILABILITY_CACHE_STATISTICS.record(start);
+        }
+    }
+
+    /**
+     * Returns the call counts and latency percentiles of every hotel and admin operation.
+     *
+     * @return The statistics of each operation, sorted by name.
+     */
+    public List<OperationStatistics> getOperationStatistics() {
+        return OperationMetrics.statistics();
+    }
+
+    /**
+     * Returns the number of reservations held in memory; archived stays are not counted.
+     *
+     * @return The number of reservations.
+     */
+    public int getReservationCount() {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.getReservationCount();
+        } catch (RuntimeException ex) {
+            GET_RESERVATION_COUNT.recordError();
+            throw ex;
+        } finally {
+            GET_RESERVATION_COUNT.record(start);
+        }
+    }
+
+    /**
+     * Retrieves one page of the reservations matching the filter.
+     *
+     * @param order  The sort order: by check-in date or by room.
+     * @param filter The criteria the reservations must meet.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit  The maximum number of reservations on the page.
+     * @return A page of reservations. Every full page has a next cursor, so the last page
+     *         may be empty.
+     */
+    public Page<Reservation> getReservations(final ReservationOrder order, final ReservationFilter filter,
+                                             final String cursor, final int limit) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.findReservations(order, filter, cursor, limit);
+        } catch (RuntimeException ex) {
+            GET_RESERVATIONS.recordError();
+            throw ex;
+        } finally {
+            GET_RESERVATIONS.record(start);
+        }
     }
 }
@@ -0,0 +1,426 @@
+package api;
+
+import metrics.LatencyHistogram;
+import metrics.OperationMetrics;
+import model.AlternativeOrder;
+import model.AlternativeStay;
+import model.Customer;
+import model.EpochDays;
+import model.IRoom;
+import model.Reservation;
+import model.RoomFilter;
+import model.RoomQuote;
+import model.RoomSearchResult;
+import model.RoomType;
+import service.ReservationService;
+
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides the functionalities of {@link HotelResource} asynchronously, so callers can
+ * issue many lookups and bookings without waiting for each one, and stream search results
+ * as they are found.
+ * <p>
+ * Each call runs on a thread of this resource: a virtual thread where the JDK has them,
+ * otherwise one of a fixed pool of platform threads. The futures complete with the result
+ * of the matching {@link HotelResource} method, or exceptionally with its exception.
+ * <p>
+ * Streamed rooms are driven by the subscriber's demand: each request runs the search on a
+ * thread of this resource for at most the requested rooms, in batches of
+ * {@value #STREAM_BATCH}, and then releases the thread. A stalled subscriber therefore holds
+ * no thread, rooms are checked only as fast as they are requested, and the search stops when
+ * the subscription is cancelled.
+ *
+ * @author Haregweyni Temanu
+ */
+public class AsyncHotelResource {
+
+    // Size of the platform thread pool used when virtual threads are not available
+    private static final int FALLBACK_THREADS = Integer.getInteger("hotel.async.threads", 64);
+    // Rooms a stream delivers before it gives up its thread to other calls
+    private static final int STREAM_BATCH = 256;
+
+    private static final LatencyHistogram STREAM_ROOMS =
+            OperationMetrics.histogram("AsyncHotelResource.streamRooms");
+
+    private static final AsyncHotelResource SINGLETON = new AsyncHotelResource();
+
+    private final HotelResource hotelResource = HotelResource.getSingleton();
+    private final ReservationService reservationService = ReservationService.getSingleton();
+    private final ExecutorService executor = newExecutor();
+
+    /**
+     * Private constructor to ensure singleton pattern.
+     */
+    private AsyncHotelResource() {
+    }
+
+    /**
+     * Returns the singleton instance of the AsyncHotelResource.
+     *
+     * @return The singleton instance of AsyncHotelResource.
+     */
+    public static AsyncHotelResource getSingleton() {
+        return SINGLETON;
+    }
+
+    /**
+     * Retrieves a customer by email.
+     *
+     * @param email The email of the customer.
+     * @return A future of the customer with the provided email, or of null if not found.
+     */
+    public CompletableFuture<Customer> getCustomer(final String email) {
+        return CompletableFuture.supplyAsync(() -> hotelResource.getCustomer(email), executor);
+    }
+
+    /**
+     * Creates a new customer with the provided email, first name, and last name.
+     *
+     * @param email     The email of the new customer.
+     * @param firstName The first name of the new customer.
+     * @param lastName  The last name of the new customer.
+     * @return A future completed once the customer is added.
+     */
+    public CompletableFuture<Void> createACustomer(final String email, final String firstName,
+                                                  final String lastName) {
+        return CompletableFuture.runAsync(() -> hotelResource.createACustomer(email, firstName, lastName), executor);
+    }
+
+    /**
+     * Retrieves a room by room number.
+     *
+     * @param roomNumber The room number.
+     * @return A future of the room with the provided room number, or of null if not found.
+     */
+    public CompletableFuture<IRoom> getRoom(final String roomNumber) {
+        return CompletableFuture.supplyAsync(() -> hotelResource.getRoom(roomNumber), executor);
+    }
+
+    /**
+     * Books a room for a customer by email, room, check-in date, and check-out date.
+     *
+     * @param customerEmail The email of the customer.
+     * @param room          The room to be booked.
+     * @param checkInDate   The check-in date.
+     * @param checkOutDate  The check-out date.
+     * @return A future of the created reservation, completed exceptionally with a
+     * {@link service.RoomUnavailableException} if the room is already booked for any night of the stay.
+     */
+    public CompletableFuture<Reservation> bookARoom(final String customerEmail, final IRoom room,
+                                                    final LocalDate checkInDate, final LocalDate checkOutDate) {
+        return CompletableFuture.supplyAsync(
+                () -> hotelResource.bookARoom(customerEmail, room, checkInDate, checkOutDate), executor);
+    }
+
+    /**
+     * Books several rooms for a customer for the same stay, all or none of them.
+     *
+     * @param customerEmail The email of the customer.
+     * @param rooms         The rooms to be booked, each listed once.
+     * @param checkInDate   The check-in date.
+     * @param checkOutDate  The check-out date.
+     * @return A future of the created reservations, one per room, completed exceptionally with a
+     * {@link service.RoomUnavailableException} if any room is already booked, in which case none is booked.
+     */
+    public CompletableFuture<List<Reservation>> bookRooms(final String customerEmail, final Collection<IRoom> rooms,
+                                                          final LocalDate checkInDate, final LocalDate checkOutDate) {
+        return CompletableFuture.supplyAsync(
+                () -> hotelResource.bookRooms(customerEmail, rooms, checkInDate, checkOutDate), executor);
+    }
+
+    /**
+     * Books the given number of the cheapest free rooms of a type for a customer for the same
+     * stay, all or none of them.
+     *
+     * @param customerEmail The email of the customer.
+     * @param roomType      The type of the rooms.
+     * @param count         The number of rooms to book.
+     * @param checkInDate   The check-in date.
+     * @param checkOutDate  The check-out date.
+     * @return A future of the created reservations, one per room, completed exceptionally with a
+     * {@link service.RoomUnavailableException} if fewer rooms of the type are free for the stay.
+     */
+    public CompletableFuture<List<Reservation>> bookRooms(final String customerEmail, final RoomType roomType,
+                                                          final int count, final LocalDate checkInDate,
+                                                          final LocalDate checkOutDate) {
+        return CompletableFuture.supplyAsync(
+                () -> hotelResource.bookRooms(customerEmail, roomType, count, checkInDate, checkOutDate), executor);
+    }
+
+    /**
+     * Retrieves the reservations for a customer by email.
+     *
+     * @param customerEmail The email of the customer.
+     * @return A future of the customer's reservations, or of an empty collection if the customer is not found.
+     */
+    public CompletableFuture<Collection<Reservation>> getCustomersReservations(final String customerEmail) {
+        return CompletableFuture.supplyAsync(() -> hotelResource.getCustomersReservations(customerEmail), executor);
+    }
+
+    /**
+     * Searches for available rooms within the given check-in and check-out dates.
+     *
+     * @param checkIn  The check-in date.
+     * @param checkOut The check-out date.
+     * @return A future of the available rooms.
+     */
+    public CompletableFuture<Collection<IRoom>> findARoom(final LocalDate checkIn, final LocalDate checkOut) {
+        return CompletableFuture.supplyAsync(() -> hotelResource.findARoom(checkIn, checkOut), executor);
+    }
+
+    /**
+     * Searches for available rooms matching the filter: the cheapest matching rooms, and the
+     * number of available rooms of each type in the filter's price range.
+     *
+     * @param checkIn  The check-in date.
+     * @param checkOut The check-out date.
+     * @param filter   The room type, price range and free/paid criteria.
+     * @param limit    The maximum number of rooms to return.
+     * @return A future of the cheapest matching rooms and the counts per room type.
+     */
+    public CompletableFuture<RoomSearchResult> searchRooms(final LocalDate checkIn, final LocalDate checkOut,
+                                                           final RoomFilter filter, final int limit) {
+        return CompletableFuture.supplyAsync(() -> hotelResource.searchRooms(checkIn, checkOut, filter, limit),
+                executor);
+    }
+
+    /**
+     * Finds the cheapest available rooms matching the filter, without counting all matches.
+     *
+     * @param checkIn  The check-in date.
+     * @param checkOut The check-out date.
+     * @param filter   The room type, price range and free/paid criteria.
+     * @param limit    The maximum number of rooms to return.
+     * @return A future of up to limit matching rooms, cheapest first.
+     */
+    public CompletableFuture<List<IRoom>> findCheapestRooms(final LocalDate checkIn, final LocalDate checkOut,
+                                                            final RoomFilter filter, final int limit) {
+        return CompletableFuture.supplyAsync(() -> hotelResource.findCheapestRooms(checkIn, checkOut, filter, limit),
+                executor);
+    }
+
+    /**
+     * Finds the available rooms for the stay, each with the total price of the stay at the
+     * nightly rates of its dates.
+     *
+     * @param checkIn  The check-in date.
+     * @param checkOut The check-out date.
+     * @return A future of the available rooms with their stay totals.
+     */
+    public CompletableFuture<List<RoomQuote>> quoteRooms(final LocalDate checkIn, final LocalDate checkOut) {
+        return CompletableFuture.supplyAsync(() -> hotelResource.quoteRooms(checkIn, checkOut), executor);
+    }
+
+    /**
+     * Finds the available rooms matching the filter whose stays cost the least at the nightly
+     * rates of the stay's dates.
+     *
+     * @param checkIn  The check-in date.
+     * @param checkOut The check-out date.
+     * @param filter   The room type, price range and free/paid criteria.
+     * @param limit    The maximum number of rooms to return.
+     * @return A future of up to limit matching rooms with their stay totals, cheapest stay first.
+     */
+    public CompletableFuture<List<RoomQuote>> findCheapestQuotes(final LocalDate checkIn, final LocalDate checkOut,
+                                                                 final RoomFilter filter, final int limit) {
+        return CompletableFuture.supplyAsync(
+                () -> hotelResource.findCheapestQuotes(checkIn, checkOut, filter, limit), executor);
+    }
+
+    /**
+     * Searches for rooms free for a stay as long as the requested one on nearby dates.
+     *
+     * @param checkIn     The requested check-in date.
+     * @param checkOut    The requested check-out date.
+     * @param order       Whether to rank the earliest later stays or the closest stays in either direction.
+     * @param limit       The maximum number of stays to return.
+     * @param horizonDays The maximum number of days a stay may be shifted.
+     * @return A future of the best alternative stays, best first.
+     */
+    public CompletableFuture<List<AlternativeStay>> findAlternativeStays(final LocalDate checkIn,
+                                                                         final LocalDate checkOut,
+                                                                         final AlternativeOrder order,
+                                                                         final int limit, final int horizonDays) {
+        return CompletableFuture.supplyAsync(
+                () -> hotelResource.findAlternativeStays(checkIn, checkOut, order, limit, horizonDays), executor);
+    }
+
+    /**
+     * Streams the available rooms matching the filter, cheapest first. Each subscriber gets
+     * its own search over the rooms and bookings as they were when it subscribed, which checks
+     * rooms only as the subscriber requests them, so the first rooms arrive before the rest are
+     * checked. The results are not cached.
+     *
+     * @param checkIn  The check-in date.
+     * @param checkOut The check-out date.
+     * @param filter   The room type, price range and free/paid criteria.
+     * @return A publisher of the matching rooms; it completes after the last one, or with the search's error.
+     */
+    public Flow.Publisher<IRoom> streamRooms(final LocalDate checkIn, final LocalDate checkOut,
+                                             final RoomFilter filter) {
+        final int checkInDay = EpochDays.of(checkIn);
+        final int checkOutDay = EpochDays.of(checkOut);
+
+        // The search reads the state when subscribed to, but checks no room before the first request
+        return subscriber -> subscriber.onSubscribe(new RoomSubscription(subscriber,
+                reservationService.iterateFreeRooms(checkInDay, checkOutDay, filter), executor));
+    }
+
+    /**
+     * Stops taking calls, waits up to the given number of seconds for calls and stream drains
+     * in progress, and releases their threads. Calls made afterwards are rejected with a
+     * {@link java.util.concurrent.RejectedExecutionException}.
+     *
+     * @param delaySeconds The maximum time to wait for calls in progress.
+     */
+    public void shutdown(final int delaySeconds) {
+        executor.shutdown();
+
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // One thread per call: virtual threads where the JDK has them (21+), looked up reflectively
+    // so the code still compiles for 17; otherwise a pool of platform threads
+    private static ExecutorService newExecutor() {
+        try {
+            final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            final ThreadFactory threads = task -> {
+                final Thread thread = new Thread(task, "hotel-async-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newFixedThreadPool(FALLBACK_THREADS, threads);
+        }
+    }
+
+    // Subscription delivering the rooms of one search as they are requested. Requests and
+    // cancellation only record what is wanted and schedule a drain; one drain runs at a time, so
+    // the subscriber's signals never overlap.
+    private static final class RoomSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super IRoom> subscriber;
+        private final Executor executor;
+        private final long start = System.nanoTime();
+        private final AtomicLong requested = new AtomicLong();
+        // Scheduled drains not yet handled; the drain that takes it from 0 runs until it is back to 0
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+        // Taken on subscription, then only used by drains
+        private Iterator<IRoom> rooms;
+        private boolean done;
+
+        private RoomSubscription(final Flow.Subscriber<? super IRoom> subscriber,
+                                 final Iterator<IRoom> rooms, final Executor executor) {
+            this.subscriber = subscriber;
+            this.rooms = rooms;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(final long count) {
+            if (count <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested " + count + " rooms");
+            } else {
+                requested.getAndAccumulate(count, (current, added) -> current + added < 0
+                        ? Long.MAX_VALUE
+                        : current + added);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        // Deliver up to the requested rooms, at most STREAM_BATCH before handing the thread back
+        @Override
+        public void run() {
+            int missed = pending.get();
+
+            while (!done) {
+                final long demand = requested.get();
+                int emitted = 0;
+
+                try {
+                    while (!done && emitted < demand && emitted < STREAM_BATCH) {
+                        if (cancelled || invalidRequest != null) {
+                            break;
+                        }
+                        if (!rooms.hasNext()) {
+                            finish();
+                            subscriber.onComplete();
+                            return;
+                        }
+                        subscriber.onNext(rooms.next());
+                        emitted++;
+                    }
+                } catch (RuntimeException ex) {
+                    STREAM_ROOMS.recordError();
+                    finish();
+                    subscriber.onError(ex);
+                    return;
+                }
+
+                if (invalidRequest != null) {
+                    finish();
+                    subscriber.onError(invalidRequest);
+                    return;
+                }
+                if (cancelled) {
+                    finish();
+                    return;
+                }
+                if (demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                if (emitted == STREAM_BATCH) {
+                    // Still draining: continue on a fresh task so queued calls get a turn
+                    executor.execute(this);
+                    return;
+                }
+
+                missed = pending.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        // End the search; later requests schedule drains that find it done
+        private void finish() {
+            done = true;
+            rooms = null;
+            STREAM_ROOMS.record(start);
+        }
+    }
+}
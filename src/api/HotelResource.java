@@ -1,14 +1,24 @@
 package api;
 
+import metrics.LatencyHistogram;
+import metrics.OperationMetrics;
+import model.AlternativeOrder;
+import model.AlternativeStay;
 import model.Customer;
 import model.Reservation;
 import model.IRoom;
+import model.RoomFilter;
+import model.RoomQuote;
+import model.RoomSearchResult;
+import model.RoomType;
 import service.CustomerService;
 import service.ReservationService;
 
+import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Provides hotel-related functionalities for managing customers, rooms, and reservations.
@@ -17,6 +27,28 @@ import java.util.Date;
  */
 public class HotelResource {
 
+    private static final LatencyHistogram GET_CUSTOMER = OperationMetrics.histogram("HotelResource.getCustomer");
+    private static final LatencyHistogram CREATE_A_CUSTOMER =
+            OperationMetrics.histogram("HotelResource.createACustomer");
+    private static final LatencyHistogram GET_ROOM = OperationMetrics.histogram("HotelResource.getRoom");
+    private static final LatencyHistogram BOOK_A_ROOM = OperationMetrics.histogram("HotelResource.bookARoom");
+    private static final LatencyHistogram BOOK_ROOMS = OperationMetrics.histogram("HotelResource.bookRooms");
+    private static final LatencyHistogram GET_CUSTOMERS_RESERVATIONS =
+            OperationMetrics.histogram("HotelResource.getCustomersReservations");
+    private static final LatencyHistogram FIND_A_ROOM = OperationMetrics.histogram("HotelResource.findARoom");
+    private static final LatencyHistogram SEARCH_ROOMS = OperationMetrics.histogram("HotelResource.searchRooms");
+    private static final LatencyHistogram FIND_CHEAPEST_ROOMS =
+            OperationMetrics.histogram("HotelResource.findCheapestRooms");
+    private static final LatencyHistogram QUOTE_ROOMS = OperationMetrics.histogram("HotelResource.quoteRooms");
+    private static final LatencyHistogram FIND_CHEAPEST_QUOTES =
+            OperationMetrics.histogram("HotelResource.findCheapestQuotes");
+    private static final LatencyHistogram FIND_ALTERNATIVE_ROOMS =
+            OperationMetrics.histogram("HotelResource.findAlternativeRooms");
+    private static final LatencyHistogram FIND_ALTERNATIVE_STAYS =
+            OperationMetrics.histogram("HotelResource.findAlternativeStays");
+    private static final LatencyHistogram ADD_DEFAULT_PLUS_DAYS =
+            OperationMetrics.histogram("HotelResource.addDefaultPlusDays");
+
     private static final HotelResource SINGLETON = new HotelResource();
 
     private final CustomerService customerService = CustomerService.getSingleton();
@@ -44,7 +76,16 @@ public class HotelResource {
      * @return The customer with the provided email, or null if not found.
      */
     public Customer getCustomer(String email) {
-        return customerService.getCustomer(email);
+        final long start = System.nanoTime();
+
+        try {
+            return customerService.getCustomer(email);
+        } catch (RuntimeException ex) {
+            GET_CUSTOMER.recordError();
+            throw ex;
+        } finally {
+            GET_CUSTOMER.record(start);
+        }
     }
 
     /**
@@ -55,7 +96,16 @@ public class HotelResource {
      * @param lastName  The last name of the new customer.
      */
     public void createACustomer(String email, String firstName, String lastName) {
-        customerService.addCustomer(email, firstName, lastName);
+        final long start = System.nanoTime();
+
+        try {
+            customerService.addCustomer(email, firstName, lastName);
+        } catch (RuntimeException ex) {
+            CREATE_A_CUSTOMER.recordError();
+            throw ex;
+        } finally {
+            CREATE_A_CUSTOMER.record(start);
+        }
     }
 
     /**
@@ -65,7 +115,16 @@ public class HotelResource {
      * @return The room with the provided room number, or null if not found.
      */
     public IRoom getRoom(String roomNumber) {
-        return reservationService.getARoom(roomNumber);
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.getARoom(roomNumber);
+        } catch (RuntimeException ex) {
+            GET_ROOM.recordError();
+            throw ex;
+        } finally {
+            GET_ROOM.record(start);
+        }
     }
 
     /**
@@ -76,9 +135,102 @@ public class HotelResource {
      * @param checkInDate   The check-in date.
      * @param checkOutDate  The check-out date.
      * @return The created reservation.
+     * @throws service.RoomUnavailableException If the room is already booked for any night of the stay.
+     * @throws IllegalArgumentException         If check-out is not after check-in.
      */
     public Reservation bookARoom(String customerEmail, IRoom room, Date checkInDate, Date checkOutDate) {
-        return reservationService.reserveARoom(getCustomer(customerEmail), room, checkInDate, checkOutDate);
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.reserveARoom(customerService.getCustomer(customerEmail), room,
+                    checkInDate, checkOutDate);
+        } catch (RuntimeException ex) {
+            BOOK_A_ROOM.recordError();
+            throw ex;
+        } finally {
+            BOOK_A_ROOM.record(start);
+        }
+    }
+
+    /**
+     * Books a room for a customer by email, room, check-in date, and check-out date.
+     *
+     * @param customerEmail The email of the customer.
+     * @param room          The room to be booked.
+     * @param checkInDate   The check-in date.
+     * @param checkOutDate  The check-out date.
+     * @return The created reservation.
+     * @throws service.RoomUnavailableException If the room is already booked for any night of the stay.
+     * @throws IllegalArgumentException         If check-out is not after check-in.
+     */
+    public Reservation bookARoom(String customerEmail, IRoom room, LocalDate checkInDate, LocalDate checkOutDate) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.reserveARoom(customerService.getCustomer(customerEmail), room,
+                    checkInDate, checkOutDate);
+        } catch (RuntimeException ex) {
+            BOOK_A_ROOM.recordError();
+            throw ex;
+        } finally {
+            BOOK_A_ROOM.record(start);
+        }
+    }
+
+    /**
+     * Books several rooms for a customer for the same stay, all or none of them.
+     *
+     * @param customerEmail The email of the customer.
+     * @param rooms         The rooms to be booked, each listed once.
+     * @param checkInDate   The check-in date.
+     * @param checkOutDate  The check-out date.
+     * @return The created reservations, one per room.
+     * @throws service.RoomUnavailableException If any room is already booked for any night of the stay,
+     *                                          in which case none is booked.
+     * @throws IllegalArgumentException         If check-out is not after check-in.
+     */
+    public List<Reservation> bookRooms(String customerEmail, Collection<IRoom> rooms, LocalDate checkInDate,
+                                       LocalDate checkOutDate) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.reserveRooms(customerService.getCustomer(customerEmail), rooms,
+                    checkInDate, checkOutDate);
+        } catch (RuntimeException ex) {
+            BOOK_ROOMS.recordError();
+            throw ex;
+        } finally {
+            BOOK_ROOMS.record(start);
+        }
+    }
+
+    /**
+     * Books the given number of rooms of a type for a customer for the same stay, all or none of
+     * them. The cheapest free rooms of the type are chosen.
+     *
+     * @param customerEmail The email of the customer.
+     * @param roomType      The type of the rooms.
+     * @param count         The number of rooms to book.
+     * @param checkInDate   The check-in date.
+     * @param checkOutDate  The check-out date.
+     * @return The created reservations, one per room.
+     * @throws service.RoomUnavailableException If fewer rooms of the type are free for the stay, in which
+     *                                          case none is booked.
+     * @throws IllegalArgumentException         If check-out is not after check-in.
+     */
+    public List<Reservation> bookRooms(String customerEmail, RoomType roomType, int count, LocalDate checkInDate,
+                                       LocalDate checkOutDate) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.reserveRooms(customerService.getCustomer(customerEmail), roomType, count,
+                    checkInDate, checkOutDate);
+        } catch (RuntimeException ex) {
+            BOOK_ROOMS.recordError();
+            throw ex;
+        } finally {
+            BOOK_ROOMS.record(start);
+        }
     }
 
     /**
@@ -88,13 +240,22 @@ public class HotelResource {
      * @return A collection of reservations for the customer, or an empty collection if the customer is not found.
      */
     public Collection<Reservation> getCustomersReservations(String customerEmail) {
-        final Customer customer = getCustomer(customerEmail);
+        final long start = System.nanoTime();
 
-        if (customer == null) {
-            return Collections.emptyList();
-        }
+        try {
+            final Customer customer = customerService.getCustomer(customerEmail);
+
+            if (customer == null) {
+                return Collections.emptyList();
+            }
 
-        return reservationService.getCustomersReservation(getCustomer(customerEmail));
+            return reservationService.getCustomersReservation(customer);
+        } catch (RuntimeException ex) {
+            GET_CUSTOMERS_RESERVATIONS.recordError();
+            throw ex;
+        } finally {
+            GET_CUSTOMERS_RESERVATIONS.record(start);
+        }
     }
 
     /**
@@ -105,7 +266,128 @@ public class HotelResource {
      * @return A collection of available rooms.
      */
     public Collection<IRoom> findARoom(final Date checkIn, final Date checkOut) {
-        return reservationService.findRooms(checkIn, checkOut);
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.findRooms(checkIn, checkOut);
+        } catch (RuntimeException ex) {
+            FIND_A_ROOM.recordError();
+            throw ex;
+        } finally {
+            FIND_A_ROOM.record(start);
+        }
+    }
+
+    /**
+     * Searches for available rooms within the given check-in and check-out dates.
+     *
+     * @param checkIn  The check-in date.
+     * @param checkOut The check-out date.
+     * @return A collection of available rooms.
+     */
+    public Collection<IRoom> findARoom(final LocalDate checkIn, final LocalDate checkOut) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.findRooms(checkIn, checkOut);
+        } catch (RuntimeException ex) {
+            FIND_A_ROOM.recordError();
+            throw ex;
+        } finally {
+            FIND_A_ROOM.record(start);
+        }
+    }
+
+    /**
+     * Searches for available rooms matching the filter. Returns the cheapest matching rooms,
+     * and the number of available rooms of each type in the filter's price range.
+     *
+     * @param checkIn  The check-in date.
+     * @param checkOut The check-out date.
+     * @param filter   The room type, price range and free/paid criteria.
+     * @param limit    The maximum number of rooms to return.
+     * @return The cheapest matching rooms and the counts per room type.
+     */
+    public RoomSearchResult searchRooms(final LocalDate checkIn, final LocalDate checkOut, final RoomFilter filter,
+                                        final int limit) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.searchRooms(checkIn, checkOut, filter, limit);
+        } catch (RuntimeException ex) {
+            SEARCH_ROOMS.recordError();
+            throw ex;
+        } finally {
+            SEARCH_ROOMS.record(start);
+        }
+    }
+
+    /**
+     * Finds the cheapest available rooms matching the filter, without counting all matches.
+     *
+     * @param checkIn  The check-in date.
+     * @param checkOut The check-out date.
+     * @param filter   The room type, price range and free/paid criteria.
+     * @param limit    The maximum number of rooms to return.
+     * @return Up to limit matching rooms, cheapest first.
+     */
+    public List<IRoom> findCheapestRooms(final LocalDate checkIn, final LocalDate checkOut, final RoomFilter filter,
+                                         final int limit) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.findCheapestRooms(checkIn, checkOut, filter, limit);
+        } catch (RuntimeException ex) {
+            FIND_CHEAPEST_ROOMS.recordError();
+            throw ex;
+        } finally {
+            FIND_CHEAPEST_ROOMS.record(start);
+        }
+    }
+
+    /**
+     * Finds the available rooms for the stay, each with the total price of the stay at the
+     * nightly rates of its dates.
+     *
+     * @param checkIn  The check-in date.
+     * @param checkOut The check-out date.
+     * @return The available rooms with their stay totals.
+     */
+    public List<RoomQuote> quoteRooms(final LocalDate checkIn, final LocalDate checkOut) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.quoteRooms(checkIn, checkOut);
+        } catch (RuntimeException ex) {
+            QUOTE_ROOMS.recordError();
+            throw ex;
+        } finally {
+            QUOTE_ROOMS.record(start);
+        }
+    }
+
+    /**
+     * Finds the available rooms matching the filter whose stays cost the least at the nightly
+     * rates of the stay's dates. The filter's price range applies to the base nightly price.
+     *
+     * @param checkIn  The check-in date.
+     * @param checkOut The check-out date.
+     * @param filter   The room type, price range and free/paid criteria.
+     * @param limit    The maximum number of rooms to return.
+     * @return Up to limit matching rooms with their stay totals, cheapest stay first.
+     */
+    public List<RoomQuote> findCheapestQuotes(final LocalDate checkIn, final LocalDate checkOut,
+                                              final RoomFilter filter, final int limit) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.findCheapestQuotes(checkIn, checkOut, filter, limit);
+        } catch (RuntimeException ex) {
+            FIND_CHEAPEST_QUOTES.recordError();
+            throw ex;
+        } finally {
+            FIND_CHEAPEST_QUOTES.record(start);
+        }
     }
 
     /**
@@ -117,7 +399,81 @@ public class HotelResource {
      * @return A collection of alternative available rooms.
      */
     public Collection<IRoom> findAlternativeRooms(final Date checkIn, final Date checkOut) {
-        return reservationService.findAlternativeRooms(checkIn, checkOut);
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.findAlternativeRooms(checkIn, checkOut);
+        } catch (RuntimeException ex) {
+            FIND_ALTERNATIVE_ROOMS.recordError();
+            throw ex;
+        } finally {
+            FIND_ALTERNATIVE_ROOMS.record(start);
+        }
+    }
+
+    /**
+     * Searches for alternative available rooms within the given check-in and check-out dates.
+     *
+     * @param checkIn  The check-in date.
+     * @param checkOut The check-out date.
+     * @return A collection of alternative available rooms.
+     */
+    public Collection<IRoom> findAlternativeRooms(final LocalDate checkIn, final LocalDate checkOut) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.findAlternativeRooms(checkIn, checkOut);
+        } catch (RuntimeException ex) {
+            FIND_ALTERNATIVE_ROOMS.recordError();
+            throw ex;
+        } finally {
+            FIND_ALTERNATIVE_ROOMS.record(start);
+        }
+    }
+
+    /**
+     * Searches for rooms free for a stay as long as the requested one on nearby dates. Each
+     * room appears at most once, with its best stay.
+     *
+     * @param checkIn     The requested check-in date.
+     * @param checkOut    The requested check-out date.
+     * @param order       Whether to rank the earliest later stays or the closest stays in either direction.
+     * @param limit       The maximum number of stays to return.
+     * @param horizonDays The maximum number of days a stay may be shifted.
+     * @return The best alternative stays, best first.
+     */
+    public List<AlternativeStay> findAlternativeStays(final LocalDate checkIn, final LocalDate checkOut,
+                                                      final AlternativeOrder order, final int limit,
+                                                      final int horizonDays) {
+        return findAlternativeStays(checkIn, checkOut, order, limit, horizonDays, 1);
+    }
+
+    /**
+     * Searches for stays as long as the requested one on nearby dates, with up to the given
+     * number of stays of each room, so a room free on several nearby dates can be offered on
+     * each of them.
+     *
+     * @param checkIn     The requested check-in date.
+     * @param checkOut    The requested check-out date.
+     * @param order       Whether to rank the earliest later stays or the closest stays in either direction.
+     * @param limit       The maximum number of stays to return.
+     * @param horizonDays The maximum number of days a stay may be shifted.
+     * @param perRoom     The maximum number of stays of one room.
+     * @return The best alternative stays, best first.
+     */
+    public List<AlternativeStay> findAlternativeStays(final LocalDate checkIn, final LocalDate checkOut,
+                                                      final AlternativeOrder order, final int limit,
+                                                      final int horizonDays, final int perRoom) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.findAlternativeStays(checkIn, checkOut, order, limit, horizonDays, perRoom);
+        } catch (RuntimeException ex) {
+            FIND_ALTERNATIVE_STAYS.recordError();
+            throw ex;
+        } finally {
+            FIND_ALTERNATIVE_STAYS.record(start);
+        }
     }
 
     /**
@@ -127,6 +483,34 @@ public class HotelResource {
      * @return The date with default days added.
      */
     public Date addDefaultPlusDays(final Date date) {
-        return reservationService.addDefaultPlusDays(date);
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.addDefaultPlusDays(date);
+        } catch (RuntimeException ex) {
+            ADD_DEFAULT_PLUS_DAYS.recordError();
+            throw ex;
+        } finally {
+            ADD_DEFAULT_PLUS_DAYS.record(start);
+        }
+    }
+
+    /**
+     * Adds default days to the provided date.
+     *
+     * @param date The date to add default days to.
+     * @return The date with default days added.
+     */
+    public LocalDate addDefaultPlusDays(final LocalDate date) {
+        final long start = System.nanoTime();
+
+        try {
+            return reservationService.addDefaultPlusDays(date);
+        } catch (RuntimeException ex) {
+            ADD_DEFAULT_PLUS_DAYS.recordError();
+            throw ex;
+        } finally {
+            ADD_DEFAULT_PLUS_DAYS.record(start);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,1081 @@
+package http;
+
+import api.AdminResource;
+import api.AsyncHotelResource;
+import api.HotelResource;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.AlternativeOrder;
+import model.AlternativeStay;
+import model.CacheStatistics;
+import model.Customer;
+import model.EpochDays;
+import model.FreeRoom;
+import model.IRoom;
+import model.OccupancyReport;
+import model.OccupancyStatistics;
+import model.OperationStatistics;
+import model.Page;
+import model.RateCalendar;
+import model.Reservation;
+import model.ReservationFilter;
+import model.ReservationOrder;
+import model.Room;
+import model.RoomFilter;
+import model.RoomQuote;
+import model.RoomSearchResult;
+import model.RoomType;
+import service.RoomUnavailableException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded HTTP/JSON front end over {@link HotelResource} and {@link AdminResource}, built on
+ * the JDK's {@link HttpServer}. Each request runs on its own virtual thread when the JDK
+ * provides them, and on a large pool of platform threads otherwise.
+ * <p>
+ * Endpoints (dates are ISO {@code yyyy-MM-dd}):
+ * <pre>
+ * GET  /api/rooms?checkIn=&amp;checkOut=               free rooms for the stay
+ * GET  /api/rooms/alternatives?checkIn=&amp;checkOut=&amp;order=closest|earliest&amp;limit=&amp;horizon=&amp;perRoom=
+ *                                                    rooms free for a stay as long on nearby dates
+ * GET  /api/rooms/search?checkIn=&amp;checkOut=&amp;type=&amp;minPrice=&amp;maxPrice=&amp;free=&amp;limit=
+ *                                                    cheapest matching free rooms and counts per type
+ * GET  /api/rooms/quotes?checkIn=&amp;checkOut=&amp;type=&amp;minPrice=&amp;maxPrice=&amp;free=&amp;limit=
+ *                                                    matching free rooms with the cheapest stay totals
+ * GET  /api/rooms/stream?checkIn=&amp;checkOut=&amp;type=&amp;minPrice=&amp;maxPrice=&amp;free=
+ *                                                    all matching free rooms, cheapest first, sent as found
+ * GET  /api/rooms/{roomNumber}                       one room
+ * GET  /api/rooms/{roomNumber}/nextFree?from=&amp;nights=   first check-in date with enough free nights
+ * POST /api/customers                                {"email", "firstName", "lastName"}
+ * GET  /api/customers/{email}                        one customer
+ * GET  /api/customers/{email}/reservations           the customer's reservations
+ * POST /api/reservations                             {"email", "roomNumber", "checkIn", "checkOut"}
+ * POST /api/reservations/group                       {"email", "checkIn", "checkOut", "roomNumbers": [...]}
+ *                                                    or {"email", "checkIn", "checkOut", "roomType", "count"};
+ *                                                    books all the rooms or none
+ * GET  /admin/rooms                                  all rooms
+ * POST /admin/rooms                                  [{"roomNumber", "price", "roomType"}, ...]
+ * GET  /admin/rooms/{roomNumber}/reservations?from=&amp;to=   the room's stays in the period, or all of them
+ * GET  /admin/customers?emailPrefix=|lastNamePrefix=&amp;cursor=&amp;limit=   a page of customers
+ * GET  /admin/reservations?order=checkIn|room&amp;from=&amp;before=&amp;room=&amp;email=&amp;cursor=&amp;limit=
+ *                                                    a page of reservations
+ * GET  /admin/rates?type=&amp;from=&amp;to=                  nightly rate factors of a room type
+ * POST /admin/rates                                  {"roomType", "from", "to", "factor", "daysOfWeek": [...]};
+ *                                                    without daysOfWeek the factor applies to every night
+ * GET  /admin/occupancy?from=&amp;to=                   daily occupancy, revenue and ADR per room type
+ * GET  /admin/cache                                  search result cache counters
+ * GET  /admin/metrics                                call counts and latency percentiles per operation
+ * </pre>
+ * Errors are returned as {@code {"error": "..."}} with a 4xx or 5xx status; a booking
+ * conflict is a 409. Stays longer than {@code hotel.http.maxStayNights} (default 366) and
+ * dates more than {@code hotel.http.dateHorizonYears} (default 10) years from today are
+ * rejected with a 400.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class HotelHttpServer {
+
+    private static final int BACKLOG = 1024;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int DEFAULT_HORIZON_DAYS = 30;
+    private static final int MAX_HORIZON_DAYS = 366;
+    // Longest stay searched or booked, in nights
+    private static final int MAX_STAY_NIGHTS = Integer.getInteger("hotel.http.maxStayNights", 366);
+    // Dates further from today than this, in years, are rejected
+    private static final int DATE_HORIZON_YEARS = Integer.getInteger("hotel.http.dateHorizonYears", 10);
+    // Size of the platform thread pool used when virtual threads are not available
+    private static final int FALLBACK_THREADS = Integer.getInteger("hotel.http.threads", 256);
+    // Rooms requested from a stream at a time; the next batch is requested once one is written
+    private static final int STREAM_BATCH = 64;
+    // Longest wait for the next room of a stream before the response is abandoned
+    private static final long STREAM_TIMEOUT_MILLIS =
+            Long.getLong("hotel.http.streamTimeoutSeconds", 30L) * 1000L;
+
+    private final HotelResource hotelResource = HotelResource.getSingleton();
+    private final AsyncHotelResource asyncHotelResource = AsyncHotelResource.getSingleton();
+    private final AdminResource adminResource = AdminResource.getSingleton();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private HotelHttpServer(final HttpServer server, final ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a server listening on the given address.
+     *
+     * @param address The address to bind; port 0 picks a free port.
+     * @return The running server.
+     * @throws IOException If the address cannot be bound.
+     */
+    public static HotelHttpServer start(final InetSocketAddress address) throws IOException {
+        final ExecutorService executor = newRequestExecutor();
+        final HotelHttpServer hotelServer = new HotelHttpServer(HttpServer.create(address, BACKLOG), executor);
+
+        hotelServer.server.createContext("/api/rooms", exchange -> hotelServer.dispatch(exchange, hotelServer::rooms));
+        hotelServer.server.createContext("/api/customers",
+                exchange -> hotelServer.dispatch(exchange, hotelServer::customers));
+        hotelServer.server.createContext("/api/reservations",
+                exchange -> hotelServer.dispatch(exchange, hotelServer::reservations));
+        hotelServer.server.createContext("/admin/rooms",
+                exchange -> hotelServer.dispatch(exchange, hotelServer::adminRooms));
+        hotelServer.server.createContext("/admin/customers",
+                exchange -> hotelServer.dispatch(exchange, hotelServer::adminCustomers));
+        hotelServer.server.createContext("/admin/reservations",
+                exchange -> hotelServer.dispatch(exchange, hotelServer::adminReservations));
+        hotelServer.server.createContext("/admin/rates",
+                exchange -> hotelServer.dispatch(exchange, hotelServer::adminRates));
+        hotelServer.server.createContext("/admin/occupancy",
+                exchange -> hotelServer.dispatch(exchange, hotelServer::adminOccupancy));
+        hotelServer.server.createContext("/admin/cache",
+                exchange -> hotelServer.dispatch(exchange, hotelServer::adminCache));
+        hotelServer.server.createContext("/admin/metrics",
+                exchange -> hotelServer.dispatch(exchange, hotelServer::adminMetrics));
+        hotelServer.server.setExecutor(executor);
+        hotelServer.server.start();
+
+        return hotelServer;
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return The bound port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, waits up to the given number of seconds for requests in
+     * progress, and releases the request threads.
+     *
+     * @param delaySeconds The maximum time to wait for requests in progress.
+     */
+    public void stop(final int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // One thread per request: virtual threads where the JDK has them (21+), looked up
+    // reflectively so the code still compiles for 17; otherwise a large platform pool
+    private static ExecutorService newRequestExecutor() {
+        try {
+            final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            final ThreadFactory threads = task -> {
+                final Thread thread = new Thread(task, "hotel-http-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newFixedThreadPool(FALLBACK_THREADS, threads);
+        }
+    }
+
+    // Run a route handler and turn its exceptions into JSON error responses
+    private void dispatch(final HttpExchange exchange, final Route route) throws IOException {
+        try {
+            route.handle(exchange, segments(exchange));
+        } catch (HttpError ex) {
+            sendError(exchange, ex.status, ex.getMessage());
+        } catch (RoomUnavailableException ex) {
+            sendError(exchange, 409, ex.getMessage());
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            sendError(exchange, 400, ex.getMessage());
+        } catch (RuntimeException ex) {
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // GET /api/rooms, /api/rooms/search, /api/rooms/quotes, /api/rooms/alternatives, /api/rooms/stream,
+    // /api/rooms/{roomNumber} and /api/rooms/{roomNumber}/nextFree
+    private void rooms(final HttpExchange exchange, final List<String> path) throws IOException {
+        requireMethod(exchange, "GET");
+
+        if (path.isEmpty()) {
+            final Map<String, String> query = query(exchange);
+            final LocalDate checkIn = date(query, "checkIn");
+            final LocalDate checkOut = stayCheckOut(checkIn, date(query, "checkOut"));
+
+            sendRooms(exchange, checkIn, checkOut, hotelResource.findARoom(checkIn, checkOut));
+        } else if (path.size() == 1 && path.get(0).equals("search")) {
+            final Map<String, String> query = query(exchange);
+            final LocalDate checkIn = date(query, "checkIn");
+            final LocalDate checkOut = stayCheckOut(checkIn, date(query, "checkOut"));
+            final RoomSearchResult result = hotelResource.searchRooms(checkIn, checkOut, roomFilter(query),
+                    limit(query));
+            final JsonWriter json = new JsonWriter(1 << 12).beginObject().name("rooms").beginArray();
+
+            for (IRoom room : result.getRooms()) {
+                writeRoom(json, room);
+            }
+            json.endArray().name("typeCounts").beginObject();
+            for (Map.Entry<RoomType, Integer> count : result.getTypeCounts().entrySet()) {
+                json.name(count.getKey().name()).value(count.getValue());
+            }
+            send(exchange, 200, json.endObject().name("totalCount").value(result.getTotalCount())
+                    .name("version").value(result.getVersion()).endObject());
+        } else if (path.size() == 1 && path.get(0).equals("quotes")) {
+            final Map<String, String> query = query(exchange);
+            final LocalDate checkIn = date(query, "checkIn");
+            final LocalDate checkOut = stayCheckOut(checkIn, date(query, "checkOut"));
+            final JsonWriter json = new JsonWriter(1 << 12).beginArray();
+
+            for (RoomQuote quote : hotelResource.findCheapestQuotes(checkIn, checkOut, roomFilter(query),
+                    limit(query))) {
+                json.beginObject().name("room");
+                writeRoom(json, quote.getRoom())
+                        .name("checkIn").value(quote.getCheckIn().toString())
+                        .name("checkOut").value(quote.getCheckOut().toString())
+                        .name("totalPrice").value(quote.getTotalPrice())
+                        .endObject();
+            }
+            send(exchange, 200, json.endArray());
+        } else if (path.size() == 1 && path.get(0).equals("alternatives")) {
+            final Map<String, String> query = query(exchange);
+            final LocalDate checkIn = date(query, "checkIn");
+            final LocalDate checkOut = stayCheckOut(checkIn, date(query, "checkOut"));
+            final AlternativeOrder order = query.getOrDefault("order", "closest").equalsIgnoreCase("earliest")
+                    ? AlternativeOrder.EARLIEST
+                    : AlternativeOrder.CLOSEST;
+            final int horizon = query.containsKey("horizon")
+                    ? Math.max(0, Math.min(MAX_HORIZON_DAYS, integer(query.get("horizon"), "horizon")))
+                    : DEFAULT_HORIZON_DAYS;
+            final int perRoom = query.containsKey("perRoom")
+                    ? Math.max(1, integer(query.get("perRoom"), "perRoom"))
+                    : 1;
+            final JsonWriter json = new JsonWriter(1 << 12).beginArray();
+
+            for (AlternativeStay stay : hotelResource.findAlternativeStays(checkIn, checkOut, order, limit(query),
+                    horizon, perRoom)) {
+                json.beginObject().name("room");
+                writeRoom(json, stay.getRoom())
+                        .name("checkIn").value(stay.getCheckIn().toString())
+                        .name("checkOut").value(stay.getCheckOut().toString())
+                        .name("offsetDays").value(stay.getOffsetDays())
+                        .endObject();
+            }
+            send(exchange, 200, json.endArray());
+        } else if (path.size() == 1 && path.get(0).equals("stream")) {
+            final Map<String, String> query = query(exchange);
+            final LocalDate checkIn = date(query, "checkIn");
+            final LocalDate checkOut = stayCheckOut(checkIn, date(query, "checkOut"));
+
+            streamRooms(exchange, asyncHotelResource.streamRooms(checkIn, checkOut, roomFilter(query)));
+        } else if (path.size() == 1) {
+            final IRoom room = hotelResource.getRoom(path.get(0));
+
+            if (room == null) {
+                throw new HttpError(404, "Room not found");
+            }
+            send(exchange, 200, writeRoom(new JsonWriter(), room));
+        } else if (path.size() == 2 && path.get(1).equals("nextFree")) {
+            final IRoom room = hotelResource.getRoom(path.get(0));
+
+            if (room == null) {
+                throw new HttpError(404, "Room not found");
+            }
+
+            final Map<String, String> query = query(exchange);
+            final LocalDate from = query.containsKey("from") ? date(query.get("from"), "from") : LocalDate.now();
+            final int nights = query.containsKey("nights") ? nights(query.get("nights")) : 1;
+            final LocalDate checkIn = adminResource.findNextFreeDate(room.getRoomNumber(), from, nights);
+
+            send(exchange, 200, new JsonWriter().beginObject()
+                    .name("roomNumber").value(room.getRoomNumber())
+                    .name("checkIn").value(checkIn.toString())
+                    .name("checkOut").value(checkIn.plusDays(nights).toString())
+                    .endObject());
+        } else {
+            throw new HttpError(404, "Not found");
+        }
+    }
+
+    // POST /api/customers, GET /api/customers/{email} and /api/customers/{email}/reservations
+    private void customers(final HttpExchange exchange, final List<String> path) throws IOException {
+        if (path.isEmpty()) {
+            requireMethod(exchange, "POST");
+            final Map<String, Object> body = bodyObject(exchange);
+            final String email = string(body, "email");
+
+            hotelResource.createACustomer(email, string(body, "firstName"), string(body, "lastName"));
+            send(exchange, 201, writeCustomer(new JsonWriter(), hotelResource.getCustomer(email)));
+            return;
+        }
+
+        requireMethod(exchange, "GET");
+        final Customer customer = hotelResource.getCustomer(path.get(0));
+
+        if (customer == null || path.size() > 2 || (path.size() == 2 && !path.get(1).equals("reservations"))) {
+            throw new HttpError(404, customer == null ? "Customer not found" : "Not found");
+        }
+
+        if (path.size() == 1) {
+            send(exchange, 200, writeCustomer(new JsonWriter(), customer));
+            return;
+        }
+
+        final Collection<Reservation> reservations = hotelResource.getCustomersReservations(customer.getEmail());
+        final JsonWriter json = new JsonWriter().beginArray();
+
+        if (reservations != null) {
+            for (Reservation reservation : reservations) {
+                writeReservation(json, reservation);
+            }
+        }
+        send(exchange, 200, json.endArray());
+    }
+
+    // POST /api/reservations and /api/reservations/group
+    private void reservations(final HttpExchange exchange, final List<String> path) throws IOException {
+        requireMethod(exchange, "POST");
+        if (path.size() == 1 && path.get(0).equals("group")) {
+            groupReservation(exchange);
+            return;
+        }
+        if (!path.isEmpty()) {
+            throw new HttpError(404, "Not found");
+        }
+
+        final Map<String, Object> body = bodyObject(exchange);
+        final String email = string(body, "email");
+        final IRoom room = hotelResource.getRoom(string(body, "roomNumber"));
+        final LocalDate checkIn = date(string(body, "checkIn"), "checkIn");
+        final LocalDate checkOut = stayCheckOut(checkIn, date(string(body, "checkOut"), "checkOut"));
+
+        if (hotelResource.getCustomer(email) == null) {
+            throw new HttpError(404, "Customer not found");
+        }
+        if (room == null) {
+            throw new HttpError(404, "Room not found");
+        }
+
+        send(exchange, 201, writeReservation(new JsonWriter(), hotelResource.bookARoom(email, room, checkIn, checkOut)));
+    }
+
+    // POST /api/reservations/group
+    private void groupReservation(final HttpExchange exchange) throws IOException {
+        final Map<String, Object> body = bodyObject(exchange);
+        final String email = string(body, "email");
+        final LocalDate checkIn = date(string(body, "checkIn"), "checkIn");
+        final LocalDate checkOut = stayCheckOut(checkIn, date(string(body, "checkOut"), "checkOut"));
+        final List<Reservation> reservations;
+
+        if (hotelResource.getCustomer(email) == null) {
+            throw new HttpError(404, "Customer not found");
+        }
+
+        if (body.get("roomNumbers") instanceof List) {
+            final List<?> roomNumbers = (List<?>) body.get("roomNumbers");
+            final List<IRoom> rooms = new ArrayList<>(roomNumbers.size());
+
+            for (Object roomNumber : roomNumbers) {
+                final IRoom room = roomNumber instanceof String ? hotelResource.getRoom((String) roomNumber) : null;
+                if (room == null) {
+                    throw new HttpError(404, "Room not found: " + roomNumber);
+                }
+                rooms.add(room);
+            }
+
+            reservations = hotelResource.bookRooms(email, rooms, checkIn, checkOut);
+        } else {
+            final RoomType roomType = RoomType.valueOf(string(body, "roomType").toUpperCase(Locale.ROOT));
+            final Object count = body.get("count");
+
+            if (!(count instanceof Double) || (Double) count != Math.rint((Double) count)) {
+                throw new HttpError(400, "Missing integer field 'count'");
+            }
+
+            reservations = hotelResource.bookRooms(email, roomType, (int) (double) (Double) count, checkIn, checkOut);
+        }
+
+        final JsonWriter json = new JsonWriter(reservations.size() * 160 + 16).beginArray();
+        for (Reservation reservation : reservations) {
+            writeReservation(json, reservation);
+        }
+        send(exchange, 201, json.endArray());
+    }
+
+    // GET and POST /admin/rooms, GET /admin/rooms/{roomNumber}/reservations
+    private void adminRooms(final HttpExchange exchange, final List<String> path) throws IOException {
+        if (path.size() == 2 && path.get(1).equals("reservations")) {
+            roomReservations(exchange, path.get(0));
+            return;
+        }
+        if (!path.isEmpty()) {
+            throw new HttpError(404, "Not found");
+        }
+
+        if (exchange.getRequestMethod().equals("POST")) {
+            final Object body = JsonParser.parse(body(exchange));
+
+            if (!(body instanceof List)) {
+                throw new HttpError(400, "Expected a JSON array of rooms");
+            }
+
+            final List<IRoom> rooms = new ArrayList<>(((List<?>) body).size());
+            for (Object element : (List<?>) body) {
+                rooms.add(parseRoom(element));
+            }
+
+            adminResource.addRoom(rooms);
+            send(exchange, 201, new JsonWriter().beginObject().name("added").value(rooms.size()).endObject());
+            return;
+        }
+
+        requireMethod(exchange, "GET");
+        final JsonWriter json = new JsonWriter(1 << 12).beginArray();
+
+        for (IRoom room : adminResource.getAllRooms()) {
+            writeRoom(json, room);
+        }
+        send(exchange, 200, json.endArray());
+    }
+
+    // GET /admin/rooms/{roomNumber}/reservations
+    private void roomReservations(final HttpExchange exchange, final String roomNumber) throws IOException {
+        requireMethod(exchange, "GET");
+        if (adminResource.getRoom(roomNumber) == null) {
+            throw new HttpError(404, "Room not found");
+        }
+
+        final Map<String, String> query = query(exchange);
+        final Collection<Reservation> reservations = query.containsKey("from") || query.containsKey("to")
+                ? adminResource.getRoomReservations(roomNumber, date(query, "from"),
+                        checkOutAfter(date(query, "from"), date(query, "to")))
+                : adminResource.getRoomHistory(roomNumber);
+        final JsonWriter json = new JsonWriter(1 << 12).beginArray();
+
+        for (Reservation reservation : reservations) {
+            writeReservation(json, reservation);
+        }
+        send(exchange, 200, json.endArray());
+    }
+
+    // GET and POST /admin/rates
+    private void adminRates(final HttpExchange exchange, final List<String> path) throws IOException {
+        if (!path.isEmpty()) {
+            throw new HttpError(404, "Not found");
+        }
+
+        if (exchange.getRequestMethod().equals("POST")) {
+            final Map<String, Object> body = bodyObject(exchange);
+            final RoomType roomType = RoomType.valueOf(string(body, "roomType").toUpperCase(Locale.ROOT));
+            final LocalDate from = date(string(body, "from"), "from");
+            final LocalDate to = checkOutAfter(from, date(string(body, "to"), "to"));
+            final Object factor = body.get("factor");
+            final Set<DayOfWeek> daysOfWeek = EnumSet.allOf(DayOfWeek.class);
+
+            if (!(factor instanceof Double)) {
+                throw new HttpError(400, "Missing number field 'factor'");
+            }
+            if (body.get("daysOfWeek") instanceof List) {
+                daysOfWeek.clear();
+                for (Object dayOfWeek : (List<?>) body.get("daysOfWeek")) {
+                    if (!(dayOfWeek instanceof String)) {
+                        throw new HttpError(400, "Days of the week must be strings");
+                    }
+                    daysOfWeek.add(DayOfWeek.valueOf(((String) dayOfWeek).toUpperCase(Locale.ROOT)));
+                }
+            }
+
+            adminResource.setRateFactor(roomType, from, to, daysOfWeek, (Double) factor);
+            send(exchange, 200, new JsonWriter().beginObject().name("updated").value(true).endObject());
+            return;
+        }
+
+        requireMethod(exchange, "GET");
+        final Map<String, String> query = query(exchange);
+        final String type = query.get("type");
+
+        if (type == null) {
+            throw new HttpError(400, "Missing query parameter 'type'");
+        }
+
+        final RoomType roomType = RoomType.valueOf(type.toUpperCase(Locale.ROOT));
+        final LocalDate from = date(query, "from");
+        final LocalDate to = checkOutAfter(from, date(query, "to"));
+
+        if (to.toEpochDay() - from.toEpochDay() > MAX_HORIZON_DAYS) {
+            throw new HttpError(400, "At most " + MAX_HORIZON_DAYS + " days of rates can be listed");
+        }
+
+        final RateCalendar calendar = adminResource.getRateCalendar(roomType);
+        final JsonWriter json = new JsonWriter(1 << 12).beginArray();
+
+        for (LocalDate date = from; date.isBefore(to); date = date.plusDays(1)) {
+            json.beginObject()
+                    .name("date").value(date.toString())
+                    .name("factor").value(calendar.getFactor(EpochDays.of(date)))
+                    .endObject();
+        }
+        send(exchange, 200, json.endArray());
+    }
+
+    // GET /admin/occupancy
+    private void adminOccupancy(final HttpExchange exchange, final List<String> path) throws IOException {
+        requireMethod(exchange, "GET");
+        if (!path.isEmpty()) {
+            throw new HttpError(404, "Not found");
+        }
+
+        final Map<String, String> query = query(exchange);
+        final LocalDate from = date(query, "from");
+        final OccupancyReport report = adminResource.getOccupancyReport(from, checkOutAfter(from, date(query, "to")));
+        final JsonWriter json = new JsonWriter(report.getDaily().size() * 400 + 1024).beginObject().name("total");
+
+        writeOccupancy(json, report.getTotal()).name("totalByType").beginObject();
+        for (RoomType roomType : RoomType.values()) {
+            writeOccupancy(json.name(roomType.name()), report.getTotal(roomType));
+        }
+        json.endObject().name("daily").beginArray();
+
+        for (int night = 0; night < report.getDaily().size(); night++) {
+            final OccupancyStatistics day = report.getDaily().get(night);
+
+            json.beginObject().name("date").value(day.getFrom().toString()).name("all");
+            writeOccupancy(json, day).name("byType").beginObject();
+            for (RoomType roomType : RoomType.values()) {
+                writeOccupancy(json.name(roomType.name()), report.getDaily(roomType).get(night));
+            }
+            json.endObject().endObject();
+        }
+        send(exchange, 200, json.endArray().endObject());
+    }
+
+    // GET /admin/cache
+    private void adminCache(final HttpExchange exchange, final List<String> path) throws IOException {
+        requireMethod(exchange, "GET");
+        if (!path.isEmpty()) {
+            throw new HttpError(404, "Not found");
+        }
+
+        final CacheStatistics statistics = adminResource.getAvailabilityCacheStatistics();
+        send(exchange, 200, new JsonWriter().beginObject()
+                .name("hits").value(statistics.getHits())
+                .name("misses").value(statistics.getMisses())
+                .name("hitRatio").value(statistics.getHitRatio())
+                .name("evictions").value(statistics.getEvictions())
+                .name("invalidations").value(statistics.getInvalidations())
+                .name("size").value(statistics.getSize())
+                .name("maxSize").value(statistics.getMaxSize())
+                .endObject());
+    }
+
+    // GET /admin/metrics
+    private void adminMetrics(final HttpExchange exchange, final List<String> path) throws IOException {
+        requireMethod(exchange, "GET");
+        if (!path.isEmpty()) {
+            throw new HttpError(404, "Not found");
+        }
+
+        final JsonWriter json = new JsonWriter().beginArray();
+
+        for (OperationStatistics statistics : adminResource.getOperationStatistics()) {
+            json.beginObject()
+                    .name("operation").value(statistics.getName())
+                    .name("count").value(statistics.getCount())
+                    .name("errors").value(statistics.getErrors())
+                    .name("meanNanos").value(statistics.getMeanNanos())
+                    .name("p50Nanos").value(statistics.getP50Nanos())
+                    .name("p99Nanos").value(statistics.getP99Nanos())
+                    .name("p999Nanos").value(statistics.getP999Nanos())
+                    .name("maxNanos").value(statistics.getMaxNanos())
+                    .endObject();
+        }
+
+        send(exchange, 200, json.endArray());
+    }
+
+    // GET /admin/customers
+    private void adminCustomers(final HttpExchange exchange, final List<String> path) throws IOException {
+        requireMethod(exchange, "GET");
+        if (!path.isEmpty()) {
+            throw new HttpError(404, "Not found");
+        }
+
+        final Map<String, String> query = query(exchange);
+        final String cursor = query.get("cursor");
+        final int limit = limit(query);
+        final Page<Customer> page = query.containsKey("lastNamePrefix")
+                ? adminResource.findCustomersByLastNamePrefix(query.get("lastNamePrefix"), cursor, limit)
+                : adminResource.findCustomersByEmailPrefix(query.getOrDefault("emailPrefix", ""), cursor, limit);
+        final JsonWriter json = new JsonWriter().beginObject().name("items").beginArray();
+
+        for (Customer customer : page.getItems()) {
+            writeCustomer(json, customer);
+        }
+        send(exchange, 200, json.endArray().name("nextCursor").value(page.getNextCursor()).endObject());
+    }
+
+    // GET /admin/reservations
+    private void adminReservations(final HttpExchange exchange, final List<String> path) throws IOException {
+        requireMethod(exchange, "GET");
+        if (!path.isEmpty()) {
+            throw new HttpError(404, "Not found");
+        }
+
+        final Map<String, String> query = query(exchange);
+        final ReservationOrder order = query.getOrDefault("order", "checkIn").equalsIgnoreCase("room")
+                ? ReservationOrder.ROOM
+                : ReservationOrder.CHECK_IN;
+        ReservationFilter filter = ReservationFilter.all();
+
+        if (query.containsKey("from")) {
+            filter = filter.withCheckInFrom(date(query.get("from"), "from"));
+        }
+        if (query.containsKey("before")) {
+            filter = filter.withCheckInBefore(date(query.get("before"), "before"));
+        }
+        if (query.containsKey("room")) {
+            filter = filter.withRoomNumber(query.get("room"));
+        }
+        if (query.containsKey("email")) {
+            filter = filter.withCustomerEmail(query.get("email"));
+        }
+        if (query.containsKey("roomType")) {
+            filter = filter.withRoomType(RoomType.valueOf(query.get("roomType").toUpperCase(Locale.ROOT)));
+        }
+
+        final Page<Reservation> page = adminResource.getReservations(order, filter, query.get("cursor"), limit(query));
+        final JsonWriter json = new JsonWriter(1 << 12).beginObject().name("items").beginArray();
+
+        for (Reservation reservation : page.getItems()) {
+            writeReservation(json, reservation);
+        }
+        send(exchange, 200, json.endArray().name("nextCursor").value(page.getNextCursor()).endObject());
+    }
+
+    private void sendRooms(final HttpExchange exchange, final LocalDate checkIn, final LocalDate checkOut,
+                           final Collection<IRoom> rooms) throws IOException {
+        final JsonWriter json = new JsonWriter(64 + rooms.size() * 80).beginObject()
+                .name("checkIn").value(checkIn.toString())
+                .name("checkOut").value(checkOut.toString())
+                .name("rooms").beginArray();
+
+        for (IRoom room : rooms) {
+            writeRoom(json, room);
+        }
+        send(exchange, 200, json.endArray().endObject());
+    }
+
+    // Send the published rooms as a JSON array, written as they arrive and flushed whenever no room
+    // is waiting. The status is sent with the first room or the end of the stream, so a search that
+    // fails at once still gets an error response; a failure after that cuts the array short. A
+    // stream that stalls for longer than the timeout is cancelled the same way.
+    private static void streamRooms(final HttpExchange exchange, final Flow.Publisher<IRoom> rooms)
+            throws IOException {
+        final RoomStream stream = new RoomStream();
+        rooms.subscribe(stream);
+
+        try {
+            Object signal = stream.take();
+            if (signal == null) {
+                throw new HttpError(504, "Room search timed out");
+            }
+            if (signal instanceof RuntimeException) {
+                throw (RuntimeException) signal;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write('[');
+                for (int count = 0; signal instanceof IRoom; count++) {
+                    if (count > 0) {
+                        out.write(',');
+                    }
+                    out.write(writeRoom(new JsonWriter(128), (IRoom) signal).toString()
+                            .getBytes(StandardCharsets.UTF_8));
+                    if ((count + 1) % STREAM_BATCH == 0) {
+                        stream.request();
+                    }
+
+                    signal = stream.poll();
+                    if (signal == null) {
+                        out.flush();
+                        signal = stream.take();
+                        if (signal == null) {
+                            throw new IOException("Room stream timed out");
+                        }
+                    }
+                }
+                if (signal != RoomStream.COMPLETE) {
+                    throw new IOException("Room stream failed", (Throwable) signal);
+                }
+                out.write(']');
+            }
+        } catch (IOException | RuntimeException ex) {
+            stream.cancel();
+            throw ex;
+        }
+    }
+
+    private static RoomFilter roomFilter(final Map<String, String> query) {
+        RoomFilter filter = RoomFilter.all();
+
+        if (query.containsKey("type")) {
+            filter = filter.withRoomType(RoomType.valueOf(query.get("type").toUpperCase(Locale.ROOT)));
+        }
+        if (query.containsKey("minPrice") || query.containsKey("maxPrice")) {
+            filter = filter.withPriceRange(price(query, "minPrice", Double.NEGATIVE_INFINITY),
+                    price(query, "maxPrice", Double.POSITIVE_INFINITY));
+        }
+        if (query.containsKey("free")) {
+            filter = Boolean.parseBoolean(query.get("free")) ? filter.withFreeRoomsOnly() : filter.withPaidRoomsOnly();
+        }
+
+        return filter;
+    }
+
+    private static double price(final Map<String, String> query, final String name, final double defaultPrice) {
+        final String value = query.get(name);
+
+        if (value == null) {
+            return defaultPrice;
+        }
+
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ex) {
+            throw new HttpError(400, "Invalid " + name);
+        }
+    }
+
+    private static IRoom parseRoom(final Object element) {
+        if (!(element instanceof Map)) {
+            throw new HttpError(400, "Expected a JSON object for each room");
+        }
+
+        @SuppressWarnings("unchecked")
+        final Map<String, Object> room = (Map<String, Object>) element;
+        final String roomNumber = string(room, "roomNumber");
+        final Object price = room.get("price");
+        final String type = string(room, "roomType");
+        final RoomType roomType = type.length() == 1 ? RoomType.valueOfLabel(type) : RoomType.valueOf(type);
+
+        if (price != null && !(price instanceof Double)) {
+            throw new HttpError(400, "Room price must be a number");
+        }
+
+        return price == null || (Double) price == 0.0
+                ? new FreeRoom(roomNumber, roomType)
+                : new Room(roomNumber, (Double) price, roomType);
+    }
+
+    private static JsonWriter writeRoom(final JsonWriter json, final IRoom room) {
+        return json.beginObject()
+                .name("roomNumber").value(room.getRoomNumber())
+                .name("price").value(room.getRoomPrice())
+                .name("roomType").value(room.getRoomType().name())
+                .name("free").value(room.isFree())
+                .endObject();
+    }
+
+    private static JsonWriter writeOccupancy(final JsonWriter json, final OccupancyStatistics statistics) {
+        return json.beginObject()
+                .name("roomNights").value(statistics.getRoomNights())
+                .name("roomNightsSold").value(statistics.getRoomNightsSold())
+                .name("occupancy").value(statistics.getOccupancy())
+                .name("revenue").value(statistics.getRevenue())
+                .name("averageDailyRate").value(statistics.getAverageDailyRate())
+                .endObject();
+    }
+
+    private static JsonWriter writeCustomer(final JsonWriter json, final Customer customer) {
+        return json.beginObject()
+                .name("email").value(customer.getEmail())
+                .name("firstName").value(customer.getFirstName())
+                .name("lastName").value(customer.getLastName())
+                .endObject();
+    }
+
+    private static JsonWriter writeReservation(final JsonWriter json, final Reservation reservation) {
+        json.beginObject().name("customer");
+        writeCustomer(json, reservation.getCustomer()).name("room");
+        return writeRoom(json, reservation.getRoom())
+                .name("checkIn").value(reservation.getCheckIn().toString())
+                .name("checkOut").value(reservation.getCheckOut().toString())
+                .endObject();
+    }
+
+    private static void send(final HttpExchange exchange, final int status, final JsonWriter json) throws IOException {
+        final byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(final HttpExchange exchange, final int status, final String message)
+            throws IOException {
+        send(exchange, status, new JsonWriter().beginObject().name("error").value(message).endObject());
+    }
+
+    private static void requireMethod(final HttpExchange exchange, final String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            throw new HttpError(405, "Method not allowed");
+        }
+    }
+
+    // The decoded path segments after the context path
+    private static List<String> segments(final HttpExchange exchange) {
+        final String path = exchange.getRequestURI().getPath()
+                .substring(exchange.getHttpContext().getPath().length());
+        final List<String> segments = new ArrayList<>(2);
+
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+
+        return segments.isEmpty() ? Collections.emptyList() : segments;
+    }
+
+    private static Map<String, String> query(final HttpExchange exchange) {
+        final String rawQuery = exchange.getRequestURI().getRawQuery();
+        final Map<String, String> parameters = new HashMap<>();
+
+        if (rawQuery == null) {
+            return parameters;
+        }
+
+        for (String pair : rawQuery.split("&")) {
+            final int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+
+        return parameters;
+    }
+
+    private static String body(final HttpExchange exchange) throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (body.size() + read > MAX_BODY_BYTES) {
+                    throw new HttpError(413, "Request body too large");
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> bodyObject(final HttpExchange exchange) throws IOException {
+        final Object body = JsonParser.parse(body(exchange));
+
+        if (!(body instanceof Map)) {
+            throw new HttpError(400, "Expected a JSON object");
+        }
+
+        return (Map<String, Object>) body;
+    }
+
+    private static String string(final Map<String, Object> object, final String name) {
+        final Object value = object.get(name);
+
+        if (!(value instanceof String)) {
+            throw new HttpError(400, "Missing string field '" + name + "'");
+        }
+
+        return (String) value;
+    }
+
+    private static LocalDate date(final Map<String, String> query, final String name) {
+        final String value = query.get(name);
+
+        if (value == null) {
+            throw new HttpError(400, "Missing query parameter '" + name + "'");
+        }
+
+        return date(value, name);
+    }
+
+    // Parse a date, rejecting dates too far from today for a hotel to book or report on
+    private static LocalDate date(final String value, final String name) {
+        final LocalDate date = LocalDate.parse(value);
+        final LocalDate today = LocalDate.now();
+
+        if (date.isBefore(today.minusYears(DATE_HORIZON_YEARS)) || date.isAfter(today.plusYears(DATE_HORIZON_YEARS))) {
+            throw new HttpError(400, "'" + name + "' must be within " + DATE_HORIZON_YEARS + " years of today");
+        }
+        return date;
+    }
+
+    private static LocalDate checkOutAfter(final LocalDate checkIn, final LocalDate checkOut) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new HttpError(400, "Check-out must be after check-in");
+        }
+        return checkOut;
+    }
+
+    private static LocalDate stayCheckOut(final LocalDate checkIn, final LocalDate checkOut) {
+        if (checkOutAfter(checkIn, checkOut).toEpochDay() - checkIn.toEpochDay() > MAX_STAY_NIGHTS) {
+            throw new HttpError(400, "A stay is at most " + MAX_STAY_NIGHTS + " nights");
+        }
+        return checkOut;
+    }
+
+    private static int nights(final String value) {
+        final int nights = integer(value, "nights");
+
+        if (nights < 1 || nights > MAX_STAY_NIGHTS) {
+            throw new HttpError(400, "Nights must be between 1 and " + MAX_STAY_NIGHTS);
+        }
+        return nights;
+    }
+
+    private static int integer(final String value, final String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new HttpError(400, "Invalid " + name);
+        }
+    }
+
+    private static int limit(final Map<String, String> query) {
+        final String value = query.get("limit");
+
+        if (value == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        try {
+            return Math.max(1, Math.min(MAX_PAGE_SIZE, Integer.parseInt(value)));
+        } catch (NumberFormatException ex) {
+            throw new HttpError(400, "Invalid limit");
+        }
+    }
+
+    // Subscriber queueing the rooms of a stream for the request thread, followed by COMPLETE or the
+    // stream's error. At most STREAM_BATCH rooms are requested ahead of the writer.
+    private static final class RoomStream implements Flow.Subscriber<IRoom> {
+
+        private static final Object COMPLETE = new Object();
+
+        private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(STREAM_BATCH);
+        }
+
+        @Override
+        public void onNext(final IRoom room) {
+            signals.add(room);
+        }
+
+        @Override
+        public void onError(final Throwable error) {
+            signals.add(error);
+        }
+
+        @Override
+        public void onComplete() {
+            signals.add(COMPLETE);
+        }
+
+        // Request the next batch of rooms
+        private void request() {
+            subscription.request(STREAM_BATCH);
+        }
+
+        // Stop the stream if it has started
+        private void cancel() {
+            final Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        // The next signal, or null if none is waiting
+        private Object poll() {
+            return signals.poll();
+        }
+
+        // Wait for the next signal, or return null if none arrives within the stream timeout
+        private Object take() throws IOException {
+            try {
+                return signals.poll(STREAM_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while streaming rooms");
+            }
+        }
+    }
+
+    // A handler for the path segments below one context
+    @FunctionalInterface
+    private interface Route {
+        void handle(HttpExchange exchange, List<String> path) throws IOException;
+    }
+
+    // An error response with a specific HTTP status
+    private static final class HttpError extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private HttpError(final int status, final String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
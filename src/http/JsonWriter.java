@@ -0,0 +1,138 @@
+package http;
+
+/**
+ * Minimal streaming JSON writer used to encode HTTP responses without a JSON library.
+ * Commas between members and elements are inserted automatically.
+ *
+ * @author Haregweyni Temanu
+ */
+final class JsonWriter {
+
+    private final StringBuilder out;
+    // True right after an opening bracket or a member name, where no comma is needed
+    private boolean first = true;
+
+    JsonWriter() {
+        this(256);
+    }
+
+    JsonWriter(final int capacity) {
+        this.out = new StringBuilder(capacity);
+    }
+
+    JsonWriter beginObject() {
+        separator();
+        out.append('{');
+        first = true;
+        return this;
+    }
+
+    JsonWriter endObject() {
+        out.append('}');
+        first = false;
+        return this;
+    }
+
+    JsonWriter beginArray() {
+        separator();
+        out.append('[');
+        first = true;
+        return this;
+    }
+
+    JsonWriter endArray() {
+        out.append(']');
+        first = false;
+        return this;
+    }
+
+    JsonWriter name(final String name) {
+        separator();
+        string(name);
+        out.append(':');
+        first = true;
+        return this;
+    }
+
+    JsonWriter value(final String value) {
+        separator();
+        if (value == null) {
+            out.append("null");
+        } else {
+            string(value);
+        }
+        first = false;
+        return this;
+    }
+
+    JsonWriter value(final long value) {
+        separator();
+        out.append(value);
+        first = false;
+        return this;
+    }
+
+    JsonWriter value(final double value) {
+        separator();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append("null");
+        } else {
+            out.append(value);
+        }
+        first = false;
+        return this;
+    }
+
+    JsonWriter value(final boolean value) {
+        separator();
+        out.append(value);
+        first = false;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void separator() {
+        if (!first) {
+            out.append(',');
+        }
+    }
+
+    private void string(final String value) {
+        out.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                    break;
+            }
+        }
+
+        out.append('"');
+    }
+}
@@ -0,0 +1,34 @@
+package metrics;
+
+import model.CacheStatistics;
+import model.OperationStatistics;
+
+import java.util.List;
+
+/**
+ * JMX view of the hotel's operation latencies and search cache counters, registered as
+ * {@code hotel:type=Metrics}.
+ *
+ * @author Haregweyni Temanu
+ */
+public interface HotelMetricsMXBean {
+
+    /**
+     * Returns the statistics of every instrumented operation, sorted by name.
+     *
+     * @return The operation statistics.
+     */
+    List<OperationStatistics> getOperations();
+
+    /**
+     * Returns the counters of the room search result cache.
+     *
+     * @return The cache statistics.
+     */
+    CacheStatistics getAvailabilityCache();
+
+    /**
+     * Clears the latency histograms of every operation.
+     */
+    void reset();
+}
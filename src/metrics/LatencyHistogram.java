@@ -0,0 +1,150 @@
+package metrics;
+
+import model.OperationStatistics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram of one operation, in nanoseconds. Recording is a handful of
+ * atomic increments into preallocated buckets: it takes no lock and allocates nothing.
+ * <p>
+ * Latencies below 16 ns get a bucket each; above that, every power of two is split into 16
+ * buckets, so a reported percentile is at most 1/16 above the true value.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Creates an empty histogram.
+     *
+     * @param name The name of the measured operation.
+     */
+    public LatencyHistogram(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the measured operation.
+     *
+     * @return The operation name.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Records one call that started at the given {@link System#nanoTime()}.
+     *
+     * @param startNanos The value of {@link System#nanoTime()} when the call started.
+     */
+    public void record(final long startNanos) {
+        final long nanos = Math.max(0L, System.nanoTime() - startNanos);
+
+        buckets.getAndIncrement(bucketOf(nanos));
+        totalNanos.add(nanos);
+
+        long max;
+        while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+            // Another thread raised the maximum; compare against the new one
+        }
+    }
+
+    /**
+     * Counts one call that ended with an exception. The call's latency is recorded
+     * separately with {@link #record(long)}.
+     */
+    public void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * Returns the count, error count, mean and percentiles recorded so far. Calls recorded
+     * while the snapshot is taken may be partly included.
+     *
+     * @return The statistics of the operation.
+     */
+    public OperationStatistics snapshot() {
+        final long[] counts = new long[BUCKETS];
+        long count = 0L;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+
+        final long max = maxNanos.get();
+
+        return new OperationStatistics(name, count, errors.sum(),
+                count == 0L ? 0L : totalNanos.sum() / count,
+                percentile(counts, count, 0.5, max),
+                percentile(counts, count, 0.99, max),
+                percentile(counts, count, 0.999, max),
+                max);
+    }
+
+    /**
+     * Clears every count. Calls recorded during the reset may be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0L);
+        }
+        errors.reset();
+        totalNanos.reset();
+        maxNanos.set(0L);
+    }
+
+    // Get the upper bound of the bucket holding the given quantile of the calls
+    private static long percentile(final long[] counts, final long count, final double quantile, final long max) {
+        if (count == 0L) {
+            return 0L;
+        }
+
+        final long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        long seen = 0L;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    private static int bucketOf(final long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        final int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        final int shift = bucket / SUB_BUCKETS - 1;
+        final long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+
+        return lowerBound + (1L << shift) - 1;
+    }
+}
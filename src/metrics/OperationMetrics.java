@@ -0,0 +1,102 @@
+package metrics;
+
+import model.CacheStatistics;
+import model.OperationStatistics;
+import service.ReservationService;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Registry of the latency histograms of the hotel's operations, and their JMX exposure.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class OperationMetrics {
+
+    /**
+     * Name under which {@link #registerMBean()} registers the metrics.
+     */
+    public static final String OBJECT_NAME = "hotel:type=Metrics";
+
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentSkipListMap<>();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private OperationMetrics() {
+    }
+
+    /**
+     * Returns the histogram of the named operation, creating it on first use. Callers keep
+     * the histogram in a field so recording does not look it up.
+     *
+     * @param name The operation name.
+     * @return The operation's histogram.
+     */
+    public static LatencyHistogram histogram(final String name) {
+        return HISTOGRAMS.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * Returns the statistics of every operation, sorted by name.
+     *
+     * @return The operation statistics.
+     */
+    public static List<OperationStatistics> statistics() {
+        final List<OperationStatistics> statistics = new ArrayList<>(HISTOGRAMS.size());
+
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            statistics.add(histogram.snapshot());
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Clears the histogram of every operation.
+     */
+    public static void reset() {
+        HISTOGRAMS.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server as {@value #OBJECT_NAME}. Does
+     * nothing if they are already registered.
+     *
+     * @throws IllegalStateException If the MBean cannot be registered.
+     */
+    public static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new HotelMetrics(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException ex) {
+            // Already registered
+        } catch (JMException ex) {
+            throw new IllegalStateException("Unable to register the hotel metrics MBean", ex);
+        }
+    }
+
+    private static final class HotelMetrics implements HotelMetricsMXBean {
+
+        @Override
+        public List<OperationStatistics> getOperations() {
+            return statistics();
+        }
+
+        @Override
+        public CacheStatistics getAvailabilityCache() {
+            return ReservationService.getSingleton().getAvailabilityCacheStatistics();
+        }
+
+        @Override
+        public void reset() {
+            OperationMetrics.reset();
+        }
+    }
+}
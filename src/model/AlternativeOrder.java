@@ -0,0 +1,17 @@
+package model;
+
+/**
+ * Represents how alternative stays are ranked against the requested dates.
+ *
+ * @author Haregweyni Temanu
+ */
+public enum AlternativeOrder {
+    /**
+     * Earliest stays starting on or after the requested check-in date.
+     */
+    EARLIEST,
+    /**
+     * Stays closest to the requested check-in date, earlier or later.
+     */
+    CLOSEST
+}
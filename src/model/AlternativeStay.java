@@ -0,0 +1,98 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Represents a room that is free for a stay of the requested length on other dates
+ * than the requested ones.
+ *
+ * @author Haregweyni Temanu
+ */
+public class AlternativeStay {
+
+    private final IRoom room;
+    private final int checkInDay;
+    private final int checkOutDay;
+    private final int offsetDays;
+
+    /**
+     * Creates an alternative stay.
+     *
+     * @param room        The free room.
+     * @param checkInDay  The check-in date as an epoch day.
+     * @param checkOutDay The check-out date as an epoch day.
+     * @param offsetDays  The number of days the stay is shifted from the requested check-in; negative if earlier.
+     */
+    public AlternativeStay(final IRoom room, final int checkInDay, final int checkOutDay, final int offsetDays) {
+        this.room = room;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+        this.offsetDays = offsetDays;
+    }
+
+    /**
+     * Returns the free room.
+     *
+     * @return The room.
+     */
+    public IRoom getRoom() {
+        return this.room;
+    }
+
+    /**
+     * Returns the check-in date as an epoch day.
+     *
+     * @return The check-in epoch day.
+     */
+    public int getCheckInDay() {
+        return this.checkInDay;
+    }
+
+    /**
+     * Returns the check-out date as an epoch day.
+     *
+     * @return The check-out epoch day.
+     */
+    public int getCheckOutDay() {
+        return this.checkOutDay;
+    }
+
+    /**
+     * Returns the check-in date.
+     *
+     * @return The check-in date.
+     */
+    public LocalDate getCheckIn() {
+        return EpochDays.toLocalDate(this.checkInDay);
+    }
+
+    /**
+     * Returns the check-out date.
+     *
+     * @return The check-out date.
+     */
+    public LocalDate getCheckOut() {
+        return EpochDays.toLocalDate(this.checkOutDay);
+    }
+
+    /**
+     * Returns the number of days the stay is shifted from the requested check-in date.
+     *
+     * @return The shift in days; negative if earlier, positive if later.
+     */
+    public int getOffsetDays() {
+        return this.offsetDays;
+    }
+
+    /**
+     * Returns a string representation of the alternative stay.
+     *
+     * @return A string representation of the alternative stay.
+     */
+    @Override
+    public String toString() {
+        return "Room: " + this.room.getRoomNumber()
+                + " CheckIn Date: " + getCheckIn()
+                + " CheckOut Date: " + getCheckOut();
+    }
+}
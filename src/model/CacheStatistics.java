@@ -0,0 +1,115 @@
+package model;
+
+/**
+ * Represents a point-in-time view of the counters of a cache.
+ *
+ * @author Haregweyni Temanu
+ */
+public class CacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+    private final int size;
+    private final int maxSize;
+
+    /**
+     * Creates cache statistics.
+     *
+     * @param hits          The number of lookups answered from the cache.
+     * @param misses        The number of lookups that had to be computed.
+     * @param evictions     The number of entries evicted to stay within the size bounds.
+     * @param invalidations The number of entries removed because the data they were computed from changed.
+     * @param size          The current number of entries.
+     * @param maxSize       The maximum number of entries.
+     */
+    public CacheStatistics(final long hits, final long misses, final long evictions, final long invalidations,
+                           final int size, final int maxSize) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.size = size;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to be computed.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of entries evicted to stay within the size bounds.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Returns the number of entries removed because the data they were computed from changed.
+     *
+     * @return The number of invalidated entries.
+     */
+    public long getInvalidations() {
+        return this.invalidations;
+    }
+
+    /**
+     * Returns the current number of entries.
+     *
+     * @return The number of entries.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return The maximum number of entries.
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Returns the share of lookups answered from the cache.
+     *
+     * @return The hit ratio between 0 and 1, or 0 if there was no lookup.
+     */
+    public double getHitRatio() {
+        final long lookups = this.hits + this.misses;
+        return lookups == 0 ? 0.0 : (double) this.hits / lookups;
+    }
+
+    /**
+     * Returns a string representation of the statistics.
+     *
+     * @return A string representation of the statistics.
+     */
+    @Override
+    public String toString() {
+        return "Hits: " + this.hits
+                + " Misses: " + this.misses
+                + " Hit ratio: " + Math.round(getHitRatio() * 1000) / 10.0 + "%"
+                + " Evictions: " + this.evictions
+                + " Invalidations: " + this.invalidations
+                + " Size: " + this.size + "/" + this.maxSize;
+    }
+}
@@ -1,5 +1,6 @@
 package model;
 
+import java.util.Locale;
 import java.util.regex.Pattern;
 
 /**
@@ -10,6 +11,7 @@ import java.util.regex.Pattern;
 public class Customer {
 
     private static final String EMAIL_REGEX_PATTERN = "^(.+)@(.+).(.+)$";
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(EMAIL_REGEX_PATTERN);
 
     private final String firstName;
     private final String lastName;
@@ -23,7 +25,13 @@ public class Customer {
      * @param email     The email address of the customer.
      */
     public Customer(final String firstName, final String lastName, final String email) {
-        this.isValidEmail(email);
+        this(firstName, lastName, email, true);
+    }
+
+    private Customer(final String firstName, final String lastName, final String email, final boolean validate) {
+        if (validate) {
+            validateEmail(email);
+        }
 
         this.firstName = firstName;
         this.lastName = lastName;
@@ -31,19 +39,70 @@ public class Customer {
     }
 
     /**
-     * Checks if the given email is valid using a regular expression pattern.
+     * Creates a customer read back from storage. The email was validated when the customer was
+     * first added, so it is not checked again.
+     *
+     * @param firstName The first name of the customer.
+     * @param lastName  The last name of the customer.
+     * @param email     The email address of the customer.
+     * @return The restored customer.
+     */
+    public static Customer restore(final String firstName, final String lastName, final String email) {
+        return new Customer(firstName, lastName, email, false);
+    }
+
+    /**
+     * Checks if the given email is valid using the precompiled regular expression pattern.
+     * The pattern is shared, so this is safe to call from many threads at once.
      *
      * @param email The email address to check.
-     * @throws IllegalArgumentException If the email is invalid.
+     * @return true if the email is valid, false otherwise.
      */
-    private void isValidEmail(final String email) {
-        Pattern pattern = Pattern.compile(EMAIL_REGEX_PATTERN);
+    public static boolean isValidEmail(final String email) {
+        return email != null && EMAIL_PATTERN.matcher(email).matches();
+    }
 
-        if (!pattern.matcher(email).matches()) {
+    /**
+     * Returns the key identifying the customer of an email address: the address trimmed and
+     * in lower case, so addresses differing only in case belong to the same customer.
+     *
+     * @param email The email address.
+     * @return The customer key of the address.
+     */
+    public static String emailKey(final String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks if the given email is valid.
+     *
+     * @param email The email address to check.
+     * @throws IllegalArgumentException If the email is invalid.
+     */
+    private static void validateEmail(final String email) {
+        if (!isValidEmail(email)) {
             throw new IllegalArgumentException("Invalid email");
         }
     }
 
+    /**
+     * Returns the first name of the customer.
+     *
+     * @return The first name of the customer.
+     */
+    public String getFirstName() {
+        return this.firstName;
+    }
+
+    /**
+     * Returns the last name of the customer.
+     *
+     * @return The last name of the customer.
+     */
+    public String getLastName() {
+        return this.lastName;
+    }
+
     /**
      * Returns the email address of the customer.
      *
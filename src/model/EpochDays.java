@@ -0,0 +1,69 @@
+package model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Converts between dates and epoch days, the number of days since 1970-01-01.
+ * Stays are stored as a check-in and a check-out epoch day; the stay occupies the
+ * nights from the check-in day up to, but excluding, the check-out day.
+ * {@link Date} values are interpreted in the system default time zone.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class EpochDays {
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private EpochDays() {
+    }
+
+    /**
+     * Returns the epoch day of the given date in the system default time zone.
+     *
+     * @param date The date to convert.
+     * @return The epoch day of the date.
+     */
+    public static int of(final Date date) {
+        final long millis = date.getTime();
+        final int offsetSeconds = ZoneId.systemDefault().getRules()
+                .getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds();
+
+        return (int) Math.floorDiv(millis + offsetSeconds * 1000L, MILLIS_PER_DAY);
+    }
+
+    /**
+     * Returns the epoch day of the given local date.
+     *
+     * @param date The date to convert.
+     * @return The epoch day of the date.
+     */
+    public static int of(final LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    /**
+     * Returns the local date of the given epoch day.
+     *
+     * @param epochDay The epoch day to convert.
+     * @return The local date of the epoch day.
+     */
+    public static LocalDate toLocalDate(final int epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Returns the start of the given epoch day in the system default time zone.
+     *
+     * @param epochDay The epoch day to convert.
+     * @return A new date at the start of the epoch day.
+     */
+    public static Date toDate(final int epochDay) {
+        return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
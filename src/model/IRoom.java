@@ -19,7 +19,7 @@ public interface IRoom {
      *
      * @return The room price.
      */
-    public Double getRoomPrice();
+    public double getRoomPrice();
 
     /**
      * Returns the room type.
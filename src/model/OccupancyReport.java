@@ -0,0 +1,126 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the daily occupancy, room revenue and average daily rate of the hotel over
+ * a range of nights, for each room type and for all rooms, with the totals of the range.
+ *
+ * @author Haregweyni Temanu
+ */
+public class OccupancyReport {
+
+    private final int fromDay;
+    private final int toDay;
+    private final Map<RoomType, List<OccupancyStatistics>> dailyByType;
+    private final List<OccupancyStatistics> daily;
+
+    /**
+     * Creates an occupancy report.
+     *
+     * @param fromDay     The epoch day of the first night.
+     * @param toDay       The epoch day after the last night.
+     * @param dailyByType The statistics of each night, for every room type.
+     * @param daily       The statistics of each night over all rooms.
+     */
+    public OccupancyReport(final int fromDay, final int toDay,
+                           final Map<RoomType, List<OccupancyStatistics>> dailyByType,
+                           final List<OccupancyStatistics> daily) {
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+        this.dailyByType = Collections.unmodifiableMap(dailyByType);
+        this.daily = Collections.unmodifiableList(daily);
+    }
+
+    /**
+     * Returns the first night of the report as an epoch day.
+     *
+     * @return The first epoch day.
+     */
+    public int getFromDay() {
+        return this.fromDay;
+    }
+
+    /**
+     * Returns the day after the last night of the report as an epoch day.
+     *
+     * @return The end epoch day.
+     */
+    public int getToDay() {
+        return this.toDay;
+    }
+
+    /**
+     * Returns the statistics of each night over all rooms.
+     *
+     * @return One entry per night, in date order.
+     */
+    public List<OccupancyStatistics> getDaily() {
+        return this.daily;
+    }
+
+    /**
+     * Returns the statistics of each night for the rooms of one type.
+     *
+     * @param roomType The room type.
+     * @return One entry per night, in date order.
+     */
+    public List<OccupancyStatistics> getDaily(final RoomType roomType) {
+        return this.dailyByType.get(roomType);
+    }
+
+    /**
+     * Returns the statistics of the whole range over all rooms.
+     *
+     * @return The totals of the range.
+     */
+    public OccupancyStatistics getTotal() {
+        return total(this.daily);
+    }
+
+    /**
+     * Returns the statistics of the whole range for the rooms of one type.
+     *
+     * @param roomType The room type.
+     * @return The totals of the range.
+     */
+    public OccupancyStatistics getTotal(final RoomType roomType) {
+        return total(this.dailyByType.get(roomType));
+    }
+
+    /**
+     * Returns a string representation of the report: the totals of the range, overall and
+     * per room type.
+     *
+     * @return A string representation of the report.
+     */
+    @Override
+    public String toString() {
+        final List<String> lines = new ArrayList<>();
+
+        lines.add("All rooms: " + getTotal());
+        for (RoomType roomType : this.dailyByType.keySet()) {
+            lines.add(roomType + ": " + getTotal(roomType));
+        }
+
+        return String.join("\n", lines);
+    }
+
+    private OccupancyStatistics total(final List<OccupancyStatistics> days) {
+        long roomNights = 0L;
+        long roomNightsSold = 0L;
+        double revenue = 0.0;
+
+        for (OccupancyStatistics day : days) {
+            roomNights += day.getRoomNights();
+            roomNightsSold += day.getRoomNightsSold();
+            revenue += day.getRevenue();
+        }
+
+        return new OccupancyStatistics(this.fromDay, this.toDay, roomNights, roomNightsSold,
+                Math.round(revenue * 100.0) / 100.0);
+    }
+}
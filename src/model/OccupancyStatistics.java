@@ -0,0 +1,130 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Represents the occupancy and room revenue of a group of rooms over a period: a single
+ * night, or the sum over several nights.
+ *
+ * @author Haregweyni Temanu
+ */
+public class OccupancyStatistics {
+
+    private final int fromDay;
+    private final int toDay;
+    private final long roomNights;
+    private final long roomNightsSold;
+    private final double revenue;
+
+    /**
+     * Creates occupancy statistics.
+     *
+     * @param fromDay        The epoch day of the first night.
+     * @param toDay          The epoch day after the last night.
+     * @param roomNights     The number of room-nights available: rooms times nights.
+     * @param roomNightsSold The number of room-nights booked.
+     * @param revenue        The room revenue of the booked room-nights.
+     */
+    public OccupancyStatistics(final int fromDay, final int toDay, final long roomNights, final long roomNightsSold,
+                               final double revenue) {
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+        this.roomNights = roomNights;
+        this.roomNightsSold = roomNightsSold;
+        this.revenue = revenue;
+    }
+
+    /**
+     * Returns the first night of the period as an epoch day.
+     *
+     * @return The first epoch day.
+     */
+    public int getFromDay() {
+        return this.fromDay;
+    }
+
+    /**
+     * Returns the day after the last night of the period as an epoch day.
+     *
+     * @return The end epoch day.
+     */
+    public int getToDay() {
+        return this.toDay;
+    }
+
+    /**
+     * Returns the date of the first night of the period.
+     *
+     * @return The first date.
+     */
+    public LocalDate getFrom() {
+        return EpochDays.toLocalDate(this.fromDay);
+    }
+
+    /**
+     * Returns the date after the last night of the period.
+     *
+     * @return The end date.
+     */
+    public LocalDate getTo() {
+        return EpochDays.toLocalDate(this.toDay);
+    }
+
+    /**
+     * Returns the number of room-nights available in the period.
+     *
+     * @return The rooms times the nights.
+     */
+    public long getRoomNights() {
+        return this.roomNights;
+    }
+
+    /**
+     * Returns the number of room-nights booked in the period.
+     *
+     * @return The booked room-nights.
+     */
+    public long getRoomNightsSold() {
+        return this.roomNightsSold;
+    }
+
+    /**
+     * Returns the room revenue of the period.
+     *
+     * @return The revenue, rounded to cents.
+     */
+    public double getRevenue() {
+        return this.revenue;
+    }
+
+    /**
+     * Returns the share of the available room-nights that are booked.
+     *
+     * @return The occupancy between 0 and 1; 0 without rooms.
+     */
+    public double getOccupancy() {
+        return this.roomNights == 0L ? 0.0 : (double) this.roomNightsSold / this.roomNights;
+    }
+
+    /**
+     * Returns the average daily rate: the revenue per booked room-night.
+     *
+     * @return The average daily rate; 0 without bookings.
+     */
+    public double getAverageDailyRate() {
+        return this.roomNightsSold == 0L ? 0.0 : this.revenue / this.roomNightsSold;
+    }
+
+    /**
+     * Returns a string representation of the statistics.
+     *
+     * @return A string representation of the statistics.
+     */
+    @Override
+    public String toString() {
+        return (this.toDay - this.fromDay == 1 ? getFrom().toString() : getFrom() + " to " + getTo())
+                + String.format(" Occupancy: %.1f%% (%d/%d) Revenue: $%.2f ADR: $%.2f",
+                        getOccupancy() * 100.0, this.roomNightsSold, this.roomNights, this.revenue,
+                        getAverageDailyRate());
+    }
+}
@@ -0,0 +1,137 @@
+package model;
+
+/**
+ * Represents a point-in-time view of the call count and latency percentiles of an operation.
+ * Latencies are in nanoseconds.
+ *
+ * @author Haregweyni Temanu
+ */
+public class OperationStatistics {
+
+    private final String name;
+    private final long count;
+    private final long errors;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    /**
+     * Creates operation statistics.
+     *
+     * @param name      The name of the operation.
+     * @param count     The number of calls.
+     * @param errors    The number of calls that ended with an exception.
+     * @param meanNanos The mean latency.
+     * @param p50Nanos  The median latency.
+     * @param p99Nanos  The 99th percentile latency.
+     * @param p999Nanos The 99.9th percentile latency.
+     * @param maxNanos  The highest latency.
+     */
+    public OperationStatistics(final String name, final long count, final long errors, final long meanNanos,
+                               final long p50Nanos, final long p99Nanos, final long p999Nanos,
+                               final long maxNanos) {
+        this.name = name;
+        this.count = count;
+        this.errors = errors;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * Returns the name of the operation.
+     *
+     * @return The operation name.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the number of calls.
+     *
+     * @return The number of calls.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the number of calls that ended with an exception.
+     *
+     * @return The number of failed calls.
+     */
+    public long getErrors() {
+        return this.errors;
+    }
+
+    /**
+     * Returns the mean latency.
+     *
+     * @return The mean latency in nanoseconds.
+     */
+    public long getMeanNanos() {
+        return this.meanNanos;
+    }
+
+    /**
+     * Returns the median latency.
+     *
+     * @return The median latency in nanoseconds.
+     */
+    public long getP50Nanos() {
+        return this.p50Nanos;
+    }
+
+    /**
+     * Returns the 99th percentile latency.
+     *
+     * @return The 99th percentile latency in nanoseconds.
+     */
+    public long getP99Nanos() {
+        return this.p99Nanos;
+    }
+
+    /**
+     * Returns the 99.9th percentile latency.
+     *
+     * @return The 99.9th percentile latency in nanoseconds.
+     */
+    public long getP999Nanos() {
+        return this.p999Nanos;
+    }
+
+    /**
+     * Returns the highest latency.
+     *
+     * @return The highest latency in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return this.maxNanos;
+    }
+
+    /**
+     * Returns a string representation of the statistics, with latencies in microseconds.
+     *
+     * @return A string representation of the statistics.
+     */
+    @Override
+    public String toString() {
+        return this.name
+                + " Calls: " + this.count
+                + " Errors: " + this.errors
+                + " Mean: " + micros(this.meanNanos)
+                + " p50: " + micros(this.p50Nanos)
+                + " p99: " + micros(this.p99Nanos)
+                + " p99.9: " + micros(this.p999Nanos)
+                + " Max: " + micros(this.maxNanos);
+    }
+
+    private static String micros(final long nanos) {
+        return Math.round(nanos / 100.0) / 10.0 + "us";
+    }
+}
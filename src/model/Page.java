@@ -0,0 +1,54 @@
+package model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents one page of sorted results and the cursor to fetch the next page.
+ *
+ * @param <T> The type of the items on the page.
+ * @author Haregweyni Temanu
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    /**
+     * Creates a page with the given items and the cursor of the next page.
+     *
+     * @param items      The items on this page, in sort order.
+     * @param nextCursor The cursor of the next page, or null if this is the last page.
+     */
+    public Page(final List<T> items, final String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Returns the items on this page.
+     *
+     * @return The items on this page, in sort order.
+     */
+    public List<T> getItems() {
+        return this.items;
+    }
+
+    /**
+     * Returns the cursor to pass to fetch the next page.
+     *
+     * @return The cursor of the next page, or null if this is the last page.
+     */
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    /**
+     * Returns whether there are more results after this page.
+     *
+     * @return true if there is a next page, false otherwise.
+     */
+    public boolean hasNext() {
+        return this.nextCursor != null;
+    }
+}
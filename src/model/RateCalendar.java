@@ -0,0 +1,144 @@
+package model;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Represents the nightly rates of a room type as factors of each room's base price, for
+ * example {@code 1.25} for a weekend or high-season night. Nights without a factor of
+ * their own are charged the base price.
+ * <p>
+ * A calendar is immutable. Along with the factors it keeps their running sums, so the
+ * sum of the factors of any stay, and therefore its total price, takes two array reads
+ * however long the stay is.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class RateCalendar {
+
+    /**
+     * Largest number of days between the first and the last night with a factor.
+     */
+    public static final int MAX_DAYS = 20 * 366;
+
+    private static final RateCalendar FLAT = new RateCalendar(0, new double[0]);
+
+    private final int firstDay;
+    private final double[] factors;
+    // surcharges[i] is the sum of (factor - 1) over the nights firstDay to firstDay + i - 1
+    private final double[] surcharges;
+
+    /**
+     * Creates a calendar from the factors of consecutive nights.
+     *
+     * @param firstDay The epoch day of the first night.
+     * @param factors  The factor of each night.
+     */
+    private RateCalendar(final int firstDay, final double[] factors) {
+        this.firstDay = firstDay;
+        this.factors = factors;
+        this.surcharges = new double[factors.length + 1];
+
+        for (int i = 0; i < factors.length; i++) {
+            surcharges[i + 1] = surcharges[i] + (factors[i] - 1.0);
+        }
+    }
+
+    /**
+     * Returns a calendar charging the base price every night.
+     *
+     * @return The flat calendar.
+     */
+    public static RateCalendar flat() {
+        return FLAT;
+    }
+
+    /**
+     * Returns a copy of this calendar with the given factor on the nights of
+     * [fromDay, toDay) that fall on one of the given days of the week.
+     *
+     * @param fromDay    The epoch day of the first night.
+     * @param toDay      The epoch day after the last night.
+     * @param daysOfWeek The days of the week the factor applies to.
+     * @param factor     The factor of the base price; 1 restores the base price.
+     * @return The new calendar.
+     * @throws IllegalArgumentException If the range is empty or too long, or the factor is negative or not finite.
+     */
+    public RateCalendar withFactor(final int fromDay, final int toDay, final Set<DayOfWeek> daysOfWeek,
+                                   final double factor) {
+        if (toDay <= fromDay) {
+            throw new IllegalArgumentException("The end day must be after the start day");
+        }
+        if (!Double.isFinite(factor) || factor < 0.0) {
+            throw new IllegalArgumentException("Rate factor must be a non-negative number");
+        }
+
+        final int newFirstDay = factors.length == 0 ? fromDay : Math.min(firstDay, fromDay);
+        final long newEndDay = factors.length == 0 ? toDay : Math.max((long) getEndDay(), toDay);
+
+        if (newEndDay - newFirstDay > MAX_DAYS) {
+            throw new IllegalArgumentException("Rates cannot span more than " + MAX_DAYS + " days");
+        }
+
+        final double[] newFactors = new double[(int) (newEndDay - newFirstDay)];
+        Arrays.fill(newFactors, 1.0);
+        if (factors.length > 0) {
+            System.arraycopy(factors, 0, newFactors, firstDay - newFirstDay, factors.length);
+        }
+
+        for (int day = fromDay; day < toDay; day++) {
+            if (daysOfWeek.contains(EpochDays.toLocalDate(day).getDayOfWeek())) {
+                newFactors[day - newFirstDay] = factor;
+            }
+        }
+
+        return new RateCalendar(newFirstDay, newFactors);
+    }
+
+    /**
+     * Returns the epoch day of the first night with a factor of its own.
+     *
+     * @return The first epoch day; meaningless for a calendar without factors.
+     */
+    public int getFirstDay() {
+        return this.firstDay;
+    }
+
+    /**
+     * Returns the epoch day after the last night with a factor of its own.
+     *
+     * @return The end epoch day; equal to the first day for a calendar without factors.
+     */
+    public int getEndDay() {
+        return this.firstDay + this.factors.length;
+    }
+
+    /**
+     * Returns the factor of the night starting on the given day.
+     *
+     * @param day The epoch day.
+     * @return The factor of the base price charged for that night.
+     */
+    public double getFactor(final int day) {
+        return day >= firstDay && day < getEndDay() ? factors[day - firstDay] : 1.0;
+    }
+
+    /**
+     * Returns the sum of the factors of the nights of [fromDay, toDay), in constant time.
+     * Multiplied by a room's base price, it gives the total price of the stay.
+     *
+     * @param fromDay The check-in epoch day.
+     * @param toDay   The check-out epoch day.
+     * @return The sum of the nightly factors.
+     */
+    public double getFactorSum(final int fromDay, final int toDay) {
+        return (toDay - fromDay) + surcharge(toDay) - surcharge(fromDay);
+    }
+
+    // Sum of (factor - 1) over the nights before the given day
+    private double surcharge(final int day) {
+        final int index = Math.max(0, Math.min(factors.length, day - firstDay));
+        return surcharges[index];
+    }
+}
@@ -1,9 +1,11 @@
 package model;
 
+import java.time.LocalDate;
 import java.util.Date;
 
 /**
  * Represents a reservation with customer, room, check-in date, and check-out date.
+ * Dates are stored as epoch days; the {@link Date} accessors are adapters.
  *
  * @author Haregweyni Temanu
  */
@@ -11,8 +13,24 @@ public class Reservation {
 
     private final Customer customer;
     private final IRoom room;
-    private final Date checkInDate;
-    private final Date checkOutDate;
+    private final int checkInDay;
+    private final int checkOutDay;
+
+    /**
+     * Creates a reservation with the given customer, room, check-in day, and check-out day.
+     *
+     * @param customer The customer making the reservation.
+     * @param room The room being reserved.
+     * @param checkInDay The check-in date as an epoch day.
+     * @param checkOutDay The check-out date as an epoch day.
+     */
+    public Reservation(final Customer customer, final IRoom room,
+                       final int checkInDay, final int checkOutDay) {
+        this.customer = customer;
+        this.room = room;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+    }
 
     /**
      * Creates a reservation with the given customer, room, check-in date, and check-out date.
@@ -24,10 +42,16 @@ public class Reservation {
      */
     public Reservation(final Customer customer, final IRoom room,
                        final Date checkInDate, final Date checkOutDate) {
-        this.customer = customer;
-        this.room = room;
-        this.checkInDate = checkInDate;
-        this.checkOutDate = checkOutDate;
+        this(customer, room, EpochDays.of(checkInDate), EpochDays.of(checkOutDate));
+    }
+
+    /**
+     * Returns the customer who made the reservation.
+     *
+     * @return The customer making the reservation.
+     */
+    public Customer getCustomer() {
+        return this.customer;
     }
 
     /**
@@ -39,13 +63,31 @@ public class Reservation {
         return this.room;
     }
 
+    /**
+     * Returns the check-in date for the reservation as an epoch day.
+     *
+     * @return The check-in epoch day.
+     */
+    public int getCheckInDay() {
+        return this.checkInDay;
+    }
+
+    /**
+     * Returns the check-out date for the reservation as an epoch day.
+     *
+     * @return The check-out epoch day.
+     */
+    public int getCheckOutDay() {
+        return this.checkOutDay;
+    }
+
     /**
      * Returns the check-in date for the reservation.
      *
      * @return The check-in date.
      */
-    public Date getCheckInDate() {
-        return this.checkInDate;
+    public LocalDate getCheckIn() {
+        return EpochDays.toLocalDate(this.checkInDay);
     }
 
     /**
@@ -53,8 +95,26 @@ public class Reservation {
      *
      * @return The check-out date.
      */
+    public LocalDate getCheckOut() {
+        return EpochDays.toLocalDate(this.checkOutDay);
+    }
+
+    /**
+     * Returns the check-in date for the reservation.
+     *
+     * @return A new date at the start of the check-in day.
+     */
+    public Date getCheckInDate() {
+        return EpochDays.toDate(this.checkInDay);
+    }
+
+    /**
+     * Returns the check-out date for the reservation.
+     *
+     * @return A new date at the start of the check-out day.
+     */
     public Date getCheckOutDate() {
-        return this.checkOutDate;
+        return EpochDays.toDate(this.checkOutDay);
     }
 
     /**
@@ -66,7 +126,7 @@ public class Reservation {
     public String toString() {
         return "Customer: " + this.customer.toString()
                 + "\nRoom: " + this.room.toString()
-                + "\nCheckIn Date: " + this.checkInDate
-                + "\nCheckOut Date: " + this.checkOutDate;
+                + "\nCheckIn Date: " + getCheckInDate()
+                + "\nCheckOut Date: " + getCheckOutDate();
     }
 }
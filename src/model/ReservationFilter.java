@@ -0,0 +1,131 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Represents the criteria a reservation must meet to be listed. A filter is immutable;
+ * each {@code with} method returns a copy with one more criterion.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class ReservationFilter {
+
+    private static final ReservationFilter ALL = new ReservationFilter(null, null, null, null, null);
+
+    private final Integer checkInFromDay;
+    private final Integer checkInBeforeDay;
+    private final String roomNumber;
+    private final String customerEmail;
+    private final RoomType roomType;
+
+    private ReservationFilter(final Integer checkInFromDay, final Integer checkInBeforeDay, final String roomNumber,
+                              final String customerEmail, final RoomType roomType) {
+        this.checkInFromDay = checkInFromDay;
+        this.checkInBeforeDay = checkInBeforeDay;
+        this.roomNumber = roomNumber;
+        this.customerEmail = customerEmail;
+        this.roomType = roomType;
+    }
+
+    /**
+     * Returns a filter matching every reservation.
+     *
+     * @return The filter matching every reservation.
+     */
+    public static ReservationFilter all() {
+        return ALL;
+    }
+
+    /**
+     * Returns a copy of this filter that also requires a check-in on or after the given date.
+     *
+     * @param date The earliest check-in date.
+     * @return The narrowed filter.
+     */
+    public ReservationFilter withCheckInFrom(final LocalDate date) {
+        return new ReservationFilter(EpochDays.of(date), checkInBeforeDay, roomNumber, customerEmail, roomType);
+    }
+
+    /**
+     * Returns a copy of this filter that also requires a check-in before the given date.
+     *
+     * @param date The date all check-ins must precede.
+     * @return The narrowed filter.
+     */
+    public ReservationFilter withCheckInBefore(final LocalDate date) {
+        return new ReservationFilter(checkInFromDay, EpochDays.of(date), roomNumber, customerEmail, roomType);
+    }
+
+    /**
+     * Returns a copy of this filter that also requires the given room.
+     *
+     * @param roomNumber The room number.
+     * @return The narrowed filter.
+     */
+    public ReservationFilter withRoomNumber(final String roomNumber) {
+        return new ReservationFilter(checkInFromDay, checkInBeforeDay, roomNumber, customerEmail, roomType);
+    }
+
+    /**
+     * Returns a copy of this filter that also requires the given customer, ignoring case.
+     *
+     * @param customerEmail The customer's email.
+     * @return The narrowed filter.
+     */
+    public ReservationFilter withCustomerEmail(final String customerEmail) {
+        return new ReservationFilter(checkInFromDay, checkInBeforeDay, roomNumber,
+                customerEmail == null ? null : Customer.emailKey(customerEmail), roomType);
+    }
+
+    /**
+     * Returns a copy of this filter that also requires the given room type.
+     *
+     * @param roomType The room type.
+     * @return The narrowed filter.
+     */
+    public ReservationFilter withRoomType(final RoomType roomType) {
+        return new ReservationFilter(checkInFromDay, checkInBeforeDay, roomNumber, customerEmail, roomType);
+    }
+
+    /**
+     * Returns the earliest check-in epoch day, or null if unbounded.
+     *
+     * @return The earliest check-in epoch day.
+     */
+    public Integer getCheckInFromDay() {
+        return this.checkInFromDay;
+    }
+
+    /**
+     * Returns the epoch day all check-ins must precede, or null if unbounded.
+     *
+     * @return The exclusive upper bound on the check-in epoch day.
+     */
+    public Integer getCheckInBeforeDay() {
+        return this.checkInBeforeDay;
+    }
+
+    /**
+     * Returns the required room number, or null for any room.
+     *
+     * @return The required room number.
+     */
+    public String getRoomNumber() {
+        return this.roomNumber;
+    }
+
+    /**
+     * Returns whether the reservation meets every criterion of this filter.
+     *
+     * @param reservation The reservation to test.
+     * @return true if the reservation matches, false otherwise.
+     */
+    public boolean matches(final Reservation reservation) {
+        return (checkInFromDay == null || reservation.getCheckInDay() >= checkInFromDay)
+                && (checkInBeforeDay == null || reservation.getCheckInDay() < checkInBeforeDay)
+                && (roomNumber == null || roomNumber.equals(reservation.getRoom().getRoomNumber()))
+                && (customerEmail == null
+                        || customerEmail.equals(Customer.emailKey(reservation.getCustomer().getEmail())))
+                && (roomType == null || roomType == reservation.getRoom().getRoomType());
+    }
+}
@@ -0,0 +1,17 @@
+package model;
+
+/**
+ * Represents the sort order of a reservation listing.
+ *
+ * @author Haregweyni Temanu
+ */
+public enum ReservationOrder {
+    /**
+     * By check-in date, then room number.
+     */
+    CHECK_IN,
+    /**
+     * By room number, then check-in date.
+     */
+    ROOM
+}
@@ -10,7 +10,7 @@ import java.util.Objects;
 public class Room implements IRoom {
 
     private final String roomNumber;
-    private final Double price;
+    private final double price;
     private final RoomType enumeration;
 
     /**
@@ -20,7 +20,7 @@ public class Room implements IRoom {
      * @param price The price of the room.
      * @param enumeration The room type.
      */
-    public Room(final String roomNumber, final Double price, final RoomType enumeration) {
+    public Room(final String roomNumber, final double price, final RoomType enumeration) {
         this.roomNumber = roomNumber;
         this.price = price;
         this.enumeration = enumeration;
@@ -40,7 +40,7 @@ public class Room implements IRoom {
      *
      * @return The room price.
      */
-    public Double getRoomPrice() {
+    public double getRoomPrice() {
         return this.price;
     }
 
@@ -59,7 +59,7 @@ public class Room implements IRoom {
      * @return True if the room is free, false otherwise.
      */
     public boolean isFree() {
-        return this.price != null && this.price.equals(0.0);
+        return this.price == 0.0;
     }
 
     /**
@@ -86,12 +86,12 @@ public class Room implements IRoom {
             return true;
         }
 
-        if(!(obj instanceof Room)) {
+        if(!(obj instanceof IRoom)) {
             return false;
         }
 
-        final Room room = (Room) obj;
-        return Objects.equals(this.roomNumber, room.roomNumber);
+        final IRoom room = (IRoom) obj;
+        return Objects.equals(this.roomNumber, room.getRoomNumber());
     }
 
     /**
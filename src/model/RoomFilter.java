@@ -0,0 +1,142 @@
+package model;
+
+import java.util.Objects;
+
+/**
+ * Represents the criteria a room must meet to be returned by a room search. A filter is
+ * immutable; each {@code with} method returns a copy with one more criterion.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class RoomFilter {
+
+    private static final RoomFilter ALL = new RoomFilter(null, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    private final RoomType roomType;
+    private final double minPrice;
+    private final double maxPrice;
+
+    private RoomFilter(final RoomType roomType, final double minPrice, final double maxPrice) {
+        this.roomType = roomType;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    /**
+     * Returns a filter matching every room.
+     *
+     * @return The filter matching every room.
+     */
+    public static RoomFilter all() {
+        return ALL;
+    }
+
+    /**
+     * Returns a copy of this filter that also requires the given room type.
+     *
+     * @param roomType The room type.
+     * @return The narrowed filter.
+     */
+    public RoomFilter withRoomType(final RoomType roomType) {
+        return new RoomFilter(roomType, minPrice, maxPrice);
+    }
+
+    /**
+     * Returns a copy of this filter that also requires a price within the given range.
+     *
+     * @param minPrice The lowest price, inclusive.
+     * @param maxPrice The highest price, inclusive.
+     * @return The narrowed filter.
+     */
+    public RoomFilter withPriceRange(final double minPrice, final double maxPrice) {
+        return new RoomFilter(roomType, Math.max(this.minPrice, minPrice), Math.min(this.maxPrice, maxPrice));
+    }
+
+    /**
+     * Returns a copy of this filter that only matches free rooms.
+     *
+     * @return The narrowed filter.
+     */
+    public RoomFilter withFreeRoomsOnly() {
+        return withPriceRange(0.0, 0.0);
+    }
+
+    /**
+     * Returns a copy of this filter that only matches paid rooms.
+     *
+     * @return The narrowed filter.
+     */
+    public RoomFilter withPaidRoomsOnly() {
+        return withPriceRange(Double.MIN_VALUE, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Returns the required room type, or null for any type.
+     *
+     * @return The required room type.
+     */
+    public RoomType getRoomType() {
+        return this.roomType;
+    }
+
+    /**
+     * Returns the lowest matching price.
+     *
+     * @return The lowest price, inclusive.
+     */
+    public double getMinPrice() {
+        return this.minPrice;
+    }
+
+    /**
+     * Returns the highest matching price.
+     *
+     * @return The highest price, inclusive.
+     */
+    public double getMaxPrice() {
+        return this.maxPrice;
+    }
+
+    /**
+     * Returns whether the room meets every criterion of this filter.
+     *
+     * @param room The room to test.
+     * @return true if the room matches, false otherwise.
+     */
+    public boolean matches(final IRoom room) {
+        final double price = room.getRoomPrice();
+        return (roomType == null || roomType == room.getRoomType()) && price >= minPrice && price <= maxPrice;
+    }
+
+    /**
+     * Determines if two filters have the same criteria.
+     *
+     * @param obj The object to compare to this filter.
+     * @return True if the filters are equal, false otherwise.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+
+        if (!(obj instanceof RoomFilter)) {
+            return false;
+        }
+
+        final RoomFilter filter = (RoomFilter) obj;
+        return roomType == filter.roomType
+                && Double.compare(minPrice, filter.minPrice) == 0
+                && Double.compare(maxPrice, filter.maxPrice) == 0;
+    }
+
+    /**
+     * Returns a hash code value for this filter.
+     *
+     * @return A hash code value for this filter.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(roomType, minPrice, maxPrice);
+    }
+}
@@ -0,0 +1,105 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * Represents a free room with the total price of a stay in it, at the nightly rates of
+ * the stay's dates.
+ *
+ * @author Haregweyni Temanu
+ */
+public class RoomQuote {
+
+    /**
+     * Orders quotes by total price, cheapest first, then by room number.
+     */
+    public static final Comparator<RoomQuote> BY_TOTAL_PRICE = Comparator.comparingDouble(RoomQuote::getTotalPrice)
+            .thenComparing(quote -> quote.getRoom().getRoomNumber());
+
+    private final IRoom room;
+    private final int checkInDay;
+    private final int checkOutDay;
+    private final double totalPrice;
+
+    /**
+     * Creates a quote.
+     *
+     * @param room        The room.
+     * @param checkInDay  The check-in date as an epoch day.
+     * @param checkOutDay The check-out date as an epoch day.
+     * @param totalPrice  The price of every night of the stay.
+     */
+    public RoomQuote(final IRoom room, final int checkInDay, final int checkOutDay, final double totalPrice) {
+        this.room = room;
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+        this.totalPrice = totalPrice;
+    }
+
+    /**
+     * Returns the quoted room.
+     *
+     * @return The room.
+     */
+    public IRoom getRoom() {
+        return this.room;
+    }
+
+    /**
+     * Returns the check-in date as an epoch day.
+     *
+     * @return The check-in epoch day.
+     */
+    public int getCheckInDay() {
+        return this.checkInDay;
+    }
+
+    /**
+     * Returns the check-out date as an epoch day.
+     *
+     * @return The check-out epoch day.
+     */
+    public int getCheckOutDay() {
+        return this.checkOutDay;
+    }
+
+    /**
+     * Returns the check-in date.
+     *
+     * @return The check-in date.
+     */
+    public LocalDate getCheckIn() {
+        return EpochDays.toLocalDate(this.checkInDay);
+    }
+
+    /**
+     * Returns the check-out date.
+     *
+     * @return The check-out date.
+     */
+    public LocalDate getCheckOut() {
+        return EpochDays.toLocalDate(this.checkOutDay);
+    }
+
+    /**
+     * Returns the total price of the stay.
+     *
+     * @return The total price, rounded to cents.
+     */
+    public double getTotalPrice() {
+        return this.totalPrice;
+    }
+
+    /**
+     * Returns a string representation of the quote.
+     *
+     * @return A string representation of the quote.
+     */
+    @Override
+    public String toString() {
+        return this.room
+                + " Total: $" + this.totalPrice
+                + " for " + (this.checkOutDay - this.checkInDay) + " nights";
+    }
+}
@@ -0,0 +1,73 @@
+package model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the result of a room search: the cheapest matching rooms, and how many
+ * available rooms of each type match the other criteria.
+ *
+ * @author Haregweyni Temanu
+ */
+public class RoomSearchResult {
+
+    private final List<IRoom> rooms;
+    private final Map<RoomType, Integer> typeCounts;
+    private final int totalCount;
+    private final long version;
+
+    /**
+     * Creates a room search result.
+     *
+     * @param rooms      The cheapest matching rooms, cheapest first.
+     * @param typeCounts The number of available rooms per type matching every criterion but the type.
+     * @param totalCount The number of available rooms matching every criterion.
+     * @param version    The version of the room and occupancy state the search read.
+     */
+    public RoomSearchResult(final List<IRoom> rooms, final Map<RoomType, Integer> typeCounts, final int totalCount,
+                            final long version) {
+        this.rooms = Collections.unmodifiableList(rooms);
+        this.typeCounts = Collections.unmodifiableMap(typeCounts);
+        this.totalCount = totalCount;
+        this.version = version;
+    }
+
+    /**
+     * Returns the cheapest matching rooms.
+     *
+     * @return The rooms, cheapest first.
+     */
+    public List<IRoom> getRooms() {
+        return this.rooms;
+    }
+
+    /**
+     * Returns the number of available rooms of each type matching every criterion but the type.
+     *
+     * @return The room count per type.
+     */
+    public Map<RoomType, Integer> getTypeCounts() {
+        return this.typeCounts;
+    }
+
+    /**
+     * Returns the number of available rooms matching every criterion.
+     *
+     * @return The number of matching rooms, which may exceed the number of rooms returned.
+     */
+    public int getTotalCount() {
+        return this.totalCount;
+    }
+
+    /**
+     * Returns the version of the room and occupancy state the search read. Every change to
+     * the rooms or their bookings publishes a higher version; a result taken from the search
+     * cache keeps the version it was computed at, and no change since then affects it.
+     *
+     * @return The state version.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+}
@@ -0,0 +1,78 @@
+package persistence;
+
+import model.EpochDays;
+import service.ReservationService;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically moves the stays whose guests have checked out from the reservation service
+ * to its {@link ReservationArchive}, so the reservations held in memory are the current
+ * and future ones.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class Archiver implements Closeable {
+
+    private final ReservationService reservationService;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates an archiver for the given service, which must have an archive attached.
+     *
+     * @param reservationService The service providing reservations.
+     */
+    public Archiver(final ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    /**
+     * Schedules an archiving pass at the given fixed period.
+     *
+     * @param period The time between two passes.
+     */
+    public void start(final Duration period) {
+        scheduler.scheduleAtFixedRate(this::archiveQuietly, period.toMillis(), period.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Archives every stay checking out before today.
+     *
+     * @return The number of stays removed from memory.
+     */
+    public int archive() {
+        return reservationService.archiveCompletedStays(EpochDays.of(LocalDate.now()));
+    }
+
+    /**
+     * Stops the scheduled passes. A pass in progress completes.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void archiveQuietly() {
+        try {
+            archive();
+        } catch (RuntimeException ex) {
+            System.out.println("Error: archiving failed. " + ex.getLocalizedMessage());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package persistence;
+
+import service.CustomerService;
+import service.ReservationService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes a {@link Snapshot} of the services and drops the journal records
+ * it covers, so startup loads the snapshot and replays only the journal tail.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class Checkpointer implements Closeable {
+
+    private final Journal journal;
+    private final Path snapshotPath;
+    private final CustomerService customerService;
+    private final ReservationService reservationService;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "checkpointer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates a checkpointer for the given journal and snapshot file.
+     *
+     * @param journal            The journal attached to the services.
+     * @param snapshotPath       The snapshot file.
+     * @param customerService    The service providing customers.
+     * @param reservationService The service providing rooms and reservations.
+     */
+    public Checkpointer(final Journal journal, final Path snapshotPath,
+                        final CustomerService customerService, final ReservationService reservationService) {
+        this.journal = journal;
+        this.snapshotPath = snapshotPath;
+        this.customerService = customerService;
+        this.reservationService = reservationService;
+    }
+
+    /**
+     * Schedules a checkpoint at the given fixed period.
+     *
+     * @param period The time between two checkpoints.
+     */
+    public void start(final Duration period) {
+        scheduler.scheduleAtFixedRate(this::checkpointQuietly, period.toMillis(), period.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a snapshot and truncates the journal records it covers.
+     *
+     * @throws IOException If the snapshot or the journal cannot be written.
+     */
+    public synchronized void checkpoint() throws IOException {
+        final long position = journal.mark();
+
+        Snapshot.write(snapshotPath, customerService, reservationService);
+        journal.truncateBefore(position);
+    }
+
+    /**
+     * Stops the scheduled checkpoints. A checkpoint in progress completes.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException | RuntimeException ex) {
+            System.out.println("Error: checkpoint failed. " + ex.getLocalizedMessage());
+        }
+    }
+}
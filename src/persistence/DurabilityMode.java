@@ -0,0 +1,38 @@
+package persistence;
+
+/**
+ * Represents how a journal makes appended changes durable.
+ *
+ * @author Haregweyni Temanu
+ */
+public enum DurabilityMode {
+
+    /**
+     * Every commit waits for its own write and fsync. Commits that arrive while
+     * an fsync is in progress are written by the next one.
+     */
+    FSYNC_PER_COMMIT,
+
+    /**
+     * A background flusher gathers commits for up to the configured delay and
+     * makes the batch durable with a single fsync; commits wait for their batch.
+     */
+    GROUP_COMMIT,
+
+    /**
+     * Commits return as soon as the change is buffered; the background flusher
+     * writes and fsyncs batches after the configured delay.
+     */
+    ASYNC;
+
+    /**
+     * Returns the durability mode with the given name, ignoring case.
+     *
+     * @param name The name of the mode, for example "group_commit".
+     * @return The matching durability mode.
+     * @throws IllegalArgumentException If the name does not match any mode.
+     */
+    public static DurabilityMode valueOfName(final String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
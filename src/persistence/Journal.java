@@ -0,0 +1,786 @@
+package persistence;
+
+import model.Customer;
+import model.FreeRoom;
+import model.IRoom;
+import model.Reservation;
+import model.Room;
+import model.RoomType;
+import service.CustomerService;
+import service.ReservationService;
+import service.RoomUnavailableException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal of every room, customer, reservation and rate change made to the
+ * services, written through a {@link FileChannel} and replayed on startup.
+ * <p>
+ * Each record is framed as {@code [int length][payload][int crc32]}, where the payload
+ * starts with a one-byte record type. A torn record at the end of the file, left by a
+ * crash in the middle of a write, is discarded when the journal is opened.
+ * <p>
+ * Appending only buffers the record and returns its sequence number. Once the change
+ * has been applied in memory, {@link #commit(long)} blocks according to the
+ * {@link DurabilityMode}. Appends from concurrent writers are written and fsynced together.
+ * <p>
+ * A change that could not be applied is released with {@link #abort(long)} instead, which
+ * appends a cancel record so that replay skips the change's records.
+ * <p>
+ * {@link #mark()} and {@link #truncateBefore(long)} let a checkpoint drop the records
+ * already covered by a snapshot.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class Journal implements Closeable {
+
+    private static final byte ROOM_RECORD = 1;
+    private static final byte CUSTOMER_RECORD = 2;
+    private static final byte RESERVATION_RECORD = 3;
+    private static final byte RATE_RECORD = 4;
+    private static final byte CANCEL_RECORD = 5;
+
+    private static final int FRAME_OVERHEAD = Integer.BYTES * 2;
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+    // Pending bytes after which the flusher stops waiting for more commits
+    private static final int GROUP_COMMIT_BYTES = 1024 * 1024;
+
+    private final Path path;
+    // Replaced by truncateBefore; guarded by writeLock
+    private FileChannel channel;
+    private final DurabilityMode mode;
+    private final long maxDelayNanos;
+
+    // Guards the pending buffer and the sequence numbers
+    private final Object lock = new Object();
+    // Serializes writes and fsyncs of the channel
+    private final Object writeLock = new Object();
+
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private ByteBuffer writing = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private long appendedSequence;
+    private long durableSequence;
+    // Appended changes that have not been committed or aborted yet
+    private long uncommitted;
+    // Bytes appended since the journal was opened; differences of these positions are file distances
+    private long appendedBytes;
+    // Start position and length of each change that has not been committed or aborted, by sequence
+    private final Map<Long, long[]> openChanges = new HashMap<>();
+    // Set while mark() waits for uncommitted changes to drain
+    private boolean marking;
+    private IOException failure;
+    private boolean closed;
+    private final Thread flusher;
+
+    private Journal(final Path path, final FileChannel channel, final DurabilityMode mode,
+                    final Duration maxDelay) {
+        this.path = path;
+        this.channel = channel;
+        this.mode = mode;
+        this.maxDelayNanos = maxDelay.toNanos();
+
+        if (mode == DurabilityMode.FSYNC_PER_COMMIT) {
+            this.flusher = null;
+        } else {
+            this.flusher = new Thread(this::runFlusher, "journal-flusher");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        }
+    }
+
+    /**
+     * Opens the journal at the given path, creating it if needed and discarding a torn
+     * record at its end.
+     *
+     * @param path     The journal file.
+     * @param mode     How appended records are made durable.
+     * @param maxDelay The longest time a record waits in a group before it is written.
+     * @return The opened journal, positioned at its end.
+     * @throws IOException If the file cannot be opened or read.
+     */
+    public static Journal open(final Path path, final DurabilityMode mode, final Duration maxDelay)
+            throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            final long validLength = scan(channel, null);
+            channel.truncate(validLength);
+            channel.position(validLength);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+
+        return new Journal(path, channel, mode, maxDelay);
+    }
+
+    /**
+     * Returns the journal file.
+     *
+     * @return The path of the journal file.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Applies every record of the journal to the given services, skipping the records of
+     * aborted changes. This must run before the journal is attached to the services, so
+     * replayed changes are not journaled again. Reservations that conflict with state
+     * already present are skipped.
+     *
+     * @param customerService    The service receiving replayed customers.
+     * @param reservationService The service receiving replayed rooms and reservations.
+     * @throws IOException If the journal cannot be read.
+     */
+    public void replay(final CustomerService customerService,
+                       final ReservationService reservationService) throws IOException {
+        synchronized (writeLock) {
+            // Cancel records follow the changes they abort, so they are collected first
+            final NavigableMap<Long, Long> cancelled = new TreeMap<>();
+            scan(channel, (position, payload) -> {
+                if (payload[0] == CANCEL_RECORD) {
+                    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 1,
+                            payload.length - 1));
+                    final long start = position - in.readLong();
+                    cancelled.put(start, start + in.readLong());
+                }
+            });
+
+            scan(channel, (position, payload) -> {
+                final Map.Entry<Long, Long> range = cancelled.floorEntry(position);
+                if (range == null || position >= range.getValue()) {
+                    apply(payload, customerService, reservationService);
+                }
+            });
+        }
+    }
+
+    /**
+     * Appends a room record.
+     *
+     * @param room The room that was added.
+     * @return The sequence number to pass to {@link #commit(long)}.
+     */
+    public long appendRoom(final IRoom room) {
+        return append(out -> {
+            out.writeByte(ROOM_RECORD);
+            out.writeUTF(room.getRoomNumber());
+            out.writeDouble(room.getRoomPrice());
+            out.writeByte(room.getRoomType().ordinal());
+            out.writeBoolean(room.isFree());
+        });
+    }
+
+    /**
+     * Appends a record for each room of a batch. The batch counts as a single change for
+     * {@link #commit(long)}.
+     *
+     * @param rooms The rooms that were added.
+     * @return The sequence number to pass to {@link #commit(long)}.
+     */
+    public long appendRooms(final Collection<IRoom> rooms) {
+        final List<byte[]> payloads = new ArrayList<>(rooms.size());
+
+        for (IRoom room : rooms) {
+            payloads.add(encode(out -> {
+                out.writeByte(ROOM_RECORD);
+                out.writeUTF(room.getRoomNumber());
+                out.writeDouble(room.getRoomPrice());
+                out.writeByte(room.getRoomType().ordinal());
+                out.writeBoolean(room.isFree());
+            }));
+        }
+
+        return append(payloads);
+    }
+
+    /**
+     * Appends a customer record.
+     *
+     * @param customer The customer that was added.
+     * @return The sequence number to pass to {@link #commit(long)}.
+     */
+    public long appendCustomer(final Customer customer) {
+        return append(out -> {
+            out.writeByte(CUSTOMER_RECORD);
+            out.writeUTF(customer.getEmail());
+            out.writeUTF(customer.getFirstName());
+            out.writeUTF(customer.getLastName());
+        });
+    }
+
+    /**
+     * Appends a record for each customer of a batch. The batch counts as a single change
+     * for {@link #commit(long)}.
+     *
+     * @param customers The customers that were added.
+     * @return The sequence number to pass to {@link #commit(long)}.
+     */
+    public long appendCustomers(final Collection<Customer> customers) {
+        final List<byte[]> payloads = new ArrayList<>(customers.size());
+
+        for (Customer customer : customers) {
+            payloads.add(encode(out -> {
+                out.writeByte(CUSTOMER_RECORD);
+                out.writeUTF(customer.getEmail());
+                out.writeUTF(customer.getFirstName());
+                out.writeUTF(customer.getLastName());
+            }));
+        }
+
+        return append(payloads);
+    }
+
+    /**
+     * Appends a reservation record.
+     *
+     * @param reservation The reservation that was created.
+     * @return The sequence number to pass to {@link #commit(long)}.
+     */
+    public long appendReservation(final Reservation reservation) {
+        return append(out -> {
+            out.writeByte(RESERVATION_RECORD);
+            out.writeUTF(reservation.getCustomer().getEmail());
+            out.writeUTF(reservation.getRoom().getRoomNumber());
+            out.writeInt(reservation.getCheckInDay());
+            out.writeInt(reservation.getCheckOutDay());
+        });
+    }
+
+    /**
+     * Appends a record for each reservation of a group booking. The group counts as a
+     * single change for {@link #commit(long)}.
+     *
+     * @param reservations The reservations that were created.
+     * @return The sequence number to pass to {@link #commit(long)}.
+     */
+    public long appendReservations(final Collection<Reservation> reservations) {
+        final List<byte[]> payloads = new ArrayList<>(reservations.size());
+
+        for (Reservation reservation : reservations) {
+            payloads.add(encode(out -> {
+                out.writeByte(RESERVATION_RECORD);
+                out.writeUTF(reservation.getCustomer().getEmail());
+                out.writeUTF(reservation.getRoom().getRoomNumber());
+                out.writeInt(reservation.getCheckInDay());
+                out.writeInt(reservation.getCheckOutDay());
+            }));
+        }
+
+        return append(payloads);
+    }
+
+    /**
+     * Appends a rate change record.
+     *
+     * @param roomType   The room type whose rates changed.
+     * @param fromDay    The epoch day of the first night.
+     * @param toDay      The epoch day after the last night.
+     * @param daysOfWeek The days of the week the factor applies to.
+     * @param factor     The new factor of the base price.
+     * @return The sequence number to pass to {@link #commit(long)}.
+     */
+    public long appendRate(final RoomType roomType, final int fromDay, final int toDay,
+                           final Set<DayOfWeek> daysOfWeek, final double factor) {
+        int dayMask = 0;
+        for (DayOfWeek dayOfWeek : daysOfWeek) {
+            dayMask |= 1 << dayOfWeek.ordinal();
+        }
+
+        final int days = dayMask;
+        return append(out -> {
+            out.writeByte(RATE_RECORD);
+            out.writeByte(roomType.ordinal());
+            out.writeInt(fromDay);
+            out.writeInt(toDay);
+            out.writeByte(days);
+            out.writeDouble(factor);
+        });
+    }
+
+    /**
+     * Commits an appended change once it has been applied in memory, blocking until its
+     * record is durable as far as the durability mode requires. In
+     * {@link DurabilityMode#ASYNC} mode this returns at once.
+     *
+     * @param sequence The sequence number returned by one of the append methods.
+     * @throws UncheckedIOException If the journal could not be written.
+     */
+    public void commit(final long sequence) {
+        synchronized (lock) {
+            release(sequence);
+        }
+
+        switch (mode) {
+            case FSYNC_PER_COMMIT:
+                synchronized (lock) {
+                    if (durableSequence >= sequence) {
+                        return;
+                    }
+                }
+                flush();
+                break;
+            case GROUP_COMMIT:
+                synchronized (lock) {
+                    while (durableSequence < sequence && failure == null && !closed) {
+                        waitFor(lock, 0L);
+                    }
+                    throwIfFailed();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Aborts an appended change that could not be applied in memory: a cancel record makes
+     * replay skip the change's records, and the change no longer holds back {@link #mark()}.
+     * This does not wait for the cancel record to be durable.
+     *
+     * @param sequence The sequence number returned by one of the append methods.
+     */
+    public void abort(final long sequence) {
+        synchronized (lock) {
+            final long[] change = release(sequence);
+
+            // Written even while a checkpoint is marking, since mark() waits for this change
+            if (!closed && failure == null) {
+                final long distance = appendedBytes - change[0];
+                final byte[] payload = encode(out -> {
+                    out.writeByte(CANCEL_RECORD);
+                    out.writeLong(distance);
+                    out.writeLong(change[1]);
+                });
+                final CRC32 crc = new CRC32();
+                crc.update(payload);
+
+                final boolean wasEmpty = pending.position() == 0;
+                ensureCapacity(payload.length + FRAME_OVERHEAD);
+                pending.putInt(payload.length).put(payload).putInt((int) crc.getValue());
+                appendedBytes += payload.length + FRAME_OVERHEAD;
+                if (wasEmpty) {
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until every appended change has been committed or aborted, makes the journal durable
+     * and returns its length. A snapshot taken after this call contains at least every
+     * change recorded before the returned position.
+     *
+     * @return The journal position to pass to {@link #truncateBefore(long)}.
+     * @throws IOException If the journal cannot be written.
+     */
+    public long mark() throws IOException {
+        synchronized (lock) {
+            marking = true;
+            try {
+                while (uncommitted > 0) {
+                    waitFor(lock, 0L);
+                }
+            } catch (RuntimeException ex) {
+                marking = false;
+                lock.notifyAll();
+                throw ex;
+            }
+        }
+
+        try {
+            synchronized (writeLock) {
+                flushOrThrow();
+                return channel.size();
+            }
+        } finally {
+            synchronized (lock) {
+                marking = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Drops every record before the given position, which must come from {@link #mark()}.
+     * The remaining records are copied to a new file that atomically replaces the journal.
+     *
+     * @param position The journal position returned by {@link #mark()}.
+     * @throws IOException If the journal cannot be rewritten.
+     */
+    public void truncateBefore(final long position) throws IOException {
+        synchronized (writeLock) {
+            flushOrThrow();
+
+            final Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+            try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                final long size = channel.size();
+                long copied = 0L;
+                while (position + copied < size) {
+                    copied += channel.transferTo(position + copied, size - position - copied, target);
+                }
+                target.force(true);
+            }
+
+            channel.close();
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+    }
+
+    /**
+     * Writes and fsyncs every pending record, stops the flusher and closes the file.
+     *
+     * @throws IOException If the pending records cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized (writeLock) {
+            try {
+                flushOrThrow();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    // Frame a record into the pending buffer and return its sequence number
+    private long append(final RecordWriter writer) {
+        return append(Collections.singletonList(encode(writer)));
+    }
+
+    // Frame records into the pending buffer as one change and return its sequence number
+    private long append(final List<byte[]> payloads) {
+        final int[] checksums = new int[payloads.size()];
+        final CRC32 crc = new CRC32();
+        int bytes = 0;
+
+        for (int i = 0; i < checksums.length; i++) {
+            final byte[] payload = payloads.get(i);
+            crc.reset();
+            crc.update(payload);
+            checksums[i] = (int) crc.getValue();
+            bytes += payload.length + FRAME_OVERHEAD;
+        }
+
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            while (marking) {
+                waitFor(lock, 0L);
+            }
+            throwIfFailed();
+
+            final boolean wasEmpty = pending.position() == 0;
+            ensureCapacity(bytes);
+            for (int i = 0; i < checksums.length; i++) {
+                final byte[] payload = payloads.get(i);
+                pending.putInt(payload.length).put(payload).putInt(checksums[i]);
+            }
+
+            if (wasEmpty || pending.position() >= GROUP_COMMIT_BYTES) {
+                lock.notifyAll();
+            }
+
+            uncommitted++;
+            openChanges.put(++appendedSequence, new long[] {appendedBytes, bytes});
+            appendedBytes += bytes;
+            return appendedSequence;
+        }
+    }
+
+    // Stop tracking an open change and return its start position and length; the caller holds the lock
+    private long[] release(final long sequence) {
+        final long[] change = openChanges.remove(sequence);
+
+        if (change == null) {
+            throw new IllegalStateException("Journal change " + sequence + " is not open");
+        }
+        if (--uncommitted == 0 && marking) {
+            lock.notifyAll();
+        }
+
+        return change;
+    }
+
+    // Serialize the payload of one record
+    private static byte[] encode(final RecordWriter writer) {
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            final DataOutputStream out = new DataOutputStream(bytes);
+            writer.write(out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Write and fsync the pending records
+    private void flush() {
+        synchronized (writeLock) {
+            final long target;
+
+            synchronized (lock) {
+                throwIfFailed();
+                if (pending.position() == 0) {
+                    return;
+                }
+
+                final ByteBuffer batch = pending;
+                pending = writing;
+                writing = batch;
+                target = appendedSequence;
+            }
+
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) {
+                    channel.write(writing);
+                }
+                writing.clear();
+                channel.force(false);
+            } catch (IOException ex) {
+                synchronized (lock) {
+                    failure = ex;
+                    lock.notifyAll();
+                }
+                throw new UncheckedIOException(ex);
+            }
+
+            synchronized (lock) {
+                durableSequence = target;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void flushOrThrow() throws IOException {
+        try {
+            flush();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    // Background loop gathering commits into groups and flushing them
+    private void runFlusher() {
+        while (true) {
+            synchronized (lock) {
+                while (pending.position() == 0 && !closed) {
+                    waitFor(lock, 0L);
+                }
+                if (closed) {
+                    return;
+                }
+
+                final long deadline = System.nanoTime() + maxDelayNanos;
+                long remaining = maxDelayNanos;
+                while (remaining > 0 && pending.position() < GROUP_COMMIT_BYTES && !closed) {
+                    waitFor(lock, remaining);
+                    remaining = deadline - System.nanoTime();
+                }
+            }
+
+            try {
+                flush();
+            } catch (UncheckedIOException ex) {
+                return;
+            }
+        }
+    }
+
+    // Grow the pending buffer so that it can take the given number of bytes
+    private void ensureCapacity(final int bytes) {
+        if (pending.remaining() >= bytes) {
+            return;
+        }
+
+        final ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() << 1,
+                pending.position() + bytes));
+        pending.flip();
+        grown.put(pending);
+        pending = grown;
+    }
+
+    private void throwIfFailed() {
+        if (failure != null) {
+            throw new UncheckedIOException("Journal write failed", failure);
+        }
+    }
+
+    // Wait on the monitor for at most the given nanoseconds (0 waits until notified)
+    private static void waitFor(final Object monitor, final long nanos) {
+        try {
+            if (nanos <= 0L) {
+                monitor.wait();
+            } else {
+                monitor.wait(nanos / 1_000_000L, (int) (nanos % 1_000_000L));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the journal", ex);
+        }
+    }
+
+    // Read every valid record from the start of the channel, passing each to the visitor when
+    // given, and return the length of the valid prefix
+    private static long scan(final FileChannel channel, final RecordVisitor visitor) throws IOException {
+        channel.position(0L);
+        final InputStream stream = Channels.newInputStream(channel);
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        final long size = channel.size();
+        final CRC32 crc = new CRC32();
+        long validLength = 0L;
+
+        while (validLength + FRAME_OVERHEAD <= size) {
+            final byte[] payload;
+
+            try {
+                final int length = in.readInt();
+                if (length <= 0 || validLength + FRAME_OVERHEAD + length > size) {
+                    break;
+                }
+                payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if (in.readInt() != (int) crc.getValue()) {
+                    break;
+                }
+            } catch (EOFException ex) {
+                break;
+            }
+
+            if (visitor != null) {
+                visitor.visit(validLength, payload);
+            }
+            validLength += FRAME_OVERHEAD + payload.length;
+        }
+
+        channel.position(size);
+        return validLength;
+    }
+
+    // Apply a single record payload to the services
+    private static void apply(final byte[] payload, final CustomerService customerService,
+                              final ReservationService reservationService) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+
+        switch (in.readByte()) {
+            case ROOM_RECORD: {
+                final String roomNumber = in.readUTF();
+                final double price = in.readDouble();
+                final RoomType roomType = RoomType.values()[in.readByte()];
+                reservationService.addRoom(in.readBoolean()
+                        ? new FreeRoom(roomNumber, roomType)
+                        : new Room(roomNumber, price, roomType));
+                break;
+            }
+            case CUSTOMER_RECORD: {
+                final String email = in.readUTF();
+                customerService.addCustomer(email, in.readUTF(), in.readUTF());
+                break;
+            }
+            case RESERVATION_RECORD: {
+                final Customer customer = customerService.getCustomer(in.readUTF());
+                final IRoom room = reservationService.getARoom(in.readUTF());
+                final int checkIn = in.readInt();
+                final int checkOut = in.readInt();
+                if (customer == null || room == null) {
+                    throw new IOException("Journal reservation refers to an unknown customer or room");
+                }
+                if (checkOut <= checkIn) {
+                    // Stays without nights, journaled before they were rejected, hold nothing to restore
+                    break;
+                }
+                try {
+                    reservationService.reserveARoom(customer, room, checkIn, checkOut);
+                } catch (RoomUnavailableException ex) {
+                    // Already present, for example restored from a snapshot
+                }
+                break;
+            }
+            case RATE_RECORD: {
+                final RoomType roomType = RoomType.values()[in.readByte()];
+                final int fromDay = in.readInt();
+                final int toDay = in.readInt();
+                final int dayMask = in.readByte();
+                final Set<DayOfWeek> daysOfWeek = EnumSet.noneOf(DayOfWeek.class);
+                for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+                    if ((dayMask & 1 << dayOfWeek.ordinal()) != 0) {
+                        daysOfWeek.add(dayOfWeek);
+                    }
+                }
+                reservationService.setRateFactor(roomType, fromDay, toDay, daysOfWeek, in.readDouble());
+                break;
+            }
+            case CANCEL_RECORD:
+                break;
+            default:
+                throw new IOException("Unknown journal record type");
+        }
+    }
+
+    // Writes the payload of one record
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // Receives each valid record with its position in the file
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(long position, byte[] payload) throws IOException;
+    }
+}
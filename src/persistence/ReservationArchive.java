@@ -0,0 +1,408 @@
+package persistence;
+
+import model.Customer;
+import model.FreeRoom;
+import model.IRoom;
+import model.Reservation;
+import model.Room;
+import model.RoomType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Append-only, compressed file of completed stays, moved out of the services' in-memory
+ * structures once their guests have checked out.
+ * <p>
+ * Each archiving pass appends one block framed like a {@link Journal} record, as
+ * {@code [int length][payload][int crc32]}. The payload is a header and the block's stays,
+ * deflated:
+ * <pre>
+ * header: int stayCount, int minCheckInEpochDay, int maxCheckOutEpochDay, int archivedBeforeEpochDay
+ * stays:  string email, string roomNumber, double price, byte roomType, boolean free,
+ *         int checkInEpochDay, int checkOutEpochDay
+ * </pre>
+ * A torn block at the end of the file, left by a crash in the middle of an append, is
+ * discarded when the archive is opened.
+ * <p>
+ * Only the block headers and, for each customer, the blocks holding their stays are kept
+ * in memory. Reading a customer's stays inflates just those blocks, and reading a range
+ * of nights just the blocks whose stays overlap it.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class ReservationArchive implements Closeable {
+
+    private static final int FRAME_OVERHEAD = Integer.BYTES * 2;
+    private static final int HEADER_BYTES = Integer.BYTES * 4;
+    private static final int[] NO_BLOCKS = new int[0];
+
+    private final FileChannel channel;
+    // Guards appends and the end of the file
+    private final Object lock = new Object();
+    private final List<Block> blocks = new CopyOnWriteArrayList<>();
+    // Indexes in blocks of the blocks holding stays of each customer, keyed by the email key
+    private final Map<String, int[]> blocksByEmail = new ConcurrentHashMap<>();
+    private volatile int archivedBeforeDay = Integer.MIN_VALUE;
+    private volatile long stayCount;
+    private long size;
+
+    private ReservationArchive(final FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the archive at the given path, creating it if needed, indexing its blocks and
+     * discarding a torn block at its end.
+     *
+     * @param path The archive file.
+     * @return The opened archive.
+     * @throws IOException If the file cannot be opened or read.
+     */
+    public static ReservationArchive open(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final ReservationArchive archive = new ReservationArchive(channel);
+
+        try {
+            archive.scan();
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+
+        return archive;
+    }
+
+    /**
+     * Returns the day before which every completed stay has been archived: the latest
+     * cutoff of an archiving pass.
+     *
+     * @return The epoch day; {@link Integer#MIN_VALUE} for an empty archive.
+     */
+    public int getArchivedBeforeDay() {
+        return this.archivedBeforeDay;
+    }
+
+    /**
+     * Returns the number of archived stays.
+     *
+     * @return The number of stays.
+     */
+    public long getStayCount() {
+        return this.stayCount;
+    }
+
+    /**
+     * Appends the stays of an archiving pass as one block and fsyncs it. The cutoff is
+     * recorded even when there are no stays.
+     *
+     * @param stays     The completed stays.
+     * @param beforeDay The cutoff of the pass: every stay checking out before it is archived.
+     * @throws IOException If the block cannot be written.
+     */
+    public void append(final Collection<Reservation> stays, final int beforeDay) throws IOException {
+        int minCheckIn = Integer.MAX_VALUE;
+        int maxCheckOut = Integer.MIN_VALUE;
+        final ByteArrayOutputStream body = new ByteArrayOutputStream(64 + stays.size() * 32);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(body)))) {
+            for (Reservation stay : stays) {
+                final IRoom room = stay.getRoom();
+                out.writeUTF(stay.getCustomer().getEmail());
+                out.writeUTF(room.getRoomNumber());
+                out.writeDouble(room.getRoomPrice());
+                out.writeByte(room.getRoomType().ordinal());
+                out.writeBoolean(room.isFree());
+                out.writeInt(stay.getCheckInDay());
+                out.writeInt(stay.getCheckOutDay());
+                minCheckIn = Math.min(minCheckIn, stay.getCheckInDay());
+                maxCheckOut = Math.max(maxCheckOut, stay.getCheckOutDay());
+            }
+        }
+
+        final byte[] compressed = body.toByteArray();
+        final ByteBuffer frame = ByteBuffer.allocate(FRAME_OVERHEAD + HEADER_BYTES + compressed.length);
+        frame.putInt(HEADER_BYTES + compressed.length)
+                .putInt(stays.size()).putInt(minCheckIn).putInt(maxCheckOut).putInt(beforeDay)
+                .put(compressed);
+
+        final CRC32 crc = new CRC32();
+        crc.update(frame.array(), Integer.BYTES, HEADER_BYTES + compressed.length);
+        frame.putInt((int) crc.getValue()).flip();
+
+        synchronized (lock) {
+            final long position = size;
+            while (frame.hasRemaining()) {
+                channel.write(frame, position + frame.position());
+            }
+            channel.force(false);
+            size += frame.limit();
+
+            index(new Block(position + Integer.BYTES, compressed.length, stays.size(), minCheckIn, maxCheckOut),
+                    emails(stays));
+            archivedBeforeDay = Math.max(archivedBeforeDay, beforeDay);
+        }
+    }
+
+    /**
+     * Reads the archived stays of a customer, in the order they were archived.
+     *
+     * @param customer The customer.
+     * @return The customer's archived stays; empty if there are none.
+     * @throws IOException If the archive cannot be read.
+     */
+    public List<Reservation> read(final Customer customer) throws IOException {
+        final List<Reservation> stays = new ArrayList<>();
+        final String key = Customer.emailKey(customer.getEmail());
+
+        for (int blockIndex : blocksByEmail.getOrDefault(key, NO_BLOCKS)) {
+            read(blocks.get(blockIndex), (email, room, checkInDay, checkOutDay) -> {
+                if (Customer.emailKey(email).equals(key)) {
+                    stays.add(new Reservation(customer, room, checkInDay, checkOutDay));
+                }
+            });
+        }
+
+        return stays;
+    }
+
+    /**
+     * Checks if the customer has archived stays.
+     *
+     * @param customer The customer.
+     * @return true if at least one of the customer's stays is archived.
+     */
+    public boolean hasStays(final Customer customer) {
+        return blocksByEmail.containsKey(Customer.emailKey(customer.getEmail()));
+    }
+
+    /**
+     * Returns the stays the archive does not hold yet. A stay is held when the same room is
+     * archived from the same day. Each block holding stays of the given customers is read once.
+     *
+     * @param stays The stays to look up.
+     * @return The stays missing from the archive, in their original order.
+     * @throws IOException If the archive cannot be read.
+     */
+    public List<Reservation> missing(final Collection<Reservation> stays) throws IOException {
+        final Set<String> keys = new HashSet<>();
+        final Set<Integer> blockIndexes = new TreeSet<>();
+
+        for (Reservation stay : stays) {
+            keys.add(key(stay.getRoom().getRoomNumber(), stay.getCheckInDay()));
+            for (int blockIndex : blocksByEmail.getOrDefault(Customer.emailKey(stay.getCustomer().getEmail()),
+                    NO_BLOCKS)) {
+                blockIndexes.add(blockIndex);
+            }
+        }
+
+        final Set<String> archived = new HashSet<>();
+        for (int blockIndex : blockIndexes) {
+            read(blocks.get(blockIndex), (email, room, checkInDay, checkOutDay) -> {
+                final String key = key(room.getRoomNumber(), checkInDay);
+                if (keys.contains(key)) {
+                    archived.add(key);
+                }
+            });
+        }
+
+        final List<Reservation> missing = new ArrayList<>();
+        for (Reservation stay : stays) {
+            if (!archived.contains(key(stay.getRoom().getRoomNumber(), stay.getCheckInDay()))) {
+                missing.add(stay);
+            }
+        }
+
+        return missing;
+    }
+
+    /**
+     * Visits every archived stay with at least one night in [fromDay, toDay). Only the
+     * blocks whose stays span the range are read.
+     *
+     * @param fromDay The epoch day of the first night.
+     * @param toDay   The epoch day after the last night.
+     * @param visitor The visitor of each stay.
+     * @throws IOException If the archive cannot be read.
+     */
+    public void forEachStay(final int fromDay, final int toDay, final StayVisitor visitor) throws IOException {
+        for (Block block : blocks) {
+            if (block.minCheckInDay < toDay && block.maxCheckOutDay > fromDay) {
+                read(block, (email, room, checkInDay, checkOutDay) -> {
+                    if (checkInDay < toDay && checkOutDay > fromDay) {
+                        visitor.visit(email, room, checkInDay, checkOutDay);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Closes the archive file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            channel.close();
+        }
+    }
+
+    // Index every valid block from the start of the file and drop a torn block at its end
+    private void scan() throws IOException {
+        final long fileSize = channel.size();
+        final ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+        final CRC32 crc = new CRC32();
+        long position = 0L;
+
+        while (position + FRAME_OVERHEAD + HEADER_BYTES <= fileSize) {
+            readFully(lengthBuffer.clear(), position);
+            final int length = lengthBuffer.getInt(0);
+            if (length < HEADER_BYTES || position + FRAME_OVERHEAD + length > fileSize) {
+                break;
+            }
+
+            final ByteBuffer payload = ByteBuffer.allocate(length + Integer.BYTES);
+            readFully(payload, position + Integer.BYTES);
+            crc.reset();
+            crc.update(payload.array(), 0, length);
+            if (payload.getInt(length) != (int) crc.getValue()) {
+                break;
+            }
+
+            final Block block = new Block(position + Integer.BYTES, length - HEADER_BYTES, payload.getInt(0),
+                    payload.getInt(Integer.BYTES), payload.getInt(Integer.BYTES * 2));
+            final Set<String> emails = new HashSet<>();
+            inflate(block, Arrays.copyOfRange(payload.array(), HEADER_BYTES, length),
+                    (email, room, checkInDay, checkOutDay) -> emails.add(Customer.emailKey(email)));
+
+            index(block, emails);
+            archivedBeforeDay = Math.max(archivedBeforeDay, payload.getInt(Integer.BYTES * 3));
+            position += FRAME_OVERHEAD + length;
+        }
+
+        channel.truncate(position);
+        size = position;
+    }
+
+    // Register a block and the email keys of the customers whose stays it holds
+    private void index(final Block block, final Collection<String> emails) {
+        final int blockIndex = blocks.size();
+
+        blocks.add(block);
+        for (String email : emails) {
+            blocksByEmail.merge(email, new int[]{blockIndex}, (previous, added) -> {
+                final int[] merged = Arrays.copyOf(previous, previous.length + 1);
+                merged[previous.length] = blockIndex;
+                return merged;
+            });
+        }
+        stayCount += block.stayCount;
+    }
+
+    // Read and inflate the stays of a block
+    private void read(final Block block, final StayVisitor visitor) throws IOException {
+        final ByteBuffer compressed = ByteBuffer.allocate(block.compressedLength);
+
+        readFully(compressed, block.payloadPosition + HEADER_BYTES);
+        inflate(block, compressed.array(), visitor);
+    }
+
+    private void readFully(final ByteBuffer buffer, final long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the reservation archive");
+            }
+        }
+    }
+
+    private static void inflate(final Block block, final byte[] compressed, final StayVisitor visitor)
+            throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(compressed))))) {
+            for (int i = 0; i < block.stayCount; i++) {
+                final String email = in.readUTF();
+                final String roomNumber = in.readUTF();
+                final double price = in.readDouble();
+                final RoomType roomType = RoomType.values()[in.readByte()];
+                final IRoom room = in.readBoolean()
+                        ? new FreeRoom(roomNumber, roomType)
+                        : new Room(roomNumber, price, roomType);
+                visitor.visit(email, room, in.readInt(), in.readInt());
+            }
+        }
+    }
+
+    private static String key(final String roomNumber, final int checkInDay) {
+        return checkInDay + ":" + roomNumber;
+    }
+
+    private static Set<String> emails(final Collection<Reservation> stays) {
+        final Set<String> emails = new HashSet<>();
+        for (Reservation stay : stays) {
+            emails.add(Customer.emailKey(stay.getCustomer().getEmail()));
+        }
+        return emails;
+    }
+
+    /**
+     * Visits archived stays.
+     */
+    @FunctionalInterface
+    public interface StayVisitor {
+
+        /**
+         * Visits one archived stay.
+         *
+         * @param email       The email of the customer.
+         * @param room        The room, as it was when the stay was archived.
+         * @param checkInDay  The check-in epoch day.
+         * @param checkOutDay The check-out epoch day.
+         */
+        void visit(String email, IRoom room, int checkInDay, int checkOutDay);
+    }
+
+    // Position and header of a block; the compressed stays follow the header
+    private static final class Block {
+
+        private final long payloadPosition;
+        private final int compressedLength;
+        private final int stayCount;
+        private final int minCheckInDay;
+        private final int maxCheckOutDay;
+
+        private Block(final long payloadPosition, final int compressedLength, final int stayCount,
+                      final int minCheckInDay, final int maxCheckOutDay) {
+            this.payloadPosition = payloadPosition;
+            this.compressedLength = compressedLength;
+            this.stayCount = stayCount;
+            this.minCheckInDay = minCheckInDay;
+            this.maxCheckOutDay = maxCheckOutDay;
+        }
+    }
+}
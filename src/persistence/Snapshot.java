@@ -0,0 +1,379 @@
+package persistence;
+
+import model.Customer;
+import model.FreeRoom;
+import model.IRoom;
+import model.RateCalendar;
+import model.Reservation;
+import model.Room;
+import model.RoomType;
+import service.CustomerService;
+import service.ReservationService;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Compact binary snapshot of every room, customer, reservation and nightly rate, loaded
+ * through a {@link MappedByteBuffer} so a cold start does not replay the whole journal.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * int magic, int version, int customerCount, int roomCount, int reservationCount
+ * customers:     string email, string firstName, string lastName
+ * last names:    int customerIndex
+ * rooms:         string number, double price, byte roomType, byte free
+ * reservations:  int customerIndex, int roomIndex, int checkInEpochDay, int checkOutEpochDay
+ * check-ins:     int reservationIndex
+ * int rateRunCount
+ * rate runs:     byte roomType, int fromEpochDay, int toEpochDay, double factor
+ * </pre>
+ * Customers are sorted by email and reservations by room number and check-in day, and the
+ * last names and check-ins give their positions in the other orders the services index them
+ * by, so a load links the indexes without sorting. A rate run gives the same factor to
+ * consecutive nights of a room type; nights at the base price have none. Version 2 snapshots,
+ * written before the orders were, and version 1 snapshots, written before rates existed and
+ * ending after the reservations, are still loaded.
+ * Strings are stored as an int byte length followed by UTF-8 bytes. Reservations are
+ * fixed-width records that refer to customers and rooms by their index in the file. Stays
+ * moved to the {@link ReservationArchive} are left out.
+ *
+ * @author Haregweyni Temanu
+ */
+public final class Snapshot {
+
+    private static final int MAGIC = 0x48544C53;
+    private static final int VERSION = 3;
+    private static final int VERSION_WITHOUT_ORDERS = 2;
+    private static final int VERSION_WITHOUT_RATES = 1;
+    // Size of the buffer strings are decoded through; longer strings get their own
+    private static final int STRING_BUFFER_BYTES = 256;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Snapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the services to the given path. The file is written next to
+     * the target and atomically moved into place once it has been fsynced.
+     *
+     * @param path               The snapshot file.
+     * @param customerService    The service providing customers.
+     * @param reservationService The service providing rooms and reservations.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public static void write(final Path path, final CustomerService customerService,
+                             final ReservationService reservationService) throws IOException {
+        final List<Customer> customers = new ArrayList<>(customerService.getCustomersByEmail());
+        final List<IRoom> rooms = new ArrayList<>(reservationService.getAllRooms());
+        final Map<String, Integer> customerIndexes = indexCustomers(customers);
+        final Map<String, Integer> roomIndexes = indexRooms(rooms);
+        final List<Reservation> reservations = new ArrayList<>();
+
+        // Rooms added after the room list was read may already have reservations
+        for (Customer customer : customers) {
+            final Collection<Reservation> customerReservations =
+                    reservationService.getUnarchivedReservations(customer);
+
+            if (customerReservations == null) {
+                continue;
+            }
+
+            for (Reservation reservation : customerReservations) {
+                final IRoom room = reservation.getRoom();
+                if (roomIndexes.putIfAbsent(room.getRoomNumber(), rooms.size()) == null) {
+                    rooms.add(room);
+                }
+                reservations.add(reservation);
+            }
+        }
+
+        // In the ledger's orders: by room number and check-in day, and by check-in day and room number
+        reservations.sort(Comparator.comparing((Reservation reservation) -> reservation.getRoom().getRoomNumber())
+                .thenComparingInt(Reservation::getCheckInDay));
+        final int[] checkInOrder = IntStream.range(0, reservations.size()).boxed()
+                .sorted(Comparator.comparingInt(position -> reservations.get(position).getCheckInDay()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        final int[] lastNameOrder = lastNameOrder(customerService, customerIndexes, customers.size());
+
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (OutputStream file = Files.newOutputStream(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(customers.size());
+            out.writeInt(rooms.size());
+            out.writeInt(reservations.size());
+
+            for (Customer customer : customers) {
+                writeString(out, customer.getEmail());
+                writeString(out, customer.getFirstName());
+                writeString(out, customer.getLastName());
+            }
+            for (int position : lastNameOrder) {
+                out.writeInt(position);
+            }
+
+            for (IRoom room : rooms) {
+                writeString(out, room.getRoomNumber());
+                out.writeDouble(room.getRoomPrice());
+                out.writeByte(room.getRoomType().ordinal());
+                out.writeBoolean(room.isFree());
+            }
+
+            for (Reservation reservation : reservations) {
+                out.writeInt(customerIndexes.get(Customer.emailKey(reservation.getCustomer().getEmail())));
+                out.writeInt(roomIndexes.get(reservation.getRoom().getRoomNumber()));
+                out.writeInt(reservation.getCheckInDay());
+                out.writeInt(reservation.getCheckOutDay());
+            }
+            for (int position : checkInOrder) {
+                out.writeInt(position);
+            }
+
+            final List<RateRun> rateRuns = rateRuns(reservationService);
+            out.writeInt(rateRuns.size());
+            for (RateRun run : rateRuns) {
+                out.writeByte(run.roomType.ordinal());
+                out.writeInt(run.fromDay);
+                out.writeInt(run.toDay);
+                out.writeDouble(run.factor);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the snapshot at the given path into the services, if it exists. This must run
+     * before a journal is attached to the services.
+     *
+     * @param path               The snapshot file.
+     * @param customerService    The service receiving customers.
+     * @param reservationService The service receiving rooms and reservations.
+     * @return true if a snapshot was loaded, false if the file does not exist.
+     * @throws IOException If the snapshot cannot be read or is corrupt.
+     */
+    public static boolean load(final Path path, final CustomerService customerService,
+                               final ReservationService reservationService) throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+
+            final int magic = buffer.getInt();
+            final int version = buffer.getInt();
+            if (magic != MAGIC || version < VERSION_WITHOUT_RATES || version > VERSION) {
+                throw new IOException("Not a hotel snapshot: " + path);
+            }
+
+            final Customer[] customers = new Customer[buffer.getInt()];
+            final IRoom[] rooms = new IRoom[buffer.getInt()];
+            final int reservationCount = buffer.getInt();
+            final RoomType[] roomTypes = RoomType.values();
+
+            // Everything was validated when it was first added, so it is rebuilt as it was written
+            final byte[] bytes = new byte[STRING_BUFFER_BYTES];
+            for (int i = 0; i < customers.length; i++) {
+                final String email = readString(buffer, bytes);
+                final String firstName = readString(buffer, bytes);
+                customers[i] = Customer.restore(firstName, readString(buffer, bytes), email);
+            }
+            customerService.restoreCustomers(customers,
+                    version > VERSION_WITHOUT_ORDERS ? readInts(buffer, customers.length) : null);
+
+            for (int i = 0; i < rooms.length; i++) {
+                final String roomNumber = readString(buffer, bytes);
+                final double price = buffer.getDouble();
+                final RoomType roomType = roomTypes[buffer.get()];
+                rooms[i] = buffer.get() != 0
+                        ? new FreeRoom(roomNumber, roomType)
+                        : new Room(roomNumber, price, roomType);
+            }
+            reservationService.addRooms(Arrays.asList(rooms));
+
+            // Restored in one step rather than booked one by one, so each room's nights are marked once
+            final List<Reservation> reservations = new ArrayList<>(reservationCount);
+            final int[] customerIndexes = new int[reservationCount];
+            for (int i = 0; i < reservationCount; i++) {
+                final int customerIndex = buffer.getInt();
+                final Customer customer = customers[customerIndex];
+                final IRoom room = rooms[buffer.getInt()];
+                final int checkIn = buffer.getInt();
+                final int checkOut = buffer.getInt();
+                // Stays without nights, written before they were rejected, hold nothing to restore
+                if (checkOut > checkIn) {
+                    customerIndexes[reservations.size()] = customerIndex;
+                    reservations.add(new Reservation(customer, room, checkIn, checkOut));
+                }
+            }
+            if (version > VERSION_WITHOUT_ORDERS) {
+                final int[] checkInOrder = readInts(buffer, reservationCount);
+                // Positions count the records of the file, so they no longer hold once a stay was left out
+                reservationService.restoreReservations(reservations,
+                        reservations.size() == reservationCount ? checkInOrder : null,
+                        groupByCustomer(customerIndexes, reservations.size(), customers.length));
+            } else {
+                reservationService.restoreReservations((Collection<Reservation>) reservations);
+            }
+
+            final int rateRunCount = version == VERSION_WITHOUT_RATES ? 0 : buffer.getInt();
+            for (int i = 0; i < rateRunCount; i++) {
+                final RoomType roomType = roomTypes[buffer.get()];
+                final int fromDay = buffer.getInt();
+                final int toDay = buffer.getInt();
+                reservationService.setRateFactor(roomType, fromDay, toDay, EnumSet.allOf(DayOfWeek.class),
+                        buffer.getDouble());
+            }
+        }
+
+        return true;
+    }
+
+    // Runs of consecutive nights with the same factor other than 1, per room type
+    private static List<RateRun> rateRuns(final ReservationService reservationService) {
+        final List<RateRun> runs = new ArrayList<>();
+
+        for (RoomType roomType : RoomType.values()) {
+            final RateCalendar calendar = reservationService.getRateCalendar(roomType);
+            int runStart = calendar.getFirstDay();
+
+            for (int day = calendar.getFirstDay(); day <= calendar.getEndDay(); day++) {
+                final double factor = calendar.getFactor(runStart);
+
+                if (day == calendar.getEndDay() || calendar.getFactor(day) != factor) {
+                    if (day > runStart && factor != 1.0) {
+                        runs.add(new RateRun(roomType, runStart, day, factor));
+                    }
+                    runStart = day;
+                }
+            }
+        }
+
+        return runs;
+    }
+
+    // Positions of the customers sorted by last name. A customer replaced under another name since the
+    // list was read leaves them unmatched, and then they are all -1, so a load sorts the customers itself
+    private static int[] lastNameOrder(final CustomerService customerService,
+                                       final Map<String, Integer> customerIndexes, final int count) {
+        final int[] positions = new int[count];
+        int filled = 0;
+
+        for (Customer customer : customerService.getCustomersByLastName()) {
+            final Integer position = customerIndexes.get(Customer.emailKey(customer.getEmail()));
+            if (position != null && filled < count) {
+                positions[filled++] = position;
+            }
+        }
+
+        if (filled < count) {
+            Arrays.fill(positions, -1);
+        }
+        return positions;
+    }
+
+    // Positions of the first count reservations grouped by the index of their customer, by counting sort
+    private static int[] groupByCustomer(final int[] customerIndexes, final int count, final int customerCount) {
+        final int[] starts = new int[customerCount + 1];
+        for (int i = 0; i < count; i++) {
+            starts[customerIndexes[i] + 1]++;
+        }
+        for (int customer = 0; customer < customerCount; customer++) {
+            starts[customer + 1] += starts[customer];
+        }
+
+        final int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[starts[customerIndexes[i]]++] = i;
+        }
+        return positions;
+    }
+
+    // Read ints as one bulk copy
+    private static int[] readInts(final MappedByteBuffer buffer, final int count) {
+        final int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static Map<String, Integer> indexCustomers(final List<Customer> customers) {
+        final Map<String, Integer> indexes = new HashMap<>(customers.size() * 2);
+
+        for (int i = 0; i < customers.size(); i++) {
+            indexes.put(Customer.emailKey(customers.get(i).getEmail()), i);
+        }
+
+        return indexes;
+    }
+
+    private static Map<String, Integer> indexRooms(final List<IRoom> rooms) {
+        final Map<String, Integer> indexes = new HashMap<>(rooms.size() * 2);
+
+        for (int i = 0; i < rooms.size(); i++) {
+            indexes.put(rooms.get(i).getRoomNumber(), i);
+        }
+
+        return indexes;
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Decode a string through a buffer reused for every string of the snapshot, unless it is too long
+    private static String readString(final MappedByteBuffer buffer, final byte[] reused) {
+        final int length = buffer.getInt();
+        final byte[] bytes = length <= reused.length ? reused : new byte[length];
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Consecutive nights of a room type charged the same factor
+    private static final class RateRun {
+
+        private final RoomType roomType;
+        private final int fromDay;
+        private final int toDay;
+        private final double factor;
+
+        private RateRun(final RoomType roomType, final int fromDay, final int toDay, final double factor) {
+            this.roomType = roomType;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.factor = factor;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package service;
+
+import model.CacheStatistics;
+import model.IRoom;
+import model.RoomFilter;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class caches room search results by stay dates and filter. It is split into
+ * segments, each an access-ordered LRU map behind its own lock, and bounded both by entry
+ * count and by the number of rooms held.
+ * <p>
+ * A booking only removes the entries whose dates overlap the stay and whose filter matches
+ * the room; adding or replacing a room removes the entries whose filter matches it. Every
+ * invalidation bumps a generation counter, and a result computed before the last bump is not
+ * stored, so a search racing with a booking can never cache what the booking changed.
+ * <p>
+ * Searches only try the segment locks: while an invalidation holds a segment, a lookup in it
+ * counts as a miss and the result is computed and not stored, so searches never wait for
+ * bookings.
+ * @author Haregweyni Temanu
+ */
+final class AvailabilityCache {
+
+    // Kinds of cached searches
+    static final int FREE_ROOMS = 0;
+    static final int CHEAPEST_ROOMS = 1;
+    static final int ROOM_SEARCH = 2;
+
+    private static final int SEGMENTS = 16;
+    // Largest room batch matched against each result on invalidation
+    private static final int MAX_ROOMS_MATCHED = 256;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int maxEntries;
+    private final AtomicLong generation = new AtomicLong();
+    // Entries in all segments, so invalidations can skip the scan while the cache is empty
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    // Create a cache holding at most maxEntries results and maxRooms rooms over all results
+    AvailabilityCache(final int maxEntries, final long maxRooms) {
+        this.maxEntries = Math.max(0, maxEntries);
+
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment((this.maxEntries + SEGMENTS - 1) / SEGMENTS,
+                    Math.max(0L, maxRooms) / SEGMENTS);
+        }
+    }
+
+    // Get the cached result for the key, or compute it; the weigher gives the number of rooms it holds
+    @SuppressWarnings("unchecked")
+    <V> V computeIfAbsent(final Key key, final Supplier<V> loader, final ToIntFunction<V> weigher) {
+        if (maxEntries == 0) {
+            return loader.get();
+        }
+
+        final Segment segment = segmentOf(key);
+        final Object cached = segment.get(key);
+
+        if (cached != null) {
+            hits.increment();
+            return (V) cached;
+        }
+
+        misses.increment();
+        final long computedAt = generation.get();
+        final V value = loader.get();
+
+        segment.put(key, value, 1 + weigher.applyAsInt(value), computedAt);
+        return value;
+    }
+
+    // Remove the results for dates overlapping [fromDay, toDay) that the room could appear in
+    void invalidateStay(final IRoom room, final int fromDay, final int toDay) {
+        generation.incrementAndGet();
+
+        if (size.get() == 0) {
+            return;
+        }
+
+        for (Segment segment : segments) {
+            segment.removeIf(key -> key.fromDay < toDay && fromDay < key.toDay && key.matches(room));
+        }
+    }
+
+    // Remove the results whose dates overlap [fromDay, toDay) and whose filter matches any of the rooms
+    void invalidateStays(final Collection<IRoom> rooms, final int fromDay, final int toDay) {
+        generation.incrementAndGet();
+
+        if (size.get() == 0) {
+            return;
+        }
+
+        for (Segment segment : segments) {
+            segment.removeIf(key -> key.fromDay < toDay && fromDay < key.toDay && key.matchesAny(rooms));
+        }
+    }
+
+    // Remove the results the room could appear in, for any dates
+    void invalidateRoom(final IRoom room) {
+        generation.incrementAndGet();
+
+        if (size.get() == 0) {
+            return;
+        }
+
+        for (Segment segment : segments) {
+            segment.removeIf(key -> key.matches(room));
+        }
+    }
+
+    // Remove the results any of the rooms could appear in, for any dates. A large batch, such as a
+    // bulk room load, clears everything rather than matching every result against every room.
+    void invalidateRooms(final Collection<IRoom> rooms) {
+        generation.incrementAndGet();
+
+        if (size.get() == 0) {
+            return;
+        }
+
+        final boolean clearAll = rooms.size() > MAX_ROOMS_MATCHED;
+        for (Segment segment : segments) {
+            segment.removeIf(key -> clearAll || key.matchesAny(rooms));
+        }
+    }
+
+    // Get a snapshot of the counters
+    CacheStatistics statistics() {
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size.get(),
+                maxEntries);
+    }
+
+    private Segment segmentOf(final Key key) {
+        final int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    // Search kind, stay dates and filter of a cached result
+    static final class Key {
+
+        private final int kind;
+        private final int fromDay;
+        private final int toDay;
+        private final RoomFilter filter;
+        private final int limit;
+
+        // Key of a search of the given kind; the filter is null for an unfiltered search
+        Key(final int kind, final int fromDay, final int toDay, final RoomFilter filter, final int limit) {
+            this.kind = kind;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.filter = filter;
+            this.limit = limit;
+        }
+
+        private boolean matches(final IRoom room) {
+            return filter == null || filter.matches(room);
+        }
+
+        private boolean matchesAny(final Collection<IRoom> rooms) {
+            if (filter == null) {
+                return true;
+            }
+
+            for (IRoom room : rooms) {
+                if (filter.matches(room)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            final Key key = (Key) obj;
+            return kind == key.kind && fromDay == key.fromDay && toDay == key.toDay && limit == key.limit
+                    && Objects.equals(filter, key.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return ((kind * 31 + fromDay) * 31 + toDay) * 31 + limit * 17 + Objects.hashCode(filter);
+        }
+    }
+
+    // One LRU map and its bounds
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maxEntries;
+        private final long maxRooms;
+        private long rooms;
+
+        private Segment(final int maxEntries, final long maxRooms) {
+            this.maxEntries = maxEntries;
+            this.maxRooms = maxRooms;
+        }
+
+        // The cached result, or null if there is none or the segment is busy
+        private Object get(final Key key) {
+            if (!lock.tryLock()) {
+                return null;
+            }
+            try {
+                final Entry entry = entries.get(key);
+                return entry == null ? null : entry.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(final Key key, final Object value, final int weight, final long computedAt) {
+            if (weight > maxRooms || !lock.tryLock()) {
+                return;
+            }
+            try {
+                // Counted before the generation is checked, while an invalidation bumps the generation
+                // before it reads the size: either this sees the bump, or the invalidation sees the
+                // entry and waits for this lock to remove it
+                size.incrementAndGet();
+                if (generation.get() != computedAt) {
+                    size.decrementAndGet();
+                    return;
+                }
+
+                final Entry previous = entries.put(key, new Entry(value, weight));
+                rooms += weight;
+                if (previous != null) {
+                    rooms -= previous.weight;
+                    size.decrementAndGet();
+                }
+
+                final Iterator<Entry> eldest = entries.values().iterator();
+                while (entries.size() > maxEntries || rooms > maxRooms) {
+                    rooms -= eldest.next().weight;
+                    eldest.remove();
+                    size.decrementAndGet();
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void removeIf(final Predicate<Key> stale) {
+            lock.lock();
+            try {
+                final Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+
+                while (iterator.hasNext()) {
+                    final Map.Entry<Key, Entry> entry = iterator.next();
+
+                    if (stale.test(entry.getKey())) {
+                        rooms -= entry.getValue().weight;
+                        iterator.remove();
+                        size.decrementAndGet();
+                        invalidations.increment();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // A cached result and the number of rooms it holds
+    private static final class Entry {
+
+        private final Object value;
+        private final int weight;
+
+        private Entry(final Object value, final int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package service;
+
+import model.Customer;
+import model.Page;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * This class indexes customers by case-insensitive email for lookups, and keeps sorted
+ * indexes on email and last name for prefix searches returned one page at a time.
+ * @author Haregweyni Temanu
+ */
+final class CustomerDirectory {
+
+    // Separates the parts of a last name index key; sorts before any other character
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    // Customers keyed by normalized email; replaced only when an empty directory is restored
+    private volatile Map<String, Customer> byEmail = new ConcurrentHashMap<>();
+    // Customers sorted by normalized email
+    private volatile NavigableMap<String, Customer> emailIndex = new ConcurrentSkipListMap<>();
+    // Customers sorted by normalized last name, first name and email
+    private volatile NavigableMap<String, Customer> lastNameIndex = new ConcurrentSkipListMap<>();
+
+    // Add a customer, replacing the customer with the same email
+    void put(final Customer customer) {
+        final String email = Customer.emailKey(customer.getEmail());
+
+        byEmail.compute(email, (key, previous) -> {
+            if (previous != null) {
+                lastNameIndex.remove(lastNameKey(previous));
+            }
+            emailIndex.put(key, customer);
+            lastNameIndex.put(lastNameKey(customer), customer);
+            return customer;
+        });
+    }
+
+    // Add customers read back from storage, a later customer replacing an earlier one with the same email
+    // as with put. Into an empty directory, customers given sorted by email, with the positions of the
+    // customers sorted by last name, as a snapshot writes them, are checked in one pass and linked into
+    // the indexes as they are; otherwise the indexes are sorted first. Nothing else may change the
+    // directory meanwhile.
+    void restore(final Customer[] restored, final int[] lastNameOrder) {
+        if (!byEmail.isEmpty()) {
+            for (Customer customer : restored) {
+                put(customer);
+            }
+            return;
+        }
+
+        final Map<String, Customer> emails = new ConcurrentHashMap<>(restored.length * 4 / 3 + 1);
+        List<Map.Entry<String, Customer>> byEmailKey = new ArrayList<>(restored.length);
+        for (Customer customer : restored) {
+            final String email = Customer.emailKey(customer.getEmail());
+            emails.put(email, customer);
+            byEmailKey.add(new AbstractMap.SimpleImmutableEntry<>(email, customer));
+        }
+
+        List<Map.Entry<String, Customer>> byLastNameKey = new ArrayList<>(restored.length);
+        if (emails.size() < restored.length) {
+            // Only the last customer of each email is kept, so neither given order holds
+            byEmailKey = new ArrayList<>(emails.size());
+            for (Map.Entry<String, Customer> entry : emails.entrySet()) {
+                byEmailKey.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+                byLastNameKey.add(lastNameEntry(entry.getValue()));
+            }
+        } else if (isPermutation(lastNameOrder, restored.length)) {
+            for (int position : lastNameOrder) {
+                byLastNameKey.add(lastNameEntry(restored[position]));
+            }
+        } else {
+            for (Customer customer : restored) {
+                byLastNameKey.add(lastNameEntry(customer));
+            }
+        }
+        sortIfNeeded(byEmailKey);
+        sortIfNeeded(byLastNameKey);
+
+        emailIndex = new ConcurrentSkipListMap<>(new SortedEntries<>(null, byEmailKey));
+        lastNameIndex = new ConcurrentSkipListMap<>(new SortedEntries<>(null, byLastNameKey));
+        byEmail = emails;
+    }
+
+    // Get a customer by email, ignoring case
+    Customer get(final String email) {
+        return email == null ? null : byEmail.get(Customer.emailKey(email));
+    }
+
+    // Get all customers
+    Collection<Customer> all() {
+        return byEmail.values();
+    }
+
+    // Get all customers sorted by email
+    Collection<Customer> allByEmail() {
+        return emailIndex.values();
+    }
+
+    // Get all customers sorted by last name, first name and email
+    Collection<Customer> allByLastName() {
+        return lastNameIndex.values();
+    }
+
+    // Get the number of customers
+    int size() {
+        return byEmail.size();
+    }
+
+    // Get a page of customers whose email starts with the prefix, sorted by email
+    Page<Customer> findByEmailPrefix(final String prefix, final String cursor, final int limit) {
+        return page(emailIndex, normalize(prefix), cursor, limit);
+    }
+
+    // Get a page of customers whose last name starts with the prefix, sorted by last name, first name and email
+    Page<Customer> findByLastNamePrefix(final String prefix, final String cursor, final int limit) {
+        return page(lastNameIndex, normalize(prefix), cursor, limit);
+    }
+
+    // Walk the index from the prefix, or from just after the cursor, collecting at most limit customers
+    private static Page<Customer> page(final NavigableMap<String, Customer> index, final String prefix,
+                                       final String cursor, final int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        final NavigableMap<String, Customer> range = cursor == null
+                ? index.tailMap(prefix, true)
+                : index.tailMap(PageCursors.decode(cursor), false);
+        final Iterator<Map.Entry<String, Customer>> entries = range.entrySet().iterator();
+        final List<Customer> customers = new ArrayList<>(Math.min(limit, 1024));
+        String lastKey = null;
+
+        while (customers.size() < limit && entries.hasNext()) {
+            final Map.Entry<String, Customer> entry = entries.next();
+
+            if (!entry.getKey().startsWith(prefix)) {
+                return new Page<>(customers, null);
+            }
+
+            customers.add(entry.getValue());
+            lastKey = entry.getKey();
+        }
+
+        final boolean hasNext = entries.hasNext() && entries.next().getKey().startsWith(prefix);
+        return new Page<>(customers, hasNext ? PageCursors.encode(lastKey) : null);
+    }
+
+    private static Map.Entry<String, Customer> lastNameEntry(final Customer customer) {
+        return new AbstractMap.SimpleImmutableEntry<>(lastNameKey(customer), customer);
+    }
+
+    // Whether the positions are within the given count and as many; repeats show as unsorted keys
+    private static boolean isPermutation(final int[] positions, final int count) {
+        if (positions == null || positions.length != count) {
+            return false;
+        }
+        for (int position : positions) {
+            if (position < 0 || position >= count) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Sort entries by key unless every key is already greater than the one before it
+    private static void sortIfNeeded(final List<Map.Entry<String, Customer>> entries) {
+        for (int i = 1; i < entries.size(); i++) {
+            if (entries.get(i - 1).getKey().compareTo(entries.get(i).getKey()) >= 0) {
+                entries.sort(Map.Entry.comparingByKey());
+                return;
+            }
+        }
+    }
+
+    private static String lastNameKey(final Customer customer) {
+        return normalize(customer.getLastName()) + KEY_SEPARATOR
+                + normalize(customer.getFirstName()) + KEY_SEPARATOR
+                + normalize(customer.getEmail());
+    }
+
+    private static String normalize(final String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,79 @@
+package service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class summarizes a bulk customer import: how many rows were imported and which
+ * rows were rejected, with the reason for each.
+ * @author Haregweyni Temanu
+ */
+public class CustomerImportReport {
+
+    private final long importedCount;
+    private final long rejectedCount;
+    private final List<Rejection> rejections;
+
+    // Create a report; rejections may hold only the first of rejectedCount rejected rows
+    CustomerImportReport(final long importedCount, final long rejectedCount, final List<Rejection> rejections) {
+        this.importedCount = importedCount;
+        this.rejectedCount = rejectedCount;
+        this.rejections = Collections.unmodifiableList(rejections);
+    }
+
+    // Get the number of customers imported
+    public long getImportedCount() {
+        return importedCount;
+    }
+
+    // Get the number of rows rejected
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    // Get the rejected rows, in file order; capped for very large imports
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    @Override
+    public String toString() {
+        return "Imported: " + importedCount + " Rejected: " + rejectedCount;
+    }
+
+    /**
+     * A row of the import file that was not imported.
+     */
+    public static class Rejection {
+
+        private final long lineNumber;
+        private final String line;
+        private final String reason;
+
+        Rejection(final long lineNumber, final String line, final String reason) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.reason = reason;
+        }
+
+        // Get the 1-based line number of the row
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        // Get the raw row
+        public String getLine() {
+            return line;
+        }
+
+        // Get why the row was rejected
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + reason + " (" + line + ")";
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package service;
+
+import model.Customer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class streams customers from a file into the CustomerService. Rows are read in
+ * batches, batches are parsed and validated in parallel, and valid customers are inserted
+ * batch by batch in file order.
+ * <p>
+ * Each row is either CSV ({@code email,firstName,lastName}, with an optional header row)
+ * or a JSON object ({@code {"email": "...", "firstName": "...", "lastName": "..."}}).
+ * @author Haregweyni Temanu
+ */
+public class CustomerImporter {
+
+    private static final int DEFAULT_BATCH_SIZE = 10_000;
+    // Only the first rejected rows are kept in the report; all are counted
+    private static final int MAX_REPORTED_REJECTIONS = 10_000;
+    private static final String CSV_HEADER = "email,firstName,lastName";
+
+    private final CustomerService customerService;
+    private final int batchSize;
+    private final Executor executor;
+    private final int maxBatchesInFlight;
+
+    // Create an importer validating on the common fork/join pool
+    public CustomerImporter(final CustomerService customerService) {
+        this(customerService, DEFAULT_BATCH_SIZE, ForkJoinPool.commonPool(),
+                ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    // Create an importer with the given batch size, executor and number of batches validated at once
+    public CustomerImporter(final CustomerService customerService, final int batchSize,
+                            final Executor executor, final int parallelism) {
+        this.customerService = customerService;
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.maxBatchesInFlight = Math.max(1, parallelism) + 1;
+    }
+
+    // Import every row of a UTF-8 file
+    public CustomerImportReport importFile(final Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importRows(reader);
+        }
+    }
+
+    // Import every row read from the reader
+    public CustomerImportReport importRows(final BufferedReader reader) throws IOException {
+        final Deque<CompletableFuture<ValidatedBatch>> inFlight = new ArrayDeque<>();
+        final Totals totals = new Totals();
+        List<String> rows = new ArrayList<>(batchSize);
+        long firstLine = 1L;
+        long lineNumber = 0L;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+
+            if (lineNumber == 1L && line.trim().equalsIgnoreCase(CSV_HEADER)) {
+                firstLine = 2L;
+                continue;
+            }
+
+            rows.add(line);
+
+            if (rows.size() == batchSize) {
+                if (inFlight.size() == maxBatchesInFlight) {
+                    totals.insert(inFlight.removeFirst().join());
+                }
+                inFlight.addLast(validateAsync(rows, firstLine));
+                rows = new ArrayList<>(batchSize);
+                firstLine = lineNumber + 1;
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            inFlight.addLast(validateAsync(rows, firstLine));
+        }
+        while (!inFlight.isEmpty()) {
+            totals.insert(inFlight.removeFirst().join());
+        }
+
+        return new CustomerImportReport(totals.imported, totals.rejected, totals.rejections);
+    }
+
+    private CompletableFuture<ValidatedBatch> validateAsync(final List<String> rows, final long firstLine) {
+        return CompletableFuture.supplyAsync(() -> validate(rows, firstLine), executor);
+    }
+
+    // Parse and validate a batch of rows
+    private static ValidatedBatch validate(final List<String> rows, final long firstLine) {
+        final ValidatedBatch batch = new ValidatedBatch(rows.size());
+
+        for (int i = 0; i < rows.size(); i++) {
+            final String row = rows.get(i);
+            final long lineNumber = firstLine + i;
+
+            if (row.isBlank()) {
+                continue;
+            }
+
+            final String[] fields = row.trim().startsWith("{") ? parseJson(row) : parseCsv(row);
+
+            if (fields == null) {
+                batch.rejected.add(new CustomerImportReport.Rejection(lineNumber, row, "Malformed row"));
+                continue;
+            }
+
+            // The constructor validates the email with the shared precompiled pattern
+            try {
+                batch.accepted.add(new Customer(fields[1], fields[2], fields[0]));
+            } catch (IllegalArgumentException ex) {
+                batch.rejected.add(new CustomerImportReport.Rejection(lineNumber, row, ex.getMessage()));
+            }
+        }
+
+        return batch;
+    }
+
+    // Split a CSV row into email, first name and last name, or return null if malformed
+    private static String[] parseCsv(final String row) {
+        final String[] fields = row.split(",", -1);
+
+        if (fields.length != 3) {
+            return null;
+        }
+
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+        }
+
+        return fields;
+    }
+
+    // Read email, first name and last name from a flat JSON object, or return null if malformed
+    private static String[] parseJson(final String row) {
+        final Map<String, String> values = new HashMap<>(4);
+        final StringBuilder text = new StringBuilder();
+        int i = skipWhitespace(row, 0);
+
+        if (i >= row.length() || row.charAt(i++) != '{') {
+            return null;
+        }
+
+        i = skipWhitespace(row, i);
+        if (i < row.length() && row.charAt(i) == '}') {
+            return null;
+        }
+
+        while (i < row.length()) {
+            i = readJsonString(row, skipWhitespace(row, i), text);
+            if (i < 0) {
+                return null;
+            }
+            final String key = text.toString();
+
+            i = skipWhitespace(row, i);
+            if (i >= row.length() || row.charAt(i++) != ':') {
+                return null;
+            }
+
+            i = readJsonString(row, skipWhitespace(row, i), text);
+            if (i < 0) {
+                return null;
+            }
+            values.put(key, text.toString());
+
+            i = skipWhitespace(row, i);
+            if (i >= row.length()) {
+                return null;
+            }
+            final char separator = row.charAt(i++);
+            if (separator == '}') {
+                break;
+            }
+            if (separator != ',') {
+                return null;
+            }
+        }
+
+        final String email = values.get("email");
+        final String firstName = values.get("firstName");
+        final String lastName = values.get("lastName");
+
+        return email == null || firstName == null || lastName == null
+                ? null
+                : new String[] {email, firstName, lastName};
+    }
+
+    // Read a JSON string starting at the opening quote into text; return the index after it, or -1
+    private static int readJsonString(final String row, int i, final StringBuilder text) {
+        text.setLength(0);
+
+        if (i >= row.length() || row.charAt(i++) != '"') {
+            return -1;
+        }
+
+        while (i < row.length()) {
+            final char c = row.charAt(i++);
+
+            if (c == '"') {
+                return i;
+            }
+            if (c != '\\') {
+                text.append(c);
+                continue;
+            }
+            if (i >= row.length()) {
+                return -1;
+            }
+
+            final char escaped = row.charAt(i++);
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    text.append(escaped);
+                    break;
+                case 'b':
+                    text.append('\b');
+                    break;
+                case 'f':
+                    text.append('\f');
+                    break;
+                case 'n':
+                    text.append('\n');
+                    break;
+                case 'r':
+                    text.append('\r');
+                    break;
+                case 't':
+                    text.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 > row.length()) {
+                        return -1;
+                    }
+                    try {
+                        text.append((char) Integer.parseInt(row.substring(i, i + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        return -1;
+                    }
+                    i += 4;
+                    break;
+                default:
+                    return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int skipWhitespace(final String row, int i) {
+        while (i < row.length() && Character.isWhitespace(row.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    // Customers and rejections of one validated batch
+    private static final class ValidatedBatch {
+
+        private final List<Customer> accepted;
+        private final List<CustomerImportReport.Rejection> rejected = new ArrayList<>();
+
+        private ValidatedBatch(final int size) {
+            this.accepted = new ArrayList<>(size);
+        }
+    }
+
+    // Running totals, updated by the importing thread only
+    private final class Totals {
+
+        private long imported;
+        private long rejected;
+        private final List<CustomerImportReport.Rejection> rejections = new ArrayList<>();
+
+        private void insert(final ValidatedBatch batch) {
+            if (!batch.accepted.isEmpty()) {
+                customerService.addCustomers(batch.accepted);
+            }
+
+            imported += batch.accepted.size();
+            rejected += batch.rejected.size();
+
+            for (CustomerImportReport.Rejection rejection : batch.rejected) {
+                if (rejections.size() == MAX_REPORTED_REJECTIONS) {
+                    break;
+                }
+                rejections.add(rejection);
+            }
+        }
+    }
+}
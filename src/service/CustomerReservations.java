@@ -0,0 +1,81 @@
+package service;
+
+import model.Customer;
+import model.Reservation;
+import persistence.ReservationArchive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class is a read-only view of a customer's reservations: the archived stays, read
+ * from the archive the first time the view is iterated or sized, followed by the stays
+ * held in memory when the view was made.
+ * @author Haregweyni Temanu
+ */
+final class CustomerReservations extends AbstractCollection<Reservation> {
+
+    private final Customer customer;
+    private final ReservationArchive archive;
+    private final Collection<Reservation> current;
+    private volatile List<Reservation> archived;
+
+    // Create a view of the customer's archived stays and their list of stays in memory, which may be null
+    CustomerReservations(final Customer customer, final ReservationArchive archive,
+                         final Collection<Reservation> current) {
+        this.customer = customer;
+        this.archive = archive;
+        this.current = current == null ? Collections.emptyList() : current;
+    }
+
+    @Override
+    public Iterator<Reservation> iterator() {
+        final Iterator<Reservation> first = archived().iterator();
+        final Iterator<Reservation> second = current.iterator();
+
+        return new Iterator<Reservation>() {
+            @Override
+            public boolean hasNext() {
+                return first.hasNext() || second.hasNext();
+            }
+
+            @Override
+            public Reservation next() {
+                if (first.hasNext()) {
+                    return first.next();
+                }
+                if (second.hasNext()) {
+                    return second.next();
+                }
+                throw new NoSuchElementException();
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return archived().size() + current.size();
+    }
+
+    // Read the archived stays once
+    private List<Reservation> archived() {
+        List<Reservation> stays = archived;
+
+        if (stays == null) {
+            try {
+                stays = Collections.unmodifiableList(archive.read(customer));
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to read archived reservations", ex);
+            }
+            archived = stays;
+        }
+
+        return stays;
+    }
+}
@@ -1,9 +1,11 @@
 package service;
 
 import model.Customer;
+import model.Page;
+import persistence.Journal;
+
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
 
 /**
  * This class provides services related to customers.
@@ -14,8 +16,11 @@ public class CustomerService {
     // Singleton instance of the CustomerService class
     private static final CustomerService SINGLETON = new CustomerService();
 
-    // Map to store customers with their email as the key
-    private final Map<String, Customer> customers = new HashMap<>();
+    // Customers indexed by case-insensitive email and by last name
+    private final CustomerDirectory customers = new CustomerDirectory();
+
+    // Journal recording every added customer, if attached
+    private volatile Journal journal;
 
     // Private constructor to prevent instantiation from outside the class
     private CustomerService() {}
@@ -25,18 +30,99 @@ public class CustomerService {
         return SINGLETON;
     }
 
+    // Attach a journal that records every customer added from now on
+    public void setJournal(final Journal journal) {
+        this.journal = journal;
+    }
+
     // Add a new customer to the customers map
     public void addCustomer(final String email, final String firstName, final String lastName) {
-        customers.put(email, new Customer(firstName, lastName, email));
+        final Customer customer = new Customer(firstName, lastName, email);
+        final Journal journal = this.journal;
+
+        if (journal == null) {
+            customers.put(customer);
+            return;
+        }
+
+        final long sequence = journal.appendCustomer(customer);
+        try {
+            customers.put(customer);
+        } catch (RuntimeException ex) {
+            journal.abort(sequence);
+            throw ex;
+        }
+        journal.commit(sequence);
+    }
+
+    // Add a batch of already validated customers, journaled as a single change
+    public void addCustomers(final Collection<Customer> batch) {
+        for (Customer customer : batch) {
+            if (customer == null) {
+                throw new IllegalArgumentException("Customer must not be null");
+            }
+        }
+
+        final Journal journal = this.journal;
+        final long sequence = journal == null ? 0L : journal.appendCustomers(batch);
+
+        // A failure part way has put some customers already, so the change is committed rather than aborted
+        try {
+            for (Customer customer : batch) {
+                customers.put(customer);
+            }
+        } finally {
+            if (journal != null) {
+                journal.commit(sequence);
+            }
+        }
+    }
+
+    // Restore customers read back from storage, before a journal is attached. They were validated when
+    // they were first added, so they are indexed as they are. Customers sorted by email, with the positions
+    // of the customers sorted by last name (or null), are indexed into an empty service without sorting;
+    // see getCustomersByEmail and getCustomersByLastName.
+    public void restoreCustomers(final Customer[] restored, final int[] lastNameOrder) {
+        if (journal != null) {
+            throw new IllegalStateException("Customers are restored before a journal is attached");
+        }
+        customers.restore(restored, lastNameOrder);
     }
 
-    // Get a customer by their email
+    // Get a customer by their email, ignoring case
     public Customer getCustomer(final String customerEmail) {
         return customers.get(customerEmail);
     }
 
     // Get all customers as a collection
     public Collection<Customer> getAllCustomers() {
-        return customers.values();
+        return customers.all();
+    }
+
+    // Get all customers sorted by email, ignoring case
+    public Collection<Customer> getCustomersByEmail() {
+        return Collections.unmodifiableCollection(customers.allByEmail());
+    }
+
+    // Get all customers sorted by last name, first name and email, ignoring case
+    public Collection<Customer> getCustomersByLastName() {
+        return Collections.unmodifiableCollection(customers.allByLastName());
+    }
+
+    // Get the number of customers
+    public int getCustomerCount() {
+        return customers.size();
+    }
+
+    // Get a page of customers whose email starts with the prefix (ignoring case), sorted by email.
+    // Pass the previous page's next cursor to continue, or null for the first page.
+    public Page<Customer> findCustomersByEmail(final String prefix, final String cursor, final int limit) {
+        return customers.findByEmailPrefix(prefix, cursor, limit);
+    }
+
+    // Get a page of customers whose last name starts with the prefix (ignoring case),
+    // sorted by last name, first name and email
+    public Page<Customer> findCustomersByLastName(final String prefix, final String cursor, final int limit) {
+        return customers.findByLastNamePrefix(prefix, cursor, limit);
     }
 }
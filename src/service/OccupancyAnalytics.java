@@ -0,0 +1,203 @@
+package service;
+
+import model.IRoom;
+import model.OccupancyReport;
+import model.OccupancyStatistics;
+import model.RateCalendar;
+import model.Reservation;
+import model.RoomType;
+import persistence.ReservationArchive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class computes the daily occupancy and room revenue of a range of nights. The rooms'
+ * stays are read from the reservation ledger, and only where every stay starts and ends is
+ * recorded, in difference arrays with one slot per night and room type. A single sweep turns
+ * them into nightly counts of booked rooms and sums of their prices, so the work grows with
+ * the number of stays and nights, not their product.
+ * <p>
+ * Given a fork/join pool, the rooms are split into partitions processed by parallel tasks,
+ * each with its own arrays, which are then added up. Without one, every room is processed on
+ * the caller's thread; {@code OccupancyReportBenchmark} compares the two.
+ * <p>
+ * Archived stays overlapping the range are read from the archive and added to the same
+ * arrays. A booked night earns the booked room's base price times its type's rate factor
+ * for that night, as currently set. Occupancy is relative to the rooms registered now.
+ * @author Haregweyni Temanu
+ */
+final class OccupancyAnalytics {
+
+    private static final RoomType[] ROOM_TYPES = RoomType.values();
+    // Rooms a task handles itself instead of splitting further
+    private static final int ROOMS_PER_TASK = 256;
+
+    private final ReservationLedger ledger;
+    private final RateEngine rates;
+    // Pool the partitions are processed in, or null to process every room on the caller's thread
+    private final ForkJoinPool pool;
+
+    // Create analytics over the ledger's reservations, priced by the rate engine; without a pool the
+    // rooms are processed sequentially
+    OccupancyAnalytics(final ReservationLedger ledger, final RateEngine rates, final ForkJoinPool pool) {
+        this.ledger = ledger;
+        this.rates = rates;
+        this.pool = pool;
+    }
+
+    // Report the nights of [fromDay, toDay) for the given rooms and the stays of the archive, if any
+    OccupancyReport report(final List<IRoom> rooms, final ReservationArchive archive, final int fromDay,
+                           final int toDay) {
+        final int nights = toDay - fromDay;
+        final Partition totals = pool == null
+                ? partition(rooms, 0, rooms.size(), fromDay, toDay)
+                : pool.invoke(new PartitionTask(rooms, 0, rooms.size(), fromDay, toDay));
+
+        if (archive != null) {
+            try {
+                archive.forEachStay(fromDay, toDay, (email, bookedRoom, checkInDay, checkOutDay) ->
+                        totals.addStay(bookedRoom, Math.max(checkInDay, fromDay) - fromDay,
+                                Math.min(checkOutDay, toDay) - fromDay, nights));
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to read archived reservations", ex);
+            }
+        }
+        final Map<RoomType, List<OccupancyStatistics>> dailyByType = new EnumMap<>(RoomType.class);
+        final long[] roomsSold = new long[nights];
+        final double[] revenue = new double[nights];
+        int roomCount = 0;
+
+        for (RoomType roomType : ROOM_TYPES) {
+            final int type = roomType.ordinal();
+            final int base = type * (nights + 1);
+            final RateCalendar calendar = rates.calendar(roomType);
+            final List<OccupancyStatistics> daily = new ArrayList<>(nights);
+            long sold = 0L;
+            long priceCents = 0L;
+
+            for (int night = 0; night < nights; night++) {
+                sold += totals.soldChanges[base + night];
+                priceCents += totals.priceCentChanges[base + night];
+
+                final double nightRevenue = cents(priceCents * calendar.getFactor(fromDay + night) / 100.0);
+                daily.add(new OccupancyStatistics(fromDay + night, fromDay + night + 1, totals.roomCounts[type],
+                        sold, nightRevenue));
+                roomsSold[night] += sold;
+                revenue[night] += nightRevenue;
+            }
+
+            dailyByType.put(roomType, daily);
+            roomCount += totals.roomCounts[type];
+        }
+
+        final List<OccupancyStatistics> daily = new ArrayList<>(nights);
+        for (int night = 0; night < nights; night++) {
+            daily.add(new OccupancyStatistics(fromDay + night, fromDay + night + 1, roomCount, roomsSold[night],
+                    cents(revenue[night])));
+        }
+
+        return new OccupancyReport(fromDay, toDay, dailyByType, daily);
+    }
+
+    // Count the rooms [from, to) of the list and record where their stays start and end
+    private Partition partition(final List<IRoom> rooms, final int from, final int to, final int fromDay,
+                                final int toDay) {
+        final int nights = toDay - fromDay;
+        final Partition partition = new Partition(nights);
+
+        for (int i = from; i < to; i++) {
+            final IRoom room = rooms.get(i);
+            partition.roomCounts[room.getRoomType().ordinal()]++;
+
+            for (Reservation reservation : ledger.roomReservations(room.getRoomNumber(), fromDay, toDay)) {
+                partition.addStay(reservation.getRoom(),
+                        Math.max(reservation.getCheckInDay(), fromDay) - fromDay,
+                        Math.min(reservation.getCheckOutDay(), toDay) - fromDay, nights);
+            }
+        }
+
+        return partition;
+    }
+
+    private static double cents(final double amount) {
+        return Math.round(amount * 100.0) / 100.0;
+    }
+
+    // Room counts and difference arrays of booked rooms and booked prices in cents, per type and night
+    private static final class Partition {
+
+        private final int[] roomCounts = new int[ROOM_TYPES.length];
+        private final int[] soldChanges;
+        private final long[] priceCentChanges;
+
+        private Partition(final int nights) {
+            this.soldChanges = new int[ROOM_TYPES.length * (nights + 1)];
+            this.priceCentChanges = new long[ROOM_TYPES.length * (nights + 1)];
+        }
+
+        // Record a stay in the room over the report's nights [start, end)
+        private void addStay(final IRoom bookedRoom, final int start, final int end, final int nights) {
+            final int base = bookedRoom.getRoomType().ordinal() * (nights + 1);
+            final long priceCents = Math.round(bookedRoom.getRoomPrice() * 100.0);
+
+            soldChanges[base + start]++;
+            soldChanges[base + end]--;
+            priceCentChanges[base + start] += priceCents;
+            priceCentChanges[base + end] -= priceCents;
+        }
+
+        // Add another partition's counts and changes into this one
+        private Partition merge(final Partition other) {
+            for (int i = 0; i < roomCounts.length; i++) {
+                roomCounts[i] += other.roomCounts[i];
+            }
+            for (int i = 0; i < soldChanges.length; i++) {
+                soldChanges[i] += other.soldChanges[i];
+                priceCentChanges[i] += other.priceCentChanges[i];
+            }
+            return this;
+        }
+    }
+
+    // Process the rooms [from, to) of the list, splitting them among forked tasks
+    private final class PartitionTask extends RecursiveTask<Partition> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<IRoom> rooms;
+        private final int from;
+        private final int to;
+        private final int fromDay;
+        private final int toDay;
+
+        private PartitionTask(final List<IRoom> rooms, final int from, final int to, final int fromDay,
+                              final int toDay) {
+            this.rooms = rooms;
+            this.from = from;
+            this.to = to;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+        }
+
+        @Override
+        protected Partition compute() {
+            if (to - from > ROOMS_PER_TASK) {
+                final int middle = (from + to) >>> 1;
+                final PartitionTask left = new PartitionTask(rooms, from, middle, fromDay, toDay);
+
+                left.fork();
+                final Partition right = new PartitionTask(rooms, middle, to, fromDay, toDay).compute();
+                return left.join().merge(right);
+            }
+
+            return partition(rooms, from, to, fromDay, toDay);
+        }
+    }
+}
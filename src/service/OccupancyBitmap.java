@@ -0,0 +1,332 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * This class keeps the occupied nights of a single room as a bitset of epoch days.
+ * Bit {@code d} is set when the night starting on epoch day {@code d} is booked.
+ * <p>
+ * A bitmap is immutable: booking nights returns a copy with their bits set, so a bitmap
+ * read from a published room table never changes under its readers.
+ * @author Haregweyni Temanu
+ */
+final class OccupancyBitmap {
+
+    static final OccupancyBitmap EMPTY = new OccupancyBitmap(new Words(0, new long[0]));
+
+    private static final int INITIAL_WORDS = 8;
+
+    private final Words current;
+
+    private OccupancyBitmap(final Words current) {
+        this.current = current;
+    }
+
+    // A copy of this bitmap with the nights [fromDay, toDay) marked as occupied
+    OccupancyBitmap with(final int fromDay, final int toDay) {
+        if (fromDay >= toDay) {
+            return this;
+        }
+
+        final Words covering = covering(fromDay >> 6, (toDay - 1) >> 6);
+        covering.set(fromDay, toDay);
+
+        return new OccupancyBitmap(covering);
+    }
+
+    // A copy of this bitmap with every stay marked as occupied; stays holds check-in and check-out
+    // days in pairs. The words are copied once, however many stays there are.
+    OccupancyBitmap withAll(final int[] stays) {
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+
+        for (int i = 0; i < stays.length; i += 2) {
+            if (stays[i] < stays[i + 1]) {
+                first = Math.min(first, stays[i] >> 6);
+                last = Math.max(last, (stays[i + 1] - 1) >> 6);
+            }
+        }
+        if (first > last) {
+            return this;
+        }
+
+        final Words covering = covering(first, last);
+        for (int i = 0; i < stays.length; i += 2) {
+            if (stays[i] < stays[i + 1]) {
+                covering.set(stays[i], stays[i + 1]);
+            }
+        }
+
+        return new OccupancyBitmap(covering);
+    }
+
+    // A copy of this bitmap without the words holding only nights before the given day, which then
+    // read as free, or this bitmap if it stores none
+    OccupancyBitmap withoutBefore(final int day) {
+        final Words words = current;
+        final int dropped = Math.min(words.words.length, (day >> 6) - words.baseWord);
+
+        if (dropped <= 0) {
+            return this;
+        }
+        if (dropped == words.words.length) {
+            return EMPTY;
+        }
+
+        return new OccupancyBitmap(new Words(words.baseWord + dropped,
+                Arrays.copyOfRange(words.words, dropped, words.words.length)));
+    }
+
+    // Check if none of the nights [fromDay, toDay) is occupied
+    boolean isClear(final int fromDay, final int toDay) {
+        final Words snapshot = current;
+
+        if (fromDay >= toDay || snapshot.words.length == 0) {
+            return true;
+        }
+
+        final int firstWord = (fromDay >> 6) - snapshot.baseWord;
+        final int lastWord = ((toDay - 1) >> 6) - snapshot.baseWord;
+        final long firstMask = -1L << fromDay;
+        final long lastMask = -1L >>> -toDay;
+
+        if (firstWord == lastWord) {
+            return (snapshot.word(firstWord) & firstMask & lastMask) == 0;
+        }
+
+        long occupied = snapshot.word(firstWord) & firstMask;
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            occupied |= snapshot.word(i);
+        }
+        occupied |= snapshot.word(lastWord) & lastMask;
+
+        return occupied == 0;
+    }
+
+    // First day on or after fromDay starting a run of at least the given number of free nights
+    int nextClear(final int fromDay, final int nights) {
+        final Words snapshot = current;
+        int day = fromDay;
+
+        while (true) {
+            day = snapshot.nextClearDay(day);
+            final int occupied = snapshot.nextSetDay(day);
+
+            if ((long) occupied - day >= nights) {
+                return day;
+            }
+            day = occupied;
+        }
+    }
+
+    // Number of scratch words closestClear needs for the given window
+    static int scratchWords(final int nights, final int minDay, final int maxDay) {
+        return (int) (((long) maxDay - minDay + nights + 63) >>> 6);
+    }
+
+    // Starts in [minDay, maxDay] of runs of free nights of the given length, closest to targetDay
+    // first and the earlier one on a tie, written to starts until it is full; returns how many were
+    // found. Works on the whole window at once: the free bits are ANDed with shifted copies of
+    // themselves until bit d means "nights d .. d + nights - 1 are all free", then the set bits are
+    // taken outwards from the target.
+    int closestClear(final int targetDay, final int nights, final int minDay, final int maxDay,
+                     final long[] scratch, final int[] starts) {
+        if (minDay > maxDay) {
+            return 0;
+        }
+
+        final Words snapshot = current;
+        final int span = maxDay - minDay + 1;
+        final int words = scratchWords(nights, minDay, maxDay);
+
+        for (int k = 0; k < words; k++) {
+            scratch[k] = ~snapshot.bitsFrom(minDay + (k << 6));
+        }
+
+        // Invariant: bit d is set if the `length` nights from d are all free
+        for (int length = 1; length < nights; ) {
+            final int step = Math.min(length, nights - length);
+            final int wordShift = step >>> 6;
+            final int bitShift = step & 63;
+
+            for (int k = 0; k < words; k++) {
+                final long low = k + wordShift < words ? scratch[k + wordShift] : 0L;
+                final long high = k + wordShift + 1 < words ? scratch[k + wordShift + 1] : 0L;
+                scratch[k] &= bitShift == 0 ? low : (low >>> bitShift) | (high << -bitShift);
+            }
+            length += step;
+        }
+
+        final int target = (int) Math.max(0L, Math.min((long) targetDay - minDay, span));
+        int later = nextSetBit(scratch, target, span);
+        int earlier = previousSetBit(scratch, target - 1);
+        int found = 0;
+
+        while (found < starts.length && (earlier >= 0 || later >= 0)) {
+            if (later < 0 || earlier >= 0
+                    && (long) targetDay - minDay - earlier <= (long) minDay + later - targetDay) {
+                starts[found++] = minDay + earlier;
+                earlier = previousSetBit(scratch, earlier - 1);
+            } else {
+                starts[found++] = minDay + later;
+                later = nextSetBit(scratch, later + 1, span);
+            }
+        }
+        return found;
+    }
+
+    // First set bit at or after from and before end, or -1
+    private static int nextSetBit(final long[] bits, final int from, final int end) {
+        if (from >= end) {
+            return -1;
+        }
+
+        int k = from >>> 6;
+        long word = bits[k] & (-1L << from);
+
+        while (word == 0) {
+            if (++k << 6 >= end) {
+                return -1;
+            }
+            word = bits[k];
+        }
+
+        final int bit = (k << 6) + Long.numberOfTrailingZeros(word);
+        return bit < end ? bit : -1;
+    }
+
+    // Last set bit at or before from, or -1
+    private static int previousSetBit(final long[] bits, final int from) {
+        if (from < 0) {
+            return -1;
+        }
+
+        int k = from >>> 6;
+        long word = bits[k] & (-1L >>> (63 - (from & 63)));
+
+        while (word == 0) {
+            if (--k < 0) {
+                return -1;
+            }
+            word = bits[k];
+        }
+
+        return (k << 6) + 63 - Long.numberOfLeadingZeros(word);
+    }
+
+    // A copy of the words covering at least the absolute words [first, last], growing by doubling
+    private Words covering(final int first, final int last) {
+        final Words words = current;
+
+        if (words.words.length == 0) {
+            return new Words(first, new long[Math.max(INITIAL_WORDS, last - first + 1)]);
+        }
+
+        final int base = words.baseWord;
+        final int end = base + words.words.length;
+        final int newBase = Math.min(base, first);
+        final int newEnd = Math.max(end, last + 1);
+
+        if (newBase == base && newEnd == end) {
+            return new Words(base, words.words.clone());
+        }
+
+        final int length = Math.max(newEnd - newBase, words.words.length << 1);
+        final int start = newBase < base ? newEnd - length : base;
+        final long[] grown = new long[length];
+        System.arraycopy(words.words, 0, grown, base - start, words.words.length);
+
+        return new Words(start, grown);
+    }
+
+    // Occupancy words together with the absolute index (epochDay >> 6) of the first one
+    private static final class Words {
+
+        private final int baseWord;
+        private final long[] words;
+
+        private Words(final int baseWord, final long[] words) {
+            this.baseWord = baseWord;
+            this.words = words;
+        }
+
+        // Mark the nights [fromDay, toDay) of a copy not yet published; the words must cover them
+        private void set(final int fromDay, final int toDay) {
+            final int firstWord = (fromDay >> 6) - baseWord;
+            final int lastWord = ((toDay - 1) >> 6) - baseWord;
+            final long firstMask = -1L << fromDay;
+            final long lastMask = -1L >>> -toDay;
+
+            if (firstWord == lastWord) {
+                words[firstWord] |= firstMask & lastMask;
+            } else {
+                words[firstWord] |= firstMask;
+                for (int i = firstWord + 1; i < lastWord; i++) {
+                    words[i] = -1L;
+                }
+                words[lastWord] |= lastMask;
+            }
+        }
+
+        // Word at the given relative index; days outside the stored range are free
+        private long word(final int index) {
+            return index < 0 || index >= words.length ? 0L : words[index];
+        }
+
+        // The 64 nights starting on the given day, one bit each; nights outside the stored range are free
+        private long bitsFrom(final int day) {
+            final int index = (day >> 6) - baseWord;
+            final int shift = day & 63;
+
+            if (shift == 0) {
+                return word(index);
+            }
+            return (word(index) >>> shift) | (word(index + 1) << -shift);
+        }
+
+        // First occupied day on or after the given day, or Integer.MAX_VALUE if there is none
+        private int nextSetDay(final int day) {
+            int index = (day >> 6) - baseWord;
+            long word;
+
+            // Checked before a day below the stored range is moved to its first word, which EMPTY lacks
+            if (words.length == 0 || index >= words.length) {
+                return Integer.MAX_VALUE;
+            }
+            if (index < 0) {
+                index = 0;
+                word = words[0];
+            } else {
+                word = words[index] & (-1L << day);
+            }
+
+            while (word == 0) {
+                if (++index == words.length) {
+                    return Integer.MAX_VALUE;
+                }
+                word = words[index];
+            }
+
+            return ((baseWord + index) << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        // First free day on or after the given day
+        private int nextClearDay(final int day) {
+            int index = (day >> 6) - baseWord;
+
+            if (index < 0 || index >= words.length) {
+                return day;
+            }
+
+            long word = ~words[index] & (-1L << day);
+            while (word == 0) {
+                if (++index == words.length) {
+                    return (baseWord + index) << 6;
+                }
+                word = ~words[index];
+            }
+
+            return ((baseWord + index) << 6) + Long.numberOfTrailingZeros(word);
+        }
+    }
+}
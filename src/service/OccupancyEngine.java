@@ -0,0 +1,309 @@
+package service;
+
+import model.AlternativeStay;
+import model.IRoom;
+import model.RoomFilter;
+import model.RoomSearchResult;
+import model.RoomType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class answers availability questions about the rooms of one shard with bitwise
+ * operations instead of comparing reservation dates.
+ * <p>
+ * The rooms and their occupied nights live in immutable room tables that the caller
+ * publishes; every read works on the table it is given, so it never locks and sees one
+ * point in time. The engine only keeps the index from room numbers to ids, which are
+ * published after the tables holding them.
+ * @author Haregweyni Temanu
+ */
+final class OccupancyEngine {
+
+    // Next room id of a free room iterator that has not been looked for yet
+    private static final int UNCHECKED = -2;
+
+    // Dense index of each room, keyed by room number
+    private final Map<String, Integer> roomIds = new ConcurrentHashMap<>();
+
+    // A table with the rooms registered, replacing the rooms registered under the same numbers. The
+    // ids of new rooms are put into newIds, to be published once the table is; replaced rooms are
+    // added to replaced.
+    RoomTable withRooms(final RoomTable table, final Collection<IRoom> added, final Map<String, Integer> newIds,
+                        final List<IRoom> replaced) {
+        return table.withRooms(added, roomIds, newIds, replaced);
+    }
+
+    // Publish the ids of rooms registered in a published table
+    void publishIds(final Map<String, Integer> newIds) {
+        roomIds.putAll(newIds);
+    }
+
+    // A table with the nights [fromDay, toDay) of the given rooms marked as occupied
+    RoomTable withOccupied(final RoomTable table, final Collection<String> roomNumbers, final int fromDay,
+                           final int toDay) {
+        final int[] ids = new int[roomNumbers.size()];
+        int i = 0;
+
+        for (String roomNumber : roomNumbers) {
+            ids[i++] = idOf(table, roomNumber);
+        }
+
+        return table.withOccupied(ids, fromDay, toDay);
+    }
+
+    // A table with the stays of the given rooms marked as occupied; each entry holds a room number
+    // and its check-in and check-out days in pairs
+    RoomTable withStays(final RoomTable table, final Collection<Map.Entry<String, int[]>> stays) {
+        final int[] ids = new int[stays.size()];
+        final int[][] days = new int[ids.length][];
+        int i = 0;
+
+        for (Map.Entry<String, int[]> entry : stays) {
+            ids[i] = idOf(table, entry.getKey());
+            days[i++] = entry.getValue();
+        }
+
+        return table.withStays(ids, days);
+    }
+
+    // A table no longer storing the nights of any room before the given day
+    RoomTable withoutBefore(final RoomTable table, final int day) {
+        return table.withoutBefore(day);
+    }
+
+    // Get the room of the table registered under the given number, or null
+    IRoom room(final RoomTable table, final String roomNumber) {
+        final Integer id = roomIds.get(roomNumber);
+        return id == null || id >= table.count ? null : table.room(id);
+    }
+
+    // Check if a room is free on every night of [fromDay, toDay)
+    boolean isFree(final RoomTable table, final String roomNumber, final int fromDay, final int toDay) {
+        return table.bitmap(idOf(table, roomNumber)).isClear(fromDay, toDay);
+    }
+
+    // First day on or after fromDay from which a room is free for the given number of nights
+    int nextFreeDay(final RoomTable table, final String roomNumber, final int fromDay, final int nights) {
+        return table.bitmap(idOf(table, roomNumber)).nextClear(fromDay, nights);
+    }
+
+    // The limit best stays of the given length starting in [minDay, maxDay], at most perRoom per
+    // room, ranked by distance from targetDay, then check-in day, then registration order.
+    // Each room's bitmap is swept once; a bounded heap keeps the best candidates.
+    List<AlternativeStay> closestStays(final RoomTable snapshot, final int targetDay, final int nights,
+                                       final int minDay, final int maxDay, final int limit, final int perRoom) {
+        // Worst candidate at the head, so it is the one evicted
+        final PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, Candidate.RANK.reversed());
+        final long[] scratch = new long[OccupancyBitmap.scratchWords(nights, minDay, maxDay)];
+        final int[] starts = new int[Math.min(limit, perRoom)];
+
+        for (int id = 0; id < snapshot.count; id++) {
+            // Once the heap is full, only stays at most as far as the worst kept one can enter it
+            final Candidate worst = best.size() < limit ? null : best.peek();
+            final int from = worst == null ? minDay : (int) Math.max(minDay, targetDay - worst.distance);
+            final int to = worst == null ? maxDay : (int) Math.min(maxDay, targetDay + worst.distance);
+            final int found = snapshot.bitmap(id).closestClear(targetDay, nights, from, to, scratch, starts);
+
+            // The starts come best first, so the first one that does not make the heap ends the room
+            for (int i = 0; i < found; i++) {
+                final Candidate candidate = new Candidate(id, starts[i], Math.abs((long) starts[i] - targetDay));
+
+                if (best.size() < limit) {
+                    best.add(candidate);
+                } else if (Candidate.RANK.compare(candidate, best.peek()) < 0) {
+                    best.poll();
+                    best.add(candidate);
+                } else {
+                    break;
+                }
+            }
+        }
+
+        final List<Candidate> ranked = new ArrayList<>(best);
+        final List<AlternativeStay> stays = new ArrayList<>(ranked.size());
+
+        ranked.sort(Candidate.RANK);
+        for (Candidate candidate : ranked) {
+            stays.add(new AlternativeStay(snapshot.room(candidate.id), candidate.checkInDay,
+                    candidate.checkInDay + nights, candidate.checkInDay - targetDay));
+        }
+
+        return stays;
+    }
+
+    // Up to limit rooms matching the filter and free on every night of [fromDay, toDay), cheapest
+    // first. Only rooms in the filter's price range are checked, and the scan stops at limit.
+    List<IRoom> cheapestFreeRooms(final RoomTable snapshot, final int fromDay, final int toDay,
+                                  final RoomFilter filter, final int limit) {
+        final RoomPriceIndex.Slice slice = snapshot.priceIndex().slice(filter.getRoomType());
+        final int end = slice.upperBound(filter.getMaxPrice());
+        final List<IRoom> rooms = new ArrayList<>(Math.min(limit, 1024));
+
+        for (int position = slice.lowerBound(filter.getMinPrice()); position < end && rooms.size() < limit;
+             position++) {
+            final int id = slice.idAt(position);
+
+            if (snapshot.bitmap(id).isClear(fromDay, toDay)) {
+                rooms.add(snapshot.room(id));
+            }
+        }
+
+        return rooms;
+    }
+
+    // Rooms matching the filter and free on every night of [fromDay, toDay), cheapest first. Rooms
+    // are checked as the iterator advances, none before the first call, so taking the first few
+    // does not scan the rest.
+    Iterator<IRoom> freeRoomsByPrice(final RoomTable snapshot, final int fromDay, final int toDay,
+                                     final RoomFilter filter) {
+        final RoomPriceIndex.Slice slice = snapshot.priceIndex().slice(filter.getRoomType());
+        final int end = slice.upperBound(filter.getMaxPrice());
+
+        return new Iterator<IRoom>() {
+            private int position = slice.lowerBound(filter.getMinPrice());
+            // Id of the next free room, -1 past the end, or UNCHECKED until it is looked for
+            private int nextId = UNCHECKED;
+
+            @Override
+            public boolean hasNext() {
+                if (nextId == UNCHECKED) {
+                    nextId = advance();
+                }
+                return nextId >= 0;
+            }
+
+            @Override
+            public IRoom next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                final IRoom room = snapshot.room(nextId);
+                nextId = UNCHECKED;
+                return room;
+            }
+
+            // Id of the next free room in the price range, or -1 past the end
+            private int advance() {
+                while (position < end) {
+                    final int id = slice.idAt(position++);
+
+                    if (snapshot.bitmap(id).isClear(fromDay, toDay)) {
+                        return id;
+                    }
+                }
+                return -1;
+            }
+        };
+    }
+
+    // Up to limit matching free rooms, cheapest first, with the number of free rooms of each type
+    // in the filter's price range. Counting needs every room in the price range to be checked.
+    RoomSearchResult searchFreeRooms(final RoomTable snapshot, final long version, final int fromDay,
+                                     final int toDay, final RoomFilter filter, final int limit) {
+        final RoomPriceIndex.Slice slice = snapshot.priceIndex().slice(null);
+        final int end = slice.upperBound(filter.getMaxPrice());
+        final int wantedType = filter.getRoomType() == null ? -1 : filter.getRoomType().ordinal();
+        final int[] typeCounts = new int[RoomType.values().length];
+        final List<IRoom> rooms = new ArrayList<>(Math.min(limit, 1024));
+
+        for (int position = slice.lowerBound(filter.getMinPrice()); position < end; position++) {
+            final int id = slice.idAt(position);
+
+            if (!snapshot.bitmap(id).isClear(fromDay, toDay)) {
+                continue;
+            }
+
+            final int type = snapshot.types[id];
+            typeCounts[type]++;
+            if ((wantedType < 0 || type == wantedType) && rooms.size() < limit) {
+                rooms.add(snapshot.room(id));
+            }
+        }
+
+        final EnumMap<RoomType, Integer> counts = new EnumMap<>(RoomType.class);
+        int total = 0;
+        for (RoomType type : RoomType.values()) {
+            counts.put(type, typeCounts[type.ordinal()]);
+            if (wantedType < 0 || type.ordinal() == wantedType) {
+                total += typeCounts[type.ordinal()];
+            }
+        }
+
+        return new RoomSearchResult(rooms, counts, total, version);
+    }
+
+    // Rooms free on every night of [fromDay, toDay), in registration order
+    Collection<IRoom> freeRooms(final RoomTable snapshot, final int fromDay, final int toDay) {
+        final long[] mask = freeRoomMask(snapshot, fromDay, toDay);
+        final Collection<IRoom> freeRooms = new ArrayList<>();
+
+        for (int w = 0; w < mask.length; w++) {
+            long word = mask[w];
+
+            while (word != 0) {
+                freeRooms.add(snapshot.room((w << 6) + Long.numberOfTrailingZeros(word)));
+                word &= word - 1;
+            }
+        }
+
+        return freeRooms;
+    }
+
+    private static long[] freeRoomMask(final RoomTable snapshot, final int fromDay, final int toDay) {
+        final long[] mask = new long[(snapshot.count + 63) >> 6];
+
+        for (int id = 0; id < snapshot.count; id++) {
+            if (snapshot.bitmap(id).isClear(fromDay, toDay)) {
+                mask[id >> 6] |= 1L << id;
+            }
+        }
+
+        return mask;
+    }
+
+    private int idOf(final RoomTable table, final String roomNumber) {
+        final Integer id = roomIds.get(roomNumber);
+
+        if (id == null || id >= table.count) {
+            throw new IllegalArgumentException("Unknown room: " + roomNumber);
+        }
+
+        return id;
+    }
+
+    // A room's best stay during an alternative search
+    private static final class Candidate {
+
+        // Closer to the requested check-in first, then earlier, then the room registered first
+        private static final Comparator<Candidate> RANK = (left, right) -> {
+            if (left.distance != right.distance) {
+                return Long.compare(left.distance, right.distance);
+            }
+            if (left.checkInDay != right.checkInDay) {
+                return Integer.compare(left.checkInDay, right.checkInDay);
+            }
+            return Integer.compare(left.id, right.id);
+        };
+
+        private final int id;
+        private final int checkInDay;
+        private final long distance;
+
+        private Candidate(final int id, final int checkInDay, final long distance) {
+            this.id = id;
+            this.checkInDay = checkInDay;
+            this.distance = distance;
+        }
+    }
+}
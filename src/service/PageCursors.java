@@ -0,0 +1,30 @@
+package service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * This class encodes the sort key of the last item of a page into an opaque, URL-safe
+ * cursor, and decodes it back when the next page is requested.
+ * @author Haregweyni Temanu
+ */
+final class PageCursors {
+
+    // Private constructor to prevent instantiation
+    private PageCursors() {
+    }
+
+    // Encode a sort key as a cursor
+    static String encode(final String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decode a cursor back into its sort key
+    static String decode(final String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid page cursor", ex);
+        }
+    }
+}
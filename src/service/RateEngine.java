@@ -0,0 +1,82 @@
+package service;
+
+import model.IRoom;
+import model.RateCalendar;
+import model.RoomQuote;
+import model.RoomType;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class prices stays. Each room type has a rate calendar of nightly factors of the
+ * room's base price; a quote multiplies the base price by the sum of the factors of the
+ * stay's nights, which the calendar answers from its running sums. Quoting many rooms for
+ * the same dates looks the sum up once per room type.
+ * <p>
+ * Calendars are immutable and replaced whole, so quotes never wait for a rate change.
+ * @author Haregweyni Temanu
+ */
+final class RateEngine {
+
+    private static final RoomType[] ROOM_TYPES = RoomType.values();
+
+    private final AtomicReferenceArray<RateCalendar> calendars = new AtomicReferenceArray<>(ROOM_TYPES.length);
+
+    // Create an engine charging the base price every night
+    RateEngine() {
+        for (int i = 0; i < ROOM_TYPES.length; i++) {
+            calendars.set(i, RateCalendar.flat());
+        }
+    }
+
+    // Get the rate calendar of a room type
+    RateCalendar calendar(final RoomType roomType) {
+        return calendars.get(roomType.ordinal());
+    }
+
+    // Set the factor of the nights of [fromDay, toDay) on the given days of the week; serialized so
+    // concurrent changes to the same room type are not lost
+    synchronized void setFactor(final RoomType roomType, final int fromDay, final int toDay,
+                                final Set<DayOfWeek> daysOfWeek, final double factor) {
+        calendars.set(roomType.ordinal(), calendar(roomType).withFactor(fromDay, toDay, daysOfWeek, factor));
+    }
+
+    // Total price of a stay in the room
+    double quote(final IRoom room, final int checkInDay, final int checkOutDay) {
+        return total(room.getRoomPrice(), calendar(room.getRoomType()).getFactorSum(checkInDay, checkOutDay));
+    }
+
+    // Quote a stay in each of the rooms, in the rooms' order
+    List<RoomQuote> quote(final Collection<IRoom> rooms, final int checkInDay, final int checkOutDay) {
+        final double[] factorSums = factorSums(checkInDay, checkOutDay);
+        final List<RoomQuote> quotes = new ArrayList<>(rooms.size());
+
+        for (IRoom room : rooms) {
+            quotes.add(new RoomQuote(room, checkInDay, checkOutDay,
+                    total(room.getRoomPrice(), factorSums[room.getRoomType().ordinal()])));
+        }
+
+        return quotes;
+    }
+
+    // Sum of the factors of the stay's nights for each room type, by ordinal
+    private double[] factorSums(final int checkInDay, final int checkOutDay) {
+        final double[] factorSums = new double[ROOM_TYPES.length];
+
+        for (int i = 0; i < ROOM_TYPES.length; i++) {
+            factorSums[i] = calendars.get(i).getFactorSum(checkInDay, checkOutDay);
+        }
+
+        return factorSums;
+    }
+
+    // Price of a stay, rounded to cents
+    private static double total(final double price, final double factorSum) {
+        return Math.round(price * factorSum * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,244 @@
+package service;
+
+import model.Page;
+import model.Reservation;
+import model.ReservationFilter;
+import model.ReservationOrder;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * This class keeps every reservation sorted by check-in date and by room, so listings can
+ * walk them lazily, page by page, from a cursor. A room cannot be booked twice for the same
+ * night, so check-in date and room number identify a reservation in both orders. The room
+ * order doubles as the room-keyed index behind room history and schedule queries.
+ * @author Haregweyni Temanu
+ */
+final class ReservationLedger {
+
+    // Both orders are replaced only when an empty ledger is restored
+    private volatile NavigableMap<Key, Reservation> byCheckIn = new ConcurrentSkipListMap<>(Key.BY_CHECK_IN);
+    private volatile NavigableMap<Key, Reservation> byRoom = new ConcurrentSkipListMap<>(Key.BY_ROOM);
+
+    // Add a reservation to both orders
+    void add(final Reservation reservation) {
+        final Key key = new Key(reservation.getCheckInDay(), reservation.getRoom().getRoomNumber());
+
+        byCheckIn.put(key, reservation);
+        byRoom.put(key, reservation);
+    }
+
+    // Add reservations sorted by room number and then check-in day, none of them overlapping, given with
+    // their positions sorted by check-in day and then room number, if known. Into an empty ledger both
+    // orders are linked in a single pass rather than searched for every reservation; positions not in
+    // check-in order are replaced by one sort of primitives. Nothing else may change the ledger meanwhile.
+    void restore(final List<Reservation> roomOrder, final int[] checkInOrder) {
+        if (!byCheckIn.isEmpty()) {
+            for (Reservation reservation : roomOrder) {
+                add(reservation);
+            }
+            return;
+        }
+
+        final List<Map.Entry<Key, Reservation>> byRoomEntries = new ArrayList<>(roomOrder.size());
+        for (Reservation reservation : roomOrder) {
+            byRoomEntries.add(new AbstractMap.SimpleImmutableEntry<>(
+                    new Key(reservation.getCheckInDay(), reservation.getRoom().getRoomNumber()), reservation));
+        }
+
+        List<Map.Entry<Key, Reservation>> byCheckInEntries = inOrder(byRoomEntries, checkInOrder);
+        if (byCheckInEntries == null) {
+            // Check-in day above the position, so stays checking in the same day keep their room order
+            final long[] positions = new long[roomOrder.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = (long) roomOrder.get(i).getCheckInDay() << Integer.SIZE | i;
+            }
+            Arrays.sort(positions);
+
+            byCheckInEntries = new ArrayList<>(positions.length);
+            for (long position : positions) {
+                byCheckInEntries.add(byRoomEntries.get((int) position));
+            }
+        }
+
+        byRoom = new ConcurrentSkipListMap<>(new SortedEntries<>(Key.BY_ROOM, byRoomEntries));
+        byCheckIn = new ConcurrentSkipListMap<>(new SortedEntries<>(Key.BY_CHECK_IN, byCheckInEntries));
+    }
+
+    // The entries at the given positions, or null unless they are all of them in check-in order
+    private static List<Map.Entry<Key, Reservation>> inOrder(final List<Map.Entry<Key, Reservation>> entries,
+                                                             final int[] checkInOrder) {
+        if (checkInOrder == null || checkInOrder.length != entries.size()) {
+            return null;
+        }
+
+        // Keys are unique, so positions strictly in order are each used once
+        final List<Map.Entry<Key, Reservation>> ordered = new ArrayList<>(entries.size());
+        for (int position : checkInOrder) {
+            if (position < 0 || position >= entries.size()) {
+                return null;
+            }
+            final Map.Entry<Key, Reservation> entry = entries.get(position);
+            if (!ordered.isEmpty()
+                    && Key.BY_CHECK_IN.compare(ordered.get(ordered.size() - 1).getKey(), entry.getKey()) >= 0) {
+                return null;
+            }
+            ordered.add(entry);
+        }
+        return ordered;
+    }
+
+    // Remove a reservation from both orders
+    void remove(final Reservation reservation) {
+        final Key key = new Key(reservation.getCheckInDay(), reservation.getRoom().getRoomNumber());
+
+        byCheckIn.remove(key, reservation);
+        byRoom.remove(key, reservation);
+    }
+
+    // Get the reservations checking out before the given day, sorted by check-in date
+    List<Reservation> completedBefore(final int beforeDay) {
+        final List<Reservation> completed = new ArrayList<>();
+
+        // A stay checking out before beforeDay checked in before it too
+        for (Reservation reservation : byCheckIn.headMap(new Key(beforeDay, ""), false).values()) {
+            if (reservation.getCheckOutDay() < beforeDay) {
+                completed.add(reservation);
+            }
+        }
+
+        return completed;
+    }
+
+    // Get the number of reservations
+    int size() {
+        return byCheckIn.size();
+    }
+
+    // Get every reservation of a room, sorted by check-in date; a live view of the room index
+    Collection<Reservation> roomHistory(final String roomNumber) {
+        return Collections.unmodifiableCollection(roomRange(roomNumber).values());
+    }
+
+    // Get the reservations of a room with at least one night in [fromDay, toDay), sorted by check-in date
+    List<Reservation> roomReservations(final String roomNumber, final int fromDay, final int toDay) {
+        final List<Reservation> overlapping = new ArrayList<>();
+
+        // Stays of a room never overlap, so only the last stay checking in before fromDay can reach into the range
+        final Map.Entry<Key, Reservation> earlier = byRoom.lowerEntry(new Key(fromDay, roomNumber));
+        if (earlier != null && earlier.getKey().roomNumber.equals(roomNumber)
+                && earlier.getValue().getCheckOutDay() > fromDay) {
+            overlapping.add(earlier.getValue());
+        }
+
+        overlapping.addAll(byRoom.subMap(new Key(fromDay, roomNumber), true, new Key(toDay, roomNumber), false)
+                .values());
+        return overlapping;
+    }
+
+    // Get a page of the reservations matching the filter, in the given order, starting after the cursor
+    Page<Reservation> page(final ReservationOrder order, final ReservationFilter filter,
+                           final String cursor, final int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        final Iterator<Reservation> reservations = range(order, filter, cursor).values().iterator();
+        final List<Reservation> page = new ArrayList<>(Math.min(limit, 1024));
+        Reservation last = null;
+
+        while (page.size() < limit && reservations.hasNext()) {
+            final Reservation reservation = reservations.next();
+
+            if (filter.matches(reservation)) {
+                page.add(reservation);
+                last = reservation;
+            }
+        }
+
+        // A full page gets a cursor without looking further for a match, which a selective filter could
+        // make a scan of the rest of the index; the page after it may then be empty
+        return new Page<>(page, page.size() == limit ? encodeCursor(order, last) : null);
+    }
+
+    // Narrow the index of the given order to the filter's bounds and the cursor
+    private NavigableMap<Key, Reservation> range(final ReservationOrder order, final ReservationFilter filter,
+                                                 final String cursor) {
+        final Key after = cursor == null ? null : decodeCursor(order, cursor);
+
+        if (order == ReservationOrder.CHECK_IN) {
+            NavigableMap<Key, Reservation> range = byCheckIn;
+
+            if (filter.getCheckInBeforeDay() != null) {
+                range = range.headMap(new Key(filter.getCheckInBeforeDay(), ""), false);
+            }
+            if (after != null) {
+                return range.tailMap(after, false);
+            }
+            return filter.getCheckInFromDay() == null
+                    ? range
+                    : range.tailMap(new Key(filter.getCheckInFromDay(), ""), true);
+        }
+
+        final NavigableMap<Key, Reservation> range = filter.getRoomNumber() == null
+                ? byRoom
+                : roomRange(filter.getRoomNumber());
+        return after == null ? range : range.tailMap(after, false);
+    }
+
+    // The part of the room index holding one room's reservations
+    private NavigableMap<Key, Reservation> roomRange(final String roomNumber) {
+        return byRoom.subMap(new Key(Integer.MIN_VALUE, roomNumber), true,
+                new Key(Integer.MAX_VALUE, roomNumber), true);
+    }
+
+    private static String encodeCursor(final ReservationOrder order, final Reservation reservation) {
+        return PageCursors.encode(order.name() + ':' + reservation.getCheckInDay() + ':'
+                + reservation.getRoom().getRoomNumber());
+    }
+
+    private static Key decodeCursor(final ReservationOrder order, final String cursor) {
+        final String[] parts = PageCursors.decode(cursor).split(":", 3);
+
+        if (parts.length != 3 || !parts[0].equals(order.name())) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+
+        try {
+            return new Key(Integer.parseInt(parts[1]), parts[2]);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid page cursor", ex);
+        }
+    }
+
+    // Check-in epoch day and room number of a reservation
+    private static final class Key {
+
+        private static final Comparator<Key> BY_CHECK_IN = (left, right) -> {
+            final int byDay = Integer.compare(left.checkInDay, right.checkInDay);
+            return byDay != 0 ? byDay : left.roomNumber.compareTo(right.roomNumber);
+        };
+        private static final Comparator<Key> BY_ROOM = (left, right) -> {
+            final int byRoom = left.roomNumber.compareTo(right.roomNumber);
+            return byRoom != 0 ? byRoom : Integer.compare(left.checkInDay, right.checkInDay);
+        };
+
+        private final int checkInDay;
+        private final String roomNumber;
+
+        private Key(final int checkInDay, final String roomNumber) {
+            this.checkInDay = checkInDay;
+            this.roomNumber = roomNumber;
+        }
+    }
+}
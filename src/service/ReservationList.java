@@ -0,0 +1,78 @@
+package service;
+
+import model.Reservation;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * This class is an immutable list of a customer's reservations. Adding reservations
+ * fills the spare slots above the list's size and returns a new list sharing the array,
+ * so earlier lists never change and adding takes amortized constant time. Removing
+ * reservations copies the rest into a new array.
+ * <p>
+ * Changes must start from the latest list of a customer and be serialized by the caller.
+ * @author Haregweyni Temanu
+ */
+final class ReservationList extends AbstractList<Reservation> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 4;
+    private static final ReservationList EMPTY = new ReservationList(new Reservation[0], 0);
+
+    private final Reservation[] items;
+    private final int size;
+
+    private ReservationList(final Reservation[] items, final int size) {
+        this.items = items;
+        this.size = size;
+    }
+
+    // A list of the given reservations
+    static ReservationList of(final Collection<Reservation> reservations) {
+        return EMPTY.with(reservations);
+    }
+
+    // A list with the reservations appended
+    ReservationList with(final Collection<Reservation> added) {
+        final int needed = size + added.size();
+        final Reservation[] target = needed <= items.length
+                ? items
+                : Arrays.copyOf(items, Math.max(INITIAL_CAPACITY, Math.max(needed, items.length << 1)));
+        int index = size;
+
+        for (Reservation reservation : added) {
+            target[index++] = reservation;
+        }
+
+        return new ReservationList(target, needed);
+    }
+
+    // A list without the given reservations, or null if none is left
+    ReservationList without(final Set<Reservation> removed) {
+        final Reservation[] kept = new Reservation[size];
+        int count = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (!removed.contains(items[i])) {
+                kept[count++] = items[i];
+            }
+        }
+
+        return count == 0 ? null : new ReservationList(kept, count);
+    }
+
+    @Override
+    public Reservation get(final int index) {
+        Objects.checkIndex(index, size);
+        return items[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -1,16 +1,43 @@
 package service;
 
+import model.AlternativeOrder;
+import model.AlternativeStay;
+import model.CacheStatistics;
 import model.Customer;
+import model.EpochDays;
+import model.Page;
+import model.RateCalendar;
 import model.Reservation;
 import model.IRoom;
+import model.OccupancyReport;
+import model.ReservationFilter;
+import model.ReservationOrder;
+import model.RoomFilter;
+import model.RoomQuote;
+import model.RoomSearchResult;
+import model.RoomType;
+import persistence.Journal;
+import persistence.ReservationArchive;
 
-import java.util.Calendar;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This class provides services related to reservations.
@@ -18,14 +45,48 @@ import java.util.stream.Collectors;
  */
 public class ReservationService {
 
+    // Number of shards the rooms are partitioned across
+    private static final int SHARDS = Math.max(1, Integer.getInteger("hotel.shards", 1));
+    // Whether occupancy reports process partitions of the rooms in parallel; off unless measured to help
+    private static final boolean ANALYTICS_PARALLEL = Boolean.getBoolean("hotel.analytics.parallel");
     // Singleton instance of the ReservationService class
     private static final ReservationService SINGLETON = new ReservationService();
     // Default number of days for alternative room search
     private static final int RECOMMENDED_ROOMS_DEFAULT_PLUS_DAYS = 7;
+    // Number of room lock stripes per available processor
+    private static final int LOCK_STRIPES_PER_PROCESSOR = 16;
+    // Searches a booking of rooms by type makes before giving up on rooms taken concurrently
+    private static final int GROUP_BOOKING_ATTEMPTS = 4;
+    // Largest number of nights an occupancy report covers
+    private static final int MAX_REPORT_NIGHTS = 10 * 366;
 
-    // Maps to store rooms and reservations
-    private final Map<String, IRoom> rooms = new HashMap<>();
-    private final Map<String, Collection<Reservation>> reservations = new HashMap<>();
+    // Reservations of each customer, keyed by the email key; immutable lists replaced by every change
+    private final Map<String, ReservationList> reservations = new ConcurrentHashMap<>();
+    // All reservations, sorted by check-in date and by room for paged listings
+    private final ReservationLedger ledger = new ReservationLedger();
+    // Registered rooms, partitioned by room number and stored column by column, and the occupied nights of each
+    private final ShardedOccupancy occupancy = new ShardedOccupancy(SHARDS);
+    // Nightly rate factors of each room type, for stay quotes
+    private final RateEngine rates = new RateEngine();
+    // Daily occupancy and revenue reports, computed in one pass over the rooms, or in parallel over
+    // partitions of them when hotel.analytics.parallel is set
+    private final OccupancyAnalytics analytics = new OccupancyAnalytics(ledger, rates,
+            ANALYTICS_PARALLEL ? ForkJoinPool.commonPool() : null);
+    // Striped locks serializing bookings of the same room, split between the shards
+    private final RoomLocks roomLocks =
+            new RoomLocks(SHARDS, Runtime.getRuntime().availableProcessors() * LOCK_STRIPES_PER_PROCESSOR / SHARDS);
+
+    // Recent search results, invalidated by overlapping bookings and by room changes
+    private final AvailabilityCache availabilityCache = new AvailabilityCache(
+            Integer.getInteger("hotel.availabilityCache.entries", 1024),
+            Long.getLong("hotel.availabilityCache.rooms", 1L << 20));
+
+    // Journal recording every added room and reservation, if attached
+    private volatile Journal journal;
+    // Cold store of the completed stays moved out of memory, if attached
+    private volatile ReservationArchive archive;
+    // Serializes archiving passes
+    private final Object archiving = new Object();
 
     // Private constructor to prevent instantiation from outside the class
     private ReservationService() {
@@ -36,107 +97,871 @@ public class ReservationService {
         return SINGLETON;
     }
 
-    // Add a room to the rooms map
+    // Attach a journal that records every room and reservation added from now on
+    public void setJournal(final Journal journal) {
+        this.journal = journal;
+    }
+
+    // Attach the archive of completed stays. Archived stays are not read back: nights before the
+    // archive's cutoff can no longer be booked instead. Attach it after restoring the journal, then
+    // archive completed stays to drop the ones the snapshot or the journal restored a second time.
+    public void setArchive(final ReservationArchive archive) {
+        this.archive = archive;
+    }
+
+    // Move the stays checking out before the given epoch day from memory to the archive and return
+    // how many were removed. The archive is fsynced before the stays leave memory; stays it already
+    // holds are only removed.
+    public int archiveCompletedStays(final int beforeDay) {
+        final ReservationArchive archive = this.archive;
+        if (archive == null) {
+            return 0;
+        }
+
+        synchronized (archiving) {
+            final List<Reservation> completed = ledger.completedBefore(beforeDay);
+            final List<Reservation> stays = new ArrayList<>(completed.size());
+            final List<Reservation> older = new ArrayList<>();
+
+            // Only stays checking out before an earlier pass's cutoff can be archived already
+            for (Reservation reservation : completed) {
+                (reservation.getCheckOutDay() < archive.getArchivedBeforeDay() ? older : stays).add(reservation);
+            }
+
+            try {
+                stays.addAll(archive.missing(older));
+                archive.append(stays, beforeDay);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to archive reservations", ex);
+            }
+
+            final Map<String, Set<Reservation>> byCustomer = new HashMap<>();
+            for (Reservation reservation : completed) {
+                ledger.remove(reservation);
+                final String key = Customer.emailKey(reservation.getCustomer().getEmail());
+                byCustomer.computeIfAbsent(key, email -> new HashSet<>()).add(reservation);
+            }
+
+            // One pass over each customer's list, dropping it once empty
+            byCustomer.forEach((email, archived) ->
+                    reservations.computeIfPresent(email, (key, list) -> list.without(archived)));
+            // Nights before the cutoff cannot be booked any more, so the bitmaps need not keep them
+            occupancy.dropBefore(archive.getArchivedBeforeDay());
+
+            return completed.size();
+        }
+    }
+
+    // Add a room, or replace the room registered under the same number
     public void addRoom(final IRoom room) {
-        rooms.put(room.getRoomNumber(), room);
+        validateRoom(room);
+
+        final Journal journal = this.journal;
+        final long sequence = journal == null ? 0L : journal.appendRoom(room);
+        final IRoom previous;
+
+        try {
+            previous = occupancy.addRoom(room);
+        } catch (RuntimeException ex) {
+            abort(journal, sequence);
+            throw ex;
+        }
+
+        try {
+            // A replaced room leaves the results it matched, the new one may join others
+            if (previous != null) {
+                availabilityCache.invalidateRoom(previous);
+            }
+            availabilityCache.invalidateRoom(room);
+        } finally {
+            commit(journal, sequence);
+        }
+    }
+
+    // Add rooms in one step: one journal change, one registration of the whole batch, and one
+    // invalidation of the cached searches the rooms could appear in
+    public void addRooms(final Collection<IRoom> batch) {
+        for (IRoom room : batch) {
+            validateRoom(room);
+        }
+
+        final Journal journal = this.journal;
+        final long sequence = journal == null ? 0L : journal.appendRooms(batch);
+        final List<IRoom> changed;
+
+        try {
+            changed = occupancy.addRooms(batch);
+        } catch (RuntimeException ex) {
+            abort(journal, sequence);
+            throw ex;
+        }
+
+        try {
+            changed.addAll(batch);
+            availabilityCache.invalidateRooms(changed);
+        } finally {
+            commit(journal, sequence);
+        }
+    }
+
+    // Reject a room that cannot be registered, before it is journaled
+    private static void validateRoom(final IRoom room) {
+        if (room == null || room.getRoomNumber() == null || room.getRoomType() == null) {
+            throw new IllegalArgumentException("Room must have a number and a type");
+        }
     }
 
     // Get a room by its room number
     public IRoom getARoom(final String roomNumber) {
-        return rooms.get(roomNumber);
+        return occupancy.room(roomNumber);
     }
 
-    // Get all rooms as a collection
+    // Get all rooms as a collection, in the order they were first added
     public Collection<IRoom> getAllRooms() {
-        return rooms.values();
+        return occupancy.rooms();
     }
 
-    // Reserve a room for a customer between check-in and check-out dates
+    // Reserve a room for a customer between check-in and check-out dates.
+    // Throws RoomUnavailableException if any night of the stay is already booked.
     public Reservation reserveARoom(final Customer customer, final IRoom room,
                                     final Date checkInDate, final Date checkOutDate) {
-        final Reservation reservation = new Reservation(customer, room, checkInDate, checkOutDate);
+        return reserveARoom(customer, room, EpochDays.of(checkInDate), EpochDays.of(checkOutDate));
+    }
 
-        Collection<Reservation> customerReservations = getCustomersReservation(customer);
+    // Reserve a room for a customer between check-in and check-out dates
+    public Reservation reserveARoom(final Customer customer, final IRoom room,
+                                    final LocalDate checkInDate, final LocalDate checkOutDate) {
+        return reserveARoom(customer, room, EpochDays.of(checkInDate), EpochDays.of(checkOutDate));
+    }
 
-        if (customerReservations == null) {
-            customerReservations = new LinkedList<>();
-        }
+    // Reserve a room for a customer between check-in and check-out epoch days
+    public Reservation reserveARoom(final Customer customer, final IRoom room,
+                                    final int checkInDay, final int checkOutDay) {
+        validateStay(checkInDay, checkOutDay);
+        validateNotArchived(checkInDay);
+        validateBooking(customer, room);
+
+        final ReentrantLock lock = roomLocks.lockFor(room.getRoomNumber());
+        final Journal journal = this.journal;
+        final Reservation reservation;
+        long sequence = 0L;
+
+        try {
+            lock.lock();
+            try {
+                if (!occupancy.isFree(room.getRoomNumber(), checkInDay, checkOutDay)) {
+                    throw new RoomUnavailableException(room);
+                }
+
+                reservation = new Reservation(customer, room, checkInDay, checkOutDay);
 
-        customerReservations.add(reservation);
-        reservations.put(customer.getEmail(), customerReservations);
+                // Journal the reservation under the room lock so replay sees bookings of a room in order
+                if (journal != null) {
+                    sequence = journal.appendReservation(reservation);
+                }
+
+                try {
+                    occupancy.occupy(room.getRoomNumber(), checkInDay, checkOutDay);
+                } catch (RuntimeException ex) {
+                    abort(journal, sequence);
+                    sequence = 0L;
+                    throw ex;
+                }
+
+                record(customer, Collections.singletonList(reservation));
+            } finally {
+                lock.unlock();
+            }
+
+            availabilityCache.invalidateStay(room, checkInDay, checkOutDay);
+        } finally {
+            // Wait for durability outside the lock so concurrent bookings share an fsync
+            commit(journal, sequence);
+        }
 
         return reservation;
     }
 
+    // Reserve all the rooms for a customer between check-in and check-out dates, or none of them.
+    // Throws RoomUnavailableException for the first room already booked for any night of the stay.
+    public List<Reservation> reserveRooms(final Customer customer, final Collection<IRoom> rooms,
+                                          final LocalDate checkInDate, final LocalDate checkOutDate) {
+        return reserveRooms(customer, rooms, EpochDays.of(checkInDate), EpochDays.of(checkOutDate));
+    }
+
+    // Reserve all the rooms for a customer between check-in and check-out epoch days, or none of them
+    public List<Reservation> reserveRooms(final Customer customer, final Collection<IRoom> rooms,
+                                          final int checkInDay, final int checkOutDay) {
+        validateStay(checkInDay, checkOutDay);
+        validateNotArchived(checkInDay);
+
+        final List<IRoom> group = new ArrayList<>(rooms.size());
+        final Set<String> roomNumbers = new HashSet<>(rooms.size() * 2);
+
+        for (IRoom room : rooms) {
+            validateBooking(customer, room);
+            if (!roomNumbers.add(room.getRoomNumber())) {
+                throw new IllegalArgumentException("Room " + room.getRoomNumber() + " is listed more than once");
+            }
+            group.add(room);
+        }
+
+        if (group.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final Journal journal = this.journal;
+        final List<Reservation> booked = new ArrayList<>(group.size());
+        final int[] locked = roomLocks.lockAll(roomNumbers);
+        long sequence = 0L;
+
+        try {
+            try {
+                for (IRoom room : group) {
+                    if (!occupancy.isFree(room.getRoomNumber(), checkInDay, checkOutDay)) {
+                        throw new RoomUnavailableException(room);
+                    }
+                }
+
+                sequence = occupyAll(customer, group, checkInDay, checkOutDay, journal, booked);
+                record(customer, booked);
+            } finally {
+                roomLocks.unlockAll(locked);
+            }
+
+            availabilityCache.invalidateStays(group, checkInDay, checkOutDay);
+        } finally {
+            // Wait for durability outside the locks
+            commit(journal, sequence);
+        }
+
+        return booked;
+    }
+
+    // Reserve the given number of rooms of a type for a customer between check-in and check-out
+    // dates, or none of them. The cheapest free rooms are chosen.
+    // Throws RoomUnavailableException if fewer rooms of the type are free for the stay.
+    public List<Reservation> reserveRooms(final Customer customer, final RoomType roomType, final int count,
+                                          final LocalDate checkInDate, final LocalDate checkOutDate) {
+        return reserveRooms(customer, roomType, count, EpochDays.of(checkInDate), EpochDays.of(checkOutDate));
+    }
+
+    // Reserve the given number of rooms of a type between check-in and check-out epoch days, or none
+    public List<Reservation> reserveRooms(final Customer customer, final RoomType roomType, final int count,
+                                          final int checkInDay, final int checkOutDay) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of rooms must be positive");
+        }
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer must not be null");
+        }
+        validateStay(checkInDay, checkOutDay);
+        validateNotArchived(checkInDay);
+
+        final RoomFilter filter = RoomFilter.all().withRoomType(roomType);
+        // A few spare candidates, so a room booked between the search and the locking does not force a retry
+        final int candidateCount = count + Math.max(4, count / 4);
+
+        for (int attempt = 0; attempt < GROUP_BOOKING_ATTEMPTS; attempt++) {
+            final List<IRoom> candidates = occupancy.cheapestFreeRooms(checkInDay, checkOutDay, filter,
+                    candidateCount);
+
+            if (candidates.size() < count) {
+                break;
+            }
+
+            final List<String> roomNumbers = new ArrayList<>(candidates.size());
+            for (IRoom candidate : candidates) {
+                roomNumbers.add(candidate.getRoomNumber());
+            }
+
+            final Journal journal = this.journal;
+            final List<IRoom> group = new ArrayList<>(count);
+            final List<Reservation> booked = new ArrayList<>(count);
+            final int[] locked = roomLocks.lockAll(roomNumbers);
+            long sequence = 0L;
+
+            try {
+                try {
+                    for (int i = 0; i < candidates.size() && group.size() < count; i++) {
+                        final IRoom candidate = candidates.get(i);
+                        if (occupancy.isFree(candidate.getRoomNumber(), checkInDay, checkOutDay)) {
+                            group.add(candidate);
+                        }
+                    }
+
+                    if (group.size() == count) {
+                        sequence = occupyAll(customer, group, checkInDay, checkOutDay, journal, booked);
+                        record(customer, booked);
+                    }
+                } finally {
+                    roomLocks.unlockAll(locked);
+                }
+
+                if (!booked.isEmpty()) {
+                    availabilityCache.invalidateStays(group, checkInDay, checkOutDay);
+                    return booked;
+                }
+            } finally {
+                // Wait for durability outside the locks
+                commit(journal, sequence);
+            }
+        }
+
+        throw new RoomUnavailableException(roomType, count);
+    }
+
+    // Restore reservations in bulk, before a journal is attached: they are put in room order by primitive
+    // sorts and restored as below
+    public void restoreReservations(final Collection<Reservation> restored) {
+        restoreReservations(inRoomOrder(restored), null, null);
+    }
+
+    // Restore reservations sorted by room number and check-in day, as a snapshot writes them, before a
+    // journal is attached; checkInOrder and customerOrder, if not null, hold their positions sorted by
+    // check-in day and room number, and grouped by customer. The order is checked in one pass, together
+    // with the stays of each room against each other and the room's booked nights, then every room's
+    // nights are marked in one pass, each shard is published once, the ledger is linked from the sorted
+    // stays if it holds none, and each customer's list is built from its group. Nothing is restored if a
+    // stay overlaps another: throws RoomUnavailableException for the first room with overlapping stays,
+    // and IllegalArgumentException if the order does not hold.
+    public void restoreReservations(final List<Reservation> roomOrder, final int[] checkInOrder,
+                                    final int[] customerOrder) {
+        if (journal != null) {
+            throw new IllegalStateException("Reservations are restored before a journal is attached");
+        }
+
+        // Each room's stays follow each other, so each room is checked once, where its stays start
+        final List<String> roomNumbers = new ArrayList<>();
+        final List<IRoom> rooms = new ArrayList<>();
+        final List<Integer> starts = new ArrayList<>();
+        Reservation previous = null;
+        for (int position = 0; position < roomOrder.size(); position++) {
+            final Reservation reservation = roomOrder.get(position);
+            validateStay(reservation.getCheckInDay(), reservation.getCheckOutDay());
+
+            final int byRoom = previous == null || reservation.getRoom() == null ? 1
+                    : reservation.getRoom().getRoomNumber().compareTo(previous.getRoom().getRoomNumber());
+            if (byRoom > 0) {
+                validateBooking(reservation.getCustomer(), reservation.getRoom());
+                roomNumbers.add(reservation.getRoom().getRoomNumber());
+                rooms.add(reservation.getRoom());
+                starts.add(position);
+            } else if (byRoom < 0) {
+                throw new IllegalArgumentException("Reservations are not sorted by room");
+            } else if (reservation.getCustomer() == null) {
+                throw new IllegalArgumentException("Customer and room must not be null");
+            } else if (reservation.getCheckInDay() < previous.getCheckOutDay()) {
+                throw new RoomUnavailableException(reservation.getRoom());
+            }
+            previous = reservation;
+        }
+
+        if (roomNumbers.isEmpty()) {
+            return;
+        }
+
+        final int[] locked = roomLocks.lockAll(roomNumbers);
+
+        try {
+            final Map<String, int[]> nights = new HashMap<>(roomNumbers.size() * 2);
+
+            for (int room = 0; room < roomNumbers.size(); room++) {
+                final String roomNumber = roomNumbers.get(room);
+                final int start = starts.get(room);
+                final int end = room + 1 < starts.size() ? starts.get(room + 1) : roomOrder.size();
+                // A room free from its first check-in to its last check-out is free for each stay
+                final boolean spanFree = occupancy.isFree(roomNumber, roomOrder.get(start).getCheckInDay(),
+                        roomOrder.get(end - 1).getCheckOutDay());
+
+                final int[] days = new int[(end - start) * 2];
+                for (int position = start; position < end; position++) {
+                    final Reservation reservation = roomOrder.get(position);
+                    if (!spanFree && !occupancy.isFree(roomNumber, reservation.getCheckInDay(),
+                            reservation.getCheckOutDay())) {
+                        throw new RoomUnavailableException(reservation.getRoom());
+                    }
+                    days[2 * (position - start)] = reservation.getCheckInDay();
+                    days[2 * (position - start) + 1] = reservation.getCheckOutDay();
+                }
+
+                nights.put(roomNumber, days);
+            }
+
+            occupancy.occupyStays(nights);
+            ledger.restore(roomOrder, checkInOrder);
+
+            // One new list per run of stays of the same customer; a customer split over several runs, or
+            // sharing the email of another, has the runs merged into one list
+            final int[] grouped = isPermutation(customerOrder, roomOrder.size())
+                    ? customerOrder
+                    : groupByCustomer(roomOrder);
+            int runStart = 0;
+            for (int i = 1; i <= grouped.length; i++) {
+                final Customer customer = roomOrder.get(grouped[runStart]).getCustomer();
+                if (i == grouped.length || roomOrder.get(grouped[i]).getCustomer() != customer) {
+                    final List<Reservation> run = new ArrayList<>(i - runStart);
+                    for (int position = runStart; position < i; position++) {
+                        run.add(roomOrder.get(grouped[position]));
+                    }
+                    addCustomerReservations(customer, run);
+                    runStart = i;
+                }
+            }
+        } finally {
+            roomLocks.unlockAll(locked);
+        }
+
+        availabilityCache.invalidateRooms(rooms);
+    }
+
+    // Positions of the reservations grouped by customer: restored stays share their customer's object, so
+    // customers are numbered by identity and the positions sorted by number as primitives
+    private static int[] groupByCustomer(final List<Reservation> reservations) {
+        final Map<Customer, Integer> numbers = new IdentityHashMap<>();
+        final long[] order = new long[reservations.size()];
+        for (int i = 0; i < order.length; i++) {
+            final Integer number = numbers.computeIfAbsent(reservations.get(i).getCustomer(),
+                    customer -> numbers.size());
+            order[i] = (long) number << Integer.SIZE | i;
+        }
+        Arrays.sort(order);
+
+        final int[] positions = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            positions[i] = (int) order[i];
+        }
+        return positions;
+    }
+
+    // Whether every position below the count appears exactly once
+    private static boolean isPermutation(final int[] positions, final int count) {
+        if (positions == null || positions.length != count) {
+            return false;
+        }
+
+        final boolean[] seen = new boolean[count];
+        for (int position : positions) {
+            if (position < 0 || position >= count || seen[position]) {
+                return false;
+            }
+            seen[position] = true;
+        }
+        return true;
+    }
+
+    // Sort reservations by room number and check-in day: rooms are ranked by number once, each room's
+    // stays get a slice of the order, and each slice is sorted as primitives
+    private static List<Reservation> inRoomOrder(final Collection<Reservation> restored) {
+        final Reservation[] stays = restored.toArray(new Reservation[0]);
+        final Map<String, Integer> ranks = new HashMap<>();
+        for (Reservation reservation : stays) {
+            if (reservation.getRoom() == null) {
+                throw new IllegalArgumentException("Customer and room must not be null");
+            }
+            ranks.put(reservation.getRoom().getRoomNumber(), 0);
+        }
+
+        final String[] roomNumbers = ranks.keySet().toArray(new String[0]);
+        Arrays.sort(roomNumbers);
+        for (int rank = 0; rank < roomNumbers.length; rank++) {
+            ranks.put(roomNumbers[rank], rank);
+        }
+
+        // Each room's slice starts where the slices of the rooms before it end
+        final int[] roomRanks = new int[stays.length];
+        final int[] starts = new int[roomNumbers.length + 1];
+        for (int i = 0; i < stays.length; i++) {
+            roomRanks[i] = ranks.get(stays[i].getRoom().getRoomNumber());
+            starts[roomRanks[i] + 1]++;
+        }
+        for (int rank = 0; rank < roomNumbers.length; rank++) {
+            starts[rank + 1] += starts[rank];
+        }
+
+        // Check-in day above the stay's index, so sorting a slice sorts the room's stays by check-in
+        final long[] order = new long[stays.length];
+        final int[] next = Arrays.copyOf(starts, roomNumbers.length);
+        for (int i = 0; i < stays.length; i++) {
+            order[next[roomRanks[i]]++] = (long) stays[i].getCheckInDay() << Integer.SIZE | i;
+        }
+
+        final List<Reservation> roomOrder = new ArrayList<>(stays.length);
+        for (int rank = 0; rank < roomNumbers.length; rank++) {
+            Arrays.sort(order, starts[rank], starts[rank + 1]);
+            for (int position = starts[rank]; position < starts[rank + 1]; position++) {
+                roomOrder.add(stays[(int) order[position]]);
+            }
+        }
+        return roomOrder;
+    }
+
+    // Journal and publish the booking of every room of the group; the caller holds the locks of all of
+    // them and checked they are free. Return the journal sequence of the group, for the caller to commit.
+    private long occupyAll(final Customer customer, final List<IRoom> group, final int checkInDay,
+                           final int checkOutDay, final Journal journal, final List<Reservation> booked) {
+        for (IRoom room : group) {
+            booked.add(new Reservation(customer, room, checkInDay, checkOutDay));
+        }
+
+        // Journal the whole group as one change, under the room locks like a single booking
+        final long sequence = journal == null ? 0L : journal.appendReservations(booked);
+
+        // Searches see the whole group booked or none of it, so if publishing fails nothing was applied
+        final List<String> roomNumbers = new ArrayList<>(group.size());
+        for (IRoom room : group) {
+            roomNumbers.add(room.getRoomNumber());
+        }
+        try {
+            occupancy.occupyAll(roomNumbers, checkInDay, checkOutDay);
+        } catch (RuntimeException ex) {
+            abort(journal, sequence);
+            throw ex;
+        }
+
+        return sequence;
+    }
+
+    // Add published reservations to the ledger and the customer's list
+    private void record(final Customer customer, final List<Reservation> booked) {
+        for (Reservation reservation : booked) {
+            ledger.add(reservation);
+        }
+        addCustomerReservations(customer, booked);
+    }
+
+    // Reject a stay of no nights or with its dates reversed, which would break the ledger's
+    // one reservation per room and check-in day
+    private static void validateStay(final int checkInDay, final int checkOutDay) {
+        if (checkOutDay <= checkInDay) {
+            throw new IllegalArgumentException("Check-out must be after check-in");
+        }
+    }
+
+    // Reject a booking starting before the archive's cutoff, whose nights may be held by archived
+    // stays that are no longer in memory
+    private void validateNotArchived(final int checkInDay) {
+        final int cutoff = archivedBeforeDay();
+
+        if (checkInDay < cutoff) {
+            throw new IllegalArgumentException("Nights before " + EpochDays.toLocalDate(cutoff)
+                    + " are archived and cannot be booked");
+        }
+    }
+
+    // First day that can still be booked: the archive's cutoff, or Integer.MIN_VALUE without an archive
+    private int archivedBeforeDay() {
+        final ReservationArchive archive = this.archive;
+        return archive == null ? Integer.MIN_VALUE : archive.getArchivedBeforeDay();
+    }
+
+    // Reject a booking that cannot be applied, before it is journaled
+    private void validateBooking(final Customer customer, final IRoom room) {
+        if (customer == null || room == null) {
+            throw new IllegalArgumentException("Customer and room must not be null");
+        }
+        if (occupancy.room(room.getRoomNumber()) == null) {
+            throw new IllegalArgumentException("Unknown room: " + room.getRoomNumber());
+        }
+    }
+
+    // Commit a journaled change, once it is applied or failed after being published. Sequence 0 means
+    // nothing was journaled or the change was aborted.
+    private static void commit(final Journal journal, final long sequence) {
+        if (journal != null && sequence != 0L) {
+            journal.commit(sequence);
+        }
+    }
+
+    // Abort a journaled change that failed before anything of it was published
+    private static void abort(final Journal journal, final long sequence) {
+        if (journal != null) {
+            journal.abort(sequence);
+        }
+    }
+
+    // Publish the customer's list with the reservations added; the map serializes changes of a customer
+    private void addCustomerReservations(final Customer customer, final Collection<Reservation> added) {
+        reservations.compute(Customer.emailKey(customer.getEmail()),
+                (email, list) -> list == null ? ReservationList.of(added) : list.with(added));
+    }
+
     // Find available rooms between check-in and check-out dates
     public Collection<IRoom> findRooms(final Date checkInDate, final Date checkOutDate) {
-        return findAvailableRooms(checkInDate, checkOutDate);
+        return findRooms(EpochDays.of(checkInDate), EpochDays.of(checkOutDate));
+    }
+
+    // Find available rooms between check-in and check-out dates
+    public Collection<IRoom> findRooms(final LocalDate checkInDate, final LocalDate checkOutDate) {
+        return findRooms(EpochDays.of(checkInDate), EpochDays.of(checkOutDate));
+    }
+
+    // Find available rooms between check-in and check-out epoch days
+    public Collection<IRoom> findRooms(final int checkInDay, final int checkOutDay) {
+        return availabilityCache.computeIfAbsent(
+                new AvailabilityCache.Key(AvailabilityCache.FREE_ROOMS, checkInDay, checkOutDay, null, 0),
+                () -> Collections.unmodifiableCollection(occupancy.freeRooms(checkInDay, checkOutDay)),
+                Collection::size);
+    }
+
+    // Find up to limit available rooms matching the filter, cheapest first
+    public List<IRoom> findCheapestRooms(final LocalDate checkInDate, final LocalDate checkOutDate,
+                                         final RoomFilter filter, final int limit) {
+        return findCheapestRooms(EpochDays.of(checkInDate), EpochDays.of(checkOutDate), filter, limit);
+    }
+
+    // Find up to limit rooms matching the filter and available between the epoch days, cheapest first
+    public List<IRoom> findCheapestRooms(final int checkInDay, final int checkOutDay, final RoomFilter filter,
+                                         final int limit) {
+        return availabilityCache.computeIfAbsent(
+                new AvailabilityCache.Key(AvailabilityCache.CHEAPEST_ROOMS, checkInDay, checkOutDay, filter,
+                        positive(limit)),
+                () -> Collections.unmodifiableList(occupancy.cheapestFreeRooms(checkInDay, checkOutDay, filter, limit)),
+                List::size);
+    }
+
+    // Search available rooms matching the filter: up to limit rooms, cheapest first, and the
+    // number of available rooms of each type in the filter's price range
+    public RoomSearchResult searchRooms(final LocalDate checkInDate, final LocalDate checkOutDate,
+                                       final RoomFilter filter, final int limit) {
+        return searchRooms(EpochDays.of(checkInDate), EpochDays.of(checkOutDate), filter, limit);
+    }
+
+    // Search rooms matching the filter and available between the epoch days
+    public RoomSearchResult searchRooms(final int checkInDay, final int checkOutDay, final RoomFilter filter,
+                                        final int limit) {
+        return availabilityCache.computeIfAbsent(
+                new AvailabilityCache.Key(AvailabilityCache.ROOM_SEARCH, checkInDay, checkOutDay, filter,
+                        positive(limit)),
+                () -> occupancy.searchFreeRooms(checkInDay, checkOutDay, filter, limit),
+                result -> result.getRooms().size());
+    }
+
+    // Iterate over the rooms matching the filter and available between the epoch days, cheapest
+    // first, as of this call. Rooms are checked as the iterator advances, and the cache is not used.
+    public Iterator<IRoom> iterateFreeRooms(final int checkInDay, final int checkOutDay, final RoomFilter filter) {
+        return occupancy.freeRoomsByPrice(checkInDay, checkOutDay, filter);
     }
 
     // Find alternative available rooms for a given date range
     public Collection<IRoom> findAlternativeRooms(final Date checkInDate, final Date checkOutDate) {
-        return findAvailableRooms(addDefaultPlusDays(checkInDate), addDefaultPlusDays(checkOutDate));
+        return findAlternativeRooms(EpochDays.of(checkInDate), EpochDays.of(checkOutDate));
     }
 
-    // Helper method to find available rooms for a given date range
-    private Collection<IRoom> findAvailableRooms(final Date checkInDate, final Date checkOutDate) {
-        final Collection<Reservation> allReservations = getAllReservations();
-        final Collection<IRoom> notAvailableRooms = new LinkedList<>();
+    // Find alternative available rooms for a given date range
+    public Collection<IRoom> findAlternativeRooms(final LocalDate checkInDate, final LocalDate checkOutDate) {
+        return findAlternativeRooms(EpochDays.of(checkInDate), EpochDays.of(checkOutDate));
+    }
+
+    // Find alternative available rooms for a given epoch day range
+    public Collection<IRoom> findAlternativeRooms(final int checkInDay, final int checkOutDay) {
+        return findRooms(checkInDay + RECOMMENDED_ROOMS_DEFAULT_PLUS_DAYS,
+                checkOutDay + RECOMMENDED_ROOMS_DEFAULT_PLUS_DAYS);
+    }
+
+    // Find up to limit rooms free for a stay as long as the requested one, shifted at most horizonDays
+    // from the requested check-in and never starting before today. One sweep of the availability
+    // data covers every shift, and each room appears at most once, with its best stay.
+    public List<AlternativeStay> findAlternativeStays(final LocalDate checkInDate, final LocalDate checkOutDate,
+                                                      final AlternativeOrder order, final int limit,
+                                                      final int horizonDays) {
+        return findAlternativeStays(checkInDate, checkOutDate, order, limit, horizonDays, 1);
+    }
+
+    // Find up to limit stays as long as the requested one, shifted at most horizonDays from the
+    // requested check-in and never starting before today, with up to perRoom stays of each room
+    public List<AlternativeStay> findAlternativeStays(final LocalDate checkInDate, final LocalDate checkOutDate,
+                                                      final AlternativeOrder order, final int limit,
+                                                      final int horizonDays, final int perRoom) {
+        return findAlternativeStays(EpochDays.of(checkInDate), EpochDays.of(checkOutDate), order, limit,
+                horizonDays, perRoom, EpochDays.of(LocalDate.now()));
+    }
+
+    // Find up to limit stays as long as [checkInDay, checkOutDay), shifted at most horizonDays from
+    // checkInDay and never starting before earliestCheckInDay, with up to perRoom stays of each room
+    public List<AlternativeStay> findAlternativeStays(final int checkInDay, final int checkOutDay,
+                                                      final AlternativeOrder order, final int limit,
+                                                      final int horizonDays, final int perRoom,
+                                                      final int earliestCheckInDay) {
+        if (checkOutDay <= checkInDay) {
+            throw new IllegalArgumentException("Check-out must be after check-in");
+        }
+        if (limit <= 0 || perRoom <= 0 || horizonDays < 0) {
+            throw new IllegalArgumentException("Limits must be positive and horizon not negative");
+        }
+
+        final int fromDay = order == AlternativeOrder.EARLIEST ? checkInDay : checkInDay - horizonDays;
+        final int minDay = Math.max(fromDay, Math.max(earliestCheckInDay, archivedBeforeDay()));
+
+        return occupancy.closestStays(checkInDay, checkOutDay - checkInDay, minDay, checkInDay + horizonDays, limit,
+                perRoom);
+    }
+
+    // Set the nightly rate of a room type, as a factor of each room's base price, for the nights
+    // from fromDate up to but excluding toDate that fall on one of the given days of the week
+    public void setRateFactor(final RoomType roomType, final LocalDate fromDate, final LocalDate toDate,
+                              final Set<DayOfWeek> daysOfWeek, final double factor) {
+        setRateFactor(roomType, EpochDays.of(fromDate), EpochDays.of(toDate), daysOfWeek, factor);
+    }
+
+    // Set the nightly rate factor of a room type for the nights of [fromDay, toDay) on the given days of the week
+    public void setRateFactor(final RoomType roomType, final int fromDay, final int toDay,
+                              final Set<DayOfWeek> daysOfWeek, final double factor) {
+        final Journal journal = this.journal;
+        final long sequence;
+
+        // Journal rate changes in the order they are applied, so a replay ends with the same rates
+        synchronized (rates) {
+            rates.setFactor(roomType, fromDay, toDay, daysOfWeek, factor);
+            sequence = journal == null ? 0L : journal.appendRate(roomType, fromDay, toDay, daysOfWeek, factor);
+        }
+
+        commit(journal, sequence);
+    }
+
+    // Get the nightly rate factors of a room type
+    public RateCalendar getRateCalendar(final RoomType roomType) {
+        return rates.calendar(roomType);
+    }
+
+    // Get the total price of a stay in a room at the nightly rates of its dates
+    public double quoteStay(final IRoom room, final LocalDate checkInDate, final LocalDate checkOutDate) {
+        return quoteStay(room, EpochDays.of(checkInDate), EpochDays.of(checkOutDate));
+    }
+
+    // Get the total price of a stay in a room between the epoch days
+    public double quoteStay(final IRoom room, final int checkInDay, final int checkOutDay) {
+        if (checkOutDay <= checkInDay) {
+            throw new IllegalArgumentException("Check-out must be after check-in");
+        }
+        return rates.quote(room, checkInDay, checkOutDay);
+    }
+
+    // Find available rooms between check-in and check-out dates, each with the total price of the stay
+    public List<RoomQuote> quoteRooms(final LocalDate checkInDate, final LocalDate checkOutDate) {
+        return quoteRooms(EpochDays.of(checkInDate), EpochDays.of(checkOutDate));
+    }
 
-        for (Reservation reservation : allReservations) {
-            if (reservationOverlaps(reservation, checkInDate, checkOutDate)) {
-                notAvailableRooms.add(reservation.getRoom());
+    // Find available rooms between the epoch days, each with the total price of the stay, in the order of findRooms
+    public List<RoomQuote> quoteRooms(final int checkInDay, final int checkOutDay) {
+        return rates.quote(findRooms(checkInDay, checkOutDay), checkInDay, checkOutDay);
+    }
+
+    // Find up to limit available rooms matching the filter, with their stay totals, cheapest stay first
+    public List<RoomQuote> findCheapestQuotes(final LocalDate checkInDate, final LocalDate checkOutDate,
+                                              final RoomFilter filter, final int limit) {
+        return findCheapestQuotes(EpochDays.of(checkInDate), EpochDays.of(checkOutDate), filter, limit);
+    }
+
+    // Find up to limit rooms matching the filter and available between the epoch days, cheapest stay first.
+    // All rooms of a type share the sum of the nightly factors, so a type's cheapest stays are in its
+    // cheapest rooms: only the cheapest limit rooms of each type are quoted.
+    public List<RoomQuote> findCheapestQuotes(final int checkInDay, final int checkOutDay, final RoomFilter filter,
+                                              final int limit) {
+        final List<RoomQuote> quotes = new ArrayList<>();
+
+        for (RoomType roomType : RoomType.values()) {
+            if (filter.getRoomType() == null || filter.getRoomType() == roomType) {
+                quotes.addAll(rates.quote(findCheapestRooms(checkInDay, checkOutDay, filter.withRoomType(roomType),
+                        limit), checkInDay, checkOutDay));
             }
         }
 
-        return rooms.values().stream().filter(room -> notAvailableRooms.stream()
-                        .noneMatch(notAvailableRoom -> notAvailableRoom.equals(room)))
-                .collect(Collectors.toList());
+        quotes.sort(RoomQuote.BY_TOTAL_PRICE);
+        return quotes.size() <= limit ? quotes : new ArrayList<>(quotes.subList(0, limit));
+    }
+
+    // Report the daily occupancy, room revenue and average daily rate of each room type for the
+    // nights from fromDate up to but excluding toDate
+    public OccupancyReport getOccupancyReport(final LocalDate fromDate, final LocalDate toDate) {
+        return getOccupancyReport(EpochDays.of(fromDate), EpochDays.of(toDate));
+    }
+
+    // Report the daily occupancy, room revenue and average daily rate of each room type for [fromDay, toDay)
+    public OccupancyReport getOccupancyReport(final int fromDay, final int toDay) {
+        if (toDay <= fromDay || toDay - fromDay > MAX_REPORT_NIGHTS) {
+            throw new IllegalArgumentException("A report covers 1 to " + MAX_REPORT_NIGHTS + " nights");
+        }
+        return analytics.report(occupancy.rooms(), archive, fromDay, toDay);
     }
 
     // Add default days to a date
     public Date addDefaultPlusDays(final Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        calendar.add(Calendar.DATE, RECOMMENDED_ROOMS_DEFAULT_PLUS_DAYS);
-
-        return calendar.getTime();
+        return EpochDays.toDate(EpochDays.of(date) + RECOMMENDED_ROOMS_DEFAULT_PLUS_DAYS);
     }
 
-    // Check if a reservation overlaps with given check-in and check-out dates
-// Check if a reservation overlaps with given check-in and check-out dates
-    private boolean reservationOverlaps(final Reservation reservation, final Date checkInDate,
-                                        final Date checkOutDate) {
-        return checkInDate.before(reservation.getCheckOutDate())
-                && checkOutDate.after(reservation.getCheckInDate());
+    // Add default days to a date
+    public LocalDate addDefaultPlusDays(final LocalDate date) {
+        return date.plusDays(RECOMMENDED_ROOMS_DEFAULT_PLUS_DAYS);
     }
 
-    // Get all reservations of a customer
+    // Get all reservations of a customer: the archived stays, read when the result is first used,
+    // followed by the stays in memory as of this call, which later bookings do not change
     public Collection<Reservation> getCustomersReservation(final Customer customer) {
-        return reservations.get(customer.getEmail());
+        final ReservationArchive archive = this.archive;
+
+        if (archive == null || !archive.hasStays(customer)) {
+            return getUnarchivedReservations(customer);
+        }
+        return new CustomerReservations(customer, archive, getUnarchivedReservations(customer));
+    }
+
+    // Get the reservations of a customer still in memory, which the archive does not hold, as of this call
+    public Collection<Reservation> getUnarchivedReservations(final Customer customer) {
+        return reservations.get(Customer.emailKey(customer.getEmail()));
     }
 
-    // Print all reservations
-    public void printAllReservation() {
-        final Collection<Reservation> reservations = getAllReservations();
+    // Get every reservation of a room, sorted by check-in date
+    public Collection<Reservation> getRoomHistory(final String roomNumber) {
+        return ledger.roomHistory(roomNumber);
+    }
 
-        if (reservations.isEmpty()) {
-            System.out.println("No reservations found.");
-        } else {
-            for (Reservation reservation : reservations) {
-                System.out.println(reservation + "\n");
-            }
-        }
+    // Get the reservations of a room with at least one night between the two dates, sorted by check-in date
+    public List<Reservation> getRoomReservations(final String roomNumber, final LocalDate fromDate,
+                                                 final LocalDate toDate) {
+        return getRoomReservations(roomNumber, EpochDays.of(fromDate), EpochDays.of(toDate));
     }
 
-    // Get all reservations as a collection
-    private Collection<Reservation> getAllReservations() {
-        final Collection<Reservation> allReservations = new LinkedList<>();
+    // Get the reservations of a room with at least one night in [fromDay, toDay), sorted by check-in date
+    public List<Reservation> getRoomReservations(final String roomNumber, final int fromDay, final int toDay) {
+        return ledger.roomReservations(roomNumber, fromDay, toDay);
+    }
+
+    // Find the first date on or after the given date from which the room is free for the given number of nights
+    public LocalDate findNextFreeDate(final String roomNumber, final LocalDate fromDate, final int nights) {
+        return EpochDays.toLocalDate(findNextFreeDay(roomNumber, EpochDays.of(fromDate), nights));
+    }
 
-        for (Collection<Reservation> reservations : reservations.values()) {
-            allReservations.addAll(reservations);
+    // Find the first epoch day on or after fromDay from which the room is free for the given number of nights
+    public int findNextFreeDay(final String roomNumber, final int fromDay, final int nights) {
+        if (nights <= 0) {
+            throw new IllegalArgumentException("Number of nights must be positive");
         }
+        return occupancy.nextFreeDay(roomNumber, fromDay, nights);
+    }
 
-        return allReservations;
+    // Get the hit, miss, eviction and invalidation counters of the search result cache
+    public CacheStatistics getAvailabilityCacheStatistics() {
+        return availabilityCache.statistics();
+    }
+
+    // Get the number of reservations in memory; archived stays are not counted
+    public int getReservationCount() {
+        return ledger.size();
+    }
+
+    // Get a page of the reservations matching the filter, sorted by check-in date or by room.
+    // Pass the previous page's next cursor to continue, or null for the first page. Every full
+    // page has a next cursor, so the last page may be empty.
+    public Page<Reservation> findReservations(final ReservationOrder order, final ReservationFilter filter,
+                                              final String cursor, final int limit) {
+        return ledger.page(order, filter, cursor, limit);
+    }
+
+    private static int positive(final int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return limit;
     }
-}
\ No newline at end of file
+}
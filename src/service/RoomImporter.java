@@ -0,0 +1,216 @@
+package service;
+
+import model.FreeRoom;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class loads a room inventory from a file into the ReservationService. Rows are
+ * read in batches and the batches are parsed in parallel; the valid rooms are then checked
+ * for duplicates in file order and added in a single step, so the room table and search
+ * indexes are rebuilt once instead of once per room.
+ * <p>
+ * Each row is CSV {@code roomNumber,price,roomType}, with an optional header row. The type
+ * is {@code SINGLE}, {@code DOUBLE} or their labels {@code 1} and {@code 2}; a price of
+ * zero makes a free room.
+ * @author Haregweyni Temanu
+ */
+public class RoomImporter {
+
+    private static final int DEFAULT_BATCH_SIZE = 10_000;
+    // Only the first rejected rows are kept in the report; all are counted
+    private static final int MAX_REPORTED_REJECTIONS = 10_000;
+    private static final String CSV_HEADER = "roomNumber,price,roomType";
+
+    private final ReservationService reservationService;
+    private final int batchSize;
+    private final Executor executor;
+
+    // Create an importer parsing on the common fork/join pool
+    public RoomImporter(final ReservationService reservationService) {
+        this(reservationService, DEFAULT_BATCH_SIZE, ForkJoinPool.commonPool());
+    }
+
+    // Create an importer with the given batch size and executor
+    public RoomImporter(final ReservationService reservationService, final int batchSize,
+                        final Executor executor) {
+        this.reservationService = reservationService;
+        this.batchSize = batchSize;
+        this.executor = executor;
+    }
+
+    // Import every row of a UTF-8 file
+    public RoomImportReport importFile(final Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importRows(reader);
+        }
+    }
+
+    // Import every row read from the reader
+    public RoomImportReport importRows(final BufferedReader reader) throws IOException {
+        final List<CompletableFuture<ParsedBatch>> batches = new ArrayList<>();
+        List<String> rows = new ArrayList<>(batchSize);
+        long firstLine = 1L;
+        long lineNumber = 0L;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+
+            if (lineNumber == 1L && line.replace(" ", "").equalsIgnoreCase(CSV_HEADER)) {
+                firstLine = 2L;
+                continue;
+            }
+
+            rows.add(line);
+
+            if (rows.size() == batchSize) {
+                batches.add(parseAsync(rows, firstLine));
+                rows = new ArrayList<>(batchSize);
+                firstLine = lineNumber + 1;
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            batches.add(parseAsync(rows, firstLine));
+        }
+
+        // Check duplicates in file order, so the first row of a room number wins
+        final List<IRoom> rooms = new ArrayList<>();
+        final Set<String> roomNumbers = new HashSet<>();
+        final List<RoomImportReport.Rejection> rejections = new ArrayList<>();
+        long rejected = 0L;
+
+        for (CompletableFuture<ParsedBatch> future : batches) {
+            final ParsedBatch batch = future.join();
+
+            for (int i = 0; i < batch.rows.size(); i++) {
+                final IRoom room = batch.rooms.get(i);
+                String reason = batch.reasons.get(i);
+
+                if (reason == null && !roomNumbers.add(room.getRoomNumber())) {
+                    reason = "Duplicate room number " + room.getRoomNumber();
+                } else if (reason == null && reservationService.getARoom(room.getRoomNumber()) != null) {
+                    reason = "Room " + room.getRoomNumber() + " already exists";
+                }
+
+                if (reason == null) {
+                    rooms.add(room);
+                    continue;
+                }
+
+                rejected++;
+                if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                    rejections.add(new RoomImportReport.Rejection(batch.lineNumbers.get(i), batch.rows.get(i),
+                            reason));
+                }
+            }
+        }
+
+        if (!rooms.isEmpty()) {
+            reservationService.addRooms(rooms);
+        }
+
+        return new RoomImportReport(rooms.size(), rejected, rejections);
+    }
+
+    private CompletableFuture<ParsedBatch> parseAsync(final List<String> rows, final long firstLine) {
+        return CompletableFuture.supplyAsync(() -> parse(rows, firstLine), executor);
+    }
+
+    // Parse a batch of rows; blank rows are skipped
+    private static ParsedBatch parse(final List<String> rows, final long firstLine) {
+        final ParsedBatch batch = new ParsedBatch(rows.size());
+
+        for (int i = 0; i < rows.size(); i++) {
+            final String row = rows.get(i);
+
+            if (row.isBlank()) {
+                continue;
+            }
+
+            final String[] fields = row.split(",", -1);
+            IRoom room = null;
+            String reason = null;
+
+            if (fields.length != 3 || fields[0].trim().isEmpty()) {
+                reason = "Malformed row";
+            } else {
+                final double price = parsePrice(fields[1].trim());
+                final RoomType roomType = parseRoomType(fields[2].trim());
+
+                if (Double.isNaN(price)) {
+                    reason = "Invalid price";
+                } else if (roomType == null) {
+                    reason = "Invalid room type";
+                } else {
+                    final String roomNumber = fields[0].trim();
+                    room = price == 0.0 ? new FreeRoom(roomNumber, roomType) : new Room(roomNumber, price, roomType);
+                }
+            }
+
+            batch.add(firstLine + i, row, room, reason);
+        }
+
+        return batch;
+    }
+
+    // Parse a finite, non-negative price, or return NaN
+    private static double parsePrice(final String value) {
+        try {
+            final double price = Double.parseDouble(value);
+            return Double.isFinite(price) && price >= 0.0 ? price : Double.NaN;
+        } catch (NumberFormatException ex) {
+            return Double.NaN;
+        }
+    }
+
+    // Parse a room type name or label, or return null
+    private static RoomType parseRoomType(final String value) {
+        try {
+            return value.length() == 1
+                    ? RoomType.valueOfLabel(value)
+                    : RoomType.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    // Rows of one parsed batch, each with its room or the reason it was rejected
+    private static final class ParsedBatch {
+
+        private final List<Long> lineNumbers;
+        private final List<String> rows;
+        private final List<IRoom> rooms;
+        private final List<String> reasons;
+
+        private ParsedBatch(final int size) {
+            this.lineNumbers = new ArrayList<>(size);
+            this.rows = new ArrayList<>(size);
+            this.rooms = new ArrayList<>(size);
+            this.reasons = new ArrayList<>(size);
+        }
+
+        private void add(final long lineNumber, final String row, final IRoom room, final String reason) {
+            lineNumbers.add(lineNumber);
+            rows.add(row);
+            rooms.add(room);
+            reasons.add(reason);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class provides striped locks keyed by room number, so bookings of
+ * different rooms rarely contend while bookings of the same room are serialized.
+ * With several occupancy shards the stripes are split evenly between them, so a
+ * booking in one shard never waits on a lock guarding another shard's rooms.
+ * @author Haregweyni Temanu
+ */
+final class RoomLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int shardCount;
+    private final int shardShift;
+    private final int mask;
+
+    // Create at least the given number of stripes, rounded up to a power of two
+    RoomLocks(final int minimumStripes) {
+        this(1, minimumStripes);
+    }
+
+    // Create at least the given number of stripes for each shard, rounded up to a power of two
+    RoomLocks(final int shardCount, final int minimumStripesPerShard) {
+        final int perShard = Integer.highestOneBit(Math.max(1, minimumStripesPerShard - 1)) << 1;
+        final int size = Math.max(1, shardCount) * perShard;
+
+        this.stripes = new ReentrantLock[size];
+        this.shardCount = Math.max(1, shardCount);
+        this.shardShift = Integer.numberOfTrailingZeros(perShard);
+        this.mask = perShard - 1;
+
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // Get the lock guarding the given room
+    ReentrantLock lockFor(final String roomNumber) {
+        return stripes[stripeOf(roomNumber)];
+    }
+
+    // Lock the stripes of all the given rooms, each once and in ascending order so that two
+    // group bookings can never wait on each other; return the stripes to pass to unlockAll
+    int[] lockAll(final Collection<String> roomNumbers) {
+        final int[] indexes = new int[roomNumbers.size()];
+        int count = 0;
+
+        for (String roomNumber : roomNumbers) {
+            indexes[count++] = stripeOf(roomNumber);
+        }
+        Arrays.sort(indexes);
+
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || indexes[i] != indexes[unique - 1]) {
+                indexes[unique++] = indexes[i];
+            }
+        }
+
+        final int[] locked = Arrays.copyOf(indexes, unique);
+        for (int stripe : locked) {
+            stripes[stripe].lock();
+        }
+
+        return locked;
+    }
+
+    // Unlock the stripes returned by lockAll, in reverse order
+    void unlockAll(final int[] locked) {
+        for (int i = locked.length - 1; i >= 0; i--) {
+            stripes[locked[i]].unlock();
+        }
+    }
+
+    // Stripe index of the given room: its shard's stripes come first, then its stripe among them
+    int stripeOf(final String roomNumber) {
+        final int hash = roomNumber.hashCode();
+        final int shard = shardCount == 1 ? 0 : ShardedOccupancy.shardOf(roomNumber, shardCount);
+
+        return (shard << shardShift) | ((hash ^ (hash >>> 16)) & mask);
+    }
+}
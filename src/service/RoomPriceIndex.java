@@ -0,0 +1,121 @@
+package service;
+
+import model.RoomType;
+
+import java.util.Arrays;
+
+/**
+ * This class holds the ids of the registered rooms sorted by price, once for all rooms and
+ * once per room type, so a search can binary-search its price range and visit candidates
+ * cheapest first. An index is immutable; the occupancy engine builds a new one after rooms
+ * change.
+ * @author Haregweyni Temanu
+ */
+final class RoomPriceIndex {
+
+    private static final RoomType[] ROOM_TYPES = RoomType.values();
+
+    // Rooms of every type, then rooms of each type, by ordinal
+    private final Slice all;
+    private final Slice[] byType;
+
+    private RoomPriceIndex(final Slice all, final Slice[] byType) {
+        this.all = all;
+        this.byType = byType;
+    }
+
+    // Build the index over the first count rooms of the price and type ordinal columns
+    static RoomPriceIndex build(final double[] prices, final byte[] types, final int count) {
+        final Integer[] order = new Integer[count];
+
+        for (int id = 0; id < count; id++) {
+            order[id] = id;
+        }
+
+        // Equal prices keep registration order
+        Arrays.sort(order, (left, right) -> Double.compare(prices[left], prices[right]));
+
+        final int[] typeCounts = new int[ROOM_TYPES.length];
+        for (int id = 0; id < count; id++) {
+            typeCounts[types[id]]++;
+        }
+
+        final Slice all = new Slice(count);
+        final Slice[] byType = new Slice[ROOM_TYPES.length];
+        for (int type = 0; type < byType.length; type++) {
+            byType[type] = new Slice(typeCounts[type]);
+        }
+
+        for (Integer id : order) {
+            all.append(id, prices[id]);
+            byType[types[id]].append(id, prices[id]);
+        }
+
+        return new RoomPriceIndex(all, byType);
+    }
+
+    // The rooms of the given type, or of every type if null
+    Slice slice(final RoomType roomType) {
+        return roomType == null ? all : byType[roomType.ordinal()];
+    }
+
+    // Room ids sorted by price, with their prices
+    static final class Slice {
+
+        private final int[] ids;
+        private final double[] prices;
+        private int size;
+
+        private Slice(final int capacity) {
+            this.ids = new int[capacity];
+            this.prices = new double[capacity];
+        }
+
+        private void append(final int id, final double price) {
+            ids[size] = id;
+            prices[size++] = price;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int idAt(final int position) {
+            return ids[position];
+        }
+
+        // First position with a price of at least minPrice
+        int lowerBound(final double minPrice) {
+            int low = 0;
+            int high = size;
+
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (prices[middle] < minPrice) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        // First position with a price above maxPrice
+        int upperBound(final double maxPrice) {
+            int low = 0;
+            int high = size;
+
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (prices[middle] <= maxPrice) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package service;
+
+import model.FreeRoom;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class stores the registered rooms column by column: room numbers, prices, room type
+ * ordinals and occupancy bitmaps in parallel arrays indexed by a dense room id. Scans over
+ * prices or types read contiguous primitive arrays instead of one object per room. Rooms
+ * are handed out as {@link Room} or {@link FreeRoom} copies of their columns, which hold
+ * nothing of the table.
+ * <p>
+ * A table never changes below its count: adding rooms fills the slots above it and returns
+ * a new table, and replacing a room copies the columns first, so a published table keeps
+ * showing each room as it was. Booking nights returns a new table too, with new
+ * bitmaps for the booked rooms. The bitmaps are held in chunks of {@value #CHUNK_ROOMS}
+ * rooms, so a new table copies only the chunks it changes, and tables made by bookings
+ * share their room columns and price index.
+ * @author Haregweyni Temanu
+ */
+final class RoomTable {
+
+    static final int CHUNK_ROOMS = 64;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final RoomType[] ROOM_TYPES = RoomType.values();
+
+    final String[] numbers;
+    final double[] prices;
+    final byte[] types;
+    // Bitmap of room id is bitmaps[id / CHUNK_ROOMS][id % CHUNK_ROOMS]
+    private final OccupancyBitmap[][] bitmaps;
+    final int count;
+    // Rooms sorted by price, built by the first search of the columns and shared by the tables of bookings
+    private final AtomicReference<RoomPriceIndex> priceIndex;
+
+    private RoomTable(final String[] numbers, final double[] prices, final byte[] types,
+                      final OccupancyBitmap[][] bitmaps, final int count,
+                      final AtomicReference<RoomPriceIndex> priceIndex) {
+        this.numbers = numbers;
+        this.prices = prices;
+        this.types = types;
+        this.bitmaps = bitmaps;
+        this.count = count;
+        this.priceIndex = priceIndex;
+    }
+
+    // Create a table without rooms; each engine needs its own, since adding fills the spare slots
+    static RoomTable empty() {
+        return new RoomTable(new String[INITIAL_CAPACITY], new double[INITIAL_CAPACITY],
+                new byte[INITIAL_CAPACITY], new OccupancyBitmap[INITIAL_CAPACITY / CHUNK_ROOMS][CHUNK_ROOMS], 0,
+                new AtomicReference<>());
+    }
+
+    // Occupied nights of the room with the given id
+    OccupancyBitmap bitmap(final int id) {
+        return bitmaps[id / CHUNK_ROOMS][id % CHUNK_ROOMS];
+    }
+
+    // A table with the nights [fromDay, toDay) of the rooms with the given ids marked as occupied
+    RoomTable withOccupied(final int[] ids, final int fromDay, final int toDay) {
+        final OccupancyBitmap[][] newBitmaps = bitmaps.clone();
+        final boolean[] copied = new boolean[newBitmaps.length];
+
+        for (int id : ids) {
+            final int chunk = id / CHUNK_ROOMS;
+            if (!copied[chunk]) {
+                newBitmaps[chunk] = newBitmaps[chunk].clone();
+                copied[chunk] = true;
+            }
+            newBitmaps[chunk][id % CHUNK_ROOMS] = newBitmaps[chunk][id % CHUNK_ROOMS].with(fromDay, toDay);
+        }
+
+        return new RoomTable(numbers, prices, types, newBitmaps, count, priceIndex);
+    }
+
+    // A table with the stays of each room with the given ids marked as occupied; stays[i] holds the
+    // check-in and check-out days of the room ids[i] in pairs
+    RoomTable withStays(final int[] ids, final int[][] stays) {
+        final OccupancyBitmap[][] newBitmaps = bitmaps.clone();
+        final boolean[] copied = new boolean[newBitmaps.length];
+
+        for (int i = 0; i < ids.length; i++) {
+            final int chunk = ids[i] / CHUNK_ROOMS;
+            if (!copied[chunk]) {
+                newBitmaps[chunk] = newBitmaps[chunk].clone();
+                copied[chunk] = true;
+            }
+            newBitmaps[chunk][ids[i] % CHUNK_ROOMS] = newBitmaps[chunk][ids[i] % CHUNK_ROOMS].withAll(stays[i]);
+        }
+
+        return new RoomTable(numbers, prices, types, newBitmaps, count, priceIndex);
+    }
+
+    // A table whose bitmaps no longer store the words holding only nights before the given day, or
+    // this table if none does
+    RoomTable withoutBefore(final int day) {
+        OccupancyBitmap[][] newBitmaps = null;
+
+        for (int id = 0; id < count; id++) {
+            final int chunk = id / CHUNK_ROOMS;
+            final OccupancyBitmap bitmap = bitmaps[chunk][id % CHUNK_ROOMS];
+            final OccupancyBitmap trimmed = bitmap.withoutBefore(day);
+
+            if (trimmed != bitmap) {
+                if (newBitmaps == null) {
+                    newBitmaps = bitmaps.clone();
+                }
+                if (newBitmaps[chunk] == bitmaps[chunk]) {
+                    newBitmaps[chunk] = bitmaps[chunk].clone();
+                }
+                newBitmaps[chunk][id % CHUNK_ROOMS] = trimmed;
+            }
+        }
+
+        return newBitmaps == null ? this : new RoomTable(numbers, prices, types, newBitmaps, count, priceIndex);
+    }
+
+    // The price index of the rooms, built on first use. Built under the reference's monitor, so
+    // concurrent searches build it once.
+    RoomPriceIndex priceIndex() {
+        RoomPriceIndex index = priceIndex.get();
+
+        if (index == null) {
+            synchronized (priceIndex) {
+                index = priceIndex.get();
+                if (index == null) {
+                    index = RoomPriceIndex.build(prices, types, count);
+                    priceIndex.set(index);
+                }
+            }
+        }
+
+        return index;
+    }
+
+    // A table with the rooms added. ids holds the ids of this table's rooms; the ids of new rooms are
+    // put into newIds, and copies of the rooms replaced in this table are added to replaced.
+    RoomTable withRooms(final Collection<IRoom> added, final Map<String, Integer> ids,
+                        final Map<String, Integer> newIds, final Collection<IRoom> replaced) {
+        boolean replaces = false;
+        for (IRoom room : added) {
+            if (ids.containsKey(room.getRoomNumber())) {
+                replaces = true;
+                break;
+            }
+        }
+
+        final int needed = count + added.size();
+        final int capacity = needed <= numbers.length
+                ? numbers.length
+                : Math.max(numbers.length << 1, Integer.highestOneBit(needed - 1) << 1);
+        // Appending writes only spare slots; growing or replacing a published room needs new columns
+        final boolean copy = replaces || capacity != numbers.length;
+        final String[] newNumbers = copy ? Arrays.copyOf(numbers, capacity) : numbers;
+        final double[] newPrices = copy ? Arrays.copyOf(prices, capacity) : prices;
+        final byte[] newTypes = copy ? Arrays.copyOf(types, capacity) : types;
+        // Chunks are only written above the count, so growing shares them
+        final OccupancyBitmap[][] newBitmaps = capacity != numbers.length ? growChunks(capacity) : bitmaps;
+        int size = count;
+
+        for (IRoom room : added) {
+            final String roomNumber = room.getRoomNumber();
+            Integer id = ids.get(roomNumber);
+
+            if (id != null) {
+                replaced.add(room(id));
+            } else {
+                id = newIds.get(roomNumber);
+                if (id == null) {
+                    id = size++;
+                    newIds.put(roomNumber, id);
+                    newNumbers[id] = roomNumber;
+                    newBitmaps[id / CHUNK_ROOMS][id % CHUNK_ROOMS] = OccupancyBitmap.EMPTY;
+                }
+            }
+
+            newPrices[id] = room.getRoomPrice();
+            newTypes[id] = (byte) room.getRoomType().ordinal();
+        }
+
+        // New rooms or prices need a new price index
+        return new RoomTable(newNumbers, newPrices, newTypes, newBitmaps, size, new AtomicReference<>());
+    }
+
+    // The bitmap chunks followed by empty chunks up to the given capacity
+    private OccupancyBitmap[][] growChunks(final int capacity) {
+        final OccupancyBitmap[][] chunks = Arrays.copyOf(bitmaps, capacity / CHUNK_ROOMS);
+
+        for (int chunk = bitmaps.length; chunk < chunks.length; chunk++) {
+            chunks[chunk] = new OccupancyBitmap[CHUNK_ROOMS];
+        }
+
+        return chunks;
+    }
+
+    // The room with the given id, copied into a small immutable value: rooms end up in reservations,
+    // results and caches, and must not keep the whole table of their moment alive
+    IRoom room(final int id) {
+        return prices[id] == 0.0
+                ? new FreeRoom(numbers[id], ROOM_TYPES[types[id]])
+                : new Room(numbers[id], prices[id], ROOM_TYPES[types[id]]);
+    }
+
+    // All rooms in id order, each copied on access
+    List<IRoom> rooms() {
+        return new RoomList(this);
+    }
+
+    // Read-only list of a table's rooms
+    private static final class RoomList extends AbstractList<IRoom> implements RandomAccess {
+
+        private final RoomTable table;
+
+        private RoomList(final RoomTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public IRoom get(final int index) {
+            Objects.checkIndex(index, table.count);
+            return table.room(index);
+        }
+
+        @Override
+        public int size() {
+            return table.count;
+        }
+    }
+}
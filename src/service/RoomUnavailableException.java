@@ -0,0 +1,33 @@
+package service;
+
+import model.IRoom;
+import model.RoomType;
+
+/**
+ * Thrown when a room cannot be reserved because it is already booked
+ * for at least one night of the requested stay.
+ * @author Haregweyni Temanu
+ */
+public class RoomUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient IRoom room;
+
+    // Create the exception for the room that is already booked
+    public RoomUnavailableException(final IRoom room) {
+        super("Room " + room.getRoomNumber() + " is already reserved for the requested dates");
+        this.room = room;
+    }
+
+    // Create the exception for a group booking that could not find enough free rooms of a type
+    public RoomUnavailableException(final RoomType roomType, final int count) {
+        super("Fewer than " + count + " " + roomType + " rooms are free for the requested dates");
+        this.room = null;
+    }
+
+    // Get the room that could not be reserved, or null if there were not enough rooms of a type
+    public IRoom getRoom() {
+        return room;
+    }
+}
@@ -0,0 +1,507 @@
+package service;
+
+import model.AlternativeStay;
+import model.IRoom;
+import model.RoomFilter;
+import model.RoomSearchResult;
+import model.RoomType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * This class partitions the rooms across occupancy engines by room number and publishes
+ * their state. Operations on one room go to its shard, and searches run on every shard in
+ * parallel and merge the shards' results.
+ * <p>
+ * Each shard publishes its own immutable room table. A registration of rooms or a booking
+ * builds the next table of each shard it touches under that shard's lock, so changes to
+ * different shards never wait for each other while they build; a change spanning several
+ * shards, such as a group booking, takes their locks in shard order. The new tables are
+ * then published together under a short publication lock that raises a global sequence
+ * before and after the writes. A search reads every shard's table between two reads of the
+ * sequence and retries if a publication overlapped, so it sees each change either whole or
+ * not at all. The version of what a search read is the number of changes published before
+ * it, which identifies that state: two searches reading the same version read the same
+ * tables.
+ * <p>
+ * Searches do not lock. Only a search that keeps colliding with publications falls back to
+ * taking the publication lock, so it cannot be starved by them.
+ * <p>
+ * With one shard every call goes straight to it, so results and their order are the same
+ * as a single engine's. With more, rooms and stays that rank equally are ordered by shard.
+ * @author Haregweyni Temanu
+ */
+final class ShardedOccupancy {
+
+    private static final Comparator<IRoom> BY_PRICE = Comparator.comparingDouble(IRoom::getRoomPrice);
+    private static final Comparator<AlternativeStay> BY_RANK =
+            Comparator.<AlternativeStay>comparingLong(stay -> Math.abs((long) stay.getOffsetDays()))
+                    .thenComparingInt(AlternativeStay::getCheckInDay);
+
+    // Consistent reads a search tries before it takes the shard locks
+    private static final int READ_ATTEMPTS = 64;
+
+    private final OccupancyEngine[] shards;
+    // Published table of each shard, replaced under the shard's lock and the publication lock
+    private final AtomicReferenceArray<RoomTable> states;
+    private final ReentrantLock[] locks;
+    // Serializes publications, each raising the sequence to odd before its writes and to even after
+    private final ReentrantLock publishLock = new ReentrantLock();
+    // Twice the number of changes published, plus one while a publication is under way
+    private volatile long sequence;
+
+    // Create the given number of empty shards
+    ShardedOccupancy(final int shardCount) {
+        this.shards = new OccupancyEngine[Math.max(1, shardCount)];
+        this.states = new AtomicReferenceArray<>(shards.length);
+        this.locks = new ReentrantLock[shards.length];
+
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new OccupancyEngine();
+            states.set(i, RoomTable.empty());
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Shard of a room among the given number of shards. The hash is mixed differently from the
+    // lock stripe hash, so the rooms of a shard still spread over its stripes.
+    static int shardOf(final String roomNumber, final int shardCount) {
+        final int hash = roomNumber.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    // Number of shards
+    int shardCount() {
+        return shards.length;
+    }
+
+    // Version of the published state
+    long version() {
+        return snapshot().version;
+    }
+
+    // Register a room in its shard; return the replaced room, if any
+    IRoom addRoom(final IRoom room) {
+        final List<IRoom> replaced = addRooms(Collections.singletonList(room));
+        return replaced.isEmpty() ? null : replaced.get(0);
+    }
+
+    // Register rooms in the shards they belong to, publishing each shard once, and return the
+    // replaced rooms
+    List<IRoom> addRooms(final Collection<IRoom> added) {
+        final List<List<IRoom>> byShard = partition(added, IRoom::getRoomNumber);
+        final List<IRoom> replaced = new ArrayList<>();
+        lockShards(byShard);
+
+        try {
+            final RoomTable[] tables = new RoomTable[shards.length];
+            final List<Map<String, Integer>> newIds = new ArrayList<>(shards.length);
+
+            for (int i = 0; i < shards.length; i++) {
+                newIds.add(new HashMap<>(byShard.get(i).size() * 2));
+                if (!byShard.get(i).isEmpty()) {
+                    tables[i] = shards[i].withRooms(states.get(i), byShard.get(i), newIds.get(i), replaced);
+                }
+            }
+
+            publish(tables);
+            // Ids of the new rooms are published only after the tables holding them
+            for (int i = 0; i < shards.length; i++) {
+                shards[i].publishIds(newIds.get(i));
+            }
+        } finally {
+            unlockShards(byShard);
+        }
+
+        return replaced;
+    }
+
+    // Get the room registered under the given number, or null
+    IRoom room(final String roomNumber) {
+        final int shard = shardOf(roomNumber);
+        return shards[shard].room(states.get(shard), roomNumber);
+    }
+
+    // Get every registered room as of this call, shard by shard in registration order
+    List<IRoom> rooms() {
+        final RoomTable[] tables = snapshot().tables;
+
+        if (tables.length == 1) {
+            return tables[0].rooms();
+        }
+
+        final List<IRoom> rooms = new ArrayList<>();
+        for (RoomTable table : tables) {
+            rooms.addAll(table.rooms());
+        }
+
+        return rooms;
+    }
+
+    // Mark the nights [fromDay, toDay) of a room as occupied; the caller holds the room's lock
+    void occupy(final String roomNumber, final int fromDay, final int toDay) {
+        occupyAll(Collections.singletonList(roomNumber), fromDay, toDay);
+    }
+
+    // Mark the nights [fromDay, toDay) of the rooms as occupied, publishing each shard once; the
+    // caller holds the rooms' locks
+    void occupyAll(final Collection<String> roomNumbers, final int fromDay, final int toDay) {
+        final List<List<String>> byShard = partition(roomNumbers, roomNumber -> roomNumber);
+        lockShards(byShard);
+
+        try {
+            final RoomTable[] tables = new RoomTable[shards.length];
+
+            for (int i = 0; i < shards.length; i++) {
+                if (!byShard.get(i).isEmpty()) {
+                    tables[i] = shards[i].withOccupied(states.get(i), byShard.get(i), fromDay, toDay);
+                }
+            }
+
+            publish(tables);
+        } finally {
+            unlockShards(byShard);
+        }
+    }
+
+    // Mark the stays of many rooms as occupied, publishing each shard once; stays holds, by room number,
+    // check-in and check-out days in pairs. The caller holds the rooms' locks.
+    void occupyStays(final Map<String, int[]> stays) {
+        final List<List<Map.Entry<String, int[]>>> byShard = partition(stays.entrySet(), Map.Entry::getKey);
+        lockShards(byShard);
+
+        try {
+            final RoomTable[] tables = new RoomTable[shards.length];
+
+            for (int i = 0; i < shards.length; i++) {
+                if (!byShard.get(i).isEmpty()) {
+                    tables[i] = shards[i].withStays(states.get(i), byShard.get(i));
+                }
+            }
+
+            publish(tables);
+        } finally {
+            unlockShards(byShard);
+        }
+    }
+
+    // Stop storing the nights before the given day, one shard at a time; those nights then read as
+    // free, so the caller must no longer book them
+    void dropBefore(final int day) {
+        for (int i = 0; i < shards.length; i++) {
+            locks[i].lock();
+            try {
+                final RoomTable table = states.get(i);
+                final RoomTable trimmed = shards[i].withoutBefore(table, day);
+
+                if (trimmed != table) {
+                    final RoomTable[] tables = new RoomTable[shards.length];
+                    tables[i] = trimmed;
+                    publish(tables);
+                }
+            } finally {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    // Check if a room is free on every night of [fromDay, toDay)
+    boolean isFree(final String roomNumber, final int fromDay, final int toDay) {
+        final int shard = shardOf(roomNumber);
+        return shards[shard].isFree(states.get(shard), roomNumber, fromDay, toDay);
+    }
+
+    // First day on or after fromDay from which a room is free for the given number of nights
+    int nextFreeDay(final String roomNumber, final int fromDay, final int nights) {
+        final int shard = shardOf(roomNumber);
+        return shards[shard].nextFreeDay(states.get(shard), roomNumber, fromDay, nights);
+    }
+
+    // Rooms free on every night of [fromDay, toDay)
+    Collection<IRoom> freeRooms(final int fromDay, final int toDay) {
+        final State snapshot = snapshot();
+
+        if (shards.length == 1) {
+            return shards[0].freeRooms(snapshot.tables[0], fromDay, toDay);
+        }
+
+        final List<IRoom> rooms = new ArrayList<>();
+        for (Collection<IRoom> shardRooms
+                : scatter(snapshot, (shard, table) -> shard.freeRooms(table, fromDay, toDay))) {
+            rooms.addAll(shardRooms);
+        }
+
+        return rooms;
+    }
+
+    // Up to limit free rooms matching the filter, cheapest first: the cheapest of each shard's cheapest
+    List<IRoom> cheapestFreeRooms(final int fromDay, final int toDay, final RoomFilter filter, final int limit) {
+        final State snapshot = snapshot();
+
+        if (shards.length == 1) {
+            return shards[0].cheapestFreeRooms(snapshot.tables[0], fromDay, toDay, filter, limit);
+        }
+
+        final List<IRoom> rooms = new ArrayList<>();
+        for (List<IRoom> shardRooms : scatter(snapshot,
+                (shard, table) -> shard.cheapestFreeRooms(table, fromDay, toDay, filter, limit))) {
+            rooms.addAll(shardRooms);
+        }
+
+        return cheapest(rooms, limit);
+    }
+
+    // Rooms matching the filter and free on every night of [fromDay, toDay), cheapest first: each
+    // shard's rooms of one state, merged lazily as the iterator advances
+    Iterator<IRoom> freeRoomsByPrice(final int fromDay, final int toDay, final RoomFilter filter) {
+        final State snapshot = snapshot();
+
+        if (shards.length == 1) {
+            return shards[0].freeRoomsByPrice(snapshot.tables[0], fromDay, toDay, filter);
+        }
+
+        final List<Iterator<IRoom>> iterators = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            iterators.add(shards[i].freeRoomsByPrice(snapshot.tables[i], fromDay, toDay, filter));
+        }
+
+        return new CheapestFirst(iterators);
+    }
+
+    // Up to limit matching free rooms, cheapest first, with the number of free rooms of each type
+    // in the filter's price range, summed over the shards
+    RoomSearchResult searchFreeRooms(final int fromDay, final int toDay, final RoomFilter filter, final int limit) {
+        final State snapshot = snapshot();
+
+        if (shards.length == 1) {
+            return shards[0].searchFreeRooms(snapshot.tables[0], snapshot.version, fromDay, toDay, filter, limit);
+        }
+
+        final List<IRoom> rooms = new ArrayList<>();
+        final Map<RoomType, Integer> counts = new EnumMap<>(RoomType.class);
+        int total = 0;
+
+        for (RoomSearchResult result : scatter(snapshot, (shard, table) ->
+                shard.searchFreeRooms(table, snapshot.version, fromDay, toDay, filter, limit))) {
+            rooms.addAll(result.getRooms());
+            result.getTypeCounts().forEach((type, count) -> counts.merge(type, count, Integer::sum));
+            total += result.getTotalCount();
+        }
+
+        return new RoomSearchResult(cheapest(rooms, limit), counts, total, snapshot.version);
+    }
+
+    // The limit best stays of the given length starting in [minDay, maxDay], at most perRoom per
+    // room, ranked by distance from targetDay and then check-in day: the best of each shard's best
+    List<AlternativeStay> closestStays(final int targetDay, final int nights, final int minDay, final int maxDay,
+                                       final int limit, final int perRoom) {
+        final State snapshot = snapshot();
+
+        if (shards.length == 1) {
+            return shards[0].closestStays(snapshot.tables[0], targetDay, nights, minDay, maxDay, limit, perRoom);
+        }
+
+        final List<AlternativeStay> stays = new ArrayList<>();
+        for (List<AlternativeStay> shardStays : scatter(snapshot,
+                (shard, table) -> shard.closestStays(table, targetDay, nights, minDay, maxDay, limit, perRoom))) {
+            stays.addAll(shardStays);
+        }
+
+        stays.sort(BY_RANK);
+        return stays.size() <= limit ? stays : new ArrayList<>(stays.subList(0, limit));
+    }
+
+    private int shardOf(final String roomNumber) {
+        return shards.length == 1 ? 0 : shardOf(roomNumber, shards.length);
+    }
+
+    // Publish the new tables of the shards as one change; the caller holds their locks
+    private void publish(final RoomTable[] tables) {
+        publishLock.lock();
+        try {
+            sequence++;
+            for (int i = 0; i < tables.length; i++) {
+                if (tables[i] != null) {
+                    states.set(i, tables[i]);
+                }
+            }
+            sequence++;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    // Lock the shards holding items, in shard order
+    private <T> void lockShards(final List<List<T>> byShard) {
+        for (int i = 0; i < shards.length; i++) {
+            if (!byShard.get(i).isEmpty()) {
+                locks[i].lock();
+            }
+        }
+    }
+
+    // Unlock the shards holding items
+    private <T> void unlockShards(final List<List<T>> byShard) {
+        for (int i = shards.length - 1; i >= 0; i--) {
+            if (!byShard.get(i).isEmpty()) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    // The tables of every shard as of one moment: read when no publication was under way and none
+    // happened during the read. After too many collisions the publication lock is taken instead.
+    private State snapshot() {
+        for (int attempt = 0; attempt < READ_ATTEMPTS; attempt++) {
+            final long before = sequence;
+
+            if ((before & 1L) == 0L) {
+                final RoomTable[] tables = read();
+                if (sequence == before) {
+                    return new State(before >>> 1, tables);
+                }
+            }
+            Thread.onSpinWait();
+        }
+
+        publishLock.lock();
+        try {
+            return new State(sequence >>> 1, read());
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    // Read the published table of every shard
+    private RoomTable[] read() {
+        final RoomTable[] tables = new RoomTable[shards.length];
+
+        for (int i = 0; i < shards.length; i++) {
+            tables[i] = states.get(i);
+        }
+
+        return tables;
+    }
+
+    // Split items by the shard of their room number
+    private <T> List<List<T>> partition(final Collection<T> items, final Function<T, String> roomNumber) {
+        final List<List<T>> byShard = new ArrayList<>(shards.length);
+
+        if (shards.length == 1) {
+            byShard.add(new ArrayList<>(items));
+            return byShard;
+        }
+
+        for (int i = 0; i < shards.length; i++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (T item : items) {
+            byShard.get(shardOf(roomNumber.apply(item), shards.length)).add(item);
+        }
+
+        return byShard;
+    }
+
+    // Run the search on every shard's table of the state in parallel and return the results in shard order
+    private <T> List<T> scatter(final State snapshot, final BiFunction<OccupancyEngine, RoomTable, T> search) {
+        return IntStream.range(0, shards.length).parallel()
+                .mapToObj(i -> search.apply(shards[i], snapshot.tables[i]))
+                .collect(Collectors.toList());
+    }
+
+    // The limit cheapest rooms; the sort is stable, so equal prices keep shard order
+    private static List<IRoom> cheapest(final List<IRoom> rooms, final int limit) {
+        rooms.sort(BY_PRICE);
+        return rooms.size() <= limit ? rooms : new ArrayList<>(rooms.subList(0, limit));
+    }
+
+    // Merge of iterators over rooms sorted by price; equal prices are taken in shard order. The
+    // iterators are not advanced before the first call.
+    private static final class CheapestFirst implements Iterator<IRoom> {
+
+        private final List<Iterator<IRoom>> iterators;
+        private PriorityQueue<Head> heads;
+
+        private CheapestFirst(final List<Iterator<IRoom>> iterators) {
+            this.iterators = iterators;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads().isEmpty();
+        }
+
+        @Override
+        public IRoom next() {
+            final Head head = heads().poll();
+
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            if (head.rest.hasNext()) {
+                heads.add(new Head(head.rest.next(), head.shard, head.rest));
+            }
+
+            return head.room;
+        }
+
+        // The first room of each shard, taken on first use
+        private PriorityQueue<Head> heads() {
+            if (heads == null) {
+                heads = new PriorityQueue<>(iterators.size(), Head.ORDER);
+
+                for (int i = 0; i < iterators.size(); i++) {
+                    if (iterators.get(i).hasNext()) {
+                        heads.add(new Head(iterators.get(i).next(), i, iterators.get(i)));
+                    }
+                }
+            }
+            return heads;
+        }
+    }
+
+    // The next room of a shard's iterator and the iterator itself
+    private static final class Head {
+
+        private static final Comparator<Head> ORDER =
+                Comparator.<Head>comparingDouble(head -> head.room.getRoomPrice()).thenComparingInt(head -> head.shard);
+
+        private final IRoom room;
+        private final int shard;
+        private final Iterator<IRoom> rest;
+
+        private Head(final IRoom room, final int shard, final Iterator<IRoom> rest) {
+            this.room = room;
+            this.shard = shard;
+            this.rest = rest;
+        }
+    }
+
+    // The room tables of every shard at one version
+    private static final class State {
+
+        private final long version;
+        private final RoomTable[] tables;
+
+        private State(final long version, final RoomTable[] tables) {
+            this.version = version;
+            this.tables = tables;
+        }
+    }
+}
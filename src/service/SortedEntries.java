@@ -0,0 +1,80 @@
+package service;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * This class presents a list of entries, already sorted by key and without duplicate keys, as a
+ * read-only sorted map. Its only use is seeding a {@link java.util.concurrent.ConcurrentSkipListMap},
+ * whose sorted map constructor links the entries in one pass instead of searching the map for each
+ * of them, so the sub-map views are not supported.
+ * @author Haregweyni Temanu
+ */
+final class SortedEntries<K, V> extends AbstractMap<K, V> implements SortedMap<K, V> {
+
+    private final Comparator<? super K> comparator;
+    private final List<Map.Entry<K, V>> entries;
+
+    SortedEntries(final Comparator<? super K> comparator, final List<Map.Entry<K, V>> entries) {
+        this.comparator = comparator;
+        this.entries = entries;
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return entries.iterator();
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+    }
+
+    @Override
+    public K firstKey() {
+        if (entries.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return entries.get(0).getKey();
+    }
+
+    @Override
+    public K lastKey() {
+        if (entries.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return entries.get(entries.size() - 1).getKey();
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(final K fromKey, final K toKey) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(final K toKey) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(final K fromKey) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,122 @@
+package api;
+
+import model.IRoom;
+import model.Room;
+import model.RoomFilter;
+import model.RoomType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.ReservationService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Streamed rooms arrive cheapest first as requested, as they were free when subscribed to, and
+ * subscribers that stop requesting hold no thread of the resource.
+ *
+ * @author Haregweyni Temanu
+ */
+class StreamRoomsTest {
+
+    private static final int ROOMS = 1000;
+    private static final LocalDate CHECK_IN = LocalDate.of(2030, 1, 1);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2030, 1, 3);
+
+    private final AsyncHotelResource asyncHotelResource = AsyncHotelResource.getSingleton();
+
+    @BeforeEach
+    void addRooms() {
+        final List<IRoom> rooms = new ArrayList<>(ROOMS);
+        for (int i = 0; i < ROOMS; i++) {
+            rooms.add(new Room("R" + i, 50.0 + (i * 37) % 500, RoomType.SINGLE));
+        }
+        ReservationService.getSingleton().addRooms(rooms);
+    }
+
+    @Test
+    void streamsEveryRoomCheapestFirst() throws Exception {
+        final Collecting subscriber = new Collecting(Long.MAX_VALUE);
+        asyncHotelResource.streamRooms(CHECK_IN, CHECK_OUT, RoomFilter.all()).subscribe(subscriber);
+
+        final List<IRoom> rooms = subscriber.completion.get(10, TimeUnit.SECONDS);
+        assertEquals(HotelResource.getSingleton().findCheapestRooms(CHECK_IN, CHECK_OUT, RoomFilter.all(), ROOMS),
+                rooms);
+    }
+
+    @Test
+    void stalledStreamsDoNotHoldThreads() throws Exception {
+        final List<Collecting> stalled = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final Collecting subscriber = new Collecting(1L);
+            asyncHotelResource.streamRooms(CHECK_IN, CHECK_OUT, RoomFilter.all()).subscribe(subscriber);
+            stalled.add(subscriber);
+        }
+
+        assertNotNull(asyncHotelResource.getRoom("R1").get(10, TimeUnit.SECONDS));
+        for (Collecting subscriber : stalled) {
+            subscriber.subscription.cancel();
+        }
+    }
+
+    @Test
+    void streamsRoomsFreeWhenSubscribed() throws Exception {
+        final LocalDate checkIn = CHECK_IN.plusYears(1);
+        final LocalDate checkOut = CHECK_OUT.plusYears(1);
+        final Collecting subscriber = new Collecting(0L);
+        asyncHotelResource.streamRooms(checkIn, checkOut, RoomFilter.all()).subscribe(subscriber);
+
+        HotelResource.getSingleton().createACustomer("ann@x.com", "Ann", "Lee");
+        HotelResource.getSingleton().bookARoom("ann@x.com", HotelResource.getSingleton().getRoom("R0"), checkIn,
+                checkOut);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        final List<IRoom> rooms = subscriber.completion.get(10, TimeUnit.SECONDS);
+        assertEquals(ROOMS, rooms.size());
+        assertTrue(rooms.stream().anyMatch(room -> room.getRoomNumber().equals("R0")));
+    }
+
+    // Requests the given number of rooms up front, if any, and collects them
+    private static final class Collecting implements Flow.Subscriber<IRoom> {
+
+        private final long count;
+        private final List<IRoom> rooms = new ArrayList<>();
+        private final CompletableFuture<List<IRoom>> completion = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+
+        private Collecting(final long count) {
+            this.count = count;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (count > 0) {
+                subscription.request(count);
+            }
+        }
+
+        @Override
+        public void onNext(final IRoom room) {
+            rooms.add(room);
+        }
+
+        @Override
+        public void onError(final Throwable error) {
+            completion.completeExceptionally(error);
+        }
+
+        @Override
+        public void onComplete() {
+            completion.complete(rooms);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package persistence;
+
+import model.Customer;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.CustomerService;
+import service.ReservationService;
+import service.RoomUnavailableException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Re-adding a customer under an email differing only in case keeps their reservations
+ * through a checkpoint and a restart.
+ *
+ * @author Haregweyni Temanu
+ */
+class CustomerEmailCaseRestartTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2030, 1, 1);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2030, 1, 3);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reservationsSurviveCheckpointAfterCaseVariantReAdd() throws Exception {
+        final CustomerService customerService = CustomerService.getSingleton();
+        final ReservationService reservationService = ReservationService.getSingleton();
+        final Journal journal = Journal.open(directory.resolve("hotel.journal"), DurabilityMode.ASYNC, Duration.ZERO);
+
+        customerService.setJournal(journal);
+        reservationService.setJournal(journal);
+
+        customerService.addCustomer("Bob@x.com", "Bob", "Smith");
+        final IRoom room = new Room("101", 100.0, RoomType.SINGLE);
+        reservationService.addRoom(room);
+        reservationService.reserveARoom(customerService.getCustomer("Bob@x.com"), room, CHECK_IN, CHECK_OUT);
+        customerService.addCustomer("bob@x.com", "Bob", "Smith");
+
+        final Customer bob = customerService.getCustomer("bob@x.com");
+        assertEquals(1, customerService.getCustomerCount());
+        assertNotNull(reservationService.getCustomersReservation(bob));
+        assertEquals(1, reservationService.getCustomersReservation(bob).size());
+
+        new Checkpointer(journal, directory.resolve("hotel.snapshot"), customerService, reservationService)
+                .checkpoint();
+        journal.close();
+
+        assertEquals("reservations=1 rebooked=false", Restart.run(Restored.class, directory));
+    }
+
+    // Restores the services from the snapshot and journal in the directory, then reports the
+    // customer's reservations and whether their room can be booked again for the same nights
+    static final class Restored {
+
+        public static void main(final String[] args) throws Exception {
+            final Path directory = Path.of(args[0]);
+            final CustomerService customerService = CustomerService.getSingleton();
+            final ReservationService reservationService = ReservationService.getSingleton();
+
+            Snapshot.load(directory.resolve("hotel.snapshot"), customerService, reservationService);
+            try (Journal journal = Journal.open(directory.resolve("hotel.journal"), DurabilityMode.ASYNC,
+                    Duration.ZERO)) {
+                journal.replay(customerService, reservationService);
+            }
+
+            final Customer bob = customerService.getCustomer("BOB@X.COM");
+            final int reservations = reservationService.getCustomersReservation(bob) == null
+                    ? 0
+                    : reservationService.getCustomersReservation(bob).size();
+            boolean rebooked;
+            try {
+                reservationService.reserveARoom(bob, reservationService.getARoom("101"), CHECK_IN, CHECK_OUT);
+                rebooked = true;
+            } catch (RoomUnavailableException ex) {
+                rebooked = false;
+            }
+
+            System.out.print("reservations=" + reservations + " rebooked=" + rebooked);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package persistence;
+
+import model.Customer;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.CustomerService;
+import service.ReservationService;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Changes that fail after they were journaled neither hold back a checkpoint nor come back
+ * on replay.
+ *
+ * @author Haregweyni Temanu
+ */
+class JournalAbortTest {
+
+    private static final Duration MARK_TIMEOUT = Duration.ofSeconds(10);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void abortedChangeIsReleasedAndSkippedOnReplay() throws Exception {
+        final Path path = directory.resolve("hotel.journal");
+
+        try (Journal journal = Journal.open(path, DurabilityMode.GROUP_COMMIT, Duration.ofMillis(1))) {
+            journal.commit(journal.appendRoom(new Room("101", 100.0, RoomType.SINGLE)));
+            journal.abort(journal.appendRoom(new Room("102", 120.0, RoomType.DOUBLE)));
+            journal.commit(journal.appendCustomer(new Customer("Ann", "Lee", "ann@x.com")));
+
+            assertTimeoutPreemptively(MARK_TIMEOUT, journal::mark);
+        }
+
+        final CustomerService customerService = CustomerService.getSingleton();
+        final ReservationService reservationService = ReservationService.getSingleton();
+        try (Journal journal = Journal.open(path, DurabilityMode.GROUP_COMMIT, Duration.ofMillis(1))) {
+            journal.replay(customerService, reservationService);
+        }
+
+        assertNotNull(reservationService.getARoom("101"));
+        assertNull(reservationService.getARoom("102"));
+        assertNotNull(customerService.getCustomer("ann@x.com"));
+    }
+
+    @Test
+    void rejectedBookingDoesNotBlockCheckpoint() throws Exception {
+        final CustomerService customerService = CustomerService.getSingleton();
+        final ReservationService reservationService = ReservationService.getSingleton();
+        final Journal journal = Journal.open(directory.resolve("hotel.journal"), DurabilityMode.GROUP_COMMIT,
+                Duration.ofMillis(1));
+
+        customerService.setJournal(journal);
+        reservationService.setJournal(journal);
+
+        customerService.addCustomer("ann@x.com", "Ann", "Lee");
+        final Customer ann = customerService.getCustomer("ann@x.com");
+        final IRoom unknown = new Room("999", 100.0, RoomType.SINGLE);
+        assertThrows(IllegalArgumentException.class, () -> reservationService.reserveARoom(ann, unknown,
+                LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 3)));
+
+        final Checkpointer checkpointer = new Checkpointer(journal, directory.resolve("hotel.snapshot"),
+                customerService, reservationService);
+        assertTimeoutPreemptively(MARK_TIMEOUT, checkpointer::checkpoint);
+        journal.close();
+
+        assertEquals(1, customerService.getCustomerCount());
+    }
+}
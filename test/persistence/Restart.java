@@ -0,0 +1,43 @@
+package persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a restore step in a new JVM, so it starts from empty service singletons like a
+ * restarted application.
+ *
+ * @author Haregweyni Temanu
+ */
+final class Restart {
+
+    private static final long TIMEOUT_SECONDS = 60L;
+
+    private Restart() {
+    }
+
+    // Run the main class in a new JVM with the test classpath and the directory as argument; return its output
+    static String run(final Class<?> mainClass, final Path directory) throws IOException, InterruptedException {
+        final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        final Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                mainClass.getName(), directory.toString())
+                .redirectErrorStream(true)
+                .start();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (InputStream in = process.getInputStream()) {
+            in.transferTo(output);
+        }
+        if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IOException("Restore did not finish");
+        }
+
+        return output.toString(StandardCharsets.UTF_8).trim();
+    }
+}
@@ -0,0 +1,51 @@
+package service;
+
+import model.AlternativeOrder;
+import model.AlternativeStay;
+import model.Customer;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A room free on several nearby dates offers up to the requested number of them, closest first.
+ *
+ * @author Haregweyni Temanu
+ */
+class AlternativeStaysTest {
+
+    private static final int DAY = 22_000;
+
+    @Test
+    void offersSeveralStaysOfOneRoom() {
+        final ReservationService reservationService = ReservationService.getSingleton();
+        CustomerService.getSingleton().addCustomer("ann@x.com", "Ann", "Lee");
+        final Customer ann = CustomerService.getSingleton().getCustomer("ann@x.com");
+        final IRoom first = new Room("301", 100.0, RoomType.SINGLE);
+        final IRoom second = new Room("302", 120.0, RoomType.DOUBLE);
+        reservationService.addRooms(Arrays.asList(first, second));
+        reservationService.reserveARoom(ann, first, DAY, DAY + 3);
+        reservationService.reserveARoom(ann, second, DAY - 5, DAY + 10);
+
+        assertEquals(Arrays.asList(DAY - 2, DAY - 3, DAY + 3), checkIns(reservationService.findAlternativeStays(DAY,
+                DAY + 2, AlternativeOrder.CLOSEST, 10, 5, 3, Integer.MIN_VALUE)));
+        assertEquals(Arrays.asList(DAY - 2), checkIns(reservationService.findAlternativeStays(DAY, DAY + 2,
+                AlternativeOrder.CLOSEST, 10, 5, 1, Integer.MIN_VALUE)));
+        assertEquals(Arrays.asList(DAY - 2, DAY - 3), checkIns(reservationService.findAlternativeStays(DAY, DAY + 2,
+                AlternativeOrder.CLOSEST, 2, 5, 3, Integer.MIN_VALUE)));
+        assertEquals(Arrays.asList(DAY + 3, DAY + 4), checkIns(reservationService.findAlternativeStays(DAY, DAY + 2,
+                AlternativeOrder.EARLIEST, 10, 5, 2, Integer.MIN_VALUE)));
+    }
+
+    private static List<Integer> checkIns(final List<AlternativeStay> stays) {
+        stays.forEach(stay -> assertEquals("301", stay.getRoom().getRoomNumber()));
+        return stays.stream().map(AlternativeStay::getCheckInDay).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,55 @@
+package service;
+
+import model.Customer;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import persistence.ReservationArchive;
+
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Attaching an archive does not load its stays back; nights before its cutoff cannot be booked.
+ *
+ * @author Haregweyni Temanu
+ */
+class ArchiveCutoffTest {
+
+    private static final int DAY = 22_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void nightsBeforeCutoffCannotBeBooked() throws Exception {
+        final ReservationService reservationService = ReservationService.getSingleton();
+        CustomerService.getSingleton().addCustomer("ann@x.com", "Ann", "Lee");
+        final Customer ann = CustomerService.getSingleton().getCustomer("ann@x.com");
+        final IRoom room = new Room("401", 100.0, RoomType.SINGLE);
+        reservationService.addRooms(Collections.singletonList(room));
+        reservationService.reserveARoom(ann, room, DAY - 200, DAY - 198);
+        reservationService.reserveARoom(ann, room, DAY - 2, DAY + 2);
+
+        try (ReservationArchive archive = ReservationArchive.open(directory.resolve("hotel.archive"))) {
+            reservationService.setArchive(archive);
+            assertEquals(1, reservationService.archiveCompletedStays(DAY));
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> reservationService.reserveARoom(ann, room, DAY - 1, DAY + 3));
+            assertThrows(IllegalArgumentException.class,
+                    () -> reservationService.reserveARoom(ann, room, DAY - 200, DAY - 198));
+            assertThrows(RoomUnavailableException.class,
+                    () -> reservationService.reserveARoom(ann, room, DAY, DAY + 1));
+            assertEquals(DAY + 2, reservationService.findNextFreeDay("401", DAY, 1));
+
+            reservationService.reserveARoom(ann, room, DAY + 2, DAY + 4);
+            assertEquals(2, reservationService.getReservationCount());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Searches for free nights on bitmaps with nothing stored below or at the searched days.
+ *
+ * @author Haregweyni Temanu
+ */
+class OccupancyBitmapTest {
+
+    @Test
+    void emptyBitmapIsFreeFromAnyDay() {
+        assertEquals(-100, OccupancyBitmap.EMPTY.nextClear(-100, 3));
+        assertEquals(0, OccupancyBitmap.EMPTY.nextClear(0, 3));
+        assertEquals(20_000, OccupancyBitmap.EMPTY.nextClear(20_000, 3));
+    }
+
+    @Test
+    void dayBelowStoredRangeFindsFirstOccupiedNight() {
+        final OccupancyBitmap bitmap = OccupancyBitmap.EMPTY.with(20_000, 20_002);
+
+        assertEquals(19_900, bitmap.nextClear(19_900, 100));
+        assertEquals(20_002, bitmap.nextClear(19_950, 100));
+    }
+
+    @Test
+    void droppedWordsReadAsFree() {
+        final OccupancyBitmap bitmap = OccupancyBitmap.EMPTY.with(20_000, 20_010).with(20_100, 20_102);
+        final OccupancyBitmap trimmed = bitmap.withoutBefore(20_100);
+
+        assertTrue(trimmed.isClear(20_000, 20_010));
+        assertFalse(trimmed.isClear(20_100, 20_101));
+        assertEquals(20_102, trimmed.nextClear(20_100, 1));
+        assertSame(trimmed, trimmed.withoutBefore(20_100));
+        assertSame(OccupancyBitmap.EMPTY, bitmap.withoutBefore(30_000));
+    }
+}
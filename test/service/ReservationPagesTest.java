@@ -0,0 +1,60 @@
+package service;
+
+import model.Customer;
+import model.IRoom;
+import model.Page;
+import model.Reservation;
+import model.ReservationFilter;
+import model.ReservationOrder;
+import model.Room;
+import model.RoomType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A full page of reservations gets a cursor without searching the rest of the index for a
+ * match, and the page after it may be empty.
+ *
+ * @author Haregweyni Temanu
+ */
+class ReservationPagesTest {
+
+    private static final int DAY = 22_000;
+
+    @Test
+    void fullPageHasCursorAndLastPageMayBeEmpty() {
+        final CustomerService customerService = CustomerService.getSingleton();
+        final ReservationService reservationService = ReservationService.getSingleton();
+        customerService.addCustomer("ann@x.com", "Ann", "Lee");
+        customerService.addCustomer("bob@x.com", "Bob", "Smith");
+        final Customer ann = customerService.getCustomer("ann@x.com");
+        final Customer bob = customerService.getCustomer("bob@x.com");
+        final IRoom room = new Room("101", 100.0, RoomType.SINGLE);
+        reservationService.addRooms(Arrays.asList(room));
+
+        reservationService.reserveARoom(ann, room, DAY, DAY + 1);
+        reservationService.reserveARoom(ann, room, DAY + 1, DAY + 2);
+        for (int day = DAY + 2; day < DAY + 102; day++) {
+            reservationService.reserveARoom(bob, room, day, day + 1);
+        }
+
+        final ReservationFilter annOnly = ReservationFilter.all().withCustomerEmail("ann@x.com");
+        final Page<Reservation> first = reservationService.findReservations(ReservationOrder.CHECK_IN, annOnly,
+                null, 2);
+        assertEquals(2, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+
+        final Page<Reservation> last = reservationService.findReservations(ReservationOrder.CHECK_IN, annOnly,
+                first.getNextCursor(), 2);
+        assertTrue(last.getItems().isEmpty());
+        assertNull(last.getNextCursor());
+
+        assertNull(reservationService.findReservations(ReservationOrder.ROOM, annOnly, null, 3).getNextCursor());
+    }
+}
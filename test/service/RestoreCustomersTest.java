@@ -0,0 +1,43 @@
+package service;
+
+import model.Customer;
+import model.Page;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Customers restored in bulk out of index order, or repeating an email, are indexed as if
+ * added one by one.
+ *
+ * @author Haregweyni Temanu
+ */
+class RestoreCustomersTest {
+
+    private final CustomerService customerService = CustomerService.getSingleton();
+
+    @Test
+    void indexesCustomersGivenOutOfOrder() {
+        final Customer zed = Customer.restore("Zed", "Adams", "zed@x.com");
+        final Customer ann = Customer.restore("Ann", "Young", "ann@x.com");
+        final Customer ann2 = Customer.restore("Anna", "Young", "ANN@x.com");
+        final Customer bob = Customer.restore("Bob", "Brown", "bob@x.com");
+
+        customerService.restoreCustomers(new Customer[] {zed, ann, bob, ann2}, new int[] {0, 1, 2, 3});
+
+        assertEquals(3, customerService.getCustomerCount());
+        assertSame(ann2, customerService.getCustomer("ann@x.com"));
+        assertEquals(Arrays.asList(ann2, bob, zed), new ArrayList<>(customerService.getCustomersByEmail()));
+        assertEquals(Arrays.asList(zed, bob, ann2), lastNamePage());
+    }
+
+    private List<Customer> lastNamePage() {
+        final Page<Customer> page = customerService.findCustomersByLastName("", null, 10);
+        return page.getItems();
+    }
+}
@@ -0,0 +1,74 @@
+package service;
+
+import model.Customer;
+import model.IRoom;
+import model.Reservation;
+import model.ReservationFilter;
+import model.ReservationOrder;
+import model.Room;
+import model.RoomType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Reservations restored in room order are indexed correctly even when the other orders given
+ * with them do not hold, and stays out of room order restore nothing.
+ *
+ * @author Haregweyni Temanu
+ */
+class RestoreOrdersTest {
+
+    private static final int DAY = 22_000;
+
+    private final ReservationService reservationService = ReservationService.getSingleton();
+    private Customer ann;
+    private Customer bob;
+    private IRoom first;
+    private IRoom second;
+
+    @BeforeEach
+    void addRoomsAndCustomers() {
+        CustomerService.getSingleton().addCustomer("ann@x.com", "Ann", "Lee");
+        CustomerService.getSingleton().addCustomer("bob@x.com", "Bob", "Smith");
+        ann = CustomerService.getSingleton().getCustomer("ann@x.com");
+        bob = CustomerService.getSingleton().getCustomer("bob@x.com");
+        first = new Room("201", 100.0, RoomType.SINGLE);
+        second = new Room("202", 120.0, RoomType.DOUBLE);
+        reservationService.addRooms(Arrays.asList(first, second));
+    }
+
+    @Test
+    void ordersThatDoNotHoldAreNotTrusted() {
+        final List<Reservation> roomOrder = Arrays.asList(
+                new Reservation(bob, first, DAY, DAY + 3),
+                new Reservation(ann, first, DAY + 10, DAY + 12),
+                new Reservation(ann, second, DAY + 1, DAY + 100));
+
+        reservationService.restoreReservations(roomOrder, new int[] {0, 1, 2}, new int[] {0, 0, 1});
+
+        assertEquals(Arrays.asList(roomOrder.get(0), roomOrder.get(2), roomOrder.get(1)),
+                reservationService.findReservations(ReservationOrder.CHECK_IN, ReservationFilter.all(), null, 10)
+                        .getItems());
+        assertEquals(2, reservationService.getCustomersReservation(ann).size());
+        assertEquals(1, reservationService.getCustomersReservation(bob).size());
+        assertEquals(DAY + 3, reservationService.findNextFreeDay("201", DAY, 7));
+    }
+
+    @Test
+    void staysNotInRoomOrderRestoreNothing() {
+        final int reservationCount = reservationService.getReservationCount();
+
+        assertThrows(IllegalArgumentException.class, () -> reservationService.restoreReservations(Arrays.asList(
+                new Reservation(ann, second, DAY + 200, DAY + 202),
+                new Reservation(bob, first, DAY + 200, DAY + 202)), null, null));
+
+        assertEquals(reservationCount, reservationService.getReservationCount());
+        assertEquals(DAY + 200, reservationService.findNextFreeDay("201", DAY + 200, 5));
+    }
+}
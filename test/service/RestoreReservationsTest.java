@@ -0,0 +1,71 @@
+package service;
+
+import model.Customer;
+import model.IRoom;
+import model.Reservation;
+import model.Room;
+import model.RoomType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Reservations restored in bulk occupy the same nights as reservations booked one by one,
+ * and overlapping stays restore nothing.
+ *
+ * @author Haregweyni Temanu
+ */
+class RestoreReservationsTest {
+
+    private static final int DAY = 22_000;
+
+    private final ReservationService reservationService = ReservationService.getSingleton();
+    private Customer ann;
+    private Customer bob;
+    private IRoom first;
+    private IRoom second;
+
+    @BeforeEach
+    void addRoomsAndCustomers() {
+        CustomerService.getSingleton().addCustomer("ann@x.com", "Ann", "Lee");
+        CustomerService.getSingleton().addCustomer("bob@x.com", "Bob", "Smith");
+        ann = CustomerService.getSingleton().getCustomer("ann@x.com");
+        bob = CustomerService.getSingleton().getCustomer("bob@x.com");
+        first = new Room("101", 100.0, RoomType.SINGLE);
+        second = new Room("102", 120.0, RoomType.DOUBLE);
+        reservationService.addRooms(Arrays.asList(first, second));
+    }
+
+    @Test
+    void restoresEveryStay() {
+        reservationService.restoreReservations(Arrays.asList(
+                new Reservation(ann, first, DAY + 10, DAY + 12),
+                new Reservation(bob, first, DAY, DAY + 3),
+                new Reservation(ann, second, DAY + 1, DAY + 100)));
+
+        assertEquals(3, reservationService.getReservationCount());
+        assertEquals(2, reservationService.getCustomersReservation(ann).size());
+        assertEquals(DAY + 3, reservationService.findNextFreeDay("101", DAY, 1));
+        assertEquals(DAY + 3, reservationService.findNextFreeDay("101", DAY, 7));
+        assertEquals(DAY + 12, reservationService.findNextFreeDay("101", DAY + 3, 8));
+        assertEquals(DAY + 100, reservationService.findNextFreeDay("102", DAY + 1, 1));
+        assertThrows(RoomUnavailableException.class, () -> reservationService.reserveARoom(bob, first, DAY + 11,
+                DAY + 13));
+    }
+
+    @Test
+    void overlappingStaysRestoreNothing() {
+        assertThrows(RoomUnavailableException.class, () -> reservationService.restoreReservations(Arrays.asList(
+                new Reservation(ann, second, DAY, DAY + 2),
+                new Reservation(ann, first, DAY, DAY + 3),
+                new Reservation(bob, first, DAY + 2, DAY + 4))));
+
+        assertEquals(0, reservationService.getReservationCount());
+        assertEquals(DAY, reservationService.findNextFreeDay("101", DAY, 5));
+        assertEquals(DAY, reservationService.findNextFreeDay("102", DAY, 5));
+    }
+}
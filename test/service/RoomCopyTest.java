@@ -0,0 +1,44 @@
+package service;
+
+import model.Customer;
+import model.FreeRoom;
+import model.IRoom;
+import model.Reservation;
+import model.Room;
+import model.RoomType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Rooms handed out by the service are plain values, so reservations holding them do not
+ * keep past room tables alive.
+ *
+ * @author Haregweyni Temanu
+ */
+class RoomCopyTest {
+
+    @Test
+    void roomsAreHandedOutAsValues() {
+        final ReservationService reservationService = ReservationService.getSingleton();
+        reservationService.addRooms(Arrays.asList(new Room("101", 100.0, RoomType.SINGLE),
+                new FreeRoom("102", RoomType.DOUBLE)));
+        CustomerService.getSingleton().addCustomer("ann@x.com", "Ann", "Lee");
+        final Customer ann = CustomerService.getSingleton().getCustomer("ann@x.com");
+
+        final IRoom paid = reservationService.getARoom("101");
+        final IRoom free = reservationService.getARoom("102");
+        assertSame(Room.class, paid.getClass());
+        assertSame(FreeRoom.class, free.getClass());
+        assertEquals("Room Number: 101 Price: $100.0 Enumeration: SINGLE", paid.toString());
+
+        final Reservation reservation = reservationService.reserveARoom(ann, paid, 22_000, 22_002);
+        assertSame(Room.class, reservation.getRoom().getClass());
+        for (IRoom room : reservationService.findRooms(22_000, 22_002)) {
+            assertSame(FreeRoom.class, room.getClass());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package service;
+
+import model.IRoom;
+import model.Room;
+import model.RoomFilter;
+import model.RoomSearchResult;
+import model.RoomType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Every change raises the version by one, whichever shards it touches, so a version names
+ * one state of all the shards.
+ *
+ * @author Haregweyni Temanu
+ */
+class ShardedOccupancyVersionTest {
+
+    private static final int DAY = 22_000;
+
+    @Test
+    void everyChangeRaisesVersionByOne() {
+        final ShardedOccupancy occupancy = new ShardedOccupancy(4);
+        final List<IRoom> rooms = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            rooms.add(new Room(String.valueOf(500 + i), 100.0 + i, RoomType.SINGLE));
+        }
+
+        assertEquals(0L, occupancy.version());
+        occupancy.addRooms(rooms);
+        assertEquals(1L, occupancy.version());
+
+        occupancy.occupy("500", DAY, DAY + 2);
+        occupancy.occupy("501", DAY, DAY + 2);
+        assertEquals(3L, occupancy.version());
+
+        occupancy.occupyAll(Arrays.asList("502", "503", "504", "505", "506", "507"), DAY, DAY + 2);
+        assertEquals(4L, occupancy.version());
+
+        final RoomSearchResult result = occupancy.searchFreeRooms(DAY, DAY + 2, RoomFilter.all(), 16);
+        assertEquals(4L, result.getVersion());
+        assertEquals(8, result.getTotalCount());
+    }
+}
@@ -0,0 +1,51 @@
+package service;
+
+import model.Customer;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Stays whose check-out is not after their check-in are rejected and leave nothing booked.
+ *
+ * @author Haregweyni Temanu
+ */
+class StayValidationTest {
+
+    private static final int DAY = 22_000;
+
+    private final ReservationService reservationService = ReservationService.getSingleton();
+    private Customer customer;
+    private IRoom first;
+    private IRoom second;
+
+    @BeforeEach
+    void addRoomsAndCustomer() {
+        CustomerService.getSingleton().addCustomer("ann@x.com", "Ann", "Lee");
+        customer = CustomerService.getSingleton().getCustomer("ann@x.com");
+        first = new Room("101", 100.0, RoomType.SINGLE);
+        second = new Room("102", 120.0, RoomType.SINGLE);
+        reservationService.addRooms(Arrays.asList(first, second));
+    }
+
+    @Test
+    void rejectsStaysWithoutNights() {
+        assertThrows(IllegalArgumentException.class, () -> reservationService.reserveARoom(customer, first, DAY, DAY));
+        assertThrows(IllegalArgumentException.class,
+                () -> reservationService.reserveARoom(customer, first, DAY, DAY - 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> reservationService.reserveRooms(customer, Arrays.asList(first, second), DAY, DAY));
+        assertThrows(IllegalArgumentException.class,
+                () -> reservationService.reserveRooms(customer, RoomType.SINGLE, 2, DAY + 1, DAY));
+
+        assertEquals(0, reservationService.getReservationCount());
+        assertEquals(2, reservationService.findRooms(DAY - 2, DAY + 2).size());
+    }
+}